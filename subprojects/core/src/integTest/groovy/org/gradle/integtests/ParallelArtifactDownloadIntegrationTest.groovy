@@ -0,0 +1,86 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.integtests
+
+import org.gradle.integtests.fixtures.GradleDistribution
+import org.gradle.integtests.fixtures.GradleDistributionExecuter
+import org.gradle.integtests.fixtures.HttpServer
+import org.gradle.util.TestFile
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+
+class ParallelArtifactDownloadIntegrationTest {
+    @Rule public GradleDistribution distribution = new GradleDistribution()
+    @Rule public GradleDistributionExecuter executer = new GradleDistributionExecuter()
+    private final HttpServer server = new HttpServer()
+
+    @Before
+    public void setup() {
+        distribution.requireOwnUserHomeDir()
+        server.add('/repo', distribution.testFile('repo'))
+        server.start()
+    }
+
+    @After
+    public void cleanup() {
+        server.stop()
+    }
+
+    @Test
+    public void downloadsArtifactsOfManyModulesFromHttpRepository() {
+        def modules = (1..10).collect { "module$it" }
+        modules.each { publish(it) }
+
+        distribution.testFile('build.gradle') << """
+apply plugin: 'java'
+
+repositories {
+    mavenRepo urls: 'http://localhost:${server.port}/repo'
+}
+
+dependencies {
+    compile ${modules.collect { "'org.gradle.test:$it:1.0'" }.join(', ')}
+}
+
+task retrieve(type: Sync) {
+    into 'libs'
+    from configurations.compile
+}
+"""
+
+        executer.inDirectory(distribution.testDir).withTasks('retrieve').withArguments('--parallel-downloads', '4').run()
+
+        modules.each {
+            distribution.testFile("libs/$it-1.0.jar").assertIsFile()
+            assert distribution.testFile("libs/$it-1.0.jar").text == "content of $it"
+        }
+    }
+
+    private void publish(String module) {
+        TestFile moduleDir = distribution.testFile("repo/org/gradle/test/$module/1.0")
+        moduleDir.file("$module-1.0.pom") << """
+<project xmlns="http://maven.apache.org/POM/4.0.0">
+  <modelVersion>4.0.0</modelVersion>
+  <groupId>org.gradle.test</groupId>
+  <artifactId>$module</artifactId>
+  <version>1.0</version>
+</project>
+"""
+        moduleDir.file("$module-1.0.jar") << "content of $module"
+    }
+}
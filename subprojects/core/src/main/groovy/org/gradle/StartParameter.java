@@ -79,6 +79,9 @@ public class StartParameter {
     private boolean noOpt;
     private boolean colorOutput = true;
     private boolean profile;
+    private int parallelThreadCount = 1;
+    private boolean parallelProjectConfiguration;
+    private int parallelDownloadCount = 1;
 
     /**
      * Creates a {@code StartParameter} with default values. This is roughly equivalent to running Gradle on the
@@ -124,6 +127,9 @@ public class StartParameter {
         startParameter.dryRun = dryRun;
         startParameter.noOpt = noOpt;
         startParameter.profile = profile;
+        startParameter.parallelThreadCount = parallelThreadCount;
+        startParameter.parallelProjectConfiguration = parallelProjectConfiguration;
+        startParameter.parallelDownloadCount = parallelDownloadCount;
         return startParameter;
     }
 
@@ -141,6 +147,9 @@ public class StartParameter {
         startParameter.logLevel = logLevel;
         startParameter.colorOutput = colorOutput;
         startParameter.profile = profile;
+        startParameter.parallelThreadCount = parallelThreadCount;
+        startParameter.parallelProjectConfiguration = parallelProjectConfiguration;
+        startParameter.parallelDownloadCount = parallelDownloadCount;
         return startParameter;
     }
 
@@ -524,6 +533,73 @@ public class StartParameter {
         return profile;
     }
 
+    /**
+     * Returns the maximum number of tasks which may be executed concurrently. The default value is 1, which means that
+     * tasks are executed one at a time.
+     *
+     * @return the maximum number of concurrently executing tasks.
+     */
+    public int getParallelThreadCount() {
+        return parallelThreadCount;
+    }
+
+    /**
+     * Specifies the maximum number of tasks which may be executed concurrently. Tasks are only executed concurrently
+     * when they do not depend on each other.
+     *
+     * @param parallelThreadCount the maximum number of concurrently executing tasks. Must be at least 1.
+     */
+    public void setParallelThreadCount(int parallelThreadCount) {
+        if (parallelThreadCount < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The number of parallel threads must be at least 1, but was %s.", parallelThreadCount));
+        }
+        this.parallelThreadCount = parallelThreadCount;
+    }
+
+    /**
+     * Returns true if projects should be evaluated concurrently. The default value is false.
+     *
+     * @return true if projects should be evaluated concurrently.
+     */
+    public boolean isParallelProjectConfiguration() {
+        return parallelProjectConfiguration;
+    }
+
+    /**
+     * Specifies whether projects should be evaluated concurrently. When enabled, a project is evaluated once its parent
+     * project has been evaluated, using up to {@link #getParallelThreadCount()} threads, or one thread per processor
+     * when the thread count is 1.
+     *
+     * @param parallelProjectConfiguration true if projects should be evaluated concurrently.
+     */
+    public void setParallelProjectConfiguration(boolean parallelProjectConfiguration) {
+        this.parallelProjectConfiguration = parallelProjectConfiguration;
+    }
+
+    /**
+     * Returns the maximum number of artifacts which may be downloaded concurrently during dependency resolution. The
+     * default value is 1, which means that artifacts are downloaded one at a time.
+     *
+     * @return the maximum number of concurrent downloads.
+     */
+    public int getParallelDownloadCount() {
+        return parallelDownloadCount;
+    }
+
+    /**
+     * Specifies the maximum number of artifacts which may be downloaded concurrently during dependency resolution.
+     *
+     * @param parallelDownloadCount the maximum number of concurrent downloads. Must be at least 1.
+     */
+    public void setParallelDownloadCount(int parallelDownloadCount) {
+        if (parallelDownloadCount < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The number of parallel downloads must be at least 1, but was %s.", parallelDownloadCount));
+        }
+        this.parallelDownloadCount = parallelDownloadCount;
+    }
+
     @Override
     public String toString() {
         return "StartParameter{"
@@ -546,6 +622,9 @@ public class StartParameter {
                 + ", dryRun=" + dryRun
                 + ", noOpt=" + noOpt
                 + ", profile=" + profile
+                + ", parallelThreadCount=" + parallelThreadCount
+                + ", parallelProjectConfiguration=" + parallelProjectConfiguration
+                + ", parallelDownloadCount=" + parallelDownloadCount
                 + '}';
     }
 }
\ No newline at end of file
@@ -16,7 +16,6 @@
 package org.gradle.api.file;
 
 import org.apache.commons.lang.StringUtils;
-import org.gradle.util.GUtil;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -32,8 +31,17 @@ import java.util.ListIterator;
  * @author Steve Appling
  */
 public class RelativePath {
+    private static final RelativePath ROOT = new RelativePath(false);
+
     private final boolean endsWithFile;
-    private final String[] segments;
+    // A path is stored as a link to its parent directory path plus its last name, so that the paths of the children of
+    // a directory share the path of the directory rather than each holding a copy of its segments. The root path has
+    // a null parent and a null name.
+    private final RelativePath parent;
+    private final String name;
+    private final int length;
+    private final int segmentsHash;
+    private String pathString;
 
     /**
      * Creates a {@code RelativePath}.
@@ -46,24 +54,60 @@ public class RelativePath {
 
     private RelativePath(boolean endsWithFile, RelativePath parentPath, String... childSegments) {
         this.endsWithFile = endsWithFile;
-        int sourceLength = 0;
-        if (parentPath != null) {
-            String[] sourceSegments = parentPath.getSegments();
-            sourceLength = sourceSegments.length;
-            segments = new String[sourceLength + childSegments.length];
-            System.arraycopy(sourceSegments, 0, segments, 0, sourceLength);
-        } else {
-            segments = new String[childSegments.length];
+        if (childSegments.length == 0) {
+            if (parentPath == null) {
+                parent = null;
+                name = null;
+                length = 0;
+                segmentsHash = 1;
+            } else {
+                parent = parentPath.parent;
+                name = parentPath.name;
+                length = parentPath.length;
+                segmentsHash = parentPath.segmentsHash;
+            }
+            return;
+        }
+        RelativePath dir = parentPath == null ? ROOT : parentPath.asDir();
+        for (int i = 0; i < childSegments.length - 1; i++) {
+            dir = new RelativePath(false, dir, childSegments[i]);
+        }
+        parent = dir;
+        name = childSegments[childSegments.length - 1];
+        length = dir.length + 1;
+        segmentsHash = 31 * dir.segmentsHash + name.hashCode();
+    }
+
+    private RelativePath(boolean endsWithFile, RelativePath parent, String name) {
+        this.endsWithFile = endsWithFile;
+        this.parent = parent;
+        this.name = name;
+        length = parent.length + 1;
+        segmentsHash = 31 * parent.segmentsHash + name.hashCode();
+    }
+
+    private RelativePath asDir() {
+        if (!endsWithFile) {
+            return this;
         }
-        System.arraycopy(childSegments, 0, segments, sourceLength, childSegments.length);
+        if (length == 0) {
+            return ROOT;
+        }
+        return new RelativePath(false, parent, name);
     }
 
     public String[] getSegments() {
+        String[] segments = new String[length];
+        RelativePath path = this;
+        for (int i = length - 1; i >= 0; i--) {
+            segments[i] = path.name;
+            path = path.parent;
+        }
         return segments;
     }
 
     public ListIterator<String> segmentIterator() {
-        ArrayList<String> content = new ArrayList<String>(Arrays.asList(segments));
+        ArrayList<String> content = new ArrayList<String>(Arrays.asList(getSegments()));
         return content.listIterator();
     }
 
@@ -72,7 +116,18 @@ public class RelativePath {
     }
 
     public String getPathString() {
-        return GUtil.join(segments, "/");
+        String result = pathString;
+        if (result == null) {
+            if (length == 0) {
+                result = "";
+            } else if (parent.length == 0) {
+                result = name;
+            } else {
+                result = parent.getPathString() + '/' + name;
+            }
+            pathString = result;
+        }
+        return result;
     }
 
     public File getFile(File baseDir) {
@@ -80,11 +135,7 @@ public class RelativePath {
     }
 
     public String getLastName() {
-        if (segments.length > 0) {
-            return segments[segments.length - 1];
-        } else {
-            return null;
-        }
+        return name;
     }
 
     @Override
@@ -101,9 +152,18 @@ public class RelativePath {
         if (endsWithFile != that.endsWithFile) {
             return false;
         }
-        if (!Arrays.equals(segments, that.segments)) {
+        if (length != that.length || segmentsHash != that.segmentsHash) {
             return false;
         }
+        RelativePath left = this;
+        RelativePath right = that;
+        while (left != right && left.length > 0) {
+            if (!left.name.equals(right.name)) {
+                return false;
+            }
+            left = left.parent;
+            right = right.parent;
+        }
 
         return true;
     }
@@ -111,7 +171,7 @@ public class RelativePath {
     @Override
     public int hashCode() {
         int result = endsWithFile ? 1 : 0;
-        result = 31 * result + Arrays.hashCode(segments);
+        result = 31 * result + segmentsHash;
         return result;
     }
 
@@ -126,12 +186,7 @@ public class RelativePath {
      * @return The parent of this path, or null if this is the root path.
      */
     public RelativePath getParent() {
-        if (segments.length == 0) {
-            return null;
-        }
-        String[] parentSegments = new String[segments.length - 1];
-        System.arraycopy(segments, 0, parentSegments, 0, parentSegments.length);
-        return new RelativePath(false, parentSegments);
+        return parent;
     }
 
     public static RelativePath parse(boolean isFile, String path) {
@@ -150,10 +205,10 @@ public class RelativePath {
      * @return The path.
      */
     public RelativePath replaceLastName(String name) {
-        String[] newSegments = new String[segments.length];
-        System.arraycopy(segments, 0, newSegments, 0, segments.length);
-        newSegments[segments.length - 1] = name;
-        return new RelativePath(endsWithFile, newSegments);
+        if (length == 0) {
+            throw new IllegalStateException("Cannot replace the last name of the root path.");
+        }
+        return new RelativePath(endsWithFile, parent, name);
     }
 
     /**
@@ -163,7 +218,7 @@ public class RelativePath {
      * @return The new path
      */
     public RelativePath append(RelativePath other) {
-        return new RelativePath(other.endsWithFile, this, other.segments);
+        return new RelativePath(other.endsWithFile, this, other.getSegments());
     }
 
     /**
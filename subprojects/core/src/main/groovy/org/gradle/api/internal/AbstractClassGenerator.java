@@ -35,6 +35,13 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
     }
 
     public <T> Class<? extends T> generate(Class<T> type) {
+        // The generated classes are shared by all builds in this process, which may be running concurrently
+        synchronized (GENERATED_CLASSES) {
+            return doGenerate(type);
+        }
+    }
+
+    private <T> Class<? extends T> doGenerate(Class<T> type) {
         Map<Class, Class> cache = GENERATED_CLASSES.get(getClass());
         if (cache == null) {
             cache = new HashMap<Class, Class>();
@@ -27,6 +27,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class AsmBackedClassGenerator extends AbstractClassGenerator {
+    static final String ACCESSOR_INSTANCE_FIELD = "instance";
+
     @Override
     protected <T> ClassBuilder<T> start(Class<T> type) {
         return new ClassBuilderImpl<T>(type);
@@ -592,6 +594,139 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
         }
     }
 
+    /**
+     * Generates a subclass of {@link BeanPropertyAccessor} which calls the given getters and setters of the given type.
+     * The accessor for the property with index {@code i} is {@code getters.get(i)} and {@code setters.get(i)}, either
+     * of which may be null. The subclass has a public static field named {@link #ACCESSOR_INSTANCE_FIELD}, which can be
+     * used to reference an instance of the subclass from its class loader.
+     */
+    static Class<? extends BeanPropertyAccessor> generatePropertyAccessor(Class<?> type, List<Method> getters,
+                                                                        List<Method> setters) {
+        ClassWriter visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        String typeName = type.getName() + "_PropertyAccessor";
+        Type generatedType = Type.getType("L" + typeName.replaceAll("\\.", "/") + ";");
+        Type beanType = Type.getType(type);
+        Type superclassType = Type.getType(BeanPropertyAccessor.class);
+        Type objectType = Type.getType(Object.class);
+        Type illegalArgumentType = Type.getType(IllegalArgumentException.class);
+        String noArgsConstructorDesc = Type.getMethodDescriptor(Type.VOID_TYPE, new Type[0]);
+
+        visitor.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC, generatedType.getInternalName(), null,
+                superclassType.getInternalName(), new String[0]);
+
+        // GENERATE public static BeanPropertyAccessor instance;
+
+        visitor.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, ACCESSOR_INSTANCE_FIELD,
+                superclassType.getDescriptor(), null, null).visitEnd();
+
+        // GENERATE public <type>_PropertyAccessor() { super(); }
+
+        MethodVisitor methodVisitor = visitor.visitMethod(Opcodes.ACC_PUBLIC, "<init>", noArgsConstructorDesc, null,
+                new String[0]);
+        methodVisitor.visitCode();
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, superclassType.getInternalName(), "<init>",
+                noArgsConstructorDesc);
+        methodVisitor.visitInsn(Opcodes.RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+
+        // GENERATE public Object get(Object bean, int index) { switch (index) { case <i>: return ((<type>) bean).<getter>(); ... } throw new IllegalArgumentException(); }
+
+        methodVisitor = visitor.visitMethod(Opcodes.ACC_PUBLIC, "get", Type.getMethodDescriptor(objectType,
+                new Type[]{objectType, Type.INT_TYPE}), null, new String[0]);
+        methodVisitor.visitCode();
+        Label[] labels = new Label[getters.size()];
+        Label unknownProperty = new Label();
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = getters.get(i) == null ? unknownProperty : new Label();
+        }
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, 2);
+        methodVisitor.visitTableSwitchInsn(0, labels.length - 1, unknownProperty, labels);
+        for (int i = 0; i < labels.length; i++) {
+            Method getter = getters.get(i);
+            if (getter == null) {
+                continue;
+            }
+            methodVisitor.visitLabel(labels[i]);
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, 1);
+            methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, beanType.getInternalName());
+            methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, beanType.getInternalName(), getter.getName(),
+                    Type.getMethodDescriptor(getter));
+            Class<?> returnType = getter.getReturnType();
+            if (returnType.isPrimitive()) {
+                Type boxedType = Type.getType(BeanPropertyAccessor.boxed(returnType));
+                methodVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, boxedType.getInternalName(), "valueOf",
+                        Type.getMethodDescriptor(boxedType, new Type[]{Type.getType(returnType)}));
+            }
+            methodVisitor.visitInsn(Opcodes.ARETURN);
+        }
+        methodVisitor.visitLabel(unknownProperty);
+        methodVisitor.visitTypeInsn(Opcodes.NEW, illegalArgumentType.getInternalName());
+        methodVisitor.visitInsn(Opcodes.DUP);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, illegalArgumentType.getInternalName(), "<init>",
+                noArgsConstructorDesc);
+        methodVisitor.visitInsn(Opcodes.ATHROW);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+
+        // GENERATE public void set(Object bean, int index, Object value) { switch (index) { case <i>: ((<type>) bean).<setter>((<param-type>) value); return; ... } throw new IllegalArgumentException(); }
+
+        methodVisitor = visitor.visitMethod(Opcodes.ACC_PUBLIC, "set", Type.getMethodDescriptor(Type.VOID_TYPE,
+                new Type[]{objectType, Type.INT_TYPE, objectType}), null, new String[0]);
+        methodVisitor.visitCode();
+        labels = new Label[setters.size()];
+        unknownProperty = new Label();
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = setters.get(i) == null ? unknownProperty : new Label();
+        }
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, 2);
+        methodVisitor.visitTableSwitchInsn(0, labels.length - 1, unknownProperty, labels);
+        for (int i = 0; i < labels.length; i++) {
+            Method setter = setters.get(i);
+            if (setter == null) {
+                continue;
+            }
+            methodVisitor.visitLabel(labels[i]);
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, 1);
+            methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, beanType.getInternalName());
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, 3);
+            Class<?> paramType = setter.getParameterTypes()[0];
+            if (paramType.isPrimitive()) {
+                Type boxedType = Type.getType(BeanPropertyAccessor.boxed(paramType));
+                methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, boxedType.getInternalName());
+                methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, boxedType.getInternalName(),
+                        paramType.getName() + "Value", Type.getMethodDescriptor(Type.getType(paramType), new Type[0]));
+            } else {
+                // For array types, the internal name is the descriptor
+                methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, Type.getType(paramType).getInternalName());
+            }
+            methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, beanType.getInternalName(), setter.getName(),
+                    Type.getMethodDescriptor(setter));
+            Type returnType = Type.getType(setter.getReturnType());
+            if (returnType.getSize() == 1) {
+                methodVisitor.visitInsn(Opcodes.POP);
+            } else if (returnType.getSize() == 2) {
+                methodVisitor.visitInsn(Opcodes.POP2);
+            }
+            methodVisitor.visitInsn(Opcodes.RETURN);
+        }
+        methodVisitor.visitLabel(unknownProperty);
+        methodVisitor.visitTypeInsn(Opcodes.NEW, illegalArgumentType.getInternalName());
+        methodVisitor.visitInsn(Opcodes.DUP);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, illegalArgumentType.getInternalName(), "<init>",
+                noArgsConstructorDesc);
+        methodVisitor.visitInsn(Opcodes.ATHROW);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+
+        visitor.visitEnd();
+
+        byte[] bytecode = visitor.toByteArray();
+        return (Class<? extends BeanPropertyAccessor>) ReflectionUtil.invoke(type.getClassLoader(), "defineClass",
+                new Object[]{typeName, bytecode, 0, bytecode.length});
+    }
+
     private interface MethodCodeBody {
         void add(MethodVisitor visitor) throws Exception;
     }
@@ -17,6 +17,7 @@ package org.gradle.api.internal;
 
 import groovy.lang.*;
 import groovy.lang.MissingMethodException;
+import org.codehaus.groovy.runtime.GroovyCategorySupport;
 import org.codehaus.groovy.runtime.InvokerInvocationException;
 
 import java.util.Collections;
@@ -25,7 +26,9 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * A {@link DynamicObject} which uses groovy reflection to provide access to the properties and methods of a bean.
+ * A {@link DynamicObject} which uses groovy reflection to provide access to the properties and methods of a bean. Where
+ * the bean uses the default meta-class for its type, its bean properties are accessed using a {@link
+ * BeanPropertyAccessor} instead.
  */
 public class BeanDynamicObject extends AbstractDynamicObject {
     private final Object bean;
@@ -62,9 +65,30 @@ public class BeanDynamicObject extends AbstractDynamicObject {
         }
     }
 
+    /**
+     * Returns the accessor to use for the given meta-class of the bean, or null if the properties of the bean must be
+     * accessed through the meta-class.
+     */
+    private BeanPropertyAccessor getPropertyAccessor(MetaClass metaClass) {
+        // Any other meta-class, or a category, may add or replace properties
+        if (metaClass.getClass() != MetaClassImpl.class || metaClass.getTheClass() != bean.getClass()
+                || GroovyCategorySupport.hasCategoryInCurrentThread()) {
+            return null;
+        }
+        return BeanPropertyAccessor.forType(bean.getClass());
+    }
+
     @Override
     public boolean hasProperty(String name) {
-        return includeProperties && getMetaClass().hasProperty(bean, name) != null;
+        if (!includeProperties) {
+            return false;
+        }
+        MetaClass metaClass = getMetaClass();
+        BeanPropertyAccessor accessor = getPropertyAccessor(metaClass);
+        if (accessor != null && accessor.getProperty(name) != null) {
+            return true;
+        }
+        return metaClass.hasProperty(bean, name) != null;
     }
 
     @Override
@@ -73,7 +97,16 @@ public class BeanDynamicObject extends AbstractDynamicObject {
             throw propertyMissingException(name);
         }
 
-        MetaProperty property = getMetaClass().hasProperty(bean, name);
+        MetaClass metaClass = getMetaClass();
+        BeanPropertyAccessor accessor = getPropertyAccessor(metaClass);
+        if (accessor != null) {
+            BeanPropertyAccessor.Property property = accessor.getProperty(name);
+            if (property != null && property.isReadable()) {
+                return get(accessor, property);
+            }
+        }
+
+        MetaProperty property = metaClass.hasProperty(bean, name);
         if (property == null) {
             throw propertyMissingException(name);
         }
@@ -99,6 +132,21 @@ public class BeanDynamicObject extends AbstractDynamicObject {
         }
 
         MetaClass metaClass = getMetaClass();
+        BeanPropertyAccessor accessor = getPropertyAccessor(metaClass);
+        if (accessor != null) {
+            BeanPropertyAccessor.Property property = accessor.getProperty(name);
+            if (property != null && property.canSetTo(value)) {
+                try {
+                    accessor.set(bean, property.getIndex(), value);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new InvokerInvocationException(e);
+                }
+                return;
+            }
+        }
+
         MetaProperty property = metaClass.hasProperty(bean, name);
         if (property == null) {
             throw propertyMissingException(name);
@@ -129,13 +177,23 @@ public class BeanDynamicObject extends AbstractDynamicObject {
             return Collections.emptyMap();
         }
 
+        MetaClass metaClass = getMetaClass();
+        BeanPropertyAccessor accessor = getPropertyAccessor(metaClass);
         Map<String, Object> properties = new HashMap<String, Object>();
-        List<MetaProperty> classProperties = getMetaClass().getProperties();
+        List<MetaProperty> classProperties = accessor != null ? accessor.getMetaProperties()
+                : metaClass.getProperties();
         for (MetaProperty metaProperty : classProperties) {
             if (metaProperty.getName().equals("properties")) {
                 properties.put("properties", properties);
                 continue;
             }
+            if (accessor != null) {
+                BeanPropertyAccessor.Property property = accessor.getProperty(metaProperty.getName());
+                if (property != null && property.isReadable()) {
+                    properties.put(metaProperty.getName(), get(accessor, property));
+                    continue;
+                }
+            }
             if (metaProperty instanceof MetaBeanProperty) {
                 MetaBeanProperty beanProperty = (MetaBeanProperty) metaProperty;
                 if (beanProperty.getGetter() == null) {
@@ -147,6 +205,17 @@ public class BeanDynamicObject extends AbstractDynamicObject {
         return properties;
     }
 
+    private Object get(BeanPropertyAccessor accessor, BeanPropertyAccessor.Property property) {
+        try {
+            return accessor.get(bean, property.getIndex());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // A checked exception thrown by the getter
+            throw new InvokerInvocationException(e);
+        }
+    }
+
     @Override
     public boolean hasMethod(String name, Object... arguments) {
         return !getMetaClass().respondsTo(bean, name, arguments).isEmpty();
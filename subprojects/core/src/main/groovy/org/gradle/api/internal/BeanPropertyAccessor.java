@@ -0,0 +1,263 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal;
+
+import groovy.lang.*;
+import org.codehaus.groovy.reflection.CachedMethod;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Provides direct access to the bean properties of a class. The getters and setters are called from a subclass generated
+ * by {@link AsmBackedClassGenerator}, rather than being looked up and invoked through the Groovy meta-class on each
+ * access. One accessor is generated for each class, and is shared by all builds in this process.
+ *
+ * <p>The accessor is defined in the class loader of the class, and is referenced by a static field of the generated
+ * subclass. Accessors are cached using weak keys and weak values, so the cache does not prevent a class and its class
+ * loader from being garbage collected.</p>
+ */
+public abstract class BeanPropertyAccessor {
+    private static final Map<Class<?>, WeakReference<BeanPropertyAccessor>> ACCESSORS
+            = new WeakHashMap<Class<?>, WeakReference<BeanPropertyAccessor>>();
+    private static final BeanPropertyAccessor NONE = new BeanPropertyAccessor() {
+        @Override
+        public Object get(Object bean, int index) {
+            throw new IllegalArgumentException();
+        }
+
+        @Override
+        public void set(Object bean, int index, Object value) {
+            throw new IllegalArgumentException();
+        }
+    };
+    private Map<String, Property> properties = Collections.emptyMap();
+    private List<MetaProperty> metaProperties = Collections.emptyList();
+
+    /**
+     * Returns the accessor for the given type, or null when the properties of the type cannot be accessed directly.
+     */
+    public static BeanPropertyAccessor forType(Class<?> type) {
+        BeanPropertyAccessor accessor;
+        // A class can only be defined once, so generate the accessor for each type while holding a lock
+        synchronized (ACCESSORS) {
+            WeakReference<BeanPropertyAccessor> reference = ACCESSORS.get(type);
+            accessor = reference == null ? null : reference.get();
+            if (accessor == null) {
+                accessor = create(type);
+                ACCESSORS.put(type, new WeakReference<BeanPropertyAccessor>(accessor));
+            }
+        }
+        return accessor == NONE ? null : accessor;
+    }
+
+    /**
+     * Returns the property with the given name, or null when the property cannot be accessed directly.
+     */
+    public Property getProperty(String name) {
+        return properties.get(name);
+    }
+
+    /**
+     * Returns the properties of the type, as returned by {@link MetaClass#getProperties()}. This includes the properties
+     * which cannot be accessed directly.
+     */
+    public List<MetaProperty> getMetaProperties() {
+        return metaProperties;
+    }
+
+    /**
+     * Calls the getter of the property with the given index.
+     */
+    public abstract Object get(Object bean, int index);
+
+    /**
+     * Calls the setter of the property with the given index. The value must be accepted by {@link
+     * Property#canSetTo(Object)}.
+     */
+    public abstract void set(Object bean, int index, Object value);
+
+    private static BeanPropertyAccessor create(Class<?> type) {
+        // The generated class is defined in the class loader of the type, so it must be able to see this class
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null || type.getName().startsWith("java.") || Map.class.isAssignableFrom(type)
+                || !canSee(classLoader)) {
+            return NONE;
+        }
+
+        List<MetaProperty> metaProperties = GroovySystem.getMetaClassRegistry().getMetaClass(type).getProperties();
+        Map<String, Property> properties = new HashMap<String, Property>();
+        List<Method> getters = new ArrayList<Method>();
+        List<Method> setters = new ArrayList<Method>();
+        for (MetaProperty metaProperty : metaProperties) {
+            if (!(metaProperty instanceof MetaBeanProperty)) {
+                continue;
+            }
+            MetaBeanProperty beanProperty = (MetaBeanProperty) metaProperty;
+            Method getter = getter(beanProperty.getGetter());
+            Method setter = setter(type, beanProperty.getSetter());
+            if (getter == null && setter == null) {
+                continue;
+            }
+            properties.put(beanProperty.getName(), new Property(getters.size(), getter != null,
+                    setter == null ? null : setter.getParameterTypes()[0]));
+            getters.add(getter);
+            setters.add(setter);
+        }
+        if (properties.isEmpty()) {
+            return NONE;
+        }
+
+        try {
+            Class<? extends BeanPropertyAccessor> accessorClass = AsmBackedClassGenerator.generatePropertyAccessor(type,
+                    getters, setters);
+            BeanPropertyAccessor accessor = accessorClass.newInstance();
+            accessor.properties = properties;
+            accessor.metaProperties = metaProperties;
+            // Keeps the accessor reachable for as long as the class loader of the type
+            accessorClass.getField(AsmBackedClassGenerator.ACCESSOR_INSTANCE_FIELD).set(null, accessor);
+            return accessor;
+        } catch (Exception e) {
+            // Can happen, for example, when the package of the type is sealed. Fall back to the meta-class
+            return NONE;
+        } catch (LinkageError e) {
+            // Can happen, for example, when the generated class fails verification. Fall back to the meta-class
+            return NONE;
+        }
+    }
+
+    private static boolean canSee(ClassLoader classLoader) {
+        try {
+            return classLoader.loadClass(BeanPropertyAccessor.class.getName()) == BeanPropertyAccessor.class;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static Method getter(MetaMethod metaMethod) {
+        Method method = toMethod(metaMethod);
+        if (method == null || method.getParameterTypes().length != 0 || method.getReturnType().equals(Void.TYPE)) {
+            return null;
+        }
+        return method;
+    }
+
+    private static Method setter(Class<?> type, MetaMethod metaMethod) {
+        Method method = toMethod(metaMethod);
+        if (method == null || method.getParameterTypes().length != 1) {
+            return null;
+        }
+
+        // The generated class casts the value to the parameter type, so the parameter type must be visible to it
+        Class<?> paramType = method.getParameterTypes()[0];
+        Class<?> componentType = paramType;
+        while (componentType.isArray()) {
+            componentType = componentType.getComponentType();
+        }
+        if (!componentType.isPrimitive() && !Modifier.isPublic(componentType.getModifiers())) {
+            return null;
+        }
+
+        // When the setter is overloaded, the meta-class chooses a setter based on the type of the value
+        for (Method candidate : type.getMethods()) {
+            if (candidate.getName().equals(method.getName()) && candidate.getParameterTypes().length == 1
+                    && !candidate.equals(method)) {
+                return null;
+            }
+        }
+        return method;
+    }
+
+    private static Method toMethod(MetaMethod metaMethod) {
+        if (!(metaMethod instanceof CachedMethod)) {
+            return null;
+        }
+        Method method = ((CachedMethod) metaMethod).getCachedMethod();
+        if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+            return null;
+        }
+        return method;
+    }
+
+    static Class<?> boxed(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type.equals(Boolean.TYPE)) {
+            return Boolean.class;
+        }
+        if (type.equals(Character.TYPE)) {
+            return Character.class;
+        }
+        if (type.equals(Byte.TYPE)) {
+            return Byte.class;
+        }
+        if (type.equals(Short.TYPE)) {
+            return Short.class;
+        }
+        if (type.equals(Integer.TYPE)) {
+            return Integer.class;
+        }
+        if (type.equals(Long.TYPE)) {
+            return Long.class;
+        }
+        if (type.equals(Float.TYPE)) {
+            return Float.class;
+        }
+        return Double.class;
+    }
+
+    public static class Property {
+        private final int index;
+        private final boolean readable;
+        private final Class<?> type;
+        private final boolean primitive;
+
+        private Property(int index, boolean readable, Class<?> setterType) {
+            this.index = index;
+            this.readable = readable;
+            this.type = setterType == null ? null : boxed(setterType);
+            this.primitive = setterType != null && setterType.isPrimitive();
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public boolean isReadable() {
+            return readable;
+        }
+
+        public boolean isWritable() {
+            return type != null;
+        }
+
+        /**
+         * Returns true if the given value can be passed to the setter of this property without any coercion.
+         */
+        public boolean canSetTo(Object value) {
+            if (type == null) {
+                return false;
+            }
+            if (value == null) {
+                return !primitive;
+            }
+            return type.isInstance(value);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal;
+
+/**
+ * An operation performed by the build, which is reported to the {@link BuildOperationListener}s of the build.
+ */
+public class BuildOperation {
+    public enum Type {
+        COMPILE_SCRIPT("Compile script"),
+        EXECUTE_SCRIPT("Execute script"),
+        APPLY_PLUGIN("Apply plugin"),
+        RESOLVE_CONFIGURATION("Resolve dependencies"),
+        NOTIFY_AFTER_EVALUATE("Notify afterEvaluate listeners"),
+        BUILD_TASK_GRAPH("Build task graph");
+
+        private final String displayName;
+
+        Type(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private final Type type;
+    private final String description;
+
+    public BuildOperation(Type type, String description) {
+        this.type = type;
+        this.description = description;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns a description of the subject of this operation, such as the display name of the script being compiled.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s", type.getDisplayName(), description);
+    }
+}
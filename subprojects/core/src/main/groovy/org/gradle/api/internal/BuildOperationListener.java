@@ -0,0 +1,27 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal;
+
+/**
+ * Receives notifications when the build starts and finishes an operation, such as compiling a script or applying a
+ * plugin. Operations performed by a thread are properly nested: each operation started by a thread finishes before
+ * the operation which contains it.
+ */
+public interface BuildOperationListener {
+    void operationStarted(BuildOperation operation);
+
+    void operationFinished(BuildOperation operation);
+}
@@ -17,6 +17,7 @@
 package org.gradle.api.internal.artifacts;
 
 import org.gradle.api.artifacts.ConfigurationContainer;
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.api.internal.ClassGenerator;
 import org.gradle.api.internal.DomainObjectContext;
 import org.gradle.api.internal.artifacts.configurations.DependencyMetaDataProvider;
@@ -39,6 +40,8 @@ public class DefaultConfigurationContainerFactory implements ConfigurationContai
     private IvyDependencyResolver dependencyResolver;
     private IvyDependencyPublisher dependencyPublisher;
     private ClassGenerator classGenerator;
+    private BuildOperationListener operationListener;
+    private ResolvedConfigurationCache resolvedConfigurationCache;
 
     public DefaultConfigurationContainerFactory(Map clientModuleRegistry, SettingsConverter settingsConverter,
                                                 ModuleDescriptorConverter resolveModuleDescriptorConverter,
@@ -46,7 +49,8 @@ public class DefaultConfigurationContainerFactory implements ConfigurationContai
                                                 ModuleDescriptorConverter fileModuleDescriptorConverter,
                                                 IvyFactory ivyFactory,
                                                 IvyDependencyResolver dependencyResolver, IvyDependencyPublisher dependencyPublisher,
-                                                ClassGenerator classGenerator) {
+                                                ClassGenerator classGenerator, BuildOperationListener operationListener,
+                                                ResolvedConfigurationCache resolvedConfigurationCache) {
         this.clientModuleRegistry = clientModuleRegistry;
         this.settingsConverter = settingsConverter;
         this.resolveModuleDescriptorConverter = resolveModuleDescriptorConverter;
@@ -56,6 +60,8 @@ public class DefaultConfigurationContainerFactory implements ConfigurationContai
         this.dependencyResolver = dependencyResolver;
         this.dependencyPublisher = dependencyPublisher;
         this.classGenerator = classGenerator;
+        this.operationListener = operationListener;
+        this.resolvedConfigurationCache = resolvedConfigurationCache;
     }
 
     public ConfigurationContainer createConfigurationContainer(ResolverProvider resolverProvider,
@@ -63,17 +69,23 @@ public class DefaultConfigurationContainerFactory implements ConfigurationContai
                                                                DomainObjectContext domainObjectContext) {
         IvyService ivyService = new ErrorHandlingIvyService(
                 new ShortcircuitEmptyConfigsIvyService(
-                        new DefaultIvyService(
-                                dependencyMetaDataProvider,
-                                resolverProvider,
-                                settingsConverter,
-                                resolveModuleDescriptorConverter,
-                                publishModuleDescriptorConverter,
-                                fileModuleDescriptorConverter,
-                                ivyFactory,
-                                dependencyResolver,
-                                dependencyPublisher,
-                                clientModuleRegistry)));
+                        new OperationNotifyingIvyService(
+                                new CachingIvyService(
+                                        new DefaultIvyService(
+                                                dependencyMetaDataProvider,
+                                                resolverProvider,
+                                                settingsConverter,
+                                                resolveModuleDescriptorConverter,
+                                                publishModuleDescriptorConverter,
+                                                fileModuleDescriptorConverter,
+                                                ivyFactory,
+                                                dependencyResolver,
+                                                dependencyPublisher,
+                                                clientModuleRegistry),
+                                        resolvedConfigurationCache,
+                                        dependencyMetaDataProvider,
+                                        resolverProvider),
+                                operationListener)));
         return classGenerator.newInstance(DefaultConfigurationContainer.class, ivyService, classGenerator, domainObjectContext);
     }
 }
@@ -70,7 +70,7 @@ public class DefaultResolvedArtifact implements ResolvedArtifact {
         return getResolvedDependency() == null ? null : getResolvedDependency().getModuleName();
     }
 
-    public File getFile() {
+    public synchronized File getFile() {
         if (file == null) {
             file = resolvedEngine.download(artifact, new DownloadOptions()).getLocalFile();
         }
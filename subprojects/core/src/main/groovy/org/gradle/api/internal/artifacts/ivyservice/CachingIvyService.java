@@ -0,0 +1,228 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.apache.ivy.plugins.resolver.AbstractPatternsBasedResolver;
+import org.apache.ivy.plugins.resolver.ChainResolver;
+import org.apache.ivy.plugins.resolver.DependencyResolver;
+import org.apache.ivy.plugins.resolver.DualResolver;
+import org.gradle.api.artifacts.*;
+import org.gradle.api.artifacts.Module;
+import org.gradle.api.internal.artifacts.IvyService;
+import org.gradle.api.internal.artifacts.configurations.DependencyMetaDataProvider;
+import org.gradle.api.internal.artifacts.configurations.ResolverProvider;
+import org.gradle.api.specs.Spec;
+import org.gradle.util.HashUtil;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * An {@link IvyService} which reuses the result of resolving a configuration from a {@link
+ * ResolvedConfigurationCache}, when the dependencies, excludes and resolvers used to resolve the configuration have not
+ * changed since the result was cached. Configurations with project dependencies, changing dependencies or dynamic
+ * versions, or which use resolvers of an unknown type, are always resolved. This includes configurations whose
+ * transitive dependencies use changing or dynamic versions.
+ */
+public class CachingIvyService implements IvyService {
+    private final IvyService ivyService;
+    private final ResolvedConfigurationCache cache;
+    private final DependencyMetaDataProvider metaDataProvider;
+    private final ResolverProvider resolverProvider;
+
+    public CachingIvyService(IvyService ivyService, ResolvedConfigurationCache cache,
+                             DependencyMetaDataProvider metaDataProvider, ResolverProvider resolverProvider) {
+        this.ivyService = ivyService;
+        this.cache = cache;
+        this.metaDataProvider = metaDataProvider;
+        this.resolverProvider = resolverProvider;
+    }
+
+    public IvyService getIvyService() {
+        return ivyService;
+    }
+
+    public void publish(Set<Configuration> configurationsToPublish, File descriptorDestination,
+                        List<DependencyResolver> publishResolvers) {
+        ivyService.publish(configurationsToPublish, descriptorDestination, publishResolvers);
+    }
+
+    public ResolvedConfiguration resolve(Configuration configuration) {
+        Map<ModuleDependency, String> dependencyIds = new IdentityHashMap<ModuleDependency, String>();
+        String key = createKey(configuration, dependencyIds);
+        if (key == null) {
+            return ivyService.resolve(configuration);
+        }
+
+        ResolvedConfigurationSnapshot snapshot = cache.get(key);
+        if (snapshot != null) {
+            return SelfResolvingDependencyResolver.withSelfResolvingDependencies(configuration, snapshot.restore(
+                    configuration, dependencyIds));
+        }
+
+        ResolvedConfiguration resolvedConfiguration = ivyService.resolve(configuration);
+        if (isCacheable(resolvedConfiguration)) {
+            Map<String, Set<File>> dependencyFiles = new HashMap<String, Set<File>>();
+            for (Map.Entry<ModuleDependency, String> entry : dependencyIds.entrySet()) {
+                final ModuleDependency dependency = entry.getKey();
+                Set<File> files = resolvedConfiguration.getFiles(new Spec<Dependency>() {
+                    public boolean isSatisfiedBy(Dependency element) {
+                        return element == dependency;
+                    }
+                });
+                dependencyFiles.put(entry.getValue(), files);
+            }
+            cache.put(key, ResolvedConfigurationSnapshot.create(resolvedConfiguration, dependencyFiles));
+        }
+        return resolvedConfiguration;
+    }
+
+    private boolean isCacheable(ResolvedConfiguration resolvedConfiguration) {
+        if (resolvedConfiguration.hasError()) {
+            return false;
+        }
+        if (!(resolvedConfiguration instanceof RevisionAwareResolvedConfiguration)) {
+            return false;
+        }
+        return !((RevisionAwareResolvedConfiguration) resolvedConfiguration).hasDynamicRevisions();
+    }
+
+    /**
+     * Creates the cache key for the given configuration, and the id of each of its module dependencies.
+     *
+     * @return The key, or null if the result of resolving the configuration should not be cached.
+     */
+    private String createKey(Configuration configuration, Map<ModuleDependency, String> dependencyIds) {
+        StringBuilder key = new StringBuilder();
+        Module module = metaDataProvider.getModule();
+        key.append(module.getGroup()).append(':').append(module.getName()).append(':').append(module.getVersion())
+                .append(':').append(module.getStatus()).append('\n');
+        key.append(metaDataProvider.getGradleUserHomeDir().getAbsolutePath()).append('\n');
+        for (DependencyResolver resolver : resolverProvider.getResolvers()) {
+            if (!appendResolver(resolver, key)) {
+                return null;
+            }
+        }
+
+        key.append(configuration.getName()).append('\n');
+        for (Configuration superConfiguration : configuration.getHierarchy()) {
+            key.append("conf:").append(superConfiguration.getName()).append(':')
+                    .append(superConfiguration.isTransitive());
+            for (Configuration extendsFrom : superConfiguration.getExtendsFrom()) {
+                key.append(':').append(extendsFrom.getName());
+            }
+            key.append('\n');
+            appendExcludeRules(superConfiguration.getExcludeRules(), key);
+            for (Dependency dependency : superConfiguration.getDependencies()) {
+                if (dependency instanceof ProjectDependency) {
+                    return null;
+                }
+                if (!(dependency instanceof ModuleDependency)) {
+                    continue;
+                }
+                String id = createId((ModuleDependency) dependency);
+                if (id == null) {
+                    return null;
+                }
+                dependencyIds.put((ModuleDependency) dependency, id);
+                key.append(id).append('\n');
+            }
+        }
+        return HashUtil.createHash(key.toString());
+    }
+
+    private String createId(ModuleDependency dependency) {
+        if (isChanging(dependency)) {
+            return null;
+        }
+        StringBuilder id = new StringBuilder();
+        id.append(dependency.getClass().getSimpleName()).append(':').append(dependency.getGroup()).append(':')
+                .append(dependency.getName()).append(':').append(dependency.getVersion()).append(':')
+                .append(dependency.getConfiguration()).append(':').append(dependency.isTransitive());
+        if (dependency instanceof ExternalDependency) {
+            id.append(':').append(((ExternalDependency) dependency).isForce());
+        }
+        for (DependencyArtifact artifact : dependency.getArtifacts()) {
+            id.append(";artifact:").append(artifact.getName()).append(':').append(artifact.getType()).append(':')
+                    .append(artifact.getExtension()).append(':').append(artifact.getClassifier()).append(':')
+                    .append(artifact.getUrl());
+        }
+        StringBuilder excludes = new StringBuilder();
+        appendExcludeRules(dependency.getExcludeRules(), excludes);
+        id.append(excludes.toString().replace('\n', ';'));
+        if (dependency instanceof ClientModule) {
+            for (ModuleDependency moduleDependency : ((ClientModule) dependency).getDependencies()) {
+                String childId = createId(moduleDependency);
+                if (childId == null) {
+                    return null;
+                }
+                id.append("{").append(childId).append("}");
+            }
+        }
+        return id.toString();
+    }
+
+    private boolean isChanging(ModuleDependency dependency) {
+        if (dependency instanceof ExternalModuleDependency && ((ExternalModuleDependency) dependency).isChanging()) {
+            return true;
+        }
+        String version = dependency.getVersion();
+        if (version == null) {
+            return false;
+        }
+        return version.endsWith("SNAPSHOT") || version.endsWith("+") || version.startsWith("latest.")
+                || version.startsWith("[") || version.startsWith("]") || version.startsWith("(");
+    }
+
+    private void appendExcludeRules(Set<ExcludeRule> excludeRules, StringBuilder key) {
+        for (ExcludeRule excludeRule : excludeRules) {
+            key.append("exclude:").append(new TreeMap<String, String>(excludeRule.getExcludeArgs())).append('\n');
+        }
+    }
+
+    /**
+     * Appends a description of the given resolver to the key.
+     *
+     * @return false if the resolver is not of a known type.
+     */
+    private boolean appendResolver(DependencyResolver resolver, StringBuilder key) {
+        key.append("resolver:").append(resolver.getClass().getName()).append(':').append(resolver.getName());
+        if (resolver instanceof AbstractPatternsBasedResolver) {
+            AbstractPatternsBasedResolver patternsBasedResolver = (AbstractPatternsBasedResolver) resolver;
+            key.append(':').append(patternsBasedResolver.getIvyPatterns()).append(':')
+                    .append(patternsBasedResolver.getArtifactPatterns()).append(':')
+                    .append(patternsBasedResolver.isM2compatible()).append('\n');
+            return true;
+        }
+        key.append('\n');
+        if (resolver instanceof DualResolver) {
+            DualResolver dualResolver = (DualResolver) resolver;
+            return appendResolver(dualResolver.getIvyResolver(), key)
+                    && appendResolver(dualResolver.getArtifactResolver(), key);
+        }
+        if (resolver instanceof ChainResolver) {
+            ChainResolver chainResolver = (ChainResolver) resolver;
+            key.append(chainResolver.isReturnFirst()).append('\n');
+            for (Object childResolver : chainResolver.getResolvers()) {
+                if (!appendResolver((DependencyResolver) childResolver, key)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
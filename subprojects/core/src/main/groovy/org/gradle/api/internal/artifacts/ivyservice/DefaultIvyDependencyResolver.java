@@ -17,9 +17,14 @@
 package org.gradle.api.internal.artifacts.ivyservice;
 
 import org.apache.ivy.Ivy;
+import org.apache.ivy.core.module.descriptor.DependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
+import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.IvyNode;
+import org.apache.ivy.core.resolve.IvyNodeCallers;
 import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.plugins.version.VersionMatcher;
 import org.apache.ivy.util.Message;
 import org.gradle.api.artifacts.*;
 import org.gradle.api.internal.CachingDirectedGraphWalker;
@@ -41,9 +46,12 @@ public class DefaultIvyDependencyResolver implements IvyDependencyResolver {
     private static Logger logger = LoggerFactory.getLogger(DefaultIvyDependencyResolver.class);
 
     private IvyReportConverter ivyReportTranslator;
+    private final ParallelArtifactDownloader artifactDownloader;
 
-    public DefaultIvyDependencyResolver(IvyReportConverter ivyReportTranslator) {
+    public DefaultIvyDependencyResolver(IvyReportConverter ivyReportTranslator,
+                                        ParallelArtifactDownloader artifactDownloader) {
         this.ivyReportTranslator = ivyReportTranslator;
+        this.artifactDownloader = artifactDownloader;
         Message.setDefaultLogger(new IvyLoggingAdaper());
     }
 
@@ -57,7 +65,7 @@ public class DefaultIvyDependencyResolver implements IvyDependencyResolver {
             throw new RuntimeException(e);
         }
         logger.debug("Timing: Ivy resolve took {}", clock.getTime());
-        return new ResolvedConfigurationImpl(resolveReport, configuration);
+        return new ResolvedConfigurationImpl(resolveReport, configuration, ivy);
     }
 
     private ResolveOptions createResolveOptions(Configuration configuration) {
@@ -67,15 +75,19 @@ public class DefaultIvyDependencyResolver implements IvyDependencyResolver {
         return resolveOptions;
     }
 
-    class ResolvedConfigurationImpl implements ResolvedConfiguration {
+    class ResolvedConfigurationImpl implements RevisionAwareResolvedConfiguration {
         private final Configuration configuration;
+        private final ResolveReport resolveReport;
+        private final Ivy ivy;
         private boolean hasError;
         private List<String> problemMessages;
         private IvyConversionResult conversionResult;
         private final CachingDirectedGraphWalker<ResolvedDependency, ResolvedArtifact> walker
                 = new CachingDirectedGraphWalker<ResolvedDependency, ResolvedArtifact>(new ResolvedDependencyArtifactsGraph());
 
-        public ResolvedConfigurationImpl(ResolveReport resolveReport, Configuration configuration) {
+        public ResolvedConfigurationImpl(ResolveReport resolveReport, Configuration configuration, Ivy ivy) {
+            this.resolveReport = resolveReport;
+            this.ivy = ivy;
             this.hasError = resolveReport.hasError();
             if (this.hasError) {
                 this.problemMessages = resolveReport.getAllProblemMessages();
@@ -91,6 +103,25 @@ public class DefaultIvyDependencyResolver implements IvyDependencyResolver {
             return hasError;
         }
 
+        public boolean hasDynamicRevisions() {
+            VersionMatcher versionMatcher = ivy.getSettings().getVersionMatcher();
+            for (Object dependency : resolveReport.getDependencies()) {
+                IvyNode node = (IvyNode) dependency;
+                for (IvyNodeCallers.Caller caller : node.getAllCallers()) {
+                    DependencyDescriptor descriptor = caller.getDependencyDescriptor();
+                    if (descriptor == null) {
+                        continue;
+                    }
+                    ModuleRevisionId requestedId = descriptor.getDependencyRevisionId();
+                    if (descriptor.isChanging() || versionMatcher.isDynamic(requestedId)
+                            || requestedId.getRevision().endsWith("SNAPSHOT")) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
         public void rethrowFailure() throws ResolveException {
             if (hasError) {
                 Formatter formatter = new Formatter();
@@ -117,6 +148,7 @@ public class DefaultIvyDependencyResolver implements IvyDependencyResolver {
             }
 
             artifacts.addAll(walker.findValues());
+            artifactDownloader.download(artifacts);
 
             Set<File> files = new LinkedHashSet<File>();
             for (ResolvedArtifact artifact : artifacts) {
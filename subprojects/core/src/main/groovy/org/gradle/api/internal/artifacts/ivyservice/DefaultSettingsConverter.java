@@ -179,26 +179,41 @@ public class DefaultSettingsConverter implements SettingsConverter {
         this.ivySettings = ivySettings;
     }
 
+    /**
+     * Logs the progress of transfers. Configurations may be resolved concurrently, so the state of each transfer is kept
+     * per thread. Transfers made by {@link ParallelArtifactDownloader} are not logged here, as Ivy's transfer events
+     * are not reliable for concurrent transfers from the same repository. The downloader reports their progress
+     * itself.
+     */
     private class ProgressLoggingTransferListener implements TransferListener {
-        private ProgressLogger logger;
-        private long total;
+        private final ThreadLocal<TransferState> state = new ThreadLocal<TransferState>() {
+            @Override
+            protected TransferState initialValue() {
+                return new TransferState();
+            }
+        };
 
         public void transferProgress(TransferEvent evt) {
-            if (evt.getResource().isLocal()) {
+            if (ParallelArtifactDownloader.isParallelDownloadThread() || evt.getResource().isLocal()) {
                 return;
             }
+            TransferState transfer = state.get();
             if (evt.getEventType() == TransferEvent.TRANSFER_STARTED) {
-                total = 0;
+                transfer.total = 0;
                 DefaultSettingsConverter.logger.lifecycle(String.format("%s %s", StringUtils.capitalize(getRequestType(evt)), evt.getResource().getName()));
-                logger = progressLoggerFactory.start(DefaultSettingsConverter.class.getName());
+                transfer.logger = progressLoggerFactory.start(DefaultSettingsConverter.class.getName());
+            }
+            if (transfer.logger == null) {
+                return;
             }
             if (evt.getEventType() == TransferEvent.TRANSFER_PROGRESS) {
-                total += evt.getLength();
-                logger.progress(String.format("%s/%s %sed", getLengthText(total), getLengthText(evt), getRequestType(evt)));
+                transfer.total += evt.getLength();
+                transfer.logger.progress(String.format("%s/%s %sed", getLengthText(transfer.total), getLengthText(evt), getRequestType(evt)));
             }
             if (evt.getEventType() == TransferEvent.TRANSFER_COMPLETED
                     || evt.getEventType() == TransferEvent.TRANSFER_ERROR) {
-                logger.completed();
+                transfer.logger.completed();
+                transfer.logger = null;
             }
         }
 
@@ -210,4 +225,9 @@ public class DefaultSettingsConverter implements SettingsConverter {
             }
         }
     }
+
+    private static class TransferState {
+        private ProgressLogger logger;
+        private long total;
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.apache.ivy.plugins.resolver.DependencyResolver;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ResolvedConfiguration;
+import org.gradle.api.internal.BuildOperation;
+import org.gradle.api.internal.BuildOperationListener;
+import org.gradle.api.internal.artifacts.IvyService;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An {@link IvyService} which notifies a {@link BuildOperationListener} when a configuration is resolved.
+ */
+public class OperationNotifyingIvyService implements IvyService {
+    private final IvyService ivyService;
+    private final BuildOperationListener operationListener;
+
+    public OperationNotifyingIvyService(IvyService ivyService, BuildOperationListener operationListener) {
+        this.ivyService = ivyService;
+        this.operationListener = operationListener;
+    }
+
+    public IvyService getIvyService() {
+        return ivyService;
+    }
+
+    public void publish(Set<Configuration> configurationsToPublish, File descriptorDestination,
+                        List<DependencyResolver> publishResolvers) {
+        ivyService.publish(configurationsToPublish, descriptorDestination, publishResolvers);
+    }
+
+    public ResolvedConfiguration resolve(Configuration configuration) {
+        BuildOperation operation = new BuildOperation(BuildOperation.Type.RESOLVE_CONFIGURATION, configuration.toString());
+        operationListener.operationStarted(operation);
+        try {
+            return ivyService.resolve(configuration);
+        } finally {
+            operationListener.operationFinished(operation);
+        }
+    }
+}
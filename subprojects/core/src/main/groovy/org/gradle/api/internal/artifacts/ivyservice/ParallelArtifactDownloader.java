@@ -0,0 +1,220 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.apache.ivy.core.IvyContext;
+import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.artifacts.ResolvedDependency;
+import org.gradle.logging.ProgressLogger;
+import org.gradle.logging.ProgressLoggerFactory;
+import org.gradle.messaging.concurrent.ExecutorFactory;
+import org.gradle.messaging.concurrent.StoppableExecutor;
+import org.gradle.util.UncheckedException;
+
+import java.util.*;
+
+/**
+ * Downloads the files of a set of {@link ResolvedArtifact}s, using up to a given number of concurrent downloads.
+ *
+ * <p>The artifacts of a given module are downloaded one at a time, in a single thread, as Ivy's cache manager keeps
+ * per-module state which is not safe to update concurrently. Artifacts of different modules are downloaded
+ * concurrently. Progress is reported as the number of artifacts downloaded so far, along with a progress operation for
+ * each artifact being downloaded. Ivy reports the progress of a transfer through a single event object per repository,
+ * which concurrent transfers from the same repository overwrite, so Ivy's transfer events are not used for the
+ * artifacts downloaded here.</p>
+ *
+ * <p>Ivy keeps its current settings and resolve state in a per-thread {@link IvyContext}. Each download thread runs with
+ * a copy of the context of the thread which started the download.</p>
+ */
+public class ParallelArtifactDownloader {
+    private static final ThreadLocal<Boolean> DOWNLOAD_THREAD = new ThreadLocal<Boolean>();
+    private final ExecutorFactory executorFactory;
+    private final ProgressLoggerFactory progressLoggerFactory;
+    private final int maxDownloads;
+
+    public ParallelArtifactDownloader(ExecutorFactory executorFactory, ProgressLoggerFactory progressLoggerFactory,
+                                      int maxDownloads) {
+        if (maxDownloads < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The number of parallel downloads must be at least 1, but was %s.", maxDownloads));
+        }
+        this.executorFactory = executorFactory;
+        this.progressLoggerFactory = progressLoggerFactory;
+        this.maxDownloads = maxDownloads;
+    }
+
+    public int getMaxDownloads() {
+        return maxDownloads;
+    }
+
+    /**
+     * Returns true if the current thread is downloading artifacts concurrently with other threads. Ivy's transfer
+     * events are not reliable in such a thread.
+     */
+    public static boolean isParallelDownloadThread() {
+        return DOWNLOAD_THREAD.get() != null;
+    }
+
+    /**
+     * Downloads the file of each of the given artifacts, so that a subsequent call to {@link ResolvedArtifact#getFile()}
+     * does not need to go to the network. Rethrows the first failure, in the order the artifacts are given.
+     */
+    public void download(Collection<? extends ResolvedArtifact> artifacts) {
+        List<List<ResolvedArtifact>> modules = groupByModule(artifacts);
+        if (maxDownloads == 1 || modules.size() <= 1) {
+            for (ResolvedArtifact artifact : artifacts) {
+                artifact.getFile();
+            }
+            return;
+        }
+
+        ProgressLogger progressLogger = progressLoggerFactory.start(ParallelArtifactDownloader.class.getName(),
+                String.format("Downloading %s artifacts", artifacts.size()));
+        StoppableExecutor executor = executorFactory.create("Artifact download");
+        ParallelDownload download = new ParallelDownload(artifacts, modules, progressLogger);
+        try {
+            download.run(executor);
+        } finally {
+            executor.stop();
+            progressLogger.completed();
+        }
+        download.rethrowFailure();
+    }
+
+    private List<List<ResolvedArtifact>> groupByModule(Collection<? extends ResolvedArtifact> artifacts) {
+        Map<String, List<ResolvedArtifact>> modules = new LinkedHashMap<String, List<ResolvedArtifact>>();
+        List<List<ResolvedArtifact>> groups = new ArrayList<List<ResolvedArtifact>>();
+        for (ResolvedArtifact artifact : artifacts) {
+            ResolvedDependency dependency = artifact.getResolvedDependency();
+            if (dependency == null) {
+                groups.add(Collections.singletonList(artifact));
+                continue;
+            }
+            String key = String.format("%s:%s:%s", dependency.getModuleGroup(), dependency.getModuleName(),
+                    dependency.getModuleVersion());
+            List<ResolvedArtifact> module = modules.get(key);
+            if (module == null) {
+                module = new ArrayList<ResolvedArtifact>();
+                modules.put(key, module);
+                groups.add(module);
+            }
+            module.add(artifact);
+        }
+        return groups;
+    }
+
+    private class ParallelDownload {
+        private final Object lock = new Object();
+        private final Iterator<List<ResolvedArtifact>> pending;
+        private final Map<ResolvedArtifact, Throwable> failures = new HashMap<ResolvedArtifact, Throwable>();
+        private final Collection<? extends ResolvedArtifact> artifacts;
+        private final ProgressLogger progressLogger;
+        private int running;
+        private int downloaded;
+
+        private ParallelDownload(Collection<? extends ResolvedArtifact> artifacts, List<List<ResolvedArtifact>> modules,
+                                 ProgressLogger progressLogger) {
+            this.artifacts = artifacts;
+            this.pending = modules.iterator();
+            this.progressLogger = progressLogger;
+        }
+
+        public void run(StoppableExecutor executor) {
+            synchronized (lock) {
+                while (true) {
+                    while (failures.isEmpty() && running < maxDownloads && pending.hasNext()) {
+                        final List<ResolvedArtifact> module = pending.next();
+                        final IvyContext context = new IvyContext(IvyContext.getContext());
+                        running++;
+                        executor.execute(new Runnable() {
+                            public void run() {
+                                IvyContext.pushContext(context);
+                                DOWNLOAD_THREAD.set(Boolean.TRUE);
+                                try {
+                                    downloadModule(module);
+                                } finally {
+                                    DOWNLOAD_THREAD.remove();
+                                    IvyContext.popContext();
+                                }
+                            }
+                        });
+                    }
+                    if (running == 0) {
+                        return;
+                    }
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        throw new UncheckedException(e);
+                    }
+                }
+            }
+        }
+
+        private void downloadModule(List<ResolvedArtifact> module) {
+            try {
+                for (ResolvedArtifact artifact : module) {
+                    Throwable failure = null;
+                    ProgressLogger artifactProgressLogger = progressLoggerFactory.start(
+                            ParallelArtifactDownloader.class.getName());
+                    try {
+                        artifactProgressLogger.progress(String.format("Downloading %s", artifact));
+                        artifact.getFile();
+                    } catch (Throwable throwable) {
+                        failure = throwable;
+                    } finally {
+                        artifactProgressLogger.completed();
+                    }
+                    artifactFinished(artifact, failure);
+                    if (failure != null) {
+                        return;
+                    }
+                }
+            } finally {
+                synchronized (lock) {
+                    running--;
+                    lock.notifyAll();
+                }
+            }
+        }
+
+        private void artifactFinished(ResolvedArtifact artifact, Throwable failure) {
+            synchronized (lock) {
+                if (failure != null) {
+                    failures.put(artifact, failure);
+                    return;
+                }
+                downloaded++;
+                progressLogger.progress(String.format("%s/%s artifacts", downloaded, artifacts.size()));
+            }
+        }
+
+        /**
+         * Rethrows the failure of the first failed artifact, in the order that the artifacts were given.
+         */
+        public void rethrowFailure() {
+            for (ResolvedArtifact artifact : artifacts) {
+                Throwable failure = failures.get(artifact);
+                if (failure instanceof Error) {
+                    throw (Error) failure;
+                }
+                if (failure != null) {
+                    throw UncheckedException.asUncheckedException(failure);
+                }
+            }
+        }
+    }
+}
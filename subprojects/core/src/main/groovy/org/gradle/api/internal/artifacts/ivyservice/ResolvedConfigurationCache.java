@@ -0,0 +1,60 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentIndexedCache;
+
+import java.io.File;
+
+/**
+ * A persistent cache of {@link ResolvedConfigurationSnapshot}s, shared by all builds which use the same Gradle user
+ * home directory. This cache can be used by multiple threads concurrently.
+ */
+public class ResolvedConfigurationCache {
+    private final PersistentIndexedCache<String, ResolvedConfigurationSnapshot> cache;
+
+    public ResolvedConfigurationCache(CacheRepository cacheRepository) {
+        cache = cacheRepository.cache("resolvedConfigurations").open().openIndexedCache(
+                new ResolvedConfigurationSnapshot.SnapshotSerializer());
+    }
+
+    /**
+     * Returns the snapshot for the given key, or null if there is no such snapshot, or if any of the files of the
+     * snapshot no longer exist.
+     */
+    public ResolvedConfigurationSnapshot get(String key) {
+        ResolvedConfigurationSnapshot snapshot;
+        synchronized (cache) {
+            snapshot = cache.get(key);
+        }
+        if (snapshot == null) {
+            return null;
+        }
+        for (File file : snapshot.getFiles()) {
+            if (!file.exists()) {
+                return null;
+            }
+        }
+        return snapshot;
+    }
+
+    public void put(String key, ResolvedConfigurationSnapshot snapshot) {
+        synchronized (cache) {
+            cache.put(key, snapshot);
+        }
+    }
+}
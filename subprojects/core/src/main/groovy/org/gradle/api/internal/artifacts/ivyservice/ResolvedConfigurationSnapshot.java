@@ -0,0 +1,513 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.artifacts.*;
+import org.gradle.api.internal.artifacts.DefaultResolvedDependency;
+import org.gradle.api.specs.Spec;
+import org.gradle.cache.Serializer;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A snapshot of the module dependency graph and artifact files of a successfully resolved configuration, which can be
+ * persisted and later used in place of resolving the configuration again. Does not include the files of any
+ * self-resolving dependencies of the configuration.
+ */
+public class ResolvedConfigurationSnapshot {
+    private final List<File> files;
+    private final List<NodeSnapshot> nodes;
+    private final List<ArtifactSnapshot> artifacts;
+    private final int[] firstLevelNodes;
+    private final int[] resolvedArtifacts;
+    private final Map<String, int[]> dependencyFiles;
+
+    private ResolvedConfigurationSnapshot(List<File> files, List<NodeSnapshot> nodes, List<ArtifactSnapshot> artifacts,
+                                          int[] firstLevelNodes, int[] resolvedArtifacts,
+                                          Map<String, int[]> dependencyFiles) {
+        this.files = files;
+        this.nodes = nodes;
+        this.artifacts = artifacts;
+        this.firstLevelNodes = firstLevelNodes;
+        this.resolvedArtifacts = resolvedArtifacts;
+        this.dependencyFiles = dependencyFiles;
+    }
+
+    /**
+     * Creates a snapshot of the given resolve result. Downloads the artifacts of the result, if they have not already
+     * been downloaded.
+     *
+     * @param resolvedConfiguration The result. Must not have failed.
+     * @param dependencyFiles The files of each module dependency of the configuration, keyed by dependency id.
+     */
+    public static ResolvedConfigurationSnapshot create(ResolvedConfiguration resolvedConfiguration,
+                                                       Map<String, Set<File>> dependencyFiles) {
+        Builder builder = new Builder();
+        int[] resolvedArtifacts = builder.artifacts(resolvedConfiguration.getResolvedArtifacts());
+        int[] firstLevelNodes = builder.nodes(resolvedConfiguration.getFirstLevelModuleDependencies());
+        builder.addReachableNodes();
+        Map<String, int[]> filesById = new HashMap<String, int[]>();
+        for (Map.Entry<String, Set<File>> entry : dependencyFiles.entrySet()) {
+            filesById.put(entry.getKey(), builder.files(entry.getValue()));
+        }
+        return new ResolvedConfigurationSnapshot(new ArrayList<File>(builder.files.keySet()), builder.nodes,
+                builder.artifacts, firstLevelNodes, resolvedArtifacts, filesById);
+    }
+
+    /**
+     * Returns the files referenced by this snapshot.
+     */
+    public List<File> getFiles() {
+        return files;
+    }
+
+    /**
+     * Creates a {@link ResolvedConfiguration} from this snapshot.
+     *
+     * @param configuration The configuration which was resolved.
+     * @param dependencyIds The id of each module dependency of the configuration.
+     */
+    public ResolvedConfiguration restore(Configuration configuration, Map<ModuleDependency, String> dependencyIds) {
+        List<DefaultResolvedDependency> resolvedDependencies = new ArrayList<DefaultResolvedDependency>(nodes.size());
+        List<Set<ResolvedArtifact>> moduleArtifacts = new ArrayList<Set<ResolvedArtifact>>(nodes.size());
+        for (NodeSnapshot node : nodes) {
+            Set<ResolvedArtifact> artifactsForNode = new LinkedHashSet<ResolvedArtifact>();
+            moduleArtifacts.add(artifactsForNode);
+            resolvedDependencies.add(new DefaultResolvedDependency(node.name, node.group, node.module, node.version,
+                    node.configuration, artifactsForNode));
+        }
+        List<ResolvedArtifact> restoredArtifacts = new ArrayList<ResolvedArtifact>(artifacts.size());
+        for (ArtifactSnapshot artifact : artifacts) {
+            restoredArtifacts.add(new SnapshotResolvedArtifact(artifact.name, artifact.type, artifact.extension,
+                    artifact.file < 0 ? null : files.get(artifact.file),
+                    artifact.dependency < 0 ? null : resolvedDependencies.get(artifact.dependency)));
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            NodeSnapshot node = nodes.get(i);
+            DefaultResolvedDependency resolvedDependency = resolvedDependencies.get(i);
+            addAll(moduleArtifacts.get(i), restoredArtifacts, node.moduleArtifacts);
+            addAll(resolvedDependency.getChildren(), resolvedDependencies, node.children);
+            addAll(resolvedDependency.getParents(), resolvedDependencies, node.parents);
+            for (int j = 0; j < node.parents.length; j++) {
+                Set<ResolvedArtifact> parentArtifacts = new LinkedHashSet<ResolvedArtifact>();
+                addAll(parentArtifacts, restoredArtifacts, node.parentArtifacts[j]);
+                resolvedDependency.addParentSpecificArtifacts(resolvedDependencies.get(node.parents[j]),
+                        parentArtifacts);
+            }
+        }
+
+        Set<ResolvedDependency> firstLevel = new LinkedHashSet<ResolvedDependency>();
+        addAll(firstLevel, resolvedDependencies, firstLevelNodes);
+        Set<ResolvedArtifact> allArtifacts = new LinkedHashSet<ResolvedArtifact>();
+        addAll(allArtifacts, restoredArtifacts, resolvedArtifacts);
+        return new SnapshotResolvedConfiguration(configuration, dependencyIds, firstLevel, allArtifacts);
+    }
+
+    private static <T> void addAll(Collection<? super T> target, List<? extends T> source, int[] indexes) {
+        for (int index : indexes) {
+            target.add(source.get(index));
+        }
+    }
+
+    private class SnapshotResolvedConfiguration implements ResolvedConfiguration {
+        private final Configuration configuration;
+        private final Map<ModuleDependency, String> dependencyIds;
+        private final Set<ResolvedDependency> firstLevelDependencies;
+        private final Set<ResolvedArtifact> resolvedArtifacts;
+
+        private SnapshotResolvedConfiguration(Configuration configuration,
+                                              Map<ModuleDependency, String> dependencyIds,
+                                              Set<ResolvedDependency> firstLevelDependencies,
+                                              Set<ResolvedArtifact> resolvedArtifacts) {
+            this.configuration = configuration;
+            this.dependencyIds = dependencyIds;
+            this.firstLevelDependencies = firstLevelDependencies;
+            this.resolvedArtifacts = resolvedArtifacts;
+        }
+
+        public boolean hasError() {
+            return false;
+        }
+
+        public void rethrowFailure() throws ResolveException {
+        }
+
+        public Set<File> getFiles(Spec<Dependency> dependencySpec) {
+            Set<File> result = new LinkedHashSet<File>();
+            for (ModuleDependency dependency : configuration.getAllDependencies(ModuleDependency.class)) {
+                if (!dependencySpec.isSatisfiedBy(dependency)) {
+                    continue;
+                }
+                int[] indexes = dependencyFiles.get(dependencyIds.get(dependency));
+                if (indexes != null) {
+                    addAll(result, files, indexes);
+                }
+            }
+            return result;
+        }
+
+        public Set<ResolvedDependency> getFirstLevelModuleDependencies() {
+            return firstLevelDependencies;
+        }
+
+        public Set<ResolvedArtifact> getResolvedArtifacts() {
+            return resolvedArtifacts;
+        }
+    }
+
+    private static class SnapshotResolvedArtifact implements ResolvedArtifact {
+        private final String name;
+        private final String type;
+        private final String extension;
+        private final File file;
+        private final ResolvedDependency resolvedDependency;
+
+        private SnapshotResolvedArtifact(String name, String type, String extension, File file,
+                                         ResolvedDependency resolvedDependency) {
+            this.name = name;
+            this.type = type;
+            this.extension = extension;
+            this.file = file;
+            this.resolvedDependency = resolvedDependency;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public ResolvedDependency getResolvedDependency() {
+            return resolvedDependency;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s;%s", resolvedDependency, name);
+        }
+    }
+
+    private static class NodeSnapshot {
+        String name;
+        String group;
+        String module;
+        String version;
+        String configuration;
+        int[] children;
+        int[] parents;
+        int[] moduleArtifacts;
+        int[][] parentArtifacts;
+    }
+
+    private static class ArtifactSnapshot {
+        String name;
+        String type;
+        String extension;
+        int file;
+        int dependency;
+    }
+
+    /**
+     * Assigns an index to each node, artifact and file of a resolve result.
+     */
+    private static class Builder {
+        private final Map<ResolvedDependency, Integer> nodeIndexes = new IdentityHashMap<ResolvedDependency, Integer>();
+        private final List<ResolvedDependency> resolvedDependencies = new ArrayList<ResolvedDependency>();
+        private final List<NodeSnapshot> nodes = new ArrayList<NodeSnapshot>();
+        private final Map<ResolvedArtifact, Integer> artifactIndexes = new IdentityHashMap<ResolvedArtifact, Integer>();
+        private final List<ArtifactSnapshot> artifacts = new ArrayList<ArtifactSnapshot>();
+        private final Map<File, Integer> files = new LinkedHashMap<File, Integer>();
+
+        void addReachableNodes() {
+            for (int i = 0; i < resolvedDependencies.size(); i++) {
+                ResolvedDependency resolvedDependency = resolvedDependencies.get(i);
+                NodeSnapshot node = nodes.get(i);
+                node.children = nodes(resolvedDependency.getChildren());
+                node.parents = nodes(resolvedDependency.getParents());
+                node.moduleArtifacts = artifacts(resolvedDependency.getModuleArtifacts());
+                node.parentArtifacts = new int[node.parents.length][];
+                int j = 0;
+                for (ResolvedDependency parent : resolvedDependency.getParents()) {
+                    node.parentArtifacts[j++] = artifacts(resolvedDependency.getParentArtifacts(parent));
+                }
+            }
+        }
+
+        int[] nodes(Collection<ResolvedDependency> dependencies) {
+            int[] indexes = new int[dependencies.size()];
+            int i = 0;
+            for (ResolvedDependency resolvedDependency : dependencies) {
+                indexes[i++] = node(resolvedDependency);
+            }
+            return indexes;
+        }
+
+        int node(ResolvedDependency resolvedDependency) {
+            Integer index = nodeIndexes.get(resolvedDependency);
+            if (index == null) {
+                index = nodes.size();
+                nodeIndexes.put(resolvedDependency, index);
+                resolvedDependencies.add(resolvedDependency);
+                NodeSnapshot node = new NodeSnapshot();
+                node.name = resolvedDependency.getName();
+                node.group = resolvedDependency.getModuleGroup();
+                node.module = resolvedDependency.getModuleName();
+                node.version = resolvedDependency.getModuleVersion();
+                node.configuration = resolvedDependency.getConfiguration();
+                nodes.add(node);
+            }
+            return index;
+        }
+
+        int[] artifacts(Collection<ResolvedArtifact> values) {
+            int[] indexes = new int[values.size()];
+            int i = 0;
+            for (ResolvedArtifact resolvedArtifact : values) {
+                indexes[i++] = artifact(resolvedArtifact);
+            }
+            return indexes;
+        }
+
+        int artifact(ResolvedArtifact resolvedArtifact) {
+            Integer index = artifactIndexes.get(resolvedArtifact);
+            if (index == null) {
+                index = artifacts.size();
+                artifactIndexes.put(resolvedArtifact, index);
+                ArtifactSnapshot artifact = new ArtifactSnapshot();
+                artifact.name = resolvedArtifact.getName();
+                artifact.type = resolvedArtifact.getType();
+                artifact.extension = resolvedArtifact.getExtension();
+                File file = resolvedArtifact.getFile();
+                artifact.file = file == null ? -1 : file(file);
+                ResolvedDependency resolvedDependency = resolvedArtifact.getResolvedDependency();
+                artifact.dependency = resolvedDependency == null ? -1 : node(resolvedDependency);
+                artifacts.add(artifact);
+            }
+            return index;
+        }
+
+        int[] files(Collection<File> values) {
+            int[] indexes = new int[values.size()];
+            int i = 0;
+            for (File file : values) {
+                indexes[i++] = file(file);
+            }
+            return indexes;
+        }
+
+        int file(File file) {
+            Integer index = files.get(file);
+            if (index == null) {
+                index = files.size();
+                files.put(file, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * A compact binary {@link Serializer} for snapshots. Strings are written once, and later occurrences are written as
+     * a reference to the first.
+     */
+    public static class SnapshotSerializer implements Serializer<ResolvedConfigurationSnapshot> {
+        private static final int VERSION = 1;
+
+        public ResolvedConfigurationSnapshot read(InputStream instr) throws Exception {
+            Input input = new Input(new DataInputStream(instr));
+            if (input.input.read() != VERSION) {
+                return null;
+            }
+            List<File> files = new ArrayList<File>();
+            for (int i = input.readInt(); i > 0; i--) {
+                files.add(new File(input.readString()));
+            }
+            List<NodeSnapshot> nodes = new ArrayList<NodeSnapshot>();
+            for (int i = input.readInt(); i > 0; i--) {
+                NodeSnapshot node = new NodeSnapshot();
+                node.name = input.readString();
+                node.group = input.readString();
+                node.module = input.readString();
+                node.version = input.readString();
+                node.configuration = input.readString();
+                node.children = input.readInts();
+                node.parents = input.readInts();
+                node.moduleArtifacts = input.readInts();
+                node.parentArtifacts = new int[node.parents.length][];
+                for (int j = 0; j < node.parents.length; j++) {
+                    node.parentArtifacts[j] = input.readInts();
+                }
+                nodes.add(node);
+            }
+            List<ArtifactSnapshot> artifacts = new ArrayList<ArtifactSnapshot>();
+            for (int i = input.readInt(); i > 0; i--) {
+                ArtifactSnapshot artifact = new ArtifactSnapshot();
+                artifact.name = input.readString();
+                artifact.type = input.readString();
+                artifact.extension = input.readString();
+                artifact.file = input.readInt() - 1;
+                artifact.dependency = input.readInt() - 1;
+                artifacts.add(artifact);
+            }
+            int[] firstLevelNodes = input.readInts();
+            int[] resolvedArtifacts = input.readInts();
+            Map<String, int[]> dependencyFiles = new HashMap<String, int[]>();
+            for (int i = input.readInt(); i > 0; i--) {
+                dependencyFiles.put(input.readString(), input.readInts());
+            }
+            return new ResolvedConfigurationSnapshot(files, nodes, artifacts, firstLevelNodes, resolvedArtifacts,
+                    dependencyFiles);
+        }
+
+        public void write(OutputStream outstr, ResolvedConfigurationSnapshot value) throws Exception {
+            DataOutputStream dataOutput = new DataOutputStream(outstr);
+            dataOutput.writeByte(VERSION);
+            Output output = new Output(dataOutput);
+            output.writeInt(value.files.size());
+            for (File file : value.files) {
+                output.writeString(file.getPath());
+            }
+            output.writeInt(value.nodes.size());
+            for (NodeSnapshot node : value.nodes) {
+                output.writeString(node.name);
+                output.writeString(node.group);
+                output.writeString(node.module);
+                output.writeString(node.version);
+                output.writeString(node.configuration);
+                output.writeInts(node.children);
+                output.writeInts(node.parents);
+                output.writeInts(node.moduleArtifacts);
+                for (int[] parentArtifacts : node.parentArtifacts) {
+                    output.writeInts(parentArtifacts);
+                }
+            }
+            output.writeInt(value.artifacts.size());
+            for (ArtifactSnapshot artifact : value.artifacts) {
+                output.writeString(artifact.name);
+                output.writeString(artifact.type);
+                output.writeString(artifact.extension);
+                output.writeInt(artifact.file + 1);
+                output.writeInt(artifact.dependency + 1);
+            }
+            output.writeInts(value.firstLevelNodes);
+            output.writeInts(value.resolvedArtifacts);
+            output.writeInt(value.dependencyFiles.size());
+            for (Map.Entry<String, int[]> entry : value.dependencyFiles.entrySet()) {
+                output.writeString(entry.getKey());
+                output.writeInts(entry.getValue());
+            }
+            dataOutput.flush();
+        }
+
+        private static class Output {
+            private final DataOutputStream output;
+            private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+            private Output(DataOutputStream output) {
+                this.output = output;
+            }
+
+            /**
+             * Writes a non-negative int using 1 byte for values less than 128, 2 bytes for values less than 16384, and
+             * so on.
+             */
+            void writeInt(int value) throws IOException {
+                while ((value & ~0x7F) != 0) {
+                    output.writeByte((value & 0x7F) | 0x80);
+                    value >>>= 7;
+                }
+                output.writeByte(value);
+            }
+
+            void writeInts(int[] values) throws IOException {
+                writeInt(values.length);
+                for (int value : values) {
+                    writeInt(value);
+                }
+            }
+
+            void writeString(String value) throws IOException {
+                if (value == null) {
+                    writeInt(0);
+                    return;
+                }
+                Integer index = strings.get(value);
+                if (index != null) {
+                    writeInt(index + 2);
+                    return;
+                }
+                strings.put(value, strings.size());
+                writeInt(1);
+                output.writeUTF(value);
+            }
+        }
+
+        private static class Input {
+            private final DataInputStream input;
+            private final List<String> strings = new ArrayList<String>();
+
+            private Input(DataInputStream input) {
+                this.input = input;
+            }
+
+            int readInt() throws IOException {
+                int value = 0;
+                int shift = 0;
+                int b;
+                do {
+                    b = input.readUnsignedByte();
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while ((b & 0x80) != 0);
+                return value;
+            }
+
+            int[] readInts() throws IOException {
+                int[] values = new int[readInt()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = readInt();
+                }
+                return values;
+            }
+
+            String readString() throws IOException {
+                int code = readInt();
+                if (code == 0) {
+                    return null;
+                }
+                if (code == 1) {
+                    String value = input.readUTF();
+                    strings.add(value);
+                    return value;
+                }
+                if (code - 2 >= strings.size()) {
+                    throw new IOException(String.format("Unexpected string reference %d found.", code - 2));
+                }
+                return strings.get(code - 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.artifacts.ResolvedConfiguration;
+
+/**
+ * A {@link ResolvedConfiguration} which knows whether any module in its dependency graph was requested using a
+ * dynamic or changing revision.
+ */
+public interface RevisionAwareResolvedConfiguration extends ResolvedConfiguration {
+    /**
+     * Returns true if any module in the dependency graph, including transitive dependencies, was requested using a
+     * dynamic revision, such as a version range, a latest.* revision or a snapshot, or was declared as changing. The
+     * result of resolving such a configuration may change over time.
+     */
+    boolean hasDynamicRevisions();
+}
@@ -40,7 +40,15 @@ public class SelfResolvingDependencyResolver implements IvyDependencyResolver {
     }
 
     public ResolvedConfiguration resolve(final Configuration configuration, Ivy ivy, ModuleDescriptor moduleDescriptor) {
-        final ResolvedConfiguration resolvedConfiguration = resolver.resolve(configuration, ivy, moduleDescriptor);
+        return withSelfResolvingDependencies(configuration, resolver.resolve(configuration, ivy, moduleDescriptor));
+    }
+
+    /**
+     * Returns a {@link ResolvedConfiguration} which includes the files of the self-resolving dependencies of the given
+     * configuration, in addition to the files of the given module resolve result.
+     */
+    static ResolvedConfiguration withSelfResolvingDependencies(final Configuration configuration,
+                                                               final ResolvedConfiguration resolvedConfiguration) {
         final Set<DependencyInternal> dependencies = configuration.getAllDependencies(DependencyInternal.class);
 
         return new ResolvedConfiguration() {
@@ -21,10 +21,14 @@ import org.gradle.cache.Serializer;
 
 import java.io.*;
 
+/**
+ * A {@link Hasher} which reuses the hash of a file from a persistent cache, when the length and timestamp of the file
+ * have not changed. This hasher can be used by multiple threads concurrently, provided the target hasher can be. Only
+ * access to the cache is serialised.
+ */
 public class CachingHasher implements Hasher {
     private final PersistentIndexedCache<File, FileInfo> cache;
     private final Hasher hasher;
-    private long timestamp;
 
     public CachingHasher(Hasher hasher, CacheRepository cacheRepository) {
         this.hasher = hasher;
@@ -32,16 +36,21 @@ public class CachingHasher implements Hasher {
     }
 
     public byte[] hash(File file) {
-        FileInfo info = cache.get(file);
+        FileInfo info;
+        synchronized (cache) {
+            info = cache.get(file);
+        }
 
         long length = file.length();
-        timestamp = file.lastModified();
+        long timestamp = file.lastModified();
         if (info != null && length == info.length && timestamp == info.timestamp) {
             return info.hash;
         }
 
         byte[] hash = hasher.hash(file);
-        cache.put(file, new FileInfo(hash, length, timestamp));
+        synchronized (cache) {
+            cache.put(file, new FileInfo(hash, length, timestamp));
+        }
         return hash;
     }
 
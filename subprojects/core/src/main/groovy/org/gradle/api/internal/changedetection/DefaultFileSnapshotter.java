@@ -18,19 +18,45 @@ package org.gradle.api.internal.changedetection;
 
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.file.SimpleFileCollection;
+import org.gradle.messaging.concurrent.ExecutorFactory;
+import org.gradle.messaging.concurrent.Stoppable;
+import org.gradle.messaging.concurrent.StoppableExecutor;
 import org.gradle.util.ChangeListener;
 import org.gradle.util.NoOpChangeListener;
+import org.gradle.util.UncheckedException;
 
 import java.io.File;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.*;
-
-public class DefaultFileSnapshotter implements FileSnapshotter {
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Creates snapshots of the content of a set of files. When constructed with an {@link ExecutorFactory}, the files of
+ * large file collections are hashed concurrently using a bounded number of threads. The resulting snapshot is the same
+ * regardless of the order in which the files are hashed.
+ *
+ * <p>The executor is created on first use and shared by all snapshots, so that its threads, and any per-thread state
+ * the {@link Hasher} keeps, are reused for the lifetime of this snapshotter. It is stopped by {@link #stop()}, or when
+ * the executor factory is stopped.</p>
+ */
+public class DefaultFileSnapshotter implements FileSnapshotter, Stoppable {
+    static final int MIN_FILES_TO_HASH_IN_PARALLEL = 32;
     private final Hasher hasher;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+    private StoppableExecutor executor;
 
     public DefaultFileSnapshotter(Hasher hasher) {
+        this(hasher, null, 1);
+    }
+
+    public DefaultFileSnapshotter(Hasher hasher, ExecutorFactory executorFactory, int maxThreads) {
         this.hasher = hasher;
+        this.executorFactory = executorFactory;
+        this.maxThreads = executorFactory == null ? 1 : maxThreads;
     }
 
     public FileCollectionSnapshot snapshot() {
@@ -39,24 +65,91 @@ public class DefaultFileSnapshotter implements FileSnapshotter {
 
     public FileCollectionSnapshot snapshot(FileCollection sourceFiles) {
         Map<String, FileSnapshot> snapshots = new HashMap<String, FileSnapshot>();
+        List<File> filesToHash = new ArrayList<File>();
         for (File file : sourceFiles.getAsFileTree()) {
             if (file.isFile()) {
-                snapshots.put(file.getAbsolutePath(), new FileHashSnapshot(hasher.hash(file)));
+                filesToHash.add(file);
             } else if (file.isDirectory()) {
                 snapshots.put(file.getAbsolutePath(), new DirSnapshot());
             } else {
                 snapshots.put(file.getAbsolutePath(), new MissingFileSnapshot());
             }
         }
+
+        byte[][] hashes = hash(filesToHash);
+        for (int i = 0; i < hashes.length; i++) {
+            snapshots.put(filesToHash.get(i).getAbsolutePath(), new FileHashSnapshot(hashes[i]));
+        }
         return new FileCollectionSnapshotImpl(snapshots);
     }
 
-    private interface FileSnapshot extends Serializable {
+    byte[][] hash(final List<File> files) {
+        final byte[][] hashes = new byte[files.size()][];
+        if (maxThreads <= 1 || files.size() < MIN_FILES_TO_HASH_IN_PARALLEL) {
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = hasher.hash(files.get(i));
+            }
+            return hashes;
+        }
+
+        final AtomicInteger nextFile = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        int workers = Math.min(maxThreads, files.size());
+        final CountDownLatch finished = new CountDownLatch(workers);
+        StoppableExecutor executor = getExecutor();
+        for (int i = 0; i < workers; i++) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        for (int index = nextFile.getAndIncrement(); index < hashes.length && failure.get() == null;
+                             index = nextFile.getAndIncrement()) {
+                            hashes[index] = hasher.hash(files.get(index));
+                        }
+                    } catch (Throwable throwable) {
+                        failure.compareAndSet(null, throwable);
+                    } finally {
+                        finished.countDown();
+                    }
+                }
+            });
+        }
+
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            throw UncheckedException.asUncheckedException(e);
+        }
+
+        if (failure.get() != null) {
+            throw UncheckedException.asUncheckedException(failure.get());
+        }
+        return hashes;
+    }
+
+    private synchronized StoppableExecutor getExecutor() {
+        if (executor == null) {
+            executor = executorFactory.create("Hash files");
+        }
+        return executor;
+    }
+
+    public void stop() {
+        StoppableExecutor executor;
+        synchronized (this) {
+            executor = this.executor;
+            this.executor = null;
+        }
+        if (executor != null) {
+            executor.stop();
+        }
+    }
+
+    interface FileSnapshot extends Serializable {
         boolean isUpToDate(FileSnapshot snapshot);
     }
 
-    private static class FileHashSnapshot implements FileSnapshot {
-        private final byte[] hash;
+    static class FileHashSnapshot implements FileSnapshot {
+        final byte[] hash;
 
         public FileHashSnapshot(byte[] hash) {
             this.hash = hash;
@@ -77,20 +170,20 @@ public class DefaultFileSnapshotter implements FileSnapshotter {
         }
     }
 
-    private static class DirSnapshot implements FileSnapshot {
+    static class DirSnapshot implements FileSnapshot {
         public boolean isUpToDate(FileSnapshot snapshot) {
             return snapshot instanceof DirSnapshot;
         }
     }
 
-    private static class MissingFileSnapshot implements FileSnapshot {
+    static class MissingFileSnapshot implements FileSnapshot {
         public boolean isUpToDate(FileSnapshot snapshot) {
             return snapshot instanceof MissingFileSnapshot;
         }
     }
 
-    private static class FileCollectionSnapshotImpl implements FileCollectionSnapshot {
-        private final Map<String, FileSnapshot> snapshots;
+    static class FileCollectionSnapshotImpl implements FileCollectionSnapshot {
+        final Map<String, FileSnapshot> snapshots;
 
         public FileCollectionSnapshotImpl(Map<String, FileSnapshot> snapshots) {
             this.snapshots = snapshots;
@@ -99,7 +192,8 @@ public class DefaultFileSnapshotter implements FileSnapshotter {
         public FileCollection getFiles() {
             List<File> files = new ArrayList<File>();
             for (Map.Entry<String, FileSnapshot> entry : snapshots.entrySet()) {
-                if (entry.getValue() instanceof FileHashSnapshot) {
+                if (entry.getValue() instanceof FileHashSnapshot
+                        || entry.getValue() instanceof FileMetadataSnapshotter.FileMetadataSnapshot) {
                     files.add(new File(entry.getKey()));
                 }
             }
@@ -23,25 +23,30 @@ import org.gradle.api.internal.file.SimpleFileCollection;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.cache.CacheRepository;
-import org.gradle.cache.DefaultSerializer;
 import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.Serializer;
 import org.gradle.util.ChangeListener;
+import org.gradle.util.ClassLoaderObjectInputStream;
 import org.gradle.util.DiffUtil;
 
-import java.io.File;
-import java.io.Serializable;
+import java.io.*;
 import java.util.*;
 
 import static java.util.Collections.*;
 
+/**
+ * A {@link TaskArtifactStateRepository} which keeps task history in a persistent cache. Tasks may be executed
+ * concurrently, so access to the task history cache and its serializer is synchronized on this repository.
+ */
 public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepository {
     private static final int MAX_OUT_OF_DATE_MESSAGES = 10;
     private static final Logger LOGGER = Logging.getLogger(DefaultTaskArtifactStateRepository.class);
     private final CacheRepository repository;
     private final FileSnapshotter inputFilesSnapshotter;
     private final FileSnapshotter outputFilesSnapshotter;
+    private final Object lock = new Object();
     private PersistentIndexedCache<String, TaskHistory> taskHistoryCache;
-    private DefaultSerializer<TaskHistory> serializer;
+    private TaskHistorySerializer serializer;
 
     public DefaultTaskArtifactStateRepository(CacheRepository repository, FileSnapshotter inputFilesSnapshotter, FileSnapshotter outputFilesSnapshotter) {
         this.repository = repository;
@@ -50,15 +55,17 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
     }
 
     public TaskArtifactState getStateFor(final TaskInternal task) {
-        if (taskHistoryCache == null) {
-            loadTasks(task);
+        synchronized (lock) {
+            if (taskHistoryCache == null) {
+                loadTasks(task);
+            }
         }
 
         return new TaskArtifactStateImpl(task);
     }
 
     private void loadTasks(TaskInternal task) {
-        serializer = new DefaultSerializer<TaskHistory>();
+        serializer = new TaskHistorySerializer();
         taskHistoryCache = repository.cache("taskArtifacts").forObject(task.getProject().getGradle()).open().openIndexedCache(serializer);
     }
 
@@ -78,7 +85,7 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
         FileCollection getPreviousOutputFiles();
     }
 
-    private static class TaskHistory implements Serializable {
+    private static class TaskHistory {
         private static final int MAX_HISTORY_ENTRIES = 3;
         private final List<TaskConfiguration> configurations = new ArrayList<TaskConfiguration>();
 
@@ -262,7 +269,7 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
         }
     }
 
-    private static class TaskConfiguration implements Serializable {
+    private static class TaskConfiguration {
         private final String taskClass;
         private Set<String> outputFiles;
         private Map<String, Object> inputProperties;
@@ -275,6 +282,111 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
             this.inputProperties = new HashMap<String, Object>(task.getInputs().getProperties());
             this.inputFilesSnapshot = inputFilesSnapshot;
         }
+
+        private TaskConfiguration(String taskClass, Set<String> outputFiles, Map<String, Object> inputProperties,
+                                  FileCollectionSnapshot inputFilesSnapshot,
+                                  FileCollectionSnapshot outputFilesSnapshot) {
+            this.taskClass = taskClass;
+            this.outputFiles = outputFiles;
+            this.inputProperties = inputProperties;
+            this.inputFilesSnapshot = inputFilesSnapshot;
+            this.outputFilesSnapshot = outputFilesSnapshot;
+        }
+    }
+
+    /**
+     * Writes task history using a compact binary format, rather than Java serialization. Only the input property
+     * values, which may be of any type, are Java serialized. Returns null when reading history written using a
+     * different version of the format, so that the history is discarded.
+     */
+    private static class TaskHistorySerializer implements Serializer<TaskHistory> {
+        private static final int VERSION = 1;
+        private final FileCollectionSnapshotSerializer snapshotSerializer = new FileCollectionSnapshotSerializer();
+        private ClassLoader classLoader = getClass().getClassLoader();
+
+        public ClassLoader getClassLoader() {
+            return classLoader;
+        }
+
+        public void setClassLoader(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        public TaskHistory read(InputStream instr) throws Exception {
+            DataInputStream input = new DataInputStream(instr);
+            if (input.read() != VERSION) {
+                return null;
+            }
+            TaskHistory history = new TaskHistory();
+            int count = FileCollectionSnapshotSerializer.readSmallInt(input);
+            for (int i = 0; i < count; i++) {
+                history.configurations.add(readConfiguration(input));
+            }
+            return history;
+        }
+
+        public void write(OutputStream outstr, TaskHistory value) throws Exception {
+            DataOutputStream output = new DataOutputStream(outstr);
+            output.writeByte(VERSION);
+            FileCollectionSnapshotSerializer.writeSmallInt(output, value.configurations.size());
+            for (TaskConfiguration configuration : value.configurations) {
+                writeConfiguration(output, configuration);
+            }
+            output.flush();
+        }
+
+        private TaskConfiguration readConfiguration(DataInputStream input) throws Exception {
+            String taskClass = input.readUTF();
+
+            int outputFileCount = FileCollectionSnapshotSerializer.readSmallInt(input);
+            Set<String> outputFiles = new HashSet<String>();
+            FileCollectionSnapshotSerializer.PathReader paths = new FileCollectionSnapshotSerializer.PathReader();
+            for (int i = 0; i < outputFileCount; i++) {
+                outputFiles.add(paths.read(input));
+            }
+
+            Map<String, Object> inputProperties;
+            int propertiesLength = FileCollectionSnapshotSerializer.readSmallInt(input);
+            if (propertiesLength == 0) {
+                inputProperties = new HashMap<String, Object>();
+            } else {
+                byte[] properties = new byte[propertiesLength];
+                input.readFully(properties);
+                inputProperties = (Map<String, Object>) new ClassLoaderObjectInputStream(new ByteArrayInputStream(
+                        properties), classLoader).readObject();
+            }
+
+            FileCollectionSnapshot inputFilesSnapshot = snapshotSerializer.readSnapshot(input);
+            FileCollectionSnapshot outputFilesSnapshot = snapshotSerializer.readSnapshot(input);
+            return new TaskConfiguration(taskClass, outputFiles, inputProperties, inputFilesSnapshot,
+                    outputFilesSnapshot);
+        }
+
+        private void writeConfiguration(DataOutputStream output, TaskConfiguration configuration) throws Exception {
+            output.writeUTF(configuration.taskClass);
+
+            String[] outputFiles = configuration.outputFiles.toArray(new String[configuration.outputFiles.size()]);
+            Arrays.sort(outputFiles);
+            FileCollectionSnapshotSerializer.writeSmallInt(output, outputFiles.length);
+            FileCollectionSnapshotSerializer.PathWriter paths = new FileCollectionSnapshotSerializer.PathWriter();
+            for (String outputFile : outputFiles) {
+                paths.write(output, outputFile);
+            }
+
+            if (configuration.inputProperties.isEmpty()) {
+                FileCollectionSnapshotSerializer.writeSmallInt(output, 0);
+            } else {
+                ByteArrayOutputStream properties = new ByteArrayOutputStream();
+                ObjectOutputStream objectStr = new ObjectOutputStream(properties);
+                objectStr.writeObject(configuration.inputProperties);
+                objectStr.close();
+                FileCollectionSnapshotSerializer.writeSmallInt(output, properties.size());
+                properties.writeTo(output);
+            }
+
+            snapshotSerializer.writeSnapshot(output, configuration.inputFilesSnapshot);
+            snapshotSerializer.writeSnapshot(output, configuration.outputFilesSnapshot);
+        }
     }
 
     private class TaskArtifactStateImpl implements TaskArtifactState {
@@ -314,13 +426,15 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
         }
 
         private TaskHistory getHistory() {
-            ClassLoader original = serializer.getClassLoader();
-            serializer.setClassLoader(task.getClass().getClassLoader());
-            try {
-                TaskHistory history = taskHistoryCache.get(task.getPath());
-                return history == null ? new TaskHistory() : history;
-            } finally {
-                serializer.setClassLoader(original);
+            synchronized (lock) {
+                ClassLoader original = serializer.getClassLoader();
+                serializer.setClassLoader(task.getClass().getClassLoader());
+                try {
+                    TaskHistory history = taskHistoryCache.get(task.getPath());
+                    return history == null ? new TaskHistory() : history;
+                } finally {
+                    serializer.setClassLoader(original);
+                }
             }
         }
 
@@ -357,7 +471,9 @@ public class DefaultTaskArtifactStateRepository implements TaskArtifactStateRepo
 
         public void update() {
             if (execution.snapshot()) {
-                taskHistoryCache.put(task.getPath(), history);
+                synchronized (lock) {
+                    taskHistoryCache.put(task.getPath(), history);
+                }
             }
         }
     }
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.changedetection;
+
+import org.gradle.cache.Serializer;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A compact binary {@link Serializer} for the {@link FileCollectionSnapshot} implementations created by {@link
+ * DefaultFileSnapshotter}, {@link FileMetadataSnapshotter} and {@link OutputFilesSnapshotter}.
+ *
+ * <p>Each snapshot is written as a type tag followed by its entries. Entries are written in path order, and each path
+ * is written as the length of the prefix it shares with the previous path followed by the remaining characters. File
+ * hashes are written as raw bytes.</p>
+ */
+public class FileCollectionSnapshotSerializer implements Serializer<FileCollectionSnapshot> {
+    private static final int VERSION = 1;
+    private static final int TYPE_NONE = 0;
+    private static final int TYPE_FILES = 1;
+    private static final int TYPE_OUTPUT_FILES = 2;
+    private static final int ENTRY_MISSING = 0;
+    private static final int ENTRY_DIR = 1;
+    private static final int ENTRY_FILE = 2;
+    private static final int ENTRY_FILE_METADATA = 3;
+
+    public FileCollectionSnapshot read(InputStream instr) throws Exception {
+        DataInputStream input = new DataInputStream(instr);
+        if (input.read() != VERSION) {
+            return null;
+        }
+        return readSnapshot(input);
+    }
+
+    public void write(OutputStream outstr, FileCollectionSnapshot value) throws Exception {
+        DataOutputStream output = new DataOutputStream(outstr);
+        output.writeByte(VERSION);
+        writeSnapshot(output, value);
+        output.flush();
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeSnapshot(DataOutputStream, FileCollectionSnapshot)}. Does not read a
+     * version header.
+     */
+    public FileCollectionSnapshot readSnapshot(DataInputStream input) throws IOException {
+        int type = input.readUnsignedByte();
+        switch (type) {
+            case TYPE_NONE:
+                return null;
+            case TYPE_FILES:
+                return readFiles(input);
+            case TYPE_OUTPUT_FILES:
+                return readOutputFiles(input);
+            default:
+                throw new IOException(String.format("Unexpected file collection snapshot type %d found.", type));
+        }
+    }
+
+    /**
+     * Writes the given snapshot, which may be null. Does not write a version header.
+     */
+    public void writeSnapshot(DataOutputStream output, FileCollectionSnapshot snapshot) throws IOException {
+        if (snapshot == null) {
+            output.writeByte(TYPE_NONE);
+        } else if (snapshot instanceof DefaultFileSnapshotter.FileCollectionSnapshotImpl) {
+            output.writeByte(TYPE_FILES);
+            writeFiles(output, (DefaultFileSnapshotter.FileCollectionSnapshotImpl) snapshot);
+        } else if (snapshot instanceof OutputFilesSnapshotter.OutputFilesSnapshot) {
+            output.writeByte(TYPE_OUTPUT_FILES);
+            writeOutputFiles(output, (OutputFilesSnapshotter.OutputFilesSnapshot) snapshot);
+        } else {
+            throw new IllegalArgumentException(String.format("Cannot serialize file collection snapshot of type %s.",
+                    snapshot.getClass().getName()));
+        }
+    }
+
+    private FileCollectionSnapshot readFiles(DataInputStream input) throws IOException {
+        int count = readSmallInt(input);
+        Map<String, DefaultFileSnapshotter.FileSnapshot> snapshots
+                = new HashMap<String, DefaultFileSnapshotter.FileSnapshot>(Math.max(16, count * 4 / 3 + 1));
+        PathReader paths = new PathReader();
+        for (int i = 0; i < count; i++) {
+            String path = paths.read(input);
+            int type = input.readUnsignedByte();
+            switch (type) {
+                case ENTRY_MISSING:
+                    snapshots.put(path, new DefaultFileSnapshotter.MissingFileSnapshot());
+                    break;
+                case ENTRY_DIR:
+                    snapshots.put(path, new DefaultFileSnapshotter.DirSnapshot());
+                    break;
+                case ENTRY_FILE:
+                    byte[] hash = new byte[readSmallInt(input)];
+                    input.readFully(hash);
+                    snapshots.put(path, new DefaultFileSnapshotter.FileHashSnapshot(hash));
+                    break;
+                case ENTRY_FILE_METADATA:
+                    long length = input.readLong();
+                    long lastModified = input.readLong();
+                    byte[] metadataHash = null;
+                    if (input.readBoolean()) {
+                        metadataHash = new byte[readSmallInt(input)];
+                        input.readFully(metadataHash);
+                    }
+                    snapshots.put(path, new FileMetadataSnapshotter.FileMetadataSnapshot(length, lastModified,
+                            metadataHash));
+                    break;
+                default:
+                    throw new IOException(String.format("Unexpected file snapshot type %d found.", type));
+            }
+        }
+        return new DefaultFileSnapshotter.FileCollectionSnapshotImpl(snapshots);
+    }
+
+    private void writeFiles(DataOutputStream output, DefaultFileSnapshotter.FileCollectionSnapshotImpl snapshot)
+            throws IOException {
+        Map<String, DefaultFileSnapshotter.FileSnapshot> snapshots = snapshot.snapshots;
+        String[] sortedPaths = snapshots.keySet().toArray(new String[snapshots.size()]);
+        Arrays.sort(sortedPaths);
+        writeSmallInt(output, sortedPaths.length);
+        PathWriter paths = new PathWriter();
+        for (String path : sortedPaths) {
+            paths.write(output, path);
+            DefaultFileSnapshotter.FileSnapshot fileSnapshot = snapshots.get(path);
+            if (fileSnapshot instanceof DefaultFileSnapshotter.FileHashSnapshot) {
+                byte[] hash = ((DefaultFileSnapshotter.FileHashSnapshot) fileSnapshot).hash;
+                output.writeByte(ENTRY_FILE);
+                writeSmallInt(output, hash.length);
+                output.write(hash);
+            } else if (fileSnapshot instanceof FileMetadataSnapshotter.FileMetadataSnapshot) {
+                FileMetadataSnapshotter.FileMetadataSnapshot metadata
+                        = (FileMetadataSnapshotter.FileMetadataSnapshot) fileSnapshot;
+                output.writeByte(ENTRY_FILE_METADATA);
+                output.writeLong(metadata.length);
+                output.writeLong(metadata.lastModified);
+                output.writeBoolean(metadata.hash != null);
+                if (metadata.hash != null) {
+                    writeSmallInt(output, metadata.hash.length);
+                    output.write(metadata.hash);
+                }
+            } else if (fileSnapshot instanceof DefaultFileSnapshotter.DirSnapshot) {
+                output.writeByte(ENTRY_DIR);
+            } else {
+                output.writeByte(ENTRY_MISSING);
+            }
+        }
+    }
+
+    private FileCollectionSnapshot readOutputFiles(DataInputStream input) throws IOException {
+        int count = readSmallInt(input);
+        Map<String, Long> rootFileIds = new HashMap<String, Long>();
+        PathReader paths = new PathReader();
+        for (int i = 0; i < count; i++) {
+            String path = paths.read(input);
+            rootFileIds.put(path, input.readBoolean() ? input.readLong() : null);
+        }
+        return new OutputFilesSnapshotter.OutputFilesSnapshot(rootFileIds, readSnapshot(input));
+    }
+
+    private void writeOutputFiles(DataOutputStream output, OutputFilesSnapshotter.OutputFilesSnapshot snapshot)
+            throws IOException {
+        Map<String, Long> rootFileIds = snapshot.rootFileIds;
+        String[] sortedPaths = rootFileIds.keySet().toArray(new String[rootFileIds.size()]);
+        Arrays.sort(sortedPaths);
+        writeSmallInt(output, sortedPaths.length);
+        PathWriter paths = new PathWriter();
+        for (String path : sortedPaths) {
+            paths.write(output, path);
+            Long id = rootFileIds.get(path);
+            output.writeBoolean(id != null);
+            if (id != null) {
+                output.writeLong(id);
+            }
+        }
+        writeSnapshot(output, snapshot.filesSnapshot);
+    }
+
+    /**
+     * Writes a non-negative int using 1 byte for values less than 128, 2 bytes for values less than 16384, and so on.
+     */
+    static void writeSmallInt(DataOutputStream output, int value) throws IOException {
+        assert value >= 0;
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    static int readSmallInt(DataInputStream input) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = input.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Writes a sequence of paths, sharing the prefix of each path with the path written before it.
+     */
+    static class PathWriter {
+        private String previous = "";
+
+        public void write(DataOutputStream output, String path) throws IOException {
+            int max = Math.min(previous.length(), path.length());
+            int common = 0;
+            while (common < max && previous.charAt(common) == path.charAt(common)) {
+                common++;
+            }
+            writeSmallInt(output, common);
+            output.writeUTF(path.substring(common));
+            previous = path;
+        }
+    }
+
+    /**
+     * Reads a sequence of paths written by a {@link PathWriter}.
+     */
+    static class PathReader {
+        private String previous = "";
+
+        public String read(DataInputStream input) throws IOException {
+            int common = readSmallInt(input);
+            if (common > previous.length()) {
+                throw new IOException(String.format("Unexpected shared path prefix length %d found.", common));
+            }
+            String path = previous.substring(0, common).concat(input.readUTF());
+            previous = path;
+            return path;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.changedetection;
+
+import org.gradle.api.file.FileCollection;
+import org.gradle.messaging.concurrent.ExecutorFactory;
+import org.gradle.util.TimeProvider;
+import org.gradle.util.TrueTimeProvider;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Creates snapshots of a set of files using the length and timestamp of each file rather than a hash of its content.
+ * This is intended for the output files of tasks, which Gradle has usually just written itself.
+ *
+ * <p>The timestamp of a file does not change when the file is modified again within the resolution of the file system
+ * clock. So, the content of a file whose timestamp is within {@link #AMBIGUOUS_TIMESTAMP_WINDOW} milliseconds of the
+ * time the snapshot is taken is hashed as well, and the hash is used when comparing the file with a later snapshot.
+ * These files are hashed using the given hasher, which should not itself cache hashes by length and timestamp.</p>
+ */
+public class FileMetadataSnapshotter implements FileSnapshotter {
+    static final long AMBIGUOUS_TIMESTAMP_WINDOW = 2000;
+    private final Hasher hasher;
+    private final DefaultFileSnapshotter hashingSnapshotter;
+    private final TimeProvider timeProvider;
+
+    public FileMetadataSnapshotter(Hasher hasher, ExecutorFactory executorFactory, int maxThreads) {
+        this(hasher, executorFactory, maxThreads, new TrueTimeProvider());
+    }
+
+    public FileMetadataSnapshotter(Hasher hasher, ExecutorFactory executorFactory, int maxThreads, TimeProvider timeProvider) {
+        this.hasher = hasher;
+        this.hashingSnapshotter = new DefaultFileSnapshotter(hasher, executorFactory, maxThreads);
+        this.timeProvider = timeProvider;
+    }
+
+    public FileCollectionSnapshot snapshot() {
+        return new DefaultFileSnapshotter.FileCollectionSnapshotImpl(
+                new HashMap<String, DefaultFileSnapshotter.FileSnapshot>());
+    }
+
+    public FileCollectionSnapshot snapshot(FileCollection sourceFiles) {
+        long ambiguousAfter = timeProvider.getCurrentTime() - AMBIGUOUS_TIMESTAMP_WINDOW;
+        Map<String, DefaultFileSnapshotter.FileSnapshot> snapshots
+                = new HashMap<String, DefaultFileSnapshotter.FileSnapshot>();
+        List<File> filesToHash = new ArrayList<File>();
+        List<FileMetadataSnapshot> ambiguousSnapshots = new ArrayList<FileMetadataSnapshot>();
+        for (File file : sourceFiles.getAsFileTree()) {
+            if (file.isFile()) {
+                FileMetadataSnapshot snapshot = new FileMetadataSnapshot(file.length(), file.lastModified(), null);
+                snapshot.file = file;
+                snapshot.hasher = hasher;
+                if (snapshot.lastModified > ambiguousAfter) {
+                    filesToHash.add(file);
+                    ambiguousSnapshots.add(snapshot);
+                }
+                snapshots.put(file.getAbsolutePath(), snapshot);
+            } else if (file.isDirectory()) {
+                snapshots.put(file.getAbsolutePath(), new DefaultFileSnapshotter.DirSnapshot());
+            } else {
+                snapshots.put(file.getAbsolutePath(), new DefaultFileSnapshotter.MissingFileSnapshot());
+            }
+        }
+
+        byte[][] hashes = hashingSnapshotter.hash(filesToHash);
+        for (int i = 0; i < hashes.length; i++) {
+            ambiguousSnapshots.get(i).hash = hashes[i];
+        }
+        return new DefaultFileSnapshotter.FileCollectionSnapshotImpl(snapshots);
+    }
+
+    /**
+     * The length and timestamp of a file, plus the hash of its content when the timestamp was ambiguous at the time
+     * the snapshot was taken.
+     */
+    static class FileMetadataSnapshot implements DefaultFileSnapshotter.FileSnapshot {
+        final long length;
+        final long lastModified;
+        byte[] hash;
+        // Used to hash the file when compared with a snapshot which carries a hash. Only set for a snapshot of the
+        // current state of a file.
+        transient File file;
+        transient Hasher hasher;
+
+        public FileMetadataSnapshot(long length, long lastModified, byte[] hash) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        public boolean isUpToDate(DefaultFileSnapshotter.FileSnapshot snapshot) {
+            if (snapshot instanceof DefaultFileSnapshotter.FileHashSnapshot) {
+                byte[] currentHash = getHash();
+                return currentHash != null
+                        && Arrays.equals(currentHash, ((DefaultFileSnapshotter.FileHashSnapshot) snapshot).hash);
+            }
+            if (!(snapshot instanceof FileMetadataSnapshot)) {
+                return false;
+            }
+
+            FileMetadataSnapshot other = (FileMetadataSnapshot) snapshot;
+            if (length != other.length || lastModified != other.lastModified) {
+                return false;
+            }
+            if (other.hash == null) {
+                return true;
+            }
+            byte[] currentHash = getHash();
+            return currentHash != null && Arrays.equals(currentHash, other.hash);
+        }
+
+        private byte[] getHash() {
+            if (hash == null && file != null) {
+                hash = hasher.hash(file);
+            }
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("length: %s, last modified: %s", length, lastModified);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.changedetection;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Hasher} which reuses the hash of a file from an {@link InMemoryFileHashCache} when the length and timestamp
+ * of the file have not changed, so that only the file's metadata needs to be read. Falls back to the given hasher
+ * otherwise. Keeps count of cache hits and misses.
+ */
+public class InMemoryCachingHasher implements Hasher {
+    private final Hasher hasher;
+    private final InMemoryFileHashCache cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public InMemoryCachingHasher(Hasher hasher, InMemoryFileHashCache cache) {
+        this.hasher = hasher;
+        this.cache = cache;
+    }
+
+    public byte[] hash(File file) {
+        long length = file.length();
+        long timestamp = file.lastModified();
+        byte[] hash = cache.get(file, length, timestamp);
+        if (hash != null) {
+            hits.incrementAndGet();
+            return hash;
+        }
+
+        misses.incrementAndGet();
+        hash = hasher.hash(file);
+        cache.put(file, length, timestamp, hash);
+        return hash;
+    }
+
+    /**
+     * Returns the number of files whose hash was found in the in-memory cache.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of files whose hash was not found in the in-memory cache.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+}
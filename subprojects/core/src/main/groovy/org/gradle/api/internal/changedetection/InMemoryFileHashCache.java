@@ -0,0 +1,83 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.changedetection;
+
+import org.apache.commons.collections.map.LRUMap;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * A size-bounded, in-memory cache of file hashes, keyed by the absolute path of the file. An entry is only used while
+ * the length and timestamp of the file match those recorded when the file was hashed. This cache is intended to be
+ * shared by all builds which run in the same process, and can be used by multiple threads concurrently.
+ */
+public class InMemoryFileHashCache {
+    public static final int DEFAULT_MAX_ENTRIES = 200000;
+    private final Map<String, Entry> entries;
+
+    public InMemoryFileHashCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public InMemoryFileHashCache(int maxEntries) {
+        entries = new LRUMap(maxEntries);
+    }
+
+    /**
+     * Returns the hash of the given file, or null when the file is not in this cache or has changed since it was
+     * hashed.
+     */
+    public byte[] get(File file, long length, long timestamp) {
+        String path = file.getAbsolutePath();
+        synchronized (entries) {
+            Entry entry = entries.get(path);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.length != length || entry.timestamp != timestamp) {
+                entries.remove(path);
+                return null;
+            }
+            return entry.hash;
+        }
+    }
+
+    public void put(File file, long length, long timestamp, byte[] hash) {
+        Entry entry = new Entry(hash, length, timestamp);
+        synchronized (entries) {
+            entries.put(file.getAbsolutePath(), entry);
+        }
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static class Entry {
+        private final byte[] hash;
+        private final long length;
+        private final long timestamp;
+
+        private Entry(byte[] hash, long length, long timestamp) {
+            this.hash = hash;
+            this.length = length;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -35,7 +35,8 @@ import java.util.Map;
  * <li>Collect the unique id for each output file and directory. The unique id is generated when we notice that
  * a file/directory has been created. The id is regenerated when the file/directory is deleted.</li>
  *
- * <li>Collect the hash of each output file and each file in each output directory.</li>
+ * <li>Collect a snapshot of each output file and each file in each output directory, using the given snapshotter.
+ * Usually this is a {@link FileMetadataSnapshotter}, so that the files Gradle has just written are not all hashed.</li>
  * </ul>
  *
  */
@@ -59,24 +60,26 @@ public class OutputFilesSnapshotter implements FileSnapshotter {
         Map<String, Long> snapshotDirIds = new HashMap<String, Long>();
         for (File file : files) {
             Long dirId;
-            if (file.exists()) {
-                dirId = dirIdentiferCache.get(file.getAbsolutePath());
-                if (dirId == null) {
-                    dirId = idGenerator.generateId();
-                    dirIdentiferCache.put(file.getAbsolutePath(), dirId);
+            synchronized (dirIdentiferCache) {
+                if (file.exists()) {
+                    dirId = dirIdentiferCache.get(file.getAbsolutePath());
+                    if (dirId == null) {
+                        dirId = idGenerator.generateId();
+                        dirIdentiferCache.put(file.getAbsolutePath(), dirId);
+                    }
+                } else {
+                    dirIdentiferCache.remove(file.getAbsolutePath());
+                    dirId = null;
                 }
-            } else {
-                dirIdentiferCache.remove(file.getAbsolutePath());
-                dirId = null;
             }
             snapshotDirIds.put(file.getAbsolutePath(), dirId);
         }
         return new OutputFilesSnapshot(snapshotDirIds, snapshotter.snapshot(files));
     }
 
-    private static class OutputFilesSnapshot implements FileCollectionSnapshot {
-        private final Map<String, Long> rootFileIds;
-        private final FileCollectionSnapshot filesSnapshot;
+    static class OutputFilesSnapshot implements FileCollectionSnapshot {
+        final Map<String, Long> rootFileIds;
+        final FileCollectionSnapshot filesSnapshot;
 
         public OutputFilesSnapshot(Map<String, Long> rootFileIds, FileCollectionSnapshot filesSnapshot) {
             this.rootFileIds = rootFileIds;
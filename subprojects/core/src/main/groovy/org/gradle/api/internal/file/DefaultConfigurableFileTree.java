@@ -45,6 +45,7 @@ public class DefaultConfigurableFileTree extends AbstractFileTree implements Con
     private Object dir;
     private final FileResolver resolver;
     private final DefaultTaskDependency buildDependency;
+    private final DirectoryWalkerFactory walkerFactory;
     private TaskResolver taskResolver;
 
     public DefaultConfigurableFileTree(Object dir, FileResolver resolver, TaskResolver taskResolver) {
@@ -52,6 +53,12 @@ public class DefaultConfigurableFileTree extends AbstractFileTree implements Con
     }
 
     public DefaultConfigurableFileTree(Map<String, ?> args, FileResolver resolver, TaskResolver taskResolver) {
+        this(args, resolver, taskResolver, new DirectoryWalkerFactory());
+    }
+
+    public DefaultConfigurableFileTree(Map<String, ?> args, FileResolver resolver, TaskResolver taskResolver,
+                                       DirectoryWalkerFactory walkerFactory) {
+        this.walkerFactory = walkerFactory;
         this.resolver = resolver != null ? resolver : new IdentityFileResolver();
         ConfigureUtil.configureByMap(args, this);
         buildDependency = new DefaultTaskDependency(taskResolver);
@@ -89,13 +96,14 @@ public class DefaultConfigurableFileTree extends AbstractFileTree implements Con
     public FileTree matching(PatternFilterable patterns) {
         PatternSet patternSet = this.patternSet.intersect();
         patternSet.copyFrom(patterns);
-        DefaultConfigurableFileTree filtered = new DefaultConfigurableFileTree(getDir(), resolver, taskResolver);
+        DefaultConfigurableFileTree filtered = new DefaultConfigurableFileTree(Collections.singletonMap("dir", getDir()),
+                resolver, taskResolver, walkerFactory);
         filtered.setPatternSet(patternSet);
         return filtered;
     }
 
     public DefaultConfigurableFileTree visit(FileVisitor visitor) {
-        DefaultDirectoryWalker walker = new DefaultDirectoryWalker(visitor);
+        DefaultDirectoryWalker walker = walkerFactory.create(visitor);
         walker.match(patternSet).start(getDir());
         return this;
     }
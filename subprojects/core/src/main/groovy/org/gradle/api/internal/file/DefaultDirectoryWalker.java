@@ -24,13 +24,19 @@ import org.gradle.api.file.RelativePath;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.messaging.concurrent.ExecutorFactory;
+import org.gradle.messaging.concurrent.StoppableExecutor;
 import org.gradle.util.GFileUtils;
+import org.gradle.util.UncheckedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -41,18 +47,39 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * A file or directory will only be visited if it matches all includes and no
  * excludes.
  *
+ * When created with an {@link ExecutorFactory}, the contents of the child directories of a
+ * directory are listed ahead of time by a bounded number of threads, once the walk has found
+ * enough directories to make this worthwhile. This can help on file systems with a high
+ * latency, but is slower than a sequential walk on a local file system, so is not the default.
+ * The visitor and the specs are always called from the thread which started the walk, in the
+ * same order as for a sequential walk.
+ *
  * @author Steve Appling
  */
 public class DefaultDirectoryWalker implements DirectoryWalker {
+    static final int MIN_DIRS_TO_LIST_IN_PARALLEL = 16;
+    static final int MAX_QUEUED_LISTINGS_PER_THREAD = 64;
     private static Logger logger = LoggerFactory.getLogger(DefaultDirectoryWalker.class);
 
     private FileVisitor visitor;
     private Spec<FileTreeElement> spec;
     private boolean depthFirst;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
 
     public DefaultDirectoryWalker(FileVisitor visitor) {
+        this(visitor, null, 1);
+    }
+
+    /**
+     * Creates a walker which uses at most the given number of threads, created by the given executor factory, to list
+     * directories. A value of 1 lists directories in the thread which starts the walk.
+     */
+    public DefaultDirectoryWalker(FileVisitor visitor, ExecutorFactory executorFactory, int maxThreads) {
         spec = Specs.satisfyAll();
         this.visitor = visitor;
+        this.executorFactory = executorFactory;
+        this.maxThreads = executorFactory == null ? 1 : maxThreads;
     }
 
     public DefaultDirectoryWalker match(PatternSet patternSet) {
@@ -73,7 +100,12 @@ public class DefaultDirectoryWalker implements DirectoryWalker {
             if (root.isFile()) {
                 processSingleFile(root, stopFlag);
             } else {
-               walkDir(root, new RelativePath(false), stopFlag);
+                DirectoryLister lister = new DirectoryLister();
+                try {
+                    walkDir(root, new RelativePath(false), lister.list(root), lister, stopFlag);
+                } finally {
+                    lister.stop();
+                }
             }
         } else {
             logger.info("file or directory '"+startFile.toString()+"', not found");
@@ -88,8 +120,10 @@ public class DefaultDirectoryWalker implements DirectoryWalker {
         }
     }
 
-    private void walkDir(File file, RelativePath path, AtomicBoolean stopFlag) {
-        File[] children = file.listFiles();
+    private void walkDir(File file, RelativePath path, DirectoryListing listing, DirectoryLister lister,
+                         AtomicBoolean stopFlag) {
+        listing.await();
+        File[] children = listing.children;
         if (children == null) {
             if (file.isDirectory() && !file.canRead()) {
                 throw new GradleException(String.format("Could not list contents of directory '%s' as it is not readable.", file));
@@ -98,9 +132,10 @@ public class DefaultDirectoryWalker implements DirectoryWalker {
             throw new GradleException(String.format("Could not list contents of '%s'.", file));
         }
         List<FileVisitDetailsImpl> dirs = new ArrayList<FileVisitDetailsImpl>();
+        List<DirectoryListing> dirListings = new ArrayList<DirectoryListing>();
         for (int i = 0; !stopFlag.get() && i < children.length; i++) {
             File child = children[i];
-            boolean isFile = child.isFile();
+            boolean isFile = listing.isFile[i];
             RelativePath childPath = path.append(isFile, child.getName());
             FileVisitDetailsImpl details = new FileVisitDetailsImpl(child, childPath, stopFlag);
             if (isAllowed(details)) {
@@ -108,6 +143,7 @@ public class DefaultDirectoryWalker implements DirectoryWalker {
                     visitor.visitFile(details);
                 } else {
                     dirs.add(details);
+                    dirListings.add(lister.list(child));
                 }
             }
         }
@@ -116,11 +152,11 @@ public class DefaultDirectoryWalker implements DirectoryWalker {
         for (int i = 0; !stopFlag.get() && i < dirs.size(); i++) {
             FileVisitDetailsImpl dir = dirs.get(i);
             if (depthFirst) {
-                walkDir(dir.getFile(), dir.getRelativePath(), stopFlag);
+                walkDir(dir.getFile(), dir.getRelativePath(), dirListings.get(i), lister, stopFlag);
                 visitor.visitDir(dir);
             } else {
                 visitor.visitDir(dir);
-                walkDir(dir.getFile(), dir.getRelativePath(), stopFlag);
+                walkDir(dir.getFile(), dir.getRelativePath(), dirListings.get(i), lister, stopFlag);
             }
         }
     }
@@ -134,6 +170,117 @@ public class DefaultDirectoryWalker implements DirectoryWalker {
         return this;
     }
 
+    /**
+     * The contents of a directory, along with whether each child is a file. Listed either by a worker thread or, if no
+     * worker has started listing it by the time it is needed, by the walking thread.
+     */
+    private static class DirectoryListing {
+        private final File dir;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch listed = new CountDownLatch(1);
+        private File[] children;
+        private boolean[] isFile;
+        private RuntimeException failure;
+
+        private DirectoryListing(File dir) {
+            this.dir = dir;
+        }
+
+        void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                File[] children = dir.listFiles();
+                if (children != null) {
+                    boolean[] isFile = new boolean[children.length];
+                    for (int i = 0; i < children.length; i++) {
+                        isFile[i] = children[i].isFile();
+                    }
+                    this.isFile = isFile;
+                }
+                this.children = children;
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                listed.countDown();
+            }
+        }
+
+        void await() {
+            run();
+            try {
+                listed.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.asUncheckedException(e);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Hands out directory listings for a single walk. Starts the worker threads only once the walk has asked for
+     * enough directories. At most a fixed number of listings are queued for the workers. Any others are listed by the
+     * walking thread when it needs them.
+     */
+    private class DirectoryLister {
+        private final DirectoryListing endOfListings = new DirectoryListing(null);
+        private BlockingQueue<DirectoryListing> queue;
+        private int requested;
+        private StoppableExecutor executor;
+        private int workers;
+
+        DirectoryListing list(File dir) {
+            DirectoryListing listing = new DirectoryListing(dir);
+            if (maxThreads <= 1) {
+                return listing;
+            }
+            requested++;
+            if (requested < MIN_DIRS_TO_LIST_IN_PARALLEL) {
+                return listing;
+            }
+            if (executor == null) {
+                startWorkers();
+            }
+            queue.offer(listing);
+            return listing;
+        }
+
+        private void startWorkers() {
+            queue = new ArrayBlockingQueue<DirectoryListing>(maxThreads * MAX_QUEUED_LISTINGS_PER_THREAD);
+            executor = executorFactory.create("List directories");
+            workers = maxThreads;
+            for (int i = 0; i < workers; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            for (DirectoryListing listing = queue.take(); listing != endOfListings;
+                                 listing = queue.take()) {
+                                listing.run();
+                            }
+                        } catch (InterruptedException e) {
+                            throw UncheckedException.asUncheckedException(e);
+                        }
+                    }
+                });
+            }
+        }
+
+        void stop() {
+            if (executor == null) {
+                return;
+            }
+            // Don't bother listing directories which will not be walked
+            queue.clear();
+            for (int i = 0; i < workers; i++) {
+                queue.add(endOfListings);
+            }
+            executor.stop();
+        }
+    }
+
     private static class FileVisitDetailsImpl extends DefaultFileTreeElement implements FileVisitDetails {
         private final AtomicBoolean stop;
 
@@ -19,6 +19,7 @@ import groovy.lang.Closure;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.PathValidation;
 import org.gradle.api.file.*;
+import org.gradle.api.internal.file.archive.ArchiveExpansionCache;
 import org.gradle.api.internal.file.archive.TarFileTree;
 import org.gradle.api.internal.file.archive.ZipFileTree;
 import org.gradle.api.internal.file.copy.*;
@@ -42,12 +43,26 @@ public class DefaultFileOperations implements FileOperations {
     private final FileResolver fileResolver;
     private final TaskResolver taskResolver;
     private final TemporaryFileProvider temporaryFileProvider;
+    private final ArchiveExpansionCache archiveExpansionCache;
+    private final DirectoryWalkerFactory walkerFactory;
     private DeleteAction deleteAction;
 
     public DefaultFileOperations(FileResolver fileResolver, TaskResolver taskResolver, TemporaryFileProvider temporaryFileProvider) {
+        this(fileResolver, taskResolver, temporaryFileProvider, null);
+    }
+
+    public DefaultFileOperations(FileResolver fileResolver, TaskResolver taskResolver, TemporaryFileProvider temporaryFileProvider,
+                                 ArchiveExpansionCache archiveExpansionCache) {
+        this(fileResolver, taskResolver, temporaryFileProvider, archiveExpansionCache, new DirectoryWalkerFactory());
+    }
+
+    public DefaultFileOperations(FileResolver fileResolver, TaskResolver taskResolver, TemporaryFileProvider temporaryFileProvider,
+                                 ArchiveExpansionCache archiveExpansionCache, DirectoryWalkerFactory walkerFactory) {
         this.fileResolver = fileResolver;
+        this.walkerFactory = walkerFactory;
         this.taskResolver = taskResolver;
         this.temporaryFileProvider = temporaryFileProvider;
+        this.archiveExpansionCache = archiveExpansionCache;
         this.deleteAction = new DeleteActionImpl(fileResolver);
     }
 
@@ -72,23 +87,25 @@ public class DefaultFileOperations implements FileOperations {
     }
 
     public ConfigurableFileTree fileTree(Object baseDir) {
-        return new DefaultConfigurableFileTree(baseDir, fileResolver, taskResolver);
+        return new DefaultConfigurableFileTree(Collections.singletonMap("dir", baseDir), fileResolver, taskResolver,
+                walkerFactory);
     }
 
     public DefaultConfigurableFileTree fileTree(Map<String, ?> args) {
-        return new DefaultConfigurableFileTree(args, fileResolver, taskResolver);
+        return new DefaultConfigurableFileTree(args, fileResolver, taskResolver, walkerFactory);
     }
 
     public DefaultConfigurableFileTree fileTree(Closure closure) {
-        return configure(closure, new DefaultConfigurableFileTree(Collections.emptyMap(), fileResolver, taskResolver));
+        return configure(closure, new DefaultConfigurableFileTree(Collections.<String, Object>emptyMap(), fileResolver,
+                taskResolver, walkerFactory));
     }
 
     public FileTree zipTree(Object zipPath) {
-        return new ZipFileTree(file(zipPath), getExpandDir());
+        return new ZipFileTree(file(zipPath), getExpandDir(), archiveExpansionCache);
     }
 
     public FileTree tarTree(Object tarPath) {
-        return new TarFileTree(file(tarPath), getExpandDir());
+        return new TarFileTree(file(tarPath), getExpandDir(), archiveExpansionCache);
     }
 
     private File getExpandDir() {
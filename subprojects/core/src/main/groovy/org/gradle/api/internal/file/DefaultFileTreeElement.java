@@ -18,8 +18,8 @@ package org.gradle.api.internal.file;
 import org.gradle.api.file.RelativePath;
 import org.gradle.util.GFileUtils;
 
-import java.io.File;
-import java.io.InputStream;
+import java.io.*;
+import java.nio.channels.FileChannel;
 
 public class DefaultFileTreeElement extends AbstractFileTreeElement {
     private final File file;
@@ -54,6 +54,35 @@ public class DefaultFileTreeElement extends AbstractFileTreeElement {
         return GFileUtils.openInputStream(file);
     }
 
+    /**
+     * Copies the file using {@link FileChannel#transferTo}, which lets the operating system copy the content without
+     * passing it through the JVM.
+     */
+    @Override
+    protected void copyFile(File target) throws IOException {
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            FileOutputStream outputStream = new FileOutputStream(target);
+            try {
+                FileChannel source = inputStream.getChannel();
+                FileChannel destination = outputStream.getChannel();
+                long size = source.size();
+                long position = 0;
+                while (position < size) {
+                    long count = source.transferTo(position, size - position, destination);
+                    if (count <= 0) {
+                        break;
+                    }
+                    position += count;
+                }
+            } finally {
+                outputStream.close();
+            }
+        } finally {
+            inputStream.close();
+        }
+    }
+
     public RelativePath getRelativePath() {
         return relativePath;
     }
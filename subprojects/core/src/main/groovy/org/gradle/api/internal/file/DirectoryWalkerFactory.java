@@ -0,0 +1,53 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file;
+
+import org.gradle.api.file.FileVisitor;
+import org.gradle.messaging.concurrent.ExecutorFactory;
+
+/**
+ * Creates the {@link DefaultDirectoryWalker}s used to walk file trees. The walkers list directories using at most the
+ * given number of threads, created by the given executor factory.
+ */
+public class DirectoryWalkerFactory {
+    /**
+     * The system property which sets the maximum number of threads used to list the directories of a file tree. The
+     * default is 1, which lists the directories in the thread which walks the tree.
+     */
+    public static final String LISTING_THREADS_PROPERTY = "org.gradle.file.listingThreads";
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+
+    /**
+     * Creates a factory for walkers which list directories in the thread which walks the tree.
+     */
+    public DirectoryWalkerFactory() {
+        this(null, 1);
+    }
+
+    public DirectoryWalkerFactory(ExecutorFactory executorFactory, int maxThreads) {
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    public int getMaxThreads() {
+        return executorFactory == null ? 1 : maxThreads;
+    }
+
+    public DefaultDirectoryWalker create(FileVisitor visitor) {
+        return new DefaultDirectoryWalker(visitor, executorFactory, maxThreads);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.changedetection.Hasher;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentCache;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * A cache of expanded archives, shared by all projects and builds. Each archive is expanded into a directory keyed by
+ * the hash of its content, so an archive is expanded once regardless of where it is located, and an archive whose
+ * content changes is expanded again.
+ *
+ * <p>An archive is expanded into a temporary directory which is then renamed, so a cached directory is always
+ * complete. If several processes expand the same archive at the same time, the first rename wins and the other
+ * expanded directories are discarded.</p>
+ */
+public class ArchiveExpansionCache {
+    private final PersistentCache cache;
+    private final Hasher hasher;
+
+    public ArchiveExpansionCache(CacheRepository cacheRepository, Hasher hasher) {
+        this.hasher = hasher;
+        cache = cacheRepository.cache("expandedArchives").open();
+        if (!cache.isValid()) {
+            cache.markValid();
+        }
+    }
+
+    /**
+     * Returns the directory containing the expanded contents of the given archive, expanding the archive if it has
+     * not already been expanded.
+     *
+     * @param type The type of the archive, which forms part of the cache key.
+     * @param archiveFile The archive.
+     * @param contents The contents of the archive. Visited only when the archive needs to be expanded.
+     * @return The expanded directory.
+     */
+    public File expand(String type, File archiveFile, FileTree contents) {
+        String key = String.format("%s-%s", type, new BigInteger(1, hasher.hash(archiveFile)).toString(32));
+        File expandedDir = new File(cache.getBaseDir(), key);
+        synchronized (this) {
+            if (expandedDir.isDirectory()) {
+                return expandedDir;
+            }
+            File tmpDir = createTmpDir(key);
+            try {
+                copyContents(contents, tmpDir);
+                if (!tmpDir.renameTo(expandedDir) && !expandedDir.isDirectory()) {
+                    throw new GradleException(String.format("Could not move expanded %s to '%s'.", contents,
+                            expandedDir));
+                }
+            } finally {
+                if (tmpDir.exists()) {
+                    GFileUtils.deleteDirectory(tmpDir);
+                }
+            }
+            return expandedDir;
+        }
+    }
+
+    private File createTmpDir(String key) {
+        try {
+            File tmpDir = File.createTempFile(key, ".tmp", cache.getBaseDir());
+            tmpDir.delete();
+            tmpDir.mkdirs();
+            return tmpDir;
+        } catch (IOException e) {
+            throw new GradleException(String.format("Could not create temporary directory in '%s'.",
+                    cache.getBaseDir()), e);
+        }
+    }
+
+    private void copyContents(FileTree contents, final File targetDir) {
+        contents.visit(new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+                dirDetails.copyTo(dirDetails.getRelativePath().getFile(targetDir));
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+                fileDetails.copyTo(fileDetails.getRelativePath().getFile(targetDir));
+            }
+        });
+    }
+}
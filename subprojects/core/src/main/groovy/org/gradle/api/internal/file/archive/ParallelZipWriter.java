@@ -0,0 +1,547 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive;
+
+import org.gradle.messaging.concurrent.ExecutorFactory;
+import org.gradle.messaging.concurrent.StoppableExecutor;
+import org.gradle.util.UncheckedException;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a ZIP file, deflating the content of its entries concurrently.
+ *
+ * <p>The content of each entry is written to the {@link OutputStream} returned by {@link #putEntry}. Content up to
+ * {@link #BUFFERED_ENTRY_SIZE} bytes is buffered and deflated by a worker thread, while the caller moves on to the next
+ * entry. Larger content is deflated in the calling thread as it is written. Entries which are already deflated, such
+ * as the entries of another ZIP file, can be added using {@link #putDeflatedEntry} and are copied without being
+ * inflated and deflated again.</p>
+ *
+ * <p>Entries are always written to the file in the order they were added, so the ZIP file produced does not depend on
+ * how the work was scheduled. ZIP64 is not supported.</p>
+ */
+public class ParallelZipWriter {
+    static final int BUFFERED_ENTRY_SIZE = 1024 * 1024;
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIR_SIG = 0x06054b50;
+    private static final int VERSION = 20;
+    private static final int PLATFORM_UNIX = 3;
+    private static final int UTF8_NAMES_FLAG = 0x0800;
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private final File zipFile;
+    private final int maxThreads;
+    private final int maxPendingEntries;
+    private final StoppableExecutor executor;
+    private final FileOutputStream fileOutput;
+    private final OutputStream output;
+    private final List<Entry> written = new ArrayList<Entry>();
+    private final Object lock = new Object();
+    private final LinkedList<Entry> pending = new LinkedList<Entry>();
+    private final LinkedList<Entry> waitingToDeflate = new LinkedList<Entry>();
+    private int deflating;
+    private long position;
+    private boolean aborted;
+
+    public ParallelZipWriter(File zipFile, ExecutorFactory executorFactory, int maxThreads) throws IOException {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The number of threads must be at least 1, but was %s.", maxThreads));
+        }
+        this.zipFile = zipFile;
+        this.maxThreads = maxThreads;
+        this.maxPendingEntries = maxThreads * 4;
+        fileOutput = new FileOutputStream(zipFile);
+        output = new BufferedOutputStream(fileOutput, 65536);
+        executor = executorFactory.create(String.format("Write %s", zipFile.getName()));
+    }
+
+    /**
+     * Adds a directory entry. The name should end with '/'.
+     */
+    public void putDirectory(String name, long lastModified, int unixMode) throws IOException {
+        Entry entry = new Entry(name, lastModified, unixMode, true);
+        entry.method = STORED;
+        entry.content = new byte[0];
+        entry.done = true;
+        add(entry);
+    }
+
+    /**
+     * Adds a file entry. The content of the entry should be written to the returned stream, which must be closed once
+     * the content has been written.
+     */
+    public OutputStream putEntry(String name, long lastModified, int unixMode) {
+        return new EntryOutputStream(new Entry(name, lastModified, unixMode, false));
+    }
+
+    /**
+     * Adds a file entry whose content is already deflated. The deflated content of the entry should be written to the
+     * returned stream, which must be closed once the content has been written.
+     */
+    public OutputStream putDeflatedEntry(String name, long lastModified, int unixMode, long crc, long size,
+                                         long compressedSize) throws IOException {
+        Entry entry = new Entry(name, lastModified, unixMode, false);
+        entry.method = DEFLATED;
+        entry.crc = crc;
+        entry.size = size;
+        entry.compressedSize = compressedSize;
+        if (compressedSize <= BUFFERED_ENTRY_SIZE) {
+            return new DeflatedEntryOutputStream(entry);
+        }
+        writePending(true);
+        writeLocalHeader(entry);
+        return new CountingOutputStream(entry);
+    }
+
+    /**
+     * Writes the remaining entries and the central directory, and closes the file.
+     */
+    public void close() throws IOException {
+        if (aborted) {
+            return;
+        }
+        try {
+            writePending(true);
+            writeCentralDirectory();
+            output.close();
+        } finally {
+            executor.stop();
+            fileOutput.close();
+        }
+    }
+
+    /**
+     * Discards any entries which have not been written, and closes the file. Used when the ZIP file cannot be
+     * completed.
+     */
+    public void abort() {
+        if (aborted) {
+            return;
+        }
+        aborted = true;
+        synchronized (lock) {
+            pending.clear();
+            waitingToDeflate.clear();
+        }
+        try {
+            executor.stop();
+        } finally {
+            try {
+                fileOutput.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+
+    private void add(Entry entry) throws IOException {
+        synchronized (lock) {
+            pending.add(entry);
+            if (!entry.done) {
+                waitingToDeflate.add(entry);
+                startDeflating();
+            }
+        }
+        writePending(false);
+        while (pendingCount() >= maxPendingEntries) {
+            waitForHead();
+            writePending(false);
+        }
+    }
+
+    private int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    private void startDeflating() {
+        while (deflating < maxThreads && !waitingToDeflate.isEmpty()) {
+            final Entry entry = waitingToDeflate.removeFirst();
+            deflating++;
+            executor.execute(new Runnable() {
+                public void run() {
+                    Throwable failure = null;
+                    try {
+                        entry.deflate();
+                    } catch (Throwable throwable) {
+                        failure = throwable;
+                    }
+                    synchronized (lock) {
+                        entry.failure = failure;
+                        entry.done = true;
+                        deflating--;
+                        startDeflating();
+                        lock.notifyAll();
+                    }
+                }
+            });
+        }
+    }
+
+    private void waitForHead() {
+        synchronized (lock) {
+            while (!pending.isEmpty() && !pending.getFirst().done) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw new UncheckedException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the completed entries at the head of the queue. When {@code all} is true, waits for and writes every
+     * pending entry.
+     */
+    private void writePending(boolean all) throws IOException {
+        while (true) {
+            if (all) {
+                waitForHead();
+            }
+            Entry entry;
+            synchronized (lock) {
+                if (pending.isEmpty() || !pending.getFirst().done) {
+                    return;
+                }
+                entry = pending.removeFirst();
+            }
+            if (entry.failure != null) {
+                throw UncheckedException.asUncheckedException(entry.failure);
+            }
+            writeLocalHeader(entry);
+            output.write(entry.content, 0, entry.contentLength);
+            position += entry.contentLength;
+            entry.content = null;
+        }
+    }
+
+    private void writeLocalHeader(Entry entry) throws IOException {
+        if (written.size() == MAX_ENTRIES) {
+            throw new IOException(String.format("Cannot add more than %s entries to ZIP '%s'.", MAX_ENTRIES, zipFile));
+        }
+        entry.offset = position;
+        checkSize(entry.offset);
+        ByteBuffer header = buffer(30 + entry.name.length);
+        header.putInt(LOCAL_HEADER_SIG);
+        header.putShort((short) VERSION);
+        header.putShort((short) UTF8_NAMES_FLAG);
+        header.putShort((short) entry.method);
+        header.putInt(entry.dosTime);
+        header.putInt((int) entry.crc);
+        header.putInt((int) entry.compressedSize);
+        header.putInt((int) entry.size);
+        header.putShort((short) entry.name.length);
+        header.putShort((short) 0);
+        header.put(entry.name);
+        write(header);
+        written.add(entry);
+    }
+
+    /**
+     * Fills in the CRC and sizes of an entry whose local header was written before its content was known.
+     */
+    private void completeLocalHeader(Entry entry) throws IOException {
+        checkSize(entry.size);
+        checkSize(entry.compressedSize);
+        output.flush();
+        ByteBuffer fields = buffer(12);
+        fields.putInt((int) entry.crc);
+        fields.putInt((int) entry.compressedSize);
+        fields.putInt((int) entry.size);
+        fields.flip();
+        long fieldsPosition = entry.offset + 14;
+        while (fields.hasRemaining()) {
+            fieldsPosition += fileOutput.getChannel().write(fields, fieldsPosition);
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long start = position;
+        for (Entry entry : written) {
+            ByteBuffer header = buffer(46 + entry.name.length);
+            header.putInt(CENTRAL_HEADER_SIG);
+            header.putShort((short) (PLATFORM_UNIX << 8 | VERSION));
+            header.putShort((short) VERSION);
+            header.putShort((short) UTF8_NAMES_FLAG);
+            header.putShort((short) entry.method);
+            header.putInt(entry.dosTime);
+            header.putInt((int) entry.crc);
+            header.putInt((int) entry.compressedSize);
+            header.putInt((int) entry.size);
+            header.putShort((short) entry.name.length);
+            header.putShort((short) 0);
+            header.putShort((short) 0);
+            header.putShort((short) 0);
+            header.putShort((short) 0);
+            header.putInt(entry.externalAttributes);
+            header.putInt((int) entry.offset);
+            header.put(entry.name);
+            write(header);
+        }
+        checkSize(position);
+        ByteBuffer end = buffer(22);
+        end.putInt(END_OF_CENTRAL_DIR_SIG);
+        end.putShort((short) 0);
+        end.putShort((short) 0);
+        end.putShort((short) written.size());
+        end.putShort((short) written.size());
+        end.putInt((int) (position - start));
+        end.putInt((int) start);
+        end.putShort((short) 0);
+        write(end);
+    }
+
+    private void checkSize(long value) throws IOException {
+        if (value > MAX_SIZE) {
+            throw new IOException(String.format("ZIP '%s' is too large. ZIP64 is not supported.", zipFile));
+        }
+    }
+
+    private ByteBuffer buffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        output.write(buffer.array(), 0, buffer.position());
+        position += buffer.position();
+    }
+
+    private static int toDosTime(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        int year = calendar.get(Calendar.YEAR);
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (year - 1980) << 25
+                | (calendar.get(Calendar.MONTH) + 1) << 21
+                | calendar.get(Calendar.DAY_OF_MONTH) << 16
+                | calendar.get(Calendar.HOUR_OF_DAY) << 11
+                | calendar.get(Calendar.MINUTE) << 5
+                | calendar.get(Calendar.SECOND) >> 1;
+    }
+
+    private static class Entry {
+        final byte[] name;
+        final int dosTime;
+        final int externalAttributes;
+        int method = DEFLATED;
+        long crc;
+        long size;
+        long compressedSize;
+        long offset;
+        byte[] content;
+        int contentLength;
+        boolean done;
+        Throwable failure;
+
+        Entry(String name, long lastModified, int unixMode, boolean directory) {
+            try {
+                this.name = name.getBytes("UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw UncheckedException.asUncheckedException(e);
+            }
+            dosTime = toDosTime(lastModified);
+            externalAttributes = (unixMode << 16) | ((unixMode & 0200) == 0 ? 1 : 0) | (directory ? 0x10 : 0);
+        }
+
+        /**
+         * Replaces the buffered content of this entry with its deflated form.
+         */
+        void deflate() {
+            CRC32 checksum = new CRC32();
+            checksum.update(content, 0, contentLength);
+            crc = checksum.getValue();
+            size = contentLength;
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            try {
+                deflater.setInput(content, 0, contentLength);
+                deflater.finish();
+                ByteArrayOutputStream deflated = new ByteArrayOutputStream(contentLength / 2 + 64);
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(buffer);
+                    deflated.write(buffer, 0, count);
+                }
+                content = deflated.toByteArray();
+                contentLength = content.length;
+                compressedSize = contentLength;
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Buffers the content of an entry. Once the content grows beyond {@link #BUFFERED_ENTRY_SIZE}, writes the pending
+     * entries and then deflates the content directly to the file.
+     */
+    private class EntryOutputStream extends OutputStream {
+        private final Entry entry;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private Deflater deflater;
+        private CRC32 checksum;
+        private byte[] deflateBuffer;
+        private boolean closed;
+
+        private EntryOutputStream(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (deflater == null && buffer.size() + length > BUFFERED_ENTRY_SIZE) {
+                startStreaming();
+            }
+            if (deflater == null) {
+                buffer.write(bytes, offset, length);
+            } else {
+                checksum.update(bytes, offset, length);
+                entry.size += length;
+                deflater.setInput(bytes, offset, length);
+                while (!deflater.needsInput()) {
+                    writeDeflated();
+                }
+            }
+        }
+
+        private void startStreaming() throws IOException {
+            writePending(true);
+            writeLocalHeader(entry);
+            deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            checksum = new CRC32();
+            deflateBuffer = new byte[65536];
+            byte[] buffered = buffer.toByteArray();
+            buffer = null;
+            write(buffered, 0, buffered.length);
+        }
+
+        private void writeDeflated() throws IOException {
+            int count = deflater.deflate(deflateBuffer);
+            output.write(deflateBuffer, 0, count);
+            position += count;
+            entry.compressedSize += count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (deflater == null) {
+                entry.content = buffer.toByteArray();
+                entry.contentLength = entry.content.length;
+                buffer = null;
+                add(entry);
+                return;
+            }
+            try {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    writeDeflated();
+                }
+            } finally {
+                deflater.end();
+            }
+            entry.crc = checksum.getValue();
+            completeLocalHeader(entry);
+        }
+    }
+
+    /**
+     * Buffers the already deflated content of an entry.
+     */
+    private class DeflatedEntryOutputStream extends ByteArrayOutputStream {
+        private final Entry entry;
+        private boolean closed;
+
+        private DeflatedEntryOutputStream(Entry entry) {
+            super((int) entry.compressedSize);
+            this.entry = entry;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (size() != entry.compressedSize) {
+                throw new IOException(String.format("Expected %s bytes of deflated content but found %s bytes.",
+                        entry.compressedSize, size()));
+            }
+            entry.content = toByteArray();
+            entry.contentLength = entry.content.length;
+            entry.done = true;
+            add(entry);
+        }
+    }
+
+    /**
+     * Writes the already deflated content of an entry directly to the file.
+     */
+    private class CountingOutputStream extends OutputStream {
+        private final Entry entry;
+        private long count;
+        private boolean closed;
+
+        private CountingOutputStream(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            output.write(bytes, offset, length);
+            position += length;
+            count += length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (count != entry.compressedSize) {
+                throw new IOException(String.format("Expected %s bytes of deflated content but found %s bytes.",
+                        entry.compressedSize, count));
+            }
+        }
+    }
+}
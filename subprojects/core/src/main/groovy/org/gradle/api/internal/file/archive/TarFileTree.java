@@ -40,11 +40,21 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class TarFileTree extends AbstractFileTree {
     private final File tarFile;
     private final File tmpDir;
+    private final ArchiveExpansionCache expansionCache;
 
     public TarFileTree(File tarFile, File tmpDir) {
+        this(tarFile, tmpDir, null);
+    }
+
+    /**
+     * @param expansionCache The cache to expand this archive into. When null, the archive is expanded into the given
+     * temporary directory, and is read sequentially each time it is visited.
+     */
+    public TarFileTree(File tarFile, File tmpDir, ArchiveExpansionCache expansionCache) {
         this.tarFile = tarFile;
         String expandDirName = String.format("%s_%s", tarFile.getName(), HashUtil.createHash(tarFile.getAbsolutePath()));
         this.tmpDir = new File(tmpDir, expandDirName);
+        this.expansionCache = expansionCache;
     }
 
     public String getDisplayName() {
@@ -53,8 +63,47 @@ public class TarFileTree extends AbstractFileTree {
 
     @Override
     protected Collection<DefaultConfigurableFileTree> getAsFileTrees() {
+        if (!tarFile.exists()) {
+            return Collections.emptyList();
+        }
+        if (expansionCache != null) {
+            return Collections.singleton(new DefaultConfigurableFileTree(getExpandedDir(), null, null));
+        }
         visitAll();
-        return tarFile.exists() ? Collections.singleton(new DefaultConfigurableFileTree(tmpDir, null, null)) : Collections.<DefaultConfigurableFileTree>emptyList();
+        return Collections.singleton(new DefaultConfigurableFileTree(tmpDir, null, null));
+    }
+
+    /**
+     * Returns the file for the given entry of this archive, or null if the archive does not contain the entry. When
+     * the archive has been expanded into the expansion cache, the entry is looked up directly. Otherwise, the archive
+     * is read up to the requested entry.
+     */
+    public File getEntryFile(final String path) {
+        if (!tarFile.exists()) {
+            return null;
+        }
+        if (expansionCache != null) {
+            File file = new File(getExpandedDir(), path);
+            return file.exists() ? file : null;
+        }
+        final File[] result = new File[1];
+        visit(new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+                visitEntry(dirDetails);
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+                visitEntry(fileDetails);
+            }
+
+            private void visitEntry(FileVisitDetails details) {
+                if (details.getRelativePath().getPathString().equals(path)) {
+                    result[0] = details.getFile();
+                    details.stopVisiting();
+                }
+            }
+        });
+        return result[0];
     }
 
     public FileTree visit(FileVisitor visitor) {
@@ -64,6 +113,10 @@ public class TarFileTree extends AbstractFileTree {
         if (!tarFile.isFile()) {
             throw new InvalidUserDataException(String.format("Cannot expand %s as it is not a file.", this));
         }
+        if (expansionCache != null) {
+            new DefaultConfigurableFileTree(getExpandedDir(), null, null).visit(visitor);
+            return this;
+        }
 
         AtomicBoolean stopFlag = new AtomicBoolean();
         try {
@@ -89,6 +142,13 @@ public class TarFileTree extends AbstractFileTree {
         return this;
     }
 
+    private File getExpandedDir() {
+        if (!tarFile.isFile()) {
+            throw new InvalidUserDataException(String.format("Cannot expand %s as it is not a file.", this));
+        }
+        return expansionCache.expand("tar", tarFile, new TarFileTree(tarFile, tmpDir.getParentFile()));
+    }
+
     private class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
         private final TarEntry entry;
         private final NoCloseTarInputStream tar;
@@ -15,7 +15,7 @@
  */
 package org.gradle.api.internal.file.archive;
 
-import org.apache.tools.zip.*;
+import org.apache.tools.zip.UnixStat;
 import org.gradle.api.GradleException;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.file.copy.CopyAction;
@@ -23,20 +23,34 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.file.copy.ArchiveCopyAction;
 import org.gradle.api.internal.file.copy.EmptyCopySpecVisitor;
 import org.gradle.api.internal.file.copy.ReadableCopySpec;
+import org.gradle.messaging.concurrent.ExecutorFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 
+/**
+ * Writes the visited files to a ZIP file. Entries are deflated concurrently using a {@link ParallelZipWriter}. Files
+ * which are already deflated, such as the entries of another ZIP file, are copied without being inflated and deflated
+ * again. The threads which deflate the entries are created using the given {@link ExecutorFactory}.
+ */
 public class ZipCopySpecVisitor extends EmptyCopySpecVisitor {
-    private ZipOutputStream zipOutStr;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+    private ParallelZipWriter zipWriter;
     private File zipFile;
     private ReadableCopySpec spec;
 
+    public ZipCopySpecVisitor(ExecutorFactory executorFactory, int maxThreads) {
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
     public void startVisit(CopyAction action) {
         ArchiveCopyAction archiveAction = (ArchiveCopyAction) action;
         zipFile = archiveAction.getArchivePath();
         try {
-            zipOutStr = new ZipOutputStream(zipFile);
+            zipWriter = new ParallelZipWriter(zipFile, executorFactory, maxThreads);
         } catch (Exception e) {
             throw new GradleException(String.format("Could not create ZIP '%s'.", zipFile), e);
         }
@@ -44,12 +58,12 @@ public class ZipCopySpecVisitor extends EmptyCopySpecVisitor {
 
     public void endVisit() {
         try {
-            zipOutStr.close();
+            zipWriter.close();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         } finally {
             spec = null;
-            zipOutStr = null;
+            zipWriter = null;
         }
     }
 
@@ -59,14 +73,21 @@ public class ZipCopySpecVisitor extends EmptyCopySpecVisitor {
 
     public void visitFile(FileVisitDetails fileDetails) {
         try {
-            ZipEntry archiveEntry = new ZipEntry(fileDetails.getRelativePath().getPathString());
-            archiveEntry.setMethod(ZipEntry.DEFLATED);
-            archiveEntry.setTime(fileDetails.getLastModified());
-            archiveEntry.setUnixMode(UnixStat.FILE_FLAG | spec.getFileMode());
-            zipOutStr.putNextEntry(archiveEntry);
-            fileDetails.copyTo(zipOutStr);
-            zipOutStr.closeEntry();
+            String name = fileDetails.getRelativePath().getPathString();
+            int mode = UnixStat.FILE_FLAG | spec.getFileMode();
+            OutputStream entryOutStr;
+            if (fileDetails instanceof DeflatedZipEntry && ((DeflatedZipEntry) fileDetails).hasDeflatedContent()) {
+                DeflatedZipEntry deflatedEntry = (DeflatedZipEntry) fileDetails;
+                entryOutStr = zipWriter.putDeflatedEntry(name, fileDetails.getLastModified(), mode,
+                        deflatedEntry.getCrc(), deflatedEntry.getSize(), deflatedEntry.getCompressedSize());
+                deflatedEntry.copyDeflatedContentTo(entryOutStr);
+            } else {
+                entryOutStr = zipWriter.putEntry(name, fileDetails.getLastModified(), mode);
+                fileDetails.copyTo(entryOutStr);
+            }
+            entryOutStr.close();
         } catch (Exception e) {
+            zipWriter.abort();
             throw new GradleException(String.format("Could not add %s to ZIP '%s'.", fileDetails, zipFile), e);
         }
     }
@@ -74,12 +95,10 @@ public class ZipCopySpecVisitor extends EmptyCopySpecVisitor {
     public void visitDir(FileVisitDetails dirDetails) {
         try {
             // Trailing slash in name indicates that entry is a directory
-            ZipEntry archiveEntry = new ZipEntry(dirDetails.getRelativePath().getPathString() + '/');
-            archiveEntry.setTime(dirDetails.getLastModified());
-            archiveEntry.setUnixMode(UnixStat.DIR_FLAG | spec.getDirMode());
-            zipOutStr.putNextEntry(archiveEntry);
-            zipOutStr.closeEntry();
+            zipWriter.putDirectory(dirDetails.getRelativePath().getPathString() + '/', dirDetails.getLastModified(),
+                    UnixStat.DIR_FLAG | spec.getDirMode());
         } catch (Exception e) {
+            zipWriter.abort();
             throw new GradleException(String.format("Could not add %s to ZIP '%s'.", dirDetails, zipFile), e);
         }
     }
@@ -29,20 +29,30 @@ import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.util.HashUtil;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ZipFileTree extends AbstractFileTree {
     private final File zipFile;
     private final File tmpDir;
+    private final ArchiveExpansionCache expansionCache;
 
     public ZipFileTree(File zipFile, File tmpDir) {
+        this(zipFile, tmpDir, null);
+    }
+
+    /**
+     * @param expansionCache The cache to expand this archive into. When null, the archive is expanded into the given
+     * temporary directory.
+     */
+    public ZipFileTree(File zipFile, File tmpDir, ArchiveExpansionCache expansionCache) {
         this.zipFile = zipFile;
         String expandDirName = String.format("%s_%s", zipFile.getName(), HashUtil.createHash(zipFile.getAbsolutePath()));
         this.tmpDir = new File(tmpDir, expandDirName);
+        this.expansionCache = expansionCache;
     }
 
     public String getDisplayName() {
@@ -51,8 +61,54 @@ public class ZipFileTree extends AbstractFileTree {
 
     @Override
     protected Collection<DefaultConfigurableFileTree> getAsFileTrees() {
+        if (!zipFile.exists()) {
+            return Collections.emptyList();
+        }
+        if (expansionCache != null) {
+            return Collections.singleton(new DefaultConfigurableFileTree(getExpandedDir(), null, null));
+        }
         visitAll();
-        return zipFile.exists() ? Collections.singleton(new DefaultConfigurableFileTree(tmpDir, null, null)) : Collections.<DefaultConfigurableFileTree>emptyList();
+        return Collections.singleton(new DefaultConfigurableFileTree(tmpDir, null, null));
+    }
+
+    /**
+     * Returns the file for the given entry of this archive, or null if the archive does not contain the entry. Only
+     * the requested entry is extracted, unless the archive has been expanded into the expansion cache.
+     */
+    public File getEntryFile(String path) {
+        if (!zipFile.exists()) {
+            return null;
+        }
+        if (expansionCache != null) {
+            File file = new File(getExpandedDir(), path);
+            return file.exists() ? file : null;
+        }
+        try {
+            ZipFile zip = new ZipFile(zipFile);
+            RawEntryReader rawEntryReader = new RawEntryReader();
+            try {
+                ZipEntry entry = zip.getEntry(path);
+                if (entry == null) {
+                    entry = zip.getEntry(path + '/');
+                }
+                return entry == null ? null : new DetailsImpl(entry, zip, rawEntryReader, new AtomicBoolean()).getFile();
+            } finally {
+                try {
+                    rawEntryReader.close();
+                } finally {
+                    zip.close();
+                }
+            }
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not expand %s.", this), e);
+        }
+    }
+
+    private File getExpandedDir() {
+        if (!zipFile.isFile()) {
+            throw new InvalidUserDataException(String.format("Cannot expand %s as it is not a file.", this));
+        }
+        return expansionCache.expand("zip", zipFile, new ZipFileTree(zipFile, tmpDir.getParentFile()));
     }
 
     public FileTree visit(FileVisitor visitor) {
@@ -67,6 +123,7 @@ public class ZipFileTree extends AbstractFileTree {
 
         try {
             ZipFile zip = new ZipFile(zipFile);
+            RawEntryReader rawEntryReader = new RawEntryReader();
             try {
                 // The iteration order of zip.getEntries() is based on the hash of the zip entry. This isn't much use
                 // to us. So, collect the entries in a map and iterate over them in alphabetical order.
@@ -80,13 +137,17 @@ public class ZipFileTree extends AbstractFileTree {
                 while (!stopFlag.get() && sortedEntries.hasNext()) {
                     ZipEntry entry = sortedEntries.next();
                     if (entry.isDirectory()) {
-                        visitor.visitDir(new DetailsImpl(entry, zip, stopFlag));
+                        visitor.visitDir(new DetailsImpl(entry, zip, rawEntryReader, stopFlag));
                     } else {
-                        visitor.visitFile(new DetailsImpl(entry, zip, stopFlag));
+                        visitor.visitFile(new DetailsImpl(entry, zip, rawEntryReader, stopFlag));
                     }
                 }
             } finally {
-                zip.close();
+                try {
+                    rawEntryReader.close();
+                } finally {
+                    zip.close();
+                }
             }
         } catch (Exception e) {
             throw new GradleException(String.format("Could not expand %s.", this), e);
@@ -95,15 +156,17 @@ public class ZipFileTree extends AbstractFileTree {
         return this;
     }
 
-    private class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
+    private class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails, DeflatedZipEntry {
         private final ZipEntry entry;
         private final ZipFile zip;
+        private final RawEntryReader rawEntryReader;
         private final AtomicBoolean stopFlag;
         private File file;
 
-        public DetailsImpl(ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag) {
+        public DetailsImpl(ZipEntry entry, ZipFile zip, RawEntryReader rawEntryReader, AtomicBoolean stopFlag) {
             this.entry = entry;
             this.zip = zip;
+            this.rawEntryReader = rawEntryReader;
             this.stopFlag = stopFlag;
         }
 
@@ -117,8 +180,12 @@ public class ZipFileTree extends AbstractFileTree {
 
         public File getFile() {
             if (file == null) {
-                file = new File(tmpDir, entry.getName());
-                copyTo(file);
+                if (expansionCache != null) {
+                    file = new File(getExpandedDir(), entry.getName());
+                } else {
+                    file = new File(tmpDir, entry.getName());
+                    copyTo(file);
+                }
             }
             return file;
         }
@@ -146,5 +213,134 @@ public class ZipFileTree extends AbstractFileTree {
         public RelativePath getRelativePath() {
             return new RelativePath(!entry.isDirectory(), entry.getName().split("/"));
         }
+
+        public boolean hasDeflatedContent() {
+            return !entry.isDirectory()
+                    && entry.getMethod() == ZipEntry.DEFLATED
+                    && entry.getCrc() >= 0
+                    && entry.getSize() >= 0
+                    && entry.getCompressedSize() >= 0
+                    && rawEntryReader.contains(entry.getName());
+        }
+
+        public long getCrc() {
+            return entry.getCrc();
+        }
+
+        public long getCompressedSize() {
+            return entry.getCompressedSize();
+        }
+
+        public void copyDeflatedContentTo(OutputStream outstr) {
+            rawEntryReader.copyTo(entry, outstr);
+        }
+    }
+
+    /**
+     * Reads the compressed content of the entries of the ZIP file. The central directory is read the first time it is
+     * needed.
+     */
+    private class RawEntryReader {
+        private static final int LOCAL_HEADER_SIG = 0x04034b50;
+        private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+        private static final int END_OF_CENTRAL_DIR_SIG = 0x06054b50;
+        private static final int END_OF_CENTRAL_DIR_SIZE = 22;
+        private static final int MAX_COMMENT_SIZE = 0xFFFF;
+        private static final int ENCRYPTED_FLAG = 0x0001;
+        private static final int UTF8_NAMES_FLAG = 0x0800;
+        private RandomAccessFile file;
+        private Map<String, Long> localHeaderOffsets;
+
+        public boolean contains(String name) {
+            return getLocalHeaderOffsets().containsKey(name);
+        }
+
+        public void copyTo(ZipEntry entry, OutputStream outstr) {
+            Long offset = getLocalHeaderOffsets().get(entry.getName());
+            if (offset == null) {
+                throw new IllegalArgumentException(String.format("Could not find entry %s in %s.", entry.getName(),
+                        getDisplayName()));
+            }
+            try {
+                ByteBuffer header = read(offset, 30);
+                if (header.getInt(0) != LOCAL_HEADER_SIG) {
+                    throw new IOException(String.format("Could not find local header for entry %s in %s.",
+                            entry.getName(), getDisplayName()));
+                }
+                file.seek(offset + 30 + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF));
+                byte[] buffer = new byte[8192];
+                long remaining = entry.getCompressedSize();
+                while (remaining > 0) {
+                    int count = file.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (count < 0) {
+                        throw new EOFException(String.format("Unexpected end of %s.", getDisplayName()));
+                    }
+                    outstr.write(buffer, 0, count);
+                    remaining -= count;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public void close() throws IOException {
+            if (file != null) {
+                file.close();
+            }
+        }
+
+        private Map<String, Long> getLocalHeaderOffsets() {
+            if (localHeaderOffsets == null) {
+                try {
+                    file = new RandomAccessFile(zipFile, "r");
+                    localHeaderOffsets = readCentralDirectory();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return localHeaderOffsets;
+        }
+
+        private Map<String, Long> readCentralDirectory() throws IOException {
+            Map<String, Long> offsets = new HashMap<String, Long>();
+            long length = file.length();
+            int tailSize = (int) Math.min(length, END_OF_CENTRAL_DIR_SIZE + MAX_COMMENT_SIZE);
+            ByteBuffer tail = read(length - tailSize, tailSize);
+            int end = tailSize - END_OF_CENTRAL_DIR_SIZE;
+            while (end >= 0 && tail.getInt(end) != END_OF_CENTRAL_DIR_SIG) {
+                end--;
+            }
+            if (end < 0) {
+                return offsets;
+            }
+            int entryCount = tail.getShort(end + 10) & 0xFFFF;
+            int directorySize = tail.getInt(end + 12);
+            long directoryOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+            ByteBuffer directory = read(directoryOffset, directorySize);
+            int pos = 0;
+            for (int i = 0; i < entryCount && directory.getInt(pos) == CENTRAL_HEADER_SIG; i++) {
+                int flags = directory.getShort(pos + 8) & 0xFFFF;
+                int nameLength = directory.getShort(pos + 28) & 0xFFFF;
+                int extraLength = directory.getShort(pos + 30) & 0xFFFF;
+                int commentLength = directory.getShort(pos + 32) & 0xFFFF;
+                long localHeaderOffset = directory.getInt(pos + 42) & 0xFFFFFFFFL;
+                byte[] name = new byte[nameLength];
+                directory.position(pos + 46);
+                directory.get(name);
+                if ((flags & ENCRYPTED_FLAG) == 0) {
+                    offsets.put((flags & UTF8_NAMES_FLAG) != 0 ? new String(name, "UTF-8") : new String(name),
+                            localHeaderOffset);
+                }
+                pos += 46 + nameLength + extraLength + commentLength;
+            }
+            return offsets;
+        }
+
+        private ByteBuffer read(long offset, int length) throws IOException {
+            byte[] bytes = new byte[length];
+            file.seek(offset);
+            file.readFully(bytes);
+            return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
     }
 }
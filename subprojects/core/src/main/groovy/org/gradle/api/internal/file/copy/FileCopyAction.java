@@ -19,4 +19,9 @@ import java.io.File;
 
 public interface FileCopyAction extends CopyAction {
     File getDestinationDir();
+
+    /**
+     * Returns true if destination files which are already identical to their source file should not be copied again.
+     */
+    boolean isIncremental();
 }
@@ -15,17 +15,26 @@
  */
 package org.gradle.api.internal.file.copy;
 
+import org.apache.commons.io.IOUtils;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.FileVisitDetails;
 
-import java.io.File;
+import java.io.*;
 
 /**
+ * Copies each visited file into the destination directory of the {@link FileCopyAction}. When the action is
+ * incremental, a destination file is left alone when it is already identical to its source file. An unfiltered file is
+ * considered identical when it has the same size and modification time as the source, as copying sets the modification
+ * time of the destination file. A filtered file is considered identical when it has the same content as the filtered
+ * source.
+ *
  * @author Steve Appling
  */
 public class FileCopySpecVisitor extends EmptyCopySpecVisitor {
     private File baseDestDir;
+    private boolean incremental;
     private boolean didWork;
 
     public void startVisit(CopyAction action) {
@@ -33,6 +42,7 @@ public class FileCopySpecVisitor extends EmptyCopySpecVisitor {
         if (baseDestDir == null) {
             throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
         }
+        incremental = ((FileCopyAction) action).isIncremental();
     }
 
     public void visitFile(FileVisitDetails source) {
@@ -45,9 +55,41 @@ public class FileCopySpecVisitor extends EmptyCopySpecVisitor {
     }
 
     void copyFile(FileTreeElement srcFile, File destFile) {
+        if (incremental && isUpToDate(srcFile, destFile)) {
+            return;
+        }
         boolean copied = srcFile.copyTo(destFile);
         if (copied) {
             didWork = true;
         }
     }
+
+    private boolean isUpToDate(FileTreeElement srcFile, File destFile) {
+        if (!destFile.isFile()) {
+            return false;
+        }
+        if (srcFile instanceof MappingCopySpecVisitor.FileVisitDetailsImpl
+                && ((MappingCopySpecVisitor.FileVisitDetailsImpl) srcFile).isFiltered()) {
+            return hasContent(destFile, srcFile);
+        }
+        return destFile.length() == srcFile.getSize() && destFile.lastModified() == srcFile.getLastModified();
+    }
+
+    private boolean hasContent(File destFile, FileTreeElement srcFile) {
+        try {
+            InputStream srcStream = new BufferedInputStream(srcFile.open());
+            try {
+                InputStream destStream = new BufferedInputStream(new FileInputStream(destFile));
+                try {
+                    return IOUtils.contentEquals(srcStream, destStream);
+                } finally {
+                    destStream.close();
+                }
+            } finally {
+                srcStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -19,6 +19,7 @@ import groovy.lang.Closure;
 import org.gradle.api.Action;
 import org.gradle.api.file.*;
 import org.gradle.api.internal.file.AbstractFileTreeElement;
+import org.gradle.api.internal.file.archive.DeflatedZipEntry;
 
 import java.io.*;
 import java.util.Map;
@@ -50,7 +51,7 @@ public class MappingCopySpecVisitor extends DelegatingCopySpecVisitor {
         getVisitor().visitFile(details);
     }
 
-    private static class FileVisitDetailsImpl extends AbstractFileTreeElement implements FileVisitDetails, FileCopyDetails {
+    static class FileVisitDetailsImpl extends AbstractFileTreeElement implements FileVisitDetails, FileCopyDetails, DeflatedZipEntry {
         private final FileVisitDetails fileDetails;
         private final ReadableCopySpec spec;
         private final FilterChain filterChain = new FilterChain();
@@ -82,6 +83,10 @@ public class MappingCopySpecVisitor extends DelegatingCopySpecVisitor {
             return fileDetails.isDirectory();
         }
 
+        boolean isFiltered() {
+            return filterChain.hasFilters();
+        }
+
         public long getLastModified() {
             return fileDetails.getLastModified();
         }
@@ -120,6 +125,23 @@ public class MappingCopySpecVisitor extends DelegatingCopySpecVisitor {
             }
         }
 
+        public boolean hasDeflatedContent() {
+            return !filterChain.hasFilters() && fileDetails instanceof DeflatedZipEntry
+                    && ((DeflatedZipEntry) fileDetails).hasDeflatedContent();
+        }
+
+        public long getCrc() {
+            return ((DeflatedZipEntry) fileDetails).getCrc();
+        }
+
+        public long getCompressedSize() {
+            return ((DeflatedZipEntry) fileDetails).getCompressedSize();
+        }
+
+        public void copyDeflatedContentTo(OutputStream outstr) {
+            ((DeflatedZipEntry) fileDetails).copyDeflatedContentTo(outstr);
+        }
+
         public RelativePath getRelativePath() {
             if (relativePath == null) {
                 RelativePath path = fileDetails.getRelativePath();
@@ -15,28 +15,50 @@
  */
 package org.gradle.api.internal.file.copy;
 
+import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
-import org.gradle.api.internal.file.DefaultDirectoryWalker;
+import org.gradle.api.internal.TaskExecutionHistory;
 import org.gradle.api.internal.file.DirectoryWalker;
+import org.gradle.api.internal.file.DirectoryWalkerFactory;
 import org.gradle.util.GFileUtils;
 
 import java.io.File;
 import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Deletes any file from the destination directory which was not copied. When the {@link FileCopyAction} is incremental
+ * and the output files of the previous execution are known, only those previous output files which were not copied
+ * this time are deleted. Otherwise, the whole destination directory is searched for files to delete.
+ */
 public class SyncCopySpecVisitor extends DelegatingCopySpecVisitor {
     private final Set<RelativePath> visited = new HashSet<RelativePath>();
+    private final TaskExecutionHistory history;
+    private final DirectoryWalkerFactory walkerFactory;
     private File baseDestDir;
+    private boolean incremental;
     private boolean didWork;
 
     public SyncCopySpecVisitor(CopySpecVisitor visitor) {
+        this(visitor, null);
+    }
+
+    public SyncCopySpecVisitor(CopySpecVisitor visitor, TaskExecutionHistory history) {
+        this(visitor, history, new DirectoryWalkerFactory());
+    }
+
+    public SyncCopySpecVisitor(CopySpecVisitor visitor, TaskExecutionHistory history,
+                               DirectoryWalkerFactory walkerFactory) {
         super(visitor);
+        this.history = history;
+        this.walkerFactory = walkerFactory;
     }
 
     public void startVisit(CopyAction action) {
         baseDestDir = ((FileCopyAction) action).getDestinationDir();
+        incremental = ((FileCopyAction) action).isIncremental();
         getVisitor().startVisit(action);
     }
 
@@ -54,6 +76,47 @@ public class SyncCopySpecVisitor extends DelegatingCopySpecVisitor {
 
     @Override
     public void endVisit() {
+        FileCollection previousFiles = incremental && history != null ? history.getOutputFiles() : null;
+        if (previousFiles != null && !previousFiles.isEmpty()) {
+            deletePreviousFiles(previousFiles);
+        } else {
+            deleteExtraFiles();
+        }
+        visited.clear();
+
+        getVisitor().endVisit();
+    }
+
+    private void deletePreviousFiles(FileCollection previousFiles) {
+        String basePath = baseDestDir.getAbsolutePath() + File.separator;
+        for (File file : previousFiles) {
+            String path = file.getAbsolutePath();
+            if (!path.startsWith(basePath)) {
+                continue;
+            }
+            RelativePath relativePath = RelativePath.parse(true, path.substring(basePath.length()));
+            if (visited.contains(relativePath) || !file.isFile()) {
+                continue;
+            }
+            GFileUtils.deleteQuietly(file);
+            didWork = true;
+
+            File dir = file.getParentFile();
+            RelativePath dirPath = relativePath.getParent();
+            while (dirPath.getParent() != null && !visited.contains(dirPath) && isEmpty(dir)) {
+                dir.delete();
+                dir = dir.getParentFile();
+                dirPath = dirPath.getParent();
+            }
+        }
+    }
+
+    private boolean isEmpty(File dir) {
+        String[] names = dir.list();
+        return names != null && names.length == 0;
+    }
+
+    private void deleteExtraFiles() {
         FileVisitor visitor = new FileVisitor() {
             public void visitDir(FileVisitDetails dirDetails) {
                 maybeDelete(dirDetails, true);
@@ -76,11 +139,8 @@ public class SyncCopySpecVisitor extends DelegatingCopySpecVisitor {
             }
         };
 
-        DirectoryWalker walker = new DefaultDirectoryWalker(visitor).depthFirst();
+        DirectoryWalker walker = walkerFactory.create(visitor).depthFirst();
         walker.start(baseDestDir);
-        visited.clear();
-
-        getVisitor().endVisit();
     }
 
     @Override
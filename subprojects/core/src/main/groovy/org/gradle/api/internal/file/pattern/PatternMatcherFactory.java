@@ -23,15 +23,10 @@ import org.gradle.api.specs.Spec;
  */
 public class PatternMatcherFactory {
     public static Spec<RelativePath> getPatternMatcher(boolean partialMatchDirs, boolean caseSensitive, String pattern) {
-        // trailing / or \ assumes **
-        if (pattern.endsWith("/") || pattern.endsWith("\\")) {
-            pattern = pattern + "**";
-        }
-
-        if (pattern.length() == 0) {
+        String[] parts = getPatternParts(pattern);
+        if (parts.length == 0) {
             return new DefaultPatternMatcher(partialMatchDirs, true);
         } else {
-            String[] parts = pattern.split("\\\\|/");
             if (parts.length == 2) {
                 if ("**".equals(parts[0])) {
                     if ("**".equals(parts[1])) {
@@ -46,4 +41,18 @@ public class PatternMatcherFactory {
             return new DefaultPatternMatcher(partialMatchDirs, caseSensitive, parts);
         }
     }
+
+    /**
+     * Splits the given pattern into the patterns for each of its segments.
+     */
+    static String[] getPatternParts(String pattern) {
+        // trailing / or \ assumes **
+        if (pattern.endsWith("/") || pattern.endsWith("\\")) {
+            pattern = pattern + "**";
+        }
+        if (pattern.length() == 0) {
+            return new String[0];
+        }
+        return pattern.split("\\\\|/");
+    }
 }
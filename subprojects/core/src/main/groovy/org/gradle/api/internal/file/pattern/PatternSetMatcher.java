@@ -0,0 +1,311 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.pattern;
+
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.specs.Spec;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A {@link Spec} which matches a {@link RelativePath} against a set of include and exclude patterns. A path is
+ * satisfied when it matches some include pattern, or there are no include patterns, and it does not match any
+ * exclude pattern. Each pattern gives the same result as the matcher created for it by {@link PatternMatcherFactory},
+ * with include patterns partially matching directories.
+ *
+ * <p>All the patterns are compiled into a single automaton over path segments. A state of the automaton is the set of
+ * positions reached so far in each pattern, so the name of each segment is examined once for all the patterns rather
+ * than once per pattern. The literal segments reachable from a state are looked up by name, and the states are shared
+ * between all paths. The state of the most recently used directory is remembered, so that matching each child of a
+ * directory only needs to examine the name of the child. A directory which cannot lead to a match is not satisfied,
+ * which allows a directory walker to skip its contents.</p>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public class PatternSetMatcher implements Spec<RelativePath> {
+    private static final int CACHED_STEPS = 64;
+
+    private final boolean caseSensitive;
+    // The patterns are laid out one after another. Each pattern has one position per step, followed by an end position
+    private final List<PatternStep> steps = new ArrayList<PatternStep>();
+    private final List<String> literals = new ArrayList<String>();
+    private final List<Pattern> patterns = new ArrayList<Pattern>();
+    private final boolean hasIncludes;
+    private final ConcurrentMap<BitSet, State> states = new ConcurrentHashMap<BitSet, State>();
+    private final State initial;
+    private volatile DirState lastDir;
+
+    public PatternSetMatcher(boolean caseSensitive, Collection<String> includes, Collection<String> excludes) {
+        this.caseSensitive = caseSensitive;
+        for (String include : toStrings(includes)) {
+            add(include, true);
+        }
+        hasIncludes = !patterns.isEmpty();
+        for (String exclude : toStrings(excludes)) {
+            add(exclude, false);
+        }
+        BitSet positions = new BitSet();
+        for (Pattern pattern : patterns) {
+            positions.set(pattern.start);
+        }
+        initial = state(positions);
+    }
+
+    private static Set<String> toStrings(Collection<String> patterns) {
+        // Patterns added from a build script may be GStrings
+        Set<String> result = new LinkedHashSet<String>();
+        for (Object pattern : patterns) {
+            result.add(pattern.toString());
+        }
+        return result;
+    }
+
+    private void add(String pattern, boolean include) {
+        String[] parts = PatternMatcherFactory.getPatternParts(pattern);
+        boolean nameOnly = false;
+        if (parts.length == 2 && "**".equals(parts[0])) {
+            if ("**".equals(parts[1])) {
+                parts = new String[]{"**"};
+            } else {
+                nameOnly = true;
+            }
+        }
+        int start = steps.size();
+        for (int i = 0; i < parts.length; i++) {
+            steps.add(PatternStepFactory.getStep(parts[i], i == parts.length - 1, caseSensitive));
+            literals.add(isLiteral(parts[i]) ? parts[i] : null);
+        }
+        steps.add(null);
+        literals.add(null);
+        patterns.add(new Pattern(start, steps.size() - 1, include, nameOnly));
+    }
+
+    private boolean isLiteral(String part) {
+        return caseSensitive && part.indexOf('*') < 0 && part.indexOf('?') < 0;
+    }
+
+    /**
+     * Returns a spec which is satisfied by paths which match any of the include patterns.
+     */
+    public Spec<RelativePath> getIncludeSpec() {
+        return new Spec<RelativePath>() {
+            public boolean isSatisfiedBy(RelativePath path) {
+                State state = stateFor(path);
+                return path.isFile() ? state.includesFile : state.includesDir;
+            }
+        };
+    }
+
+    /**
+     * Returns a spec which is satisfied by paths which match any of the exclude patterns.
+     */
+    public Spec<RelativePath> getExcludeSpec() {
+        return new Spec<RelativePath>() {
+            public boolean isSatisfiedBy(RelativePath path) {
+                State state = stateFor(path);
+                return path.isFile() ? state.excludesFile : state.excludesDir;
+            }
+        };
+    }
+
+    public boolean isSatisfiedBy(RelativePath path) {
+        State state = stateFor(path);
+        if (path.isFile()) {
+            return (state.includesFile || !hasIncludes) && !state.excludesFile;
+        }
+        return (state.includesDir || !hasIncludes) && !state.excludesDir;
+    }
+
+    private State stateFor(RelativePath path) {
+        RelativePath parent = path.getParent();
+        if (parent == null) {
+            return initial;
+        }
+        return dirStateFor(parent).next(path.getLastName());
+    }
+
+    private State dirStateFor(RelativePath dir) {
+        DirState cached = lastDir;
+        if (cached != null && cached.dir == dir) {
+            return cached.state;
+        }
+        State state = stateFor(dir);
+        lastDir = new DirState(dir, state);
+        return state;
+    }
+
+    private State state(BitSet positions) {
+        // Follow the steps which match no segments
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            PatternStep step = steps.get(i);
+            if (step != null && step.isGreedy()) {
+                positions.set(i + 1);
+            }
+        }
+        State state = states.get(positions);
+        if (state == null) {
+            state = new State(positions);
+            State existing = states.putIfAbsent(positions, state);
+            if (existing != null) {
+                state = existing;
+            }
+        }
+        return state;
+    }
+
+    private static class Pattern {
+        final int start;
+        final int end;
+        final boolean include;
+        final boolean nameOnly;
+
+        private Pattern(int start, int end, boolean include, boolean nameOnly) {
+            this.start = start;
+            this.end = end;
+            this.include = include;
+            this.nameOnly = nameOnly;
+        }
+    }
+
+    private static class DirState {
+        final RelativePath dir;
+        final State state;
+
+        private DirState(RelativePath dir, State state) {
+            this.dir = dir;
+            this.state = state;
+        }
+    }
+
+    private class State {
+        private final BitSet positions;
+        private final BitSet greedyNext = new BitSet();
+        // The positions whose step must match the next segment. Bit n of a match mask refers to matchPositions[n]
+        private final int[] matchPositions;
+        private final Map<String, Long> literalMasks = new HashMap<String, Long>();
+        private final int[] wildcards;
+        private final ConcurrentMap<Long, State> transitions = new ConcurrentHashMap<Long, State>();
+        private volatile State defaultNext;
+        final boolean includesFile;
+        final boolean includesDir;
+        final boolean excludesFile;
+        final boolean excludesDir;
+
+        private State(BitSet positions) {
+            this.positions = positions;
+
+            List<Integer> matching = new ArrayList<Integer>();
+            for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+                PatternStep step = steps.get(i);
+                if (step == null) {
+                    continue;
+                }
+                if (step.isGreedy()) {
+                    greedyNext.set(i);
+                } else {
+                    matching.add(i);
+                }
+            }
+            matchPositions = new int[matching.size()];
+            List<Integer> wildcardIndexes = new ArrayList<Integer>();
+            for (int n = 0; n < matchPositions.length; n++) {
+                matchPositions[n] = matching.get(n);
+                String literal = literals.get(matchPositions[n]);
+                if (literal != null) {
+                    Long mask = literalMasks.get(literal);
+                    literalMasks.put(literal, (mask == null ? 0L : mask) | (1L << n));
+                } else {
+                    wildcardIndexes.add(n);
+                }
+            }
+            wildcards = new int[wildcardIndexes.size()];
+            for (int n = 0; n < wildcards.length; n++) {
+                wildcards[n] = wildcardIndexes.get(n);
+            }
+
+            boolean includesFile = false;
+            boolean includesDir = false;
+            boolean excludesFile = false;
+            boolean excludesDir = false;
+            for (Pattern pattern : patterns) {
+                boolean matches = positions.get(pattern.end);
+                if (pattern.include) {
+                    boolean partial = pattern.nameOnly || matches || hasPositionBefore(pattern);
+                    includesFile |= matches;
+                    includesDir |= partial;
+                } else {
+                    excludesFile |= matches;
+                    excludesDir |= matches && !pattern.nameOnly;
+                }
+            }
+            this.includesFile = includesFile;
+            this.includesDir = includesDir;
+            this.excludesFile = excludesFile;
+            this.excludesDir = excludesDir;
+        }
+
+        private boolean hasPositionBefore(Pattern pattern) {
+            int next = positions.nextSetBit(pattern.start);
+            return next >= 0 && next < pattern.end;
+        }
+
+        State next(String name) {
+            if (matchPositions.length > CACHED_STEPS) {
+                return nextUncached(name);
+            }
+            Long literalMask = literalMasks.get(name);
+            long mask = literalMask == null ? 0L : literalMask;
+            for (int n : wildcards) {
+                if (steps.get(matchPositions[n]).matches(name, false)) {
+                    mask |= 1L << n;
+                }
+            }
+            if (mask == 0) {
+                State state = defaultNext;
+                if (state == null) {
+                    state = state((BitSet) greedyNext.clone());
+                    defaultNext = state;
+                }
+                return state;
+            }
+            State state = transitions.get(mask);
+            if (state == null) {
+                BitSet nextPositions = (BitSet) greedyNext.clone();
+                for (int n = 0; n < matchPositions.length; n++) {
+                    if ((mask & (1L << n)) != 0) {
+                        nextPositions.set(matchPositions[n] + 1);
+                    }
+                }
+                state = state(nextPositions);
+                transitions.put(mask, state);
+            }
+            return state;
+        }
+
+        private State nextUncached(String name) {
+            BitSet nextPositions = (BitSet) greedyNext.clone();
+            for (int position : matchPositions) {
+                String literal = literals.get(position);
+                if (literal != null ? literal.equals(name) : steps.get(position).matches(name, false)) {
+                    nextPositions.set(position + 1);
+                }
+            }
+            return state(nextPositions);
+        }
+    }
+}
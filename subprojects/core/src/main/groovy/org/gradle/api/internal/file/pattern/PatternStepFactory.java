@@ -19,6 +19,8 @@ public class PatternStepFactory {
     public static PatternStep getStep(String source, boolean isLast, boolean caseSensitive) {
         if (source.equals("**")) {
             return new GreedyPatternStep();
+        } else if (caseSensitive && source.indexOf('?') < 0) {
+            return new WildcardPatternStep(source);
         } else {
             return new RegExpPatternStep(source, caseSensitive);
         }
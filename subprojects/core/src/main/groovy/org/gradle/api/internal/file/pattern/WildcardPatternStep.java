@@ -0,0 +1,54 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.pattern;
+
+/**
+ * A case sensitive {@link PatternStep} for patterns which contain no wildcards other than '*'. Matches by comparing the
+ * literal parts of the pattern with the candidate, which is much cheaper than using a regular expression.
+ */
+public class WildcardPatternStep implements PatternStep {
+    private final String[] parts;
+
+    public WildcardPatternStep(String pattern) {
+        parts = pattern.split("\\*", -1);
+    }
+
+    public boolean matches(String candidate, boolean isFile) {
+        if (parts.length == 1) {
+            return candidate.equals(parts[0]);
+        }
+        String first = parts[0];
+        String last = parts[parts.length - 1];
+        if (candidate.length() < first.length() + last.length() || !candidate.startsWith(first) || !candidate.endsWith(
+                last)) {
+            return false;
+        }
+        int pos = first.length();
+        int end = candidate.length() - last.length();
+        for (int i = 1; i < parts.length - 1; i++) {
+            int next = candidate.indexOf(parts[i], pos);
+            if (next < 0 || next + parts[i].length() > end) {
+                return false;
+            }
+            pos = next + parts[i].length();
+        }
+        return true;
+    }
+
+    public boolean isGreedy() {
+        return false;
+    }
+}
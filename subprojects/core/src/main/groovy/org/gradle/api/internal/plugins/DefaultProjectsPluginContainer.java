@@ -17,6 +17,8 @@ package org.gradle.api.internal.plugins;
 
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.internal.BuildOperation;
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.api.plugins.PluginContainer;
 import org.gradle.api.plugins.UnknownPluginException;
 
@@ -26,11 +28,14 @@ import org.gradle.api.plugins.UnknownPluginException;
 public class DefaultProjectsPluginContainer extends DefaultPluginCollection<Plugin> implements PluginContainer {
     private PluginRegistry pluginRegistry;
     private final Project project;
+    private final BuildOperationListener operationListener;
 
-    public DefaultProjectsPluginContainer(PluginRegistry pluginRegistry, Project project) {
+    public DefaultProjectsPluginContainer(PluginRegistry pluginRegistry, Project project,
+                                          BuildOperationListener operationListener) {
         super(Plugin.class);
         this.pluginRegistry = pluginRegistry;
         this.project = project;
+        this.operationListener = operationListener;
     }
 
     public Plugin apply(String id) {
@@ -99,8 +104,14 @@ public class DefaultProjectsPluginContainer extends DefaultPluginCollection<Plug
     }
 
     private Plugin<Project> providePlugin(Class<? extends Plugin> type) {
-        Plugin<Project> plugin = pluginRegistry.loadPlugin(type);
-        plugin.apply(project);
-        return plugin;
+        BuildOperation operation = new BuildOperation(BuildOperation.Type.APPLY_PLUGIN, type.getName());
+        operationListener.operationStarted(operation);
+        try {
+            Plugin<Project> plugin = pluginRegistry.loadPlugin(type);
+            plugin.apply(project);
+            return plugin;
+        } finally {
+            operationListener.operationFinished(operation);
+        }
     }
 }
@@ -199,7 +199,7 @@ public class DefaultServiceRegistry implements ServiceRegistry {
             return String.format("Service %s", serviceType);
         }
 
-        <T> T getService(Class<T> serviceType) {
+        synchronized <T> T getService(Class<T> serviceType) {
             if (!serviceType.isAssignableFrom(this.serviceClass)) {
                 return null;
             }
@@ -212,7 +212,7 @@ public class DefaultServiceRegistry implements ServiceRegistry {
 
         protected abstract Object create();
 
-        public void stop() {
+        public synchronized void stop() {
             try {
                 if (service != null) {
                     try {
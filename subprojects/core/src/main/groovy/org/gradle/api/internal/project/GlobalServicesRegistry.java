@@ -21,6 +21,7 @@ import org.gradle.api.internal.ClassPathRegistry;
 import org.gradle.api.internal.DefaultClassPathProvider;
 import org.gradle.api.internal.DefaultClassPathRegistry;
 import org.gradle.api.internal.GradleDistributionLocator;
+import org.gradle.api.internal.changedetection.InMemoryFileHashCache;
 import org.gradle.cache.AutoCloseCacheFactory;
 import org.gradle.cache.CacheFactory;
 import org.gradle.cache.DefaultCacheFactory;
@@ -31,6 +32,8 @@ import org.gradle.initialization.DefaultCommandLineConverter;
 import org.gradle.listener.DefaultListenerManager;
 import org.gradle.listener.ListenerManager;
 import org.gradle.logging.LoggingServiceRegistry;
+import org.gradle.messaging.remote.internal.TcpMessagingServer;
+import org.gradle.process.internal.WorkerProcessPool;
 
 /**
  * Contains the services shared by all builds in a given process.
@@ -71,5 +74,13 @@ public class GlobalServicesRegistry extends DefaultServiceRegistry {
     protected IsolatedAntBuilder createIsolatedAntBuilder() {
         return new DefaultIsolatedAntBuilder(get(ClassPathRegistry.class));
     }
+
+    protected InMemoryFileHashCache createInMemoryFileHashCache() {
+        return new InMemoryFileHashCache();
+    }
+
+    protected WorkerProcessPool createWorkerProcessPool() {
+        return new WorkerProcessPool(new TcpMessagingServer(get(ClassLoaderFactory.class).getRootClassLoader()));
+    }
     
 }
@@ -23,6 +23,7 @@ import org.gradle.api.artifacts.Module;
 import org.gradle.api.artifacts.dsl.ArtifactHandler;
 import org.gradle.api.artifacts.dsl.DependencyHandler;
 import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.api.internal.ClassGenerator;
 import org.gradle.api.internal.Factory;
 import org.gradle.api.internal.TaskInternal;
@@ -37,6 +38,7 @@ import org.gradle.api.internal.artifacts.dsl.dependencies.DependencyFactory;
 import org.gradle.api.internal.artifacts.dsl.dependencies.ProjectFinder;
 import org.gradle.api.internal.artifacts.repositories.InternalRepository;
 import org.gradle.api.internal.file.*;
+import org.gradle.api.internal.file.archive.ArchiveExpansionCache;
 import org.gradle.api.internal.initialization.DefaultScriptHandlerFactory;
 import org.gradle.api.internal.initialization.ScriptClassLoaderProvider;
 import org.gradle.api.internal.initialization.ScriptHandlerInternal;
@@ -77,7 +79,8 @@ public class ProjectInternalServiceRegistry extends DefaultServiceRegistry imple
     }
 
     protected FileOperations createFileOperations() {
-        return new DefaultFileOperations(get(FileResolver.class), project.getTasks(), get(TemporaryFileProvider.class));
+        return new DefaultFileOperations(get(FileResolver.class), project.getTasks(), get(TemporaryFileProvider.class),
+                get(ArchiveExpansionCache.class), get(DirectoryWalkerFactory.class));
     }
 
     protected TemporaryFileProvider createTemporaryFileProvider() {
@@ -93,7 +96,8 @@ public class ProjectInternalServiceRegistry extends DefaultServiceRegistry imple
     }
 
     protected PluginContainer createPluginContainer() {
-        return new DefaultProjectsPluginContainer(get(PluginRegistry.class), project);
+        return new DefaultProjectsPluginContainer(get(PluginRegistry.class), project,
+                get(BuildOperationListener.class));
     }
 
     protected Factory<TaskContainerInternal> createTaskContainerInternal() {
@@ -20,9 +20,9 @@ import org.gradle.api.ProjectState;
 import org.gradle.util.UncheckedException;
 
 public class ProjectStateInternal implements ProjectState {
-    private boolean executing;
-    private boolean executed;
-    private Throwable failure;
+    private volatile Thread executingThread;
+    private volatile boolean executed;
+    private volatile Throwable failure;
 
     public boolean getExecuted() {
         return executed;
@@ -39,11 +39,18 @@ public class ProjectStateInternal implements ProjectState {
     }
 
     public boolean getExecuting() {
-        return executing;
+        return executingThread != null;
     }
 
     public void setExecuting(boolean executing) {
-        this.executing = executing;
+        executingThread = executing ? Thread.currentThread() : null;
+    }
+
+    /**
+     * Returns true if the project is being evaluated by the current thread.
+     */
+    public boolean isExecutingInCurrentThread() {
+        return executingThread == Thread.currentThread();
     }
 
     public Throwable getFailure() {
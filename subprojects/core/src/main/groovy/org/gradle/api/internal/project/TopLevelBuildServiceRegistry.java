@@ -37,7 +37,9 @@ import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.*;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.*;
 import org.gradle.api.internal.artifacts.repositories.InternalRepository;
 import org.gradle.api.internal.changedetection.*;
+import org.gradle.api.internal.file.DirectoryWalkerFactory;
 import org.gradle.api.internal.file.IdentityFileResolver;
+import org.gradle.api.internal.file.archive.ArchiveExpansionCache;
 import org.gradle.api.internal.initialization.DefaultScriptHandlerFactory;
 import org.gradle.api.internal.initialization.ScriptHandlerFactory;
 import org.gradle.api.internal.project.taskfactory.*;
@@ -63,6 +65,7 @@ import org.gradle.messaging.remote.MessagingServer;
 import org.gradle.messaging.remote.internal.TcpMessagingServer;
 import org.gradle.process.internal.DefaultWorkerProcessFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.process.internal.WorkerProcessPool;
 import org.gradle.process.internal.child.WorkerProcessClassPathProvider;
 import org.gradle.util.*;
 
@@ -207,9 +210,19 @@ public class TopLevelBuildServiceRegistry extends DefaultServiceRegistry impleme
                 new DefaultIvyFactory(),
                 new SelfResolvingDependencyResolver(
                         new DefaultIvyDependencyResolver(
-                                new DefaultIvyReportConverter(dependencyDescriptorFactoryDelegate))),
+                                new DefaultIvyReportConverter(dependencyDescriptorFactoryDelegate),
+                                new ParallelArtifactDownloader(
+                                        get(ExecutorFactory.class),
+                                        get(ProgressLoggerFactory.class),
+                                        startParameter.getParallelDownloadCount()))),
                 new DefaultIvyDependencyPublisher(new DefaultPublishOptionsFactory()),
-                get(ClassGenerator.class));
+                get(ClassGenerator.class),
+                get(BuildOperationListener.class),
+                get(ResolvedConfigurationCache.class));
+    }
+
+    protected ResolvedConfigurationCache createResolvedConfigurationCache() {
+        return new ResolvedConfigurationCache(get(CacheRepository.class));
     }
 
     protected DependencyFactory createDependencyFactory() {
@@ -236,7 +249,8 @@ public class TopLevelBuildServiceRegistry extends DefaultServiceRegistry impleme
     protected ProjectEvaluator createProjectEvaluator() {
         return new DefaultProjectEvaluator(
                 new BuildScriptProcessor(
-                        get(ScriptPluginFactory.class)));
+                        get(ScriptPluginFactory.class)),
+                get(BuildOperationListener.class));
     }
 
     protected ITaskFactory createITaskFactory() {
@@ -246,14 +260,37 @@ public class TopLevelBuildServiceRegistry extends DefaultServiceRegistry impleme
                                 get(ClassGenerator.class))));
     }
 
+    protected InMemoryCachingHasher createInMemoryCachingHasher() {
+        return new InMemoryCachingHasher(
+                new CachingHasher(
+                        new DefaultHasher(),
+                        get(CacheRepository.class)),
+                get(InMemoryFileHashCache.class));
+    }
+
+    protected DirectoryWalkerFactory createDirectoryWalkerFactory() {
+        return new DirectoryWalkerFactory(get(ExecutorFactory.class),
+                Integer.getInteger(DirectoryWalkerFactory.LISTING_THREADS_PROPERTY, 1));
+    }
+
+    protected ArchiveExpansionCache createArchiveExpansionCache() {
+        return new ArchiveExpansionCache(get(CacheRepository.class), get(InMemoryCachingHasher.class));
+    }
+
     protected TaskArtifactStateRepository createTaskArtifactStateRepository() {
         CacheRepository cacheRepository = get(CacheRepository.class);
         FileSnapshotter fileSnapshotter = new DefaultFileSnapshotter(
-                new CachingHasher(
-                        new DefaultHasher(),
-                        cacheRepository));
+                get(InMemoryCachingHasher.class),
+                get(ExecutorFactory.class),
+                Runtime.getRuntime().availableProcessors());
+
+        // Output files are compared by length and timestamp, and only hashed when the timestamp is ambiguous
+        FileSnapshotter outputFileMetadataSnapshotter = new FileMetadataSnapshotter(
+                new DefaultHasher(),
+                get(ExecutorFactory.class),
+                Runtime.getRuntime().availableProcessors());
 
-        FileSnapshotter outputFilesSnapshotter = new OutputFilesSnapshotter(fileSnapshotter, new RandomLongIdGenerator(), cacheRepository);
+        FileSnapshotter outputFilesSnapshotter = new OutputFilesSnapshotter(outputFileMetadataSnapshotter, new RandomLongIdGenerator(), cacheRepository);
         return new ShortCircuitTaskArtifactStateRepository(
                 startParameter,
                 new DefaultTaskArtifactStateRepository(cacheRepository,
@@ -268,7 +305,12 @@ public class TopLevelBuildServiceRegistry extends DefaultServiceRegistry impleme
                         new DefaultScriptCompilationHandler()),
                 new DefaultScriptRunnerFactory(
                         scriptExecutionListener),
-                get(CacheRepository.class));
+                get(CacheRepository.class),
+                get(BuildOperationListener.class));
+    }
+
+    protected BuildOperationListener createBuildOperationListener() {
+        return get(ListenerManager.class).getBroadcaster(BuildOperationListener.class);
     }
 
     protected ScriptPluginFactory createScriptObjectConfigurerFactory() {
@@ -316,7 +358,7 @@ public class TopLevelBuildServiceRegistry extends DefaultServiceRegistry impleme
     protected Factory<WorkerProcessBuilder> createWorkerProcessFactory() {
         ClassPathRegistry classPathRegistry = get(ClassPathRegistry.class);
         return new DefaultWorkerProcessFactory(startParameter.getLogLevel(), get(MessagingServer.class), classPathRegistry,
-                new IdentityFileResolver(), new LongIdGenerator());
+                new IdentityFileResolver(), new LongIdGenerator(), get(WorkerProcessPool.class));
     }
     
     protected MessagingServer createMessagingServer() {
@@ -324,10 +366,18 @@ public class TopLevelBuildServiceRegistry extends DefaultServiceRegistry impleme
     }
 
     protected BuildConfigurer createBuildConfigurer() {
-        return new DefaultBuildConfigurer(
+        BuildConfigurer configurer = new DefaultBuildConfigurer(
                 new ProjectEvaluationConfigurer(),
                 new ProjectDependencies2TaskResolver(),
                 new ImplicitTasksConfigurer());
+        if (!startParameter.isParallelProjectConfiguration()) {
+            return configurer;
+        }
+        int maxThreads = startParameter.getParallelThreadCount();
+        if (maxThreads == 1) {
+            maxThreads = Runtime.getRuntime().availableProcessors();
+        }
+        return new ParallelBuildConfigurer(configurer, get(ExecutorFactory.class), maxThreads);
     }
 
     public ServiceRegistryFactory createFor(Object domainObject) {
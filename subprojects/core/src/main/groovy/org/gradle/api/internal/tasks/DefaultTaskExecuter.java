@@ -20,15 +20,29 @@ import org.gradle.api.GradleException;
 import org.gradle.api.Task;
 import org.gradle.api.execution.TaskActionListener;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.api.logging.LoggingManager;
 import org.gradle.api.tasks.StopActionException;
 import org.gradle.api.tasks.StopExecutionException;
 import org.gradle.api.tasks.TaskExecutionException;
 
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Executes the actions of a task, with the task's standard output capture applied.
+ *
+ * <p>Starting and stopping the standard output capture changes process-wide logging state. When tasks are executed
+ * in parallel, the actions of tasks which use the default capture settings may run concurrently, as each of them
+ * applies the same settings. The actions of a task which sets its own capture levels are run while no other task
+ * actions are running.</p>
+ */
 public class DefaultTaskExecuter implements TaskExecuter {
     private static Logger logger = Logging.getLogger(DefaultTaskExecuter.class);
     private final TaskActionListener listener;
+    private final ReentrantReadWriteLock outputCaptureLock = new ReentrantReadWriteLock();
 
     public DefaultTaskExecuter(TaskActionListener listener) {
         this.listener = listener;
@@ -53,21 +67,38 @@ public class DefaultTaskExecuter implements TaskExecuter {
         logger.debug("Executing actions for {}.", task);
         for (Action<? super Task> action : task.getActions()) {
             state.setDidWork(true);
-            task.getStandardOutputCapture().start();
+            Lock lock = getOutputCaptureLock(task);
+            lock.lock();
             try {
-                action.execute(task);
-            } catch (StopActionException e) {
-                // Ignore
-                logger.debug("Action stopped by some action with message: {}", e.getMessage());
-            } catch (StopExecutionException e) {
-                logger.info("Execution stopped by some action with message: {}", e.getMessage());
-                break;
-            } catch (Throwable t) {
-                return new TaskExecutionException(task, t);
+                task.getStandardOutputCapture().start();
+                try {
+                    action.execute(task);
+                } catch (StopActionException e) {
+                    // Ignore
+                    logger.debug("Action stopped by some action with message: {}", e.getMessage());
+                } catch (StopExecutionException e) {
+                    logger.info("Execution stopped by some action with message: {}", e.getMessage());
+                    break;
+                } catch (Throwable t) {
+                    return new TaskExecutionException(task, t);
+                } finally {
+                    task.getStandardOutputCapture().stop();
+                }
             } finally {
-                task.getStandardOutputCapture().stop();
+                lock.unlock();
             }
         }
         return null;
     }
+
+    private Lock getOutputCaptureLock(TaskInternal task) {
+        LoggingManager logging = task.getLogging();
+        boolean defaultCapture = logging.getStandardOutputCaptureLevel() == LogLevel.QUIET
+                && logging.getStandardErrorCaptureLevel() == LogLevel.ERROR;
+        // A task executed from within the action of another task cannot wait for that action to complete
+        if (defaultCapture || outputCaptureLock.getReadHoldCount() > 0) {
+            return outputCaptureLock.readLock();
+        }
+        return outputCaptureLock.writeLock();
+    }
 }
@@ -96,4 +96,25 @@ public class Copy extends AbstractCopyTask {
     public void setDestinationDir(File destinationDir) {
         into(destinationDir);
     }
+
+    /**
+     * Returns whether files which are already identical in the destination directory are skipped. The default value
+     * is false.
+     *
+     * @return true if identical destination files are not copied again.
+     */
+    public boolean isIncremental() {
+        return getCopyAction().isIncremental();
+    }
+
+    /**
+     * Specifies whether files which are already identical in the destination directory are skipped. An unfiltered file
+     * is considered identical when its destination file has the same size and modification time. A filtered file is
+     * considered identical when its destination file has the same content.
+     *
+     * @param incremental true if identical destination files should not be copied again.
+     */
+    public void setIncremental(boolean incremental) {
+        getCopyAction().setIncremental(incremental);
+    }
 }
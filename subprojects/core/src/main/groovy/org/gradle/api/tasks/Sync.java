@@ -16,6 +16,9 @@
 
 package org.gradle.api.tasks;
 
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.TaskExecutionHistory;
+import org.gradle.api.internal.file.DirectoryWalkerFactory;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.copy.FileCopyActionImpl;
 import org.gradle.api.internal.file.copy.FileCopySpecVisitor;
@@ -31,7 +34,14 @@ public class Sync extends AbstractCopyTask {
 
     public Sync() {
         FileResolver fileResolver = getServices().get(FileResolver.class);
-        action = new FileCopyActionImpl(fileResolver, new SyncCopySpecVisitor(new FileCopySpecVisitor()));
+        TaskExecutionHistory history = new TaskExecutionHistory() {
+            public FileCollection getOutputFiles() {
+                return getOutputs().getPreviousFiles();
+            }
+        };
+        DirectoryWalkerFactory walkerFactory = getServices().get(DirectoryWalkerFactory.class);
+        action = new FileCopyActionImpl(fileResolver, new SyncCopySpecVisitor(new FileCopySpecVisitor(), history,
+                walkerFactory));
     }
 
     @Override
@@ -57,4 +67,25 @@ public class Sync extends AbstractCopyTask {
     public void setDestinationDir(File destinationDir) {
         into(destinationDir);
     }
+
+    /**
+     * Returns whether this task works incrementally. The default value is false.
+     *
+     * @return true if this task works incrementally.
+     */
+    public boolean isIncremental() {
+        return getCopyAction().isIncremental();
+    }
+
+    /**
+     * Specifies whether this task works incrementally. When true, files which are already identical in the destination
+     * directory are not copied again, and only those files which this task created in its previous execution are
+     * considered for deletion, rather than every file in the destination directory. Files which were added to the
+     * destination directory by something other than this task are then left in place.
+     *
+     * @param incremental true if this task should work incrementally.
+     */
+    public void setIncremental(boolean incremental) {
+        getCopyAction().setIncremental(incremental);
+    }
 }
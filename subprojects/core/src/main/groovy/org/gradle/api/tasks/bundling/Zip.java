@@ -19,6 +19,7 @@ import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.archive.ZipCopySpecVisitor;
 import org.gradle.api.internal.file.copy.ArchiveCopyAction;
 import org.gradle.api.internal.file.copy.CopyActionImpl;
+import org.gradle.messaging.concurrent.ExecutorFactory;
 
 import java.io.File;
 
@@ -33,7 +34,7 @@ public class Zip extends AbstractArchiveTask {
 
     public Zip() {
         setExtension(ZIP_EXTENSION);
-        action = new ZipCopyAction(getServices().get(FileResolver.class));
+        action = new ZipCopyAction(getServices().get(FileResolver.class), getServices().get(ExecutorFactory.class));
     }
 
     protected CopyActionImpl getCopyAction() {
@@ -41,8 +42,8 @@ public class Zip extends AbstractArchiveTask {
     }
 
     private class ZipCopyAction extends CopyActionImpl implements ArchiveCopyAction {
-        public ZipCopyAction(FileResolver fileResolver) {
-            super(fileResolver, new ZipCopySpecVisitor());
+        public ZipCopyAction(FileResolver fileResolver, ExecutorFactory executorFactory) {
+            super(fileResolver, new ZipCopySpecVisitor(executorFactory, Runtime.getRuntime().availableProcessors()));
         }
 
         public File getArchivePath() {
@@ -21,7 +21,7 @@ import org.gradle.util.GUtil
 
 import org.gradle.api.specs.Spec
 import org.gradle.api.specs.Specs
-import org.gradle.api.internal.file.pattern.PatternMatcherFactory
+import org.gradle.api.internal.file.pattern.PatternSetMatcher
 import org.gradle.api.specs.AndSpec
 import org.gradle.api.specs.NotSpec
 import org.gradle.api.specs.OrSpec
@@ -89,27 +89,32 @@ class PatternSet implements AntBuilderAware, PatternFilterable {
     }
     
     public Spec<FileTreeElement> getAsSpec() {
+        Collection<String> allExcludes = excludes + GLOBAL_EXCLUDES
+        PatternSetMatcher patterns = new PatternSetMatcher(caseSensitive, includes, allExcludes)
+        if (!includeSpecs && !excludeSpecs) {
+            return new RelativePathSpec(patterns)
+        }
+
         Spec<FileTreeElement> includeSpec = Specs.satisfyAll()
 
         boolean hasIncludes = includes || includeSpecs
         if (hasIncludes) {
             List<Spec<FileTreeElement>> matchers = []
-            for (String include: includes) {
-                matchers.add(new RelativePathSpec(PatternMatcherFactory.getPatternMatcher(true, caseSensitive, include)))
+            if (includes) {
+                matchers.add(new RelativePathSpec(patterns.includeSpec))
             }
             matchers.addAll(includeSpecs)
             includeSpec = new OrSpec<FileTreeElement>(matchers as Spec[])
         }
 
-        Collection<String> allExcludes = excludes + GLOBAL_EXCLUDES
         boolean hasExcludes = allExcludes || excludeSpecs
         if (!hasExcludes) {
             return includeSpec
         }
 
         List<Spec<FileTreeElement>> matchers = []
-        for (String exclude: allExcludes) {
-            matchers.add(new RelativePathSpec(PatternMatcherFactory.getPatternMatcher(false, caseSensitive, exclude)))
+        if (allExcludes) {
+            matchers.add(new RelativePathSpec(patterns.excludeSpec))
         }
         matchers.addAll(excludeSpecs)
         Spec<FileTreeElement> excludeSpec = new NotSpec<FileTreeElement>(new OrSpec<FileTreeElement>(matchers as Spec[]))
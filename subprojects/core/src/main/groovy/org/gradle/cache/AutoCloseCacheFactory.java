@@ -22,6 +22,10 @@ import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * A {@link CacheFactory} which shares a cache between the users of a cache directory, and closes the cache when the
+ * last of them closes it. Caches may be opened and closed from multiple threads.
+ */
 public class AutoCloseCacheFactory implements CacheFactory {
     private final CacheFactory cacheFactory;
     private final Map<File, CacheInfo> openCaches = new HashMap<File, CacheInfo>();
@@ -30,7 +34,7 @@ public class AutoCloseCacheFactory implements CacheFactory {
         this.cacheFactory = cacheFactory;
     }
 
-    public PersistentCache open(File cacheDir, CacheUsage usage, Map<String, ?> properties) {
+    public synchronized PersistentCache open(File cacheDir, CacheUsage usage, Map<String, ?> properties) {
         File canonicalDir = GFileUtils.canonicalise(cacheDir);
         CacheInfo cacheInfo = openCaches.get(canonicalDir);
         if (cacheInfo == null) {
@@ -46,7 +50,7 @@ public class AutoCloseCacheFactory implements CacheFactory {
         return cacheInfo.cache;
     }
 
-    public void close(PersistentCache cache) {
+    public synchronized void close(PersistentCache cache) {
         for (CacheInfo cacheInfo : openCaches.values()) {
             if (cacheInfo.cache == cache) {
                 if (cacheInfo.removeReference()) {
@@ -59,7 +63,7 @@ public class AutoCloseCacheFactory implements CacheFactory {
         throw new IllegalArgumentException("Attempting to close unknown cache " + cache);
     }
 
-    public void close() {
+    public synchronized void close() {
         try {
             for (CacheInfo cacheInfo : openCaches.values()) {
                 cacheFactory.close(cacheInfo.cache);
@@ -74,9 +74,11 @@ public class DefaultPersistentDirectoryCache implements PersistentCache {
         valid = true;
     }
 
-    public <K, V> BTreePersistentIndexedCache<K, V> openIndexedCache(Serializer<V> serializer) {
+    public synchronized <K, V> BTreePersistentIndexedCache<K, V> openIndexedCache(Serializer<V> serializer) {
         if (indexedCache == null) {
             indexedCache = new BTreePersistentIndexedCache<K, V>(this, serializer);
+        } else {
+            indexedCache.setSerializer(serializer);
         }
         return indexedCache;
     }
@@ -85,7 +87,7 @@ public class DefaultPersistentDirectoryCache implements PersistentCache {
         return openIndexedCache(new DefaultSerializer<V>());
     }
 
-    public <T> SimpleStateCache<T> openStateCache() {
+    public synchronized <T> SimpleStateCache<T> openStateCache() {
         if (stateCache == null) {
             stateCache = new SimpleStateCache<T>(this, new DefaultSerializer<T>());
         }
@@ -100,16 +102,16 @@ public class DefaultPersistentDirectoryCache implements PersistentCache {
         return dir;
     }
 
-    public boolean isValid() {
+    public synchronized boolean isValid() {
         return valid;
     }
 
-    public void markValid() {
+    public synchronized void markValid() {
         GUtil.saveProperties(properties, propertiesFile);
         valid = true;
     }
 
-    public void close() {
+    public synchronized void close() {
         if (indexedCache != null) {
             indexedCache.close();
         }
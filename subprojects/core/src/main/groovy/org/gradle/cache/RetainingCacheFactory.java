@@ -0,0 +1,120 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.cache;
+
+import org.gradle.CacheUsage;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link CacheFactory} which keeps a cache open after its last reference has been closed, so that the cache can be
+ * reused by later builds in the same process. A retained cache is closed and opened again when it is requested with
+ * different properties or with a usage other than {@link CacheUsage#ON}, or when its files have changed since it was
+ * last closed, for example because another process has used the cache.
+ *
+ * <p>This factory is thread-safe.</p>
+ */
+public class RetainingCacheFactory implements CacheFactory {
+    private final CacheFactory cacheFactory;
+    private final Map<File, CacheInfo> caches = new HashMap<File, CacheInfo>();
+
+    public RetainingCacheFactory(CacheFactory cacheFactory) {
+        this.cacheFactory = cacheFactory;
+    }
+
+    public synchronized PersistentCache open(File cacheDir, CacheUsage usage, Map<String, ?> properties) {
+        File canonicalDir = GFileUtils.canonicalise(cacheDir);
+        CacheInfo cacheInfo = caches.get(canonicalDir);
+        if (cacheInfo != null && cacheInfo.count == 0 && !cacheInfo.canReuse(usage, properties)) {
+            caches.remove(canonicalDir);
+            cacheFactory.close(cacheInfo.cache);
+            cacheInfo = null;
+        }
+        if (cacheInfo == null) {
+            PersistentCache cache = cacheFactory.open(cacheDir, usage, properties);
+            cacheInfo = new CacheInfo(cache, properties);
+            caches.put(canonicalDir, cacheInfo);
+        } else if (!properties.equals(cacheInfo.properties)) {
+            throw new UnsupportedOperationException(String.format("Cache '%s' is already open with different state.", cacheDir));
+        }
+        cacheInfo.count++;
+        return cacheInfo.cache;
+    }
+
+    public synchronized void close(PersistentCache cache) {
+        for (CacheInfo cacheInfo : caches.values()) {
+            if (cacheInfo.cache == cache) {
+                assert cacheInfo.count > 0;
+                cacheInfo.count--;
+                if (cacheInfo.count == 0) {
+                    cacheInfo.snapshotFiles();
+                }
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Attempting to close unknown cache " + cache);
+    }
+
+    /**
+     * Closes all caches, including those which are still in use.
+     */
+    public synchronized void close() {
+        try {
+            for (CacheInfo cacheInfo : caches.values()) {
+                cacheFactory.close(cacheInfo.cache);
+            }
+        } finally {
+            caches.clear();
+        }
+    }
+
+    private static class CacheInfo {
+        int count;
+        final Map<String, ?> properties;
+        final PersistentCache cache;
+        Map<String, List<Long>> files;
+
+        private CacheInfo(PersistentCache cache, Map<String, ?> properties) {
+            this.cache = cache;
+            this.properties = new HashMap<String, Object>(properties);
+        }
+
+        public boolean canReuse(CacheUsage usage, Map<String, ?> properties) {
+            return usage == CacheUsage.ON && properties.equals(this.properties) && currentFiles().equals(files);
+        }
+
+        public void snapshotFiles() {
+            files = currentFiles();
+        }
+
+        private Map<String, List<Long>> currentFiles() {
+            Map<String, List<Long>> result = new HashMap<String, List<Long>>();
+            File baseDir = cache.getBaseDir();
+            File[] children = baseDir == null ? null : baseDir.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    result.put(child.getName(), Arrays.asList(child.length(), child.lastModified()));
+                }
+            }
+            return result;
+        }
+    }
+}
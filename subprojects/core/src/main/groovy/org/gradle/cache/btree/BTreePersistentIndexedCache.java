@@ -38,10 +38,14 @@ import java.util.*;
 // todo - merge adjacent free blocks
 // todo - use more efficient lookup for free block with nearest size
 public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache<K, V> {
+    /**
+     * The system property which, when set to true, selects the memory mapped block store for new caches.
+     */
+    public static final String MAPPED_STORE_PROPERTY = "org.gradle.cache.mapped";
     private static final Logger LOGGER = LoggerFactory.getLogger(BTreePersistentIndexedCache.class);
     private final File cacheFile;
     private final PersistentCache backingCache;
-    private final Serializer<V> serializer;
+    private Serializer<V> serializer;
     private final short maxChildIndexEntries;
     private final int minIndexChildNodes;
     private final StateCheckBlockStore store;
@@ -53,12 +57,18 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
 
     public BTreePersistentIndexedCache(PersistentCache backingCache, Serializer<V> serializer,
                                        short maxChildIndexEntries, int maxFreeListEntries) {
+        this(backingCache, serializer, maxChildIndexEntries, maxFreeListEntries, Boolean.getBoolean(MAPPED_STORE_PROPERTY));
+    }
+
+    public BTreePersistentIndexedCache(PersistentCache backingCache, Serializer<V> serializer,
+                                       short maxChildIndexEntries, int maxFreeListEntries, boolean memoryMapped) {
         this.backingCache = backingCache;
         this.serializer = serializer;
         this.maxChildIndexEntries = maxChildIndexEntries;
         this.minIndexChildNodes = maxChildIndexEntries / 2;
         cacheFile = new File(backingCache.getBaseDir(), "cache.bin");
-        BlockStore cachingStore = new CachingBlockStore(new FileBackedBlockStore(cacheFile), IndexBlock.class, FreeListBlockStore.FreeListBlock.class);
+        BlockStore fileStore = memoryMapped ? new MappedFileBlockStore(cacheFile) : new FileBackedBlockStore(cacheFile);
+        BlockStore cachingStore = new CachingBlockStore(fileStore, IndexBlock.class, FreeListBlockStore.FreeListBlock.class);
         store = new StateCheckBlockStore(new FreeListBlockStore(cachingStore, maxFreeListEntries));
         try {
             open();
@@ -109,7 +119,16 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         header = store.readFirst(HeaderBlock.class);
     }
 
-    public V get(K key) {
+    /**
+     * Replaces the serializer used to read and write the values of this cache. A cache which is kept open between
+     * builds is handed the serializer of the current build, so that it does not hold on to an earlier build's
+     * serializer, and its ClassLoader.
+     */
+    public synchronized void setSerializer(Serializer<V> serializer) {
+        this.serializer = serializer;
+    }
+
+    public synchronized V get(K key) {
         try {
             try {
                 DataBlock block = header.getRoot().get(key);
@@ -126,7 +145,7 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         }
     }
 
-    public void put(K key, V value) {
+    public synchronized void put(K key, V value) {
         try {
             String keyString = key.toString();
             long hashCode = keyString.hashCode();
@@ -150,7 +169,7 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         }
     }
 
-    public void remove(K key) {
+    public synchronized void remove(K key) {
         try {
             Lookup lookup = header.getRoot().find(key.toString());
             if (lookup.entry == null) {
@@ -173,7 +192,7 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         return block;
     }
 
-    public void reset() {
+    public synchronized void reset() {
         close();
         try {
             open();
@@ -182,7 +201,7 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         }
     }
 
-    public void close() {
+    public synchronized void close() {
         try {
             store.close();
         } catch (Exception e) {
@@ -190,7 +209,7 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         }
     }
 
-    public boolean isOpen() {
+    public synchronized boolean isOpen() {
         return store.isOpen();
     }
 
@@ -201,7 +220,7 @@ public class BTreePersistentIndexedCache<K, V> implements PersistentIndexedCache
         doOpen();
     }
 
-    public void verify() {
+    public synchronized void verify() {
         try {
             doVerify();
         } catch (Exception e) {
@@ -0,0 +1,431 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.cache.btree;
+
+import org.gradle.api.UncheckedIOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link BlockStore} which reads blocks directly from a memory mapped view of the cache file, rather than seeking and
+ * reading the file for each block. Uses the same file format as {@link FileBackedBlockStore}, so the two stores can be
+ * used interchangeably on the same cache file.
+ *
+ * <p>Blocks are read from a private view of the mapped buffer, so {@link #read(BlockPointer, Class)} can be called
+ * concurrently by multiple threads. Writes are serialised, and blocks appended to the end of the file are made
+ * visible to readers by remapping the file the next time a block beyond the mapped region is read.</p>
+ *
+ * <p>Accessing a mapped region after the file has been truncated fails, and some platforms do not allow a mapped file
+ * to be truncated, so {@link #clear()} and {@link #close()} wait for any reads in progress, and unmap the current
+ * mapping and any mappings it replaced before the file is truncated or closed. The file is mapped again by the next
+ * read. A mapping is unmapped using the cleaner of the buffer, where the VM provides one. Otherwise, it is unmapped
+ * when the buffer is garbage collected.</p>
+ */
+public class MappedFileBlockStore implements BlockStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedFileBlockStore.class);
+    private final File cacheFile;
+    private final Object lock = new Object();
+    private final ReadWriteLock mappingLock = new ReentrantReadWriteLock();
+    private final List<WeakReference<MappedByteBuffer>> replacedMappings = new ArrayList<WeakReference<MappedByteBuffer>>();
+    private RandomAccessFile file;
+    private FileChannel channel;
+    private volatile MappedByteBuffer mapped;
+    private long length;
+    private long nextBlock;
+    private Factory factory;
+
+    public MappedFileBlockStore(File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cache '%s'", cacheFile);
+    }
+
+    public void open(Runnable runnable, Factory factory) {
+        this.factory = factory;
+        try {
+            file = new RandomAccessFile(cacheFile, "rw");
+            channel = file.getChannel();
+            length = file.length();
+            nextBlock = length;
+            mapped = null;
+            if (length == 0) {
+                runnable.run();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void close() {
+        mappingLock.writeLock().lock();
+        try {
+            synchronized (lock) {
+                unmapAll();
+                file.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            mappingLock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        mappingLock.writeLock().lock();
+        try {
+            synchronized (lock) {
+                unmapAll();
+                file.setLength(0);
+                length = 0;
+                nextBlock = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            mappingLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Unmaps the current mapping and the mappings it replaced. Must be called while holding the write lock of the
+     * mapping lock, so that no reader is using a mapping.
+     */
+    private void unmapAll() {
+        MappedByteBuffer buffer = mapped;
+        mapped = null;
+        if (buffer != null) {
+            unmap(buffer);
+        }
+        for (WeakReference<MappedByteBuffer> reference : replacedMappings) {
+            MappedByteBuffer replaced = reference.get();
+            if (replaced != null) {
+                unmap(replaced);
+            }
+        }
+        replacedMappings.clear();
+    }
+
+    private void unmap(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                Method cleanMethod = cleaner.getClass().getMethod("clean");
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+        } catch (Exception e) {
+            LOGGER.debug(String.format("Could not unmap %s. It will be unmapped when it is garbage collected.", this), e);
+        }
+    }
+
+    public void attach(BlockPayload block) {
+        if (block.getBlock() == null) {
+            block.setBlock(new BlockImpl(block));
+        }
+    }
+
+    public void remove(BlockPayload block) {
+        BlockImpl blockImpl = (BlockImpl) block.getBlock();
+        blockImpl.detach();
+    }
+
+    public void flush() {
+    }
+
+    public <T extends BlockPayload> T readFirst(Class<T> payloadType) {
+        return read(new BlockPointer(0), payloadType);
+    }
+
+    public <T extends BlockPayload> T read(BlockPointer pos, Class<T> payloadType) {
+        assert !pos.isNull();
+        mappingLock.readLock().lock();
+        try {
+            T payload = payloadType.cast(factory.create(payloadType));
+            BlockImpl block = new BlockImpl(payload, pos);
+            block.read();
+            return payload;
+        } catch (CorruptedCacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            mappingLock.readLock().unlock();
+        }
+    }
+
+    public void write(BlockPayload block) {
+        BlockImpl blockImpl = (BlockImpl) block.getBlock();
+        mappingLock.readLock().lock();
+        try {
+            blockImpl.write();
+        } catch (CorruptedCacheException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            mappingLock.readLock().unlock();
+        }
+    }
+
+    private long alloc(long length) {
+        synchronized (lock) {
+            long pos = nextBlock;
+            nextBlock += length;
+            return pos;
+        }
+    }
+
+    /**
+     * Returns a view of the given region of the file. The view has its own position, so can be used without
+     * synchronisation.
+     */
+    private ByteBuffer view(long pos, int count) throws IOException {
+        MappedByteBuffer buffer = mapped;
+        if (buffer == null || pos + count > buffer.capacity()) {
+            synchronized (lock) {
+                if (pos + count > length) {
+                    return null;
+                }
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException(String.format("Cannot map %s, as it is too large.", this));
+                }
+                buffer = mapped;
+                if (buffer == null || pos + count > buffer.capacity()) {
+                    if (buffer != null) {
+                        // Other readers may still be using the replaced mapping, so it is unmapped by clear() or
+                        // close(), unless it is garbage collected first
+                        retain(buffer);
+                    }
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+                    mapped = buffer;
+                }
+            }
+        }
+        ByteBuffer view = buffer.duplicate();
+        view.position((int) pos);
+        view.limit((int) (pos + count));
+        return view;
+    }
+
+    private void retain(MappedByteBuffer replaced) {
+        for (Iterator<WeakReference<MappedByteBuffer>> iterator = replacedMappings.iterator(); iterator.hasNext();) {
+            if (iterator.next().get() == null) {
+                iterator.remove();
+            }
+        }
+        replacedMappings.add(new WeakReference<MappedByteBuffer>(replaced));
+    }
+
+    private void writeAt(long pos, byte[] content, long finalSize) throws IOException {
+        synchronized (lock) {
+            MappedByteBuffer buffer = mapped;
+            if (buffer != null && pos + content.length <= buffer.capacity()) {
+                ByteBuffer view = buffer.duplicate();
+                view.position((int) pos);
+                view.put(content);
+            } else {
+                ByteBuffer source = ByteBuffer.wrap(content);
+                long offset = pos;
+                while (source.hasRemaining()) {
+                    offset += channel.write(source, offset);
+                }
+            }
+            length = Math.max(length, pos + content.length);
+            if (length < finalSize) {
+                file.setLength(finalSize);
+                length = finalSize;
+            }
+        }
+    }
+
+    private final class BlockImpl extends Block {
+        private static final int HEADER_SIZE = 2 + INT_SIZE;
+        private static final int TAIL_SIZE = LONG_SIZE;
+        static final int BLOCK_MARKER = 0xCC;
+
+        private BlockPointer pos;
+        private int payloadSize;
+
+        private BlockImpl(BlockPayload payload, BlockPointer pos) {
+            this(payload);
+            setPos(pos);
+        }
+
+        public BlockImpl(BlockPayload payload) {
+            super(payload);
+            pos = null;
+            payloadSize = -1;
+        }
+
+        @Override
+        public boolean hasPos() {
+            return pos != null;
+        }
+
+        @Override
+        public BlockPointer getPos() {
+            if (pos == null) {
+                pos = new BlockPointer(alloc(getSize()));
+            }
+            return pos;
+        }
+
+        @Override
+        public void setPos(BlockPointer pos) {
+            assert this.pos == null && !pos.isNull();
+            this.pos = pos;
+        }
+
+        public int getSize() {
+            if (payloadSize < 0) {
+                payloadSize = getPayload().getSize();
+            }
+            return payloadSize + HEADER_SIZE + TAIL_SIZE;
+        }
+
+        @Override
+        public void setSize(int size) {
+            int newPayloadSize = size - HEADER_SIZE - TAIL_SIZE;
+            assert newPayloadSize >= payloadSize;
+            payloadSize = newPayloadSize;
+        }
+
+        public void write() throws Exception {
+            long pos = getPos().getPos();
+
+            ByteArrayOutputStream content = new ByteArrayOutputStream(getSize());
+            CRC32 checksum = new CRC32();
+            DataOutputStream outputStream = new DataOutputStream(content);
+
+            BlockPayload payload = getPayload();
+
+            // Write header and body
+            outputStream.writeByte(BLOCK_MARKER);
+            outputStream.writeByte(payload.getType());
+            outputStream.writeInt(payloadSize);
+            payload.write(outputStream);
+            outputStream.flush();
+            byte[] bytes = content.toByteArray();
+            checksum.update(bytes);
+
+            // Write checksum
+            outputStream.writeLong(checksum.getValue());
+            outputStream.close();
+
+            writeAt(pos, content.toByteArray(), pos + HEADER_SIZE + TAIL_SIZE + payloadSize);
+        }
+
+        public void read() throws Exception {
+            long pos = getPos().getPos();
+            assert pos >= 0;
+            ByteBuffer header = view(pos, HEADER_SIZE + 1);
+            if (header == null) {
+                throw blockCorruptedException();
+            }
+
+            BlockPayload payload = getPayload();
+
+            // Read header
+            byte type = header.get();
+            if (type != (byte) BLOCK_MARKER) {
+                throw blockCorruptedException();
+            }
+            type = header.get();
+            if (type != (byte) payload.getType()) {
+                throw blockCorruptedException();
+            }
+
+            // Read body
+            payloadSize = header.getInt();
+            ByteBuffer content = payloadSize < 0 ? null : view(pos, HEADER_SIZE + TAIL_SIZE + payloadSize);
+            if (content == null) {
+                throw blockCorruptedException();
+            }
+            Crc32BufferInputStream checkSumInputStream = new Crc32BufferInputStream(content);
+            DataInputStream inputStream = new DataInputStream(checkSumInputStream);
+            inputStream.skipBytes(HEADER_SIZE);
+            payload.read(inputStream);
+
+            // Read and verify checksum
+            long actualChecksum = checkSumInputStream.checksum.getValue();
+            long checksum = inputStream.readLong();
+            if (actualChecksum != checksum) {
+                throw blockCorruptedException();
+            }
+        }
+
+        public RuntimeException blockCorruptedException() {
+            return new CorruptedCacheException(String.format("Corrupted %s found in %s.", this,
+                    MappedFileBlockStore.this));
+        }
+    }
+
+    /**
+     * Reads from a buffer, calculating the checksum of the bytes read.
+     */
+    private static class Crc32BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+        private final CRC32 checksum = new CRC32();
+
+        private Crc32BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int b = buffer.get() & 0xFF;
+            checksum.update(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int max) throws IOException {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(max, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            checksum.update(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return buffer.remaining();
+        }
+    }
+}
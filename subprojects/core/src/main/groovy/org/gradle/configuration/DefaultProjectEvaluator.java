@@ -15,22 +15,93 @@
  */
 package org.gradle.configuration;
 
+import org.gradle.api.CircularReferenceException;
 import org.gradle.api.ProjectEvaluationListener;
+import org.gradle.api.internal.BuildOperation;
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectStateInternal;
+import org.gradle.util.UncheckedException;
 
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Evaluates a project at most once. Projects may be evaluated concurrently by several threads. A thread which asks for
+ * a project that is being evaluated by another thread waits for that evaluation to finish, unless doing so would
+ * deadlock, in which case a {@link CircularReferenceException} is thrown.
+ */
 public class DefaultProjectEvaluator implements ProjectEvaluator {
     private final ProjectEvaluator evaluator;
+    private final BuildOperationListener operationListener;
+    private final Object lock = new Object();
+    private final Map<ProjectInternal, Thread> evaluating = new HashMap<ProjectInternal, Thread>();
+    private final Map<Thread, ProjectInternal> waitingFor = new HashMap<Thread, ProjectInternal>();
 
-    public DefaultProjectEvaluator(ProjectEvaluator evaluator) {
+    public DefaultProjectEvaluator(ProjectEvaluator evaluator, BuildOperationListener operationListener) {
         this.evaluator = evaluator;
+        this.operationListener = operationListener;
     }
 
     public void evaluate(ProjectInternal project, ProjectStateInternal state) {
+        boolean claimed = claim(project, state);
         if (state.getExecuted()) {
             return;
         }
+        try {
+            doEvaluate(project, state);
+        } finally {
+            if (claimed) {
+                release(project);
+            }
+        }
+    }
+
+    /**
+     * Waits until the given project is not being evaluated by some other thread, then claims it for the current
+     * thread if it still needs to be evaluated.
+     *
+     * @return true if the project was claimed by this call.
+     */
+    private boolean claim(ProjectInternal project, ProjectStateInternal state) {
+        Thread current = Thread.currentThread();
+        synchronized (lock) {
+            while (!state.getExecuted()) {
+                Thread owner = evaluating.get(project);
+                if (owner == null) {
+                    evaluating.put(project, current);
+                    return true;
+                }
+                if (owner == current) {
+                    return false;
+                }
+                for (Thread thread = owner; thread != null; thread = evaluating.get(waitingFor.get(thread))) {
+                    if (thread == current) {
+                        throw new CircularReferenceException(String.format(
+                                "Circular referencing during evaluation for %s.", project));
+                    }
+                }
+                waitingFor.put(current, project);
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw new UncheckedException(e);
+                } finally {
+                    waitingFor.remove(current);
+                }
+            }
+            return false;
+        }
+    }
 
+    private void release(ProjectInternal project) {
+        synchronized (lock) {
+            evaluating.remove(project);
+            lock.notifyAll();
+        }
+    }
+
+    private void doEvaluate(ProjectInternal project, ProjectStateInternal state) {
         ProjectEvaluationListener listener = project.getProjectEvaluationBroadcaster();
         listener.beforeEvaluate(project);
         state.setExecuting(true);
@@ -39,7 +110,18 @@ public class DefaultProjectEvaluator implements ProjectEvaluator {
         } finally {
             state.setExecuting(false);
             state.executed();
+            notifyAfterEvaluate(listener, project, state);
+        }
+    }
+
+    private void notifyAfterEvaluate(ProjectEvaluationListener listener, ProjectInternal project,
+                                     ProjectStateInternal state) {
+        BuildOperation operation = new BuildOperation(BuildOperation.Type.NOTIFY_AFTER_EVALUATE, project.toString());
+        operationListener.operationStarted(operation);
+        try {
             listener.afterEvaluate(project, state);
+        } finally {
+            operationListener.operationFinished(operation);
         }
     }
 }
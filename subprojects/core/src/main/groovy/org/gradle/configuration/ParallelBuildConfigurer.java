@@ -0,0 +1,148 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.configuration;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.messaging.concurrent.ExecutorFactory;
+import org.gradle.messaging.concurrent.StoppableExecutor;
+import org.gradle.util.UncheckedException;
+
+import java.util.*;
+
+/**
+ * A {@link BuildConfigurer} which evaluates the projects of a build concurrently before handing the build to another
+ * configurer. A project is evaluated once its parent project has been evaluated, so that the root project, and any
+ * project which configures its children, is always evaluated before its children. Dependencies declared using {@code
+ * evaluationDependsOn()} are handled by the {@link ProjectEvaluator}.
+ */
+public class ParallelBuildConfigurer implements BuildConfigurer {
+    private final BuildConfigurer configurer;
+    private final ExecutorFactory executorFactory;
+    private final int maxThreads;
+
+    public ParallelBuildConfigurer(BuildConfigurer configurer, ExecutorFactory executorFactory, int maxThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The number of threads must be at least 1, but was %s.", maxThreads));
+        }
+        this.configurer = configurer;
+        this.executorFactory = executorFactory;
+        this.maxThreads = maxThreads;
+    }
+
+    public void configure(GradleInternal gradle) {
+        List<ProjectInternal> projects = new ArrayList<ProjectInternal>();
+        for (Project project : gradle.getRootProject().getAllprojects()) {
+            projects.add((ProjectInternal) project);
+        }
+
+        StoppableExecutor executor = executorFactory.create("Project evaluation");
+        ParallelEvaluation evaluation = new ParallelEvaluation(projects);
+        try {
+            evaluation.run(executor);
+        } finally {
+            executor.stop();
+        }
+        evaluation.rethrowFailure();
+
+        configurer.configure(gradle);
+    }
+
+    private class ParallelEvaluation {
+        private final Object lock = new Object();
+        private final List<ProjectInternal> projects;
+        private final Set<ProjectInternal> pending;
+        private final Set<ProjectInternal> completed = new HashSet<ProjectInternal>();
+        private final Map<ProjectInternal, Throwable> failures = new HashMap<ProjectInternal, Throwable>();
+        private int running;
+
+        private ParallelEvaluation(List<ProjectInternal> projects) {
+            this.projects = projects;
+            pending = new LinkedHashSet<ProjectInternal>(projects);
+        }
+
+        public void run(StoppableExecutor executor) {
+            synchronized (lock) {
+                while (true) {
+                    if (failures.isEmpty()) {
+                        startReadyProjects(executor);
+                    }
+                    if (running == 0) {
+                        return;
+                    }
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        throw new UncheckedException(e);
+                    }
+                }
+            }
+        }
+
+        private void startReadyProjects(StoppableExecutor executor) {
+            Iterator<ProjectInternal> iterator = pending.iterator();
+            while (running < maxThreads && iterator.hasNext()) {
+                final ProjectInternal project = iterator.next();
+                ProjectInternal parent = project.getParent();
+                if (parent != null && !completed.contains(parent)) {
+                    continue;
+                }
+                iterator.remove();
+                running++;
+                executor.execute(new Runnable() {
+                    public void run() {
+                        Throwable evaluationFailure = null;
+                        try {
+                            project.evaluate();
+                        } catch (Throwable throwable) {
+                            evaluationFailure = throwable;
+                        }
+                        projectFinished(project, evaluationFailure);
+                    }
+                });
+            }
+        }
+
+        private void projectFinished(ProjectInternal project, Throwable evaluationFailure) {
+            synchronized (lock) {
+                running--;
+                completed.add(project);
+                if (evaluationFailure != null) {
+                    failures.put(project, evaluationFailure);
+                }
+                lock.notifyAll();
+            }
+        }
+
+        /**
+         * Rethrows the failure of the first failed project, in the order that the projects would have been evaluated
+         * serially.
+         */
+        public void rethrowFailure() {
+            for (ProjectInternal project : projects) {
+                Throwable failure = failures.get(project);
+                if (failure instanceof Error) {
+                    throw (Error) failure;
+                }
+                if (failure != null) {
+                    throw UncheckedException.asUncheckedException(failure);
+                }
+            }
+        }
+    }
+}
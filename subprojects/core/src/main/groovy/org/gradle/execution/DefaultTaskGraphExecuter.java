@@ -21,19 +21,34 @@ import org.gradle.api.CircularReferenceException;
 import org.gradle.api.Task;
 import org.gradle.api.execution.TaskExecutionGraphListener;
 import org.gradle.api.execution.TaskExecutionListener;
+import org.gradle.api.internal.BuildOperation;
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.tasks.CachingTaskDependencyResolveContext;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
 import org.gradle.listener.ListenerBroadcast;
 import org.gradle.listener.ListenerManager;
+import org.gradle.messaging.concurrent.ExecutorFactory;
+import org.gradle.messaging.concurrent.StoppableExecutor;
 import org.gradle.util.Clock;
+import org.gradle.util.GUtil;
+import org.gradle.util.UncheckedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
 
 /**
+ * <p>Executes the tasks of a build in dependency order.</p>
+ *
+ * <p>By default, tasks are executed one at a time in the order of the execution plan. When constructed with a maximum
+ * number of parallel tasks greater than 1, tasks whose dependencies have all completed are executed concurrently using
+ * at most that number of worker threads. Each batch of tasks added using {@link #addTasks(Iterable)} is still completed
+ * before any task of the following batch is started. The services used while executing a task, such as the
+ * {@link org.gradle.api.internal.changedetection.TaskArtifactStateRepository} and the caches it uses, must therefore
+ * be safe to use from multiple threads.</p>
+ *
  * @author Hans Dockter
  */
 public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
@@ -41,13 +56,28 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
 
     private final ListenerBroadcast<TaskExecutionGraphListener> graphListeners;
     private final ListenerBroadcast<TaskExecutionListener> taskListeners;
+    private final BuildOperationListener operationListener;
+    private final ExecutorFactory executorFactory;
+    private final int maxParallelTasks;
     private final Set<Task> executionPlan = new LinkedHashSet<Task>();
+    private final List<Set<Task>> batches = new ArrayList<Set<Task>>();
+    private final Map<Task, Set<Task>> dependencies = new HashMap<Task, Set<Task>>();
     private boolean populated;
     private Spec<? super Task> filter = Specs.satisfyAll();
 
     public DefaultTaskGraphExecuter(ListenerManager listenerManager) {
+        this(listenerManager, null, 1);
+    }
+
+    public DefaultTaskGraphExecuter(ListenerManager listenerManager, ExecutorFactory executorFactory, int maxParallelTasks) {
+        if (maxParallelTasks > 1 && executorFactory == null) {
+            throw new IllegalArgumentException("An executor factory is required to execute tasks in parallel.");
+        }
         graphListeners = listenerManager.createAnonymousBroadcaster(TaskExecutionGraphListener.class);
         taskListeners = listenerManager.createAnonymousBroadcaster(TaskExecutionListener.class);
+        operationListener = listenerManager.getBroadcaster(BuildOperationListener.class);
+        this.executorFactory = executorFactory;
+        this.maxParallelTasks = Math.max(1, maxParallelTasks);
     }
 
     public void useFilter(Spec<? super Task> filter) {
@@ -63,7 +93,15 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
         for (Task task : tasks) {
             sortedTasks.add(task);
         }
-        fillDag(sortedTasks);
+        BuildOperation operation = new BuildOperation(BuildOperation.Type.BUILD_TASK_GRAPH, GUtil.join(sortedTasks, ", "));
+        operationListener.operationStarted(operation);
+        Set<Task> batch = new LinkedHashSet<Task>();
+        try {
+            fillDag(sortedTasks, batch);
+        } finally {
+            operationListener.operationFinished(operation);
+        }
+        batches.add(batch);
         populated = true;
 
         logger.debug("Timing: Creating the DAG took " + clock.getTime());
@@ -75,10 +113,18 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
         graphListeners.getSource().graphPopulated(this);
 
         try {
-            doExecute(executionPlan);
+            if (maxParallelTasks > 1) {
+                for (Set<Task> batch : batches) {
+                    doExecuteParallel(batch);
+                }
+            } else {
+                doExecute(executionPlan);
+            }
             logger.debug("Timing: Executing the DAG took " + clock.getTime());
         } finally {
             executionPlan.clear();
+            batches.clear();
+            dependencies.clear();
         }
     }
 
@@ -87,7 +133,7 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
         execute();
     }
 
-    private void fillDag(Collection<? extends Task> tasks) {
+    private void fillDag(Collection<? extends Task> tasks, Set<Task> batch) {
         Set<Task> visiting = new HashSet<Task>();
         List<Task> queue = new ArrayList<Task>();
         queue.addAll(tasks);
@@ -123,6 +169,14 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
                 queue.remove(0);
                 visiting.remove(task);
                 executionPlan.add(task);
+                batch.add(task);
+                Set<Task> taskDependencies = new HashSet<Task>();
+                for (Task dependsOnTask : context.getDependencies(task)) {
+                    if (batch.contains(dependsOnTask)) {
+                        taskDependencies.add(dependsOnTask);
+                    }
+                }
+                dependencies.put(task, taskDependencies);
             }
         }
     }
@@ -161,11 +215,38 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
         }
     }
 
+    private void doExecuteParallel(Set<Task> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ParallelExecution execution = new ParallelExecution(batch);
+        StoppableExecutor executor = executorFactory.create("Task worker");
+        try {
+            execution.run(executor);
+        } finally {
+            executor.stop();
+        }
+        execution.rethrowFailure();
+    }
+
     private void executeTask(Task task) {
-        taskListeners.getSource().beforeExecute(task);
+        fireBeforeExecute(task);
         try {
             ((TaskInternal) task).execute();
         } finally {
+            fireAfterExecute(task);
+        }
+    }
+
+    private void fireBeforeExecute(Task task) {
+        // Listeners are not required to be thread-safe, so deliver events to them one at a time
+        synchronized (taskListeners) {
+            taskListeners.getSource().beforeExecute(task);
+        }
+    }
+
+    private void fireAfterExecute(Task task) {
+        synchronized (taskListeners) {
             taskListeners.getSource().afterExecute(task, task.getState());
         }
     }
@@ -197,4 +278,89 @@ public class DefaultTaskGraphExecuter implements TaskGraphExecuter {
                     "Task information is not available, as this task execution graph has not been populated.");
         }
     }
+
+    /**
+     * Schedules the tasks of a single batch onto worker threads as their dependencies complete. Tasks that become
+     * ready are started in execution plan order. Once a task fails, no further tasks are started and the failure is
+     * rethrown after the running tasks have completed.
+     */
+    private class ParallelExecution {
+        private final Object lock = new Object();
+        private final Set<Task> pending;
+        private final Set<Task> completed = new HashSet<Task>();
+        private int running;
+        private Throwable failure;
+
+        private ParallelExecution(Set<Task> batch) {
+            pending = new LinkedHashSet<Task>(batch);
+        }
+
+        public void run(StoppableExecutor executor) {
+            synchronized (lock) {
+                while (true) {
+                    if (failure == null) {
+                        startReadyTasks(executor);
+                    }
+                    if (running == 0) {
+                        if (failure == null && !pending.isEmpty()) {
+                            throw new IllegalStateException(String.format(
+                                    "Unable to schedule remaining tasks %s.", pending));
+                        }
+                        return;
+                    }
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        throw new UncheckedException(e);
+                    }
+                }
+            }
+        }
+
+        private void startReadyTasks(StoppableExecutor executor) {
+            Iterator<Task> iterator = pending.iterator();
+            while (running < maxParallelTasks && iterator.hasNext()) {
+                final Task task = iterator.next();
+                if (!completed.containsAll(dependencies.get(task))) {
+                    continue;
+                }
+                iterator.remove();
+                running++;
+                executor.execute(new Runnable() {
+                    public void run() {
+                        Throwable taskFailure = null;
+                        try {
+                            executeTask(task);
+                        } catch (Throwable throwable) {
+                            taskFailure = throwable;
+                        }
+                        taskFinished(task, taskFailure);
+                    }
+                });
+            }
+        }
+
+        private void taskFinished(Task task, Throwable taskFailure) {
+            synchronized (lock) {
+                running--;
+                completed.add(task);
+                if (taskFailure != null && failure == null) {
+                    failure = taskFailure;
+                }
+                lock.notifyAll();
+            }
+        }
+
+        public void rethrowFailure() {
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw new UncheckedException(failure);
+            }
+        }
+    }
 }
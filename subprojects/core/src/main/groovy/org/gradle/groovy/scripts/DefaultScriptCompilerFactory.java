@@ -15,6 +15,8 @@
  */
 package org.gradle.groovy.scripts;
 
+import org.gradle.api.internal.BuildOperation;
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentCache;
 import org.gradle.util.HashUtil;
@@ -23,6 +25,8 @@ import org.gradle.util.ReflectionUtil;
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Hans Dockter
@@ -31,12 +35,16 @@ public class DefaultScriptCompilerFactory implements ScriptCompilerFactory {
     private final ScriptCompilationHandler scriptCompilationHandler;
     private final CacheRepository cacheRepository;
     private final ScriptRunnerFactory scriptRunnerFactory;
+    private final BuildOperationListener operationListener;
+    private final ConcurrentMap<String, Object> cacheLocks = new ConcurrentHashMap<String, Object>();
 
     public DefaultScriptCompilerFactory(ScriptCompilationHandler scriptCompilationHandler,
-                                        ScriptRunnerFactory scriptRunnerFactory, CacheRepository cacheRepository) {
+                                        ScriptRunnerFactory scriptRunnerFactory, CacheRepository cacheRepository,
+                                        BuildOperationListener operationListener) {
         this.scriptCompilationHandler = scriptCompilationHandler;
         this.cacheRepository = cacheRepository;
         this.scriptRunnerFactory = scriptRunnerFactory;
+        this.operationListener = operationListener;
     }
 
     public ScriptCompiler createCompiler(ScriptSource source) {
@@ -66,7 +74,14 @@ public class DefaultScriptCompilerFactory implements ScriptCompilerFactory {
             ClassLoader classloader = this.classloader != null ? this.classloader
                     : Thread.currentThread().getContextClassLoader();
 
-            T script = loadViaCache(classloader, scriptType);
+            BuildOperation operation = new BuildOperation(BuildOperation.Type.COMPILE_SCRIPT, source.getDisplayName());
+            operationListener.operationStarted(operation);
+            T script;
+            try {
+                script = loadViaCache(classloader, scriptType);
+            } finally {
+                operationListener.operationFinished(operation);
+            }
             script.setScriptSource(source);
             script.setContextClassloader(classloader);
             return scriptRunnerFactory.create(script);
@@ -77,7 +92,23 @@ public class DefaultScriptCompilerFactory implements ScriptCompilerFactory {
             properties.put("source.filename", source.getFileName());
             properties.put("source.hash", HashUtil.createHash(source.getResource().getText()));
 
-            PersistentCache cache = cacheRepository.cache(String.format("scripts/%s", source.getClassName())).withProperties(properties).open();
+            String cacheKey = String.format("scripts/%s", source.getClassName());
+            File classesDir;
+            synchronized (lockFor(cacheKey)) {
+                classesDir = compileViaCache(cacheKey, properties, classLoader, scriptBaseClass);
+            }
+            Class<? extends T> scriptClass = scriptCompilationHandler.loadFromDir(source, classLoader, classesDir,
+                    scriptBaseClass);
+            return scriptBaseClass.cast(ReflectionUtil.newInstance(scriptClass, new Object[0]));
+        }
+
+        /**
+         * Compiles the script into the cache, if required. The caller must hold the lock for the cache key, so that
+         * a script shared by several projects is not compiled into the same directory concurrently.
+         */
+        private File compileViaCache(String cacheKey, Map<String, Object> properties, ClassLoader classLoader,
+                                     Class<? extends Script> scriptBaseClass) {
+            PersistentCache cache = cacheRepository.cache(cacheKey).withProperties(properties).open();
             File classesDir;
             if (transformer != null) {
                 String subdirName = String.format("%s_%s", transformer.getId(), scriptBaseClass.getSimpleName());
@@ -90,9 +121,13 @@ public class DefaultScriptCompilerFactory implements ScriptCompilerFactory {
                 scriptCompilationHandler.compileToDir(source, classLoader, classesDir, transformer, scriptBaseClass);
                 cache.markValid();
             }
-            Class<? extends T> scriptClass = scriptCompilationHandler.loadFromDir(source, classLoader, classesDir,
-                    scriptBaseClass);
-            return scriptBaseClass.cast(ReflectionUtil.newInstance(scriptClass, new Object[0]));
+            return classesDir;
         }
     }
+
+    private Object lockFor(String cacheKey) {
+        Object lock = new Object();
+        Object existing = cacheLocks.putIfAbsent(cacheKey, lock);
+        return existing != null ? existing : lock;
+    }
 }
@@ -56,6 +56,9 @@ public class DefaultCommandLineConverter extends AbstractCommandLineConverter<St
     private static final String NO_OPT = "no-opt";
     private static final String EXCLUDE_TASK = "x";
     private static final String PROFILE = "profile";
+    private static final String PARALLEL_THREADS = "parallel-threads";
+    private static final String PARALLEL_CONFIGURATION = "parallel-configuration";
+    private static final String PARALLEL_DOWNLOADS = "parallel-downloads";
 
     private static BiMap<String, StartParameter.ShowStacktrace> showStacktraceMap = HashBiMap.create();
     private final CommandLineConverter<LoggingConfiguration> loggingConfigurationCommandLineConverter = new LoggingCommandLineConverter();
@@ -92,6 +95,9 @@ public class DefaultCommandLineConverter extends AbstractCommandLineConverter<St
         parser.option(NO_OPT).hasDescription("Ignore any task optimization.");
         parser.option(EXCLUDE_TASK, "exclude-task").hasArguments().hasDescription("Specify a task to be excluded from execution.");
         parser.option(PROFILE).hasDescription("Profiles build execution time and generates a report in the <build_dir>/reports/profile directory.");
+        parser.option(PARALLEL_THREADS).hasArgument().hasDescription("Specifies the maximum number of independent tasks to execute in parallel. Default value is 1.");
+        parser.option(PARALLEL_CONFIGURATION).hasDescription("Evaluates independent projects in parallel.");
+        parser.option(PARALLEL_DOWNLOADS).hasArgument().hasDescription("Specifies the maximum number of artifacts to download in parallel. Default value is 1.");
     }
 
     @Override
@@ -144,6 +150,10 @@ public class DefaultCommandLineConverter extends AbstractCommandLineConverter<St
             }
         }
 
+        if (options.hasOption(PARALLEL_CONFIGURATION)) {
+            startParameter.setParallelProjectConfiguration(true);
+        }
+
         if (options.hasOption(EMBEDDED_SCRIPT)) {
             if (options.hasOption(BUILD_FILE) || options.hasOption(NO_SEARCH_UPWARDS) || options.hasOption(SETTINGS_FILE)) {
                 System.err.println(String.format(
@@ -191,6 +201,30 @@ public class DefaultCommandLineConverter extends AbstractCommandLineConverter<St
             startParameter.setProfile(true);
         }
 
+        if (options.hasOption(PARALLEL_THREADS)) {
+            String value = options.option(PARALLEL_THREADS).getValue();
+            try {
+                startParameter.setParallelThreadCount(Integer.parseInt(value));
+            } catch (NumberFormatException e) {
+                throw new CommandLineArgumentException(String.format(
+                        "Invalid value '%s' for the --%s option. Expected a positive number.", value, PARALLEL_THREADS));
+            } catch (IllegalArgumentException e) {
+                throw new CommandLineArgumentException(e.getMessage());
+            }
+        }
+
+        if (options.hasOption(PARALLEL_DOWNLOADS)) {
+            String value = options.option(PARALLEL_DOWNLOADS).getValue();
+            try {
+                startParameter.setParallelDownloadCount(Integer.parseInt(value));
+            } catch (NumberFormatException e) {
+                throw new CommandLineArgumentException(String.format(
+                        "Invalid value '%s' for the --%s option. Expected a positive number.", value, PARALLEL_DOWNLOADS));
+            } catch (IllegalArgumentException e) {
+                throw new CommandLineArgumentException(e.getMessage());
+            }
+        }
+
         return startParameter;
     }
 
@@ -52,7 +52,7 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         this(new GlobalServicesRegistry());
     }
 
-    private DefaultGradleLauncherFactory(GlobalServicesRegistry globalServices) {
+    public DefaultGradleLauncherFactory(GlobalServicesRegistry globalServices) {
         sharedServices = globalServices;
 
         // Start logging system
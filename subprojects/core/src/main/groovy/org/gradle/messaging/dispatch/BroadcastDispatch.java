@@ -27,6 +27,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class BroadcastDispatch<T> implements StoppableDispatch<MethodInvocation> {
@@ -44,21 +45,27 @@ public class BroadcastDispatch<T> implements StoppableDispatch<MethodInvocation>
     }
 
     public void add(Dispatch<MethodInvocation> dispatch) {
-        handlers.put(dispatch, dispatch);
+        addHandler(dispatch, dispatch);
     }
 
     public void add(T listener) {
-        handlers.put(listener, new ReflectionDispatch(listener));
+        addHandler(listener, new ReflectionDispatch(listener));
     }
 
     public void add(String methodName, Closure closure) {
         assertIsMethod(methodName);
-        handlers.put(closure, new ClosureInvocationHandler(methodName, closure));
+        addHandler(closure, new ClosureInvocationHandler(methodName, closure));
     }
 
     public void add(String methodName, Action<?> action) {
         assertIsMethod(methodName);
-        handlers.put(action, new ActionInvocationHandler(methodName, action));
+        addHandler(action, new ActionInvocationHandler(methodName, action));
+    }
+
+    private void addHandler(Object listener, Dispatch<MethodInvocation> handler) {
+        synchronized (handlers) {
+            handlers.put(listener, handler);
+        }
     }
 
     private void assertIsMethod(String methodName) {
@@ -72,7 +79,9 @@ public class BroadcastDispatch<T> implements StoppableDispatch<MethodInvocation>
     }
 
     public void remove(Object listener) {
-        handlers.remove(listener);
+        synchronized (handlers) {
+            handlers.remove(listener);
+        }
     }
 
     private String getErrorMessage() {
@@ -83,7 +92,11 @@ public class BroadcastDispatch<T> implements StoppableDispatch<MethodInvocation>
     public void dispatch(MethodInvocation invocation) {
         try {
             ExceptionTrackingListener tracker = new ExceptionTrackingListener(LOGGER);
-            for (Dispatch<MethodInvocation> handler : new ArrayList<Dispatch<MethodInvocation>>(handlers.values())) {
+            List<Dispatch<MethodInvocation>> handlers;
+            synchronized (this.handlers) {
+                handlers = new ArrayList<Dispatch<MethodInvocation>>(this.handlers.values());
+            }
+            for (Dispatch<MethodInvocation> handler : handlers) {
                 try {
                     handler.dispatch(invocation);
                 } catch (UncheckedException e) {
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.messaging.remote.internal;
+
+import org.gradle.api.GradleException;
+import org.gradle.messaging.concurrent.AsyncStoppable;
+import org.gradle.messaging.dispatch.Dispatch;
+import org.gradle.messaging.dispatch.StoppableDispatch;
+import org.gradle.util.UncheckedException;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>A {@link Dispatch} implementation which delivers messages asynchronously, combining messages queued at around the
+ * same time into a single {@link MessageBatch}. Use an {@link UnbatchingReceive} to unpack the batches at the other end
+ * of the connection.</p>
+ *
+ * <p>A message sent while the dispatch is idle is delivered immediately. While messages are arriving faster than they
+ * are delivered, the dispatch waits up to a maximum latency for a batch to fill before delivering it. Calls to {@link
+ * #dispatch} block while the queue is full.</p>
+ *
+ * <p>If delivery of a message fails, the dispatch stops, and the failure is rethrown by any subsequent call to {@link
+ * #dispatch} or {@link #stop()}, including calls blocked waiting for space in the queue.</p>
+ */
+public class BatchingDispatch implements StoppableDispatch<Object>, AsyncStoppable {
+    private static final int MAX_QUEUE_SIZE = 1000;
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final long MAX_LATENCY_MILLIS = 5;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final LinkedList<Object> queue = new LinkedList<Object>();
+    private final int maxQueueSize;
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+    private boolean stopped;
+    private boolean dispatching;
+    private Throwable failure;
+
+    public BatchingDispatch(Executor executor, Dispatch<Object> dispatch) {
+        this(executor, dispatch, MAX_QUEUE_SIZE, MAX_BATCH_SIZE, MAX_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public BatchingDispatch(Executor executor, final Dispatch<Object> dispatch, int maxQueueSize, int maxBatchSize,
+                            long maxLatency, TimeUnit maxLatencyUnits) {
+        this.maxQueueSize = maxQueueSize;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyNanos = maxLatencyUnits.toNanos(maxLatency);
+        dispatching = true;
+        executor.execute(new Runnable() {
+            public void run() {
+                try {
+                    dispatchMessages(dispatch);
+                } catch (Throwable throwable) {
+                    onDispatchFailure(throwable);
+                } finally {
+                    onDispatchThreadExit();
+                }
+            }
+        });
+    }
+
+    private void onDispatchFailure(Throwable throwable) {
+        lock.lock();
+        try {
+            stopped = true;
+            failure = throwable;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onDispatchThreadExit() {
+        lock.lock();
+        try {
+            dispatching = false;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatchMessages(Dispatch<Object> dispatch) {
+        long lastDelivery = System.nanoTime() - maxLatencyNanos;
+        while (true) {
+            List<Object> batch;
+            lock.lock();
+            try {
+                while (!stopped && queue.isEmpty()) {
+                    condition.await();
+                }
+                if (queue.isEmpty()) {
+                    // Have been stopped and nothing to deliver
+                    return;
+                }
+                if (System.nanoTime() - lastDelivery < maxLatencyNanos) {
+                    // Busy - wait for the batch to fill
+                    long deadline = System.nanoTime() + maxLatencyNanos;
+                    long remaining = maxLatencyNanos;
+                    while (!stopped && queue.size() < maxBatchSize && remaining > 0) {
+                        condition.awaitNanos(remaining);
+                        remaining = deadline - System.nanoTime();
+                    }
+                }
+                int count = Math.min(queue.size(), maxBatchSize);
+                batch = new ArrayList<Object>(count);
+                for (int i = 0; i < count; i++) {
+                    batch.add(queue.removeFirst());
+                }
+                condition.signalAll();
+            } catch (InterruptedException e) {
+                throw UncheckedException.asUncheckedException(e);
+            } finally {
+                lock.unlock();
+            }
+
+            dispatch.dispatch(batch.size() == 1 ? batch.get(0) : new MessageBatch(batch));
+            lastDelivery = System.nanoTime();
+        }
+    }
+
+    public void dispatch(Object message) {
+        lock.lock();
+        try {
+            while (!stopped && queue.size() >= maxQueueSize) {
+                try {
+                    condition.await();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.asUncheckedException(e);
+                }
+            }
+            if (failure != null) {
+                throw new GradleException(String.format("Could not dispatch message %s, as message delivery has failed.",
+                        message), failure);
+            }
+            if (stopped) {
+                throw new IllegalStateException("This message dispatch has been stopped.");
+            }
+            queue.add(message);
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Commences a shutdown of this dispatch. Messages which have already been queued are still delivered.
+     */
+    public void requestStop() {
+        lock.lock();
+        try {
+            stopped = true;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops this dispatch, blocking until all queued messages have been delivered.
+     */
+    public void stop() {
+        lock.lock();
+        try {
+            stopped = true;
+            condition.signalAll();
+            while (dispatching) {
+                condition.await();
+            }
+            if (failure != null) {
+                throw new GradleException("Could not deliver queued messages.", failure);
+            }
+            if (!queue.isEmpty()) {
+                throw new IllegalStateException(
+                        "Cannot wait for messages to be dispatched, as there are no dispatch threads running.");
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.asUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -21,19 +21,27 @@ import org.gradle.messaging.remote.ObjectConnection;
 import java.net.URI;
 
 public class DefaultMessagingClient implements MessagingClient {
+    private final MultiChannelConnection<Object> messageConnection;
     private final ObjectConnection connection;
 
     public DefaultMessagingClient(MultiChannelConnector connector, ClassLoader classLoader, URI serverAddress) {
-        MultiChannelConnection<Object> connection = connector.connect(serverAddress);
-        IncomingMethodInvocationHandler incoming = new IncomingMethodInvocationHandler(classLoader, connection);
-        OutgoingMethodInvocationHandler outgoing = new OutgoingMethodInvocationHandler(connection);
-        this.connection = new DefaultObjectConnection(connection, connection, outgoing, incoming);
+        messageConnection = connector.connect(serverAddress);
+        IncomingMethodInvocationHandler incoming = new IncomingMethodInvocationHandler(classLoader, messageConnection);
+        OutgoingMethodInvocationHandler outgoing = new OutgoingMethodInvocationHandler(messageConnection);
+        this.connection = new DefaultObjectConnection(messageConnection, messageConnection, outgoing, incoming);
     }
 
     public ObjectConnection getConnection() {
         return connection;
     }
 
+    /**
+     * Adds an action to run when the server has stopped sending messages, or the connection has been lost.
+     */
+    public void addEndOfStreamAction(Runnable action) {
+        messageConnection.addEndOfStreamAction(action);
+    }
+
     public void stop() {
         connection.stop();
     }
@@ -22,7 +22,9 @@ import org.gradle.messaging.dispatch.*;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.locks.Lock;
@@ -32,11 +34,13 @@ class DefaultMultiChannelConnection implements MultiChannelConnection<Object> {
     private final URI sourceAddress;
     private final URI destinationAddress;
     private final EndOfStreamDispatch outgoingDispatch;
-    private final AsyncDispatch<Object> outgoingQueue;
+    private final BatchingDispatch outgoingQueue;
     private final AsyncReceive<Object> incomingReceive;
     private final EndOfStreamFilter incomingDispatch;
     private final IncomingDemultiplex incomingDemux;
     private final StoppableExecutor executor;
+    private final List<Runnable> endOfStreamActions = new ArrayList<Runnable>();
+    private boolean endOfStreamReached;
     private final Connection<Object> connection;
 
     DefaultMultiChannelConnection(ExecutorFactory executorFactory, String displayName, final Connection<Object> connection, URI sourceAddress, URI destinationAddress) {
@@ -46,20 +50,20 @@ class DefaultMultiChannelConnection implements MultiChannelConnection<Object> {
         this.sourceAddress = sourceAddress;
         this.destinationAddress = destinationAddress;
 
-        // Outgoing pipeline: <source> -> <channel-mux> -> <end-of-stream-dispatch> -> <async-queue> -> <ignore-failures> -> <connection>
-        outgoingQueue = new AsyncDispatch<Object>(executor);
-        outgoingQueue.dispatchTo(wrapFailures(connection));
+        // Outgoing pipeline: <source> -> <channel-mux> -> <end-of-stream-dispatch> -> <batching-queue> -> <ignore-failures> -> <connection>
+        outgoingQueue = new BatchingDispatch(executor, wrapFailures(connection));
         outgoingDispatch = new EndOfStreamDispatch(new ChannelMessageMarshallingDispatch(outgoingQueue));
 
-        // Incoming pipeline: <connection> -> <async-receive> -> <ignore-failures> -> <end-of-stream-filter> -> <channel-demux> -> <channel-async-queue> -> <ignore-failures> -> <handler>
+        // Incoming pipeline: <connection> -> <unbatch> -> <async-receive> -> <ignore-failures> -> <end-of-stream-filter> -> <channel-demux> -> <channel-async-queue> -> <ignore-failures> -> <handler>
         incomingDemux = new IncomingDemultiplex();
         incomingDispatch = new EndOfStreamFilter(incomingDemux, new Runnable() {
             public void run() {
                 requestStop();
+                onEndOfStream();
             }
         });
         incomingReceive = new AsyncReceive<Object>(executor, wrapFailures(new ChannelMessageUnmarshallingDispatch(incomingDispatch)));
-        incomingReceive.receiveFrom(new EndOfStreamReceive(connection));
+        incomingReceive.receiveFrom(new EndOfStreamReceive(new UnbatchingReceive(connection)));
     }
 
     private Dispatch<Object> wrapFailures(Dispatch<Object> dispatch) {
@@ -88,6 +92,28 @@ class DefaultMultiChannelConnection implements MultiChannelConnection<Object> {
         incomingDemux.addIncomingChannel(channelKey, wrapFailures(dispatch));
     }
 
+    public void addEndOfStreamAction(Runnable action) {
+        synchronized (endOfStreamActions) {
+            if (!endOfStreamReached) {
+                endOfStreamActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    private void onEndOfStream() {
+        List<Runnable> actions;
+        synchronized (endOfStreamActions) {
+            endOfStreamReached = true;
+            actions = new ArrayList<Runnable>(endOfStreamActions);
+            endOfStreamActions.clear();
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
     public Dispatch<Object> addOutgoingChannel(Object channelKey) {
         return new OutgoingMultiplex(channelKey, outgoingDispatch);
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2010 the original author or authors.
+ * Copyright 2011 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -13,22 +13,26 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+package org.gradle.messaging.remote.internal;
 
+import java.util.List;
 
-package org.gradle.api.internal.tasks.testing.junit
-
-import org.apache.tools.ant.taskdefs.optional.junit.XMLResultAggregator
 /**
- * @author Tom Eyckmans
+ * A sequence of messages which are sent over a connection as a single message.
  */
+public class MessageBatch extends Message {
+    private final List<Object> messages;
+
+    public MessageBatch(List<Object> messages) {
+        this.messages = messages;
+    }
 
-class AntJUnitReport {
+    public List<Object> getMessages() {
+        return messages;
+    }
 
-    void execute(File testResultsDir, File testReportDir, AntBuilder ant) {
-        ant.project.addTaskDefinition('junitreport2', XMLResultAggregator.class)
-        ant.junitreport2(todir: testResultsDir.absolutePath) {
-            fileset(dir: testResultsDir.absolutePath, includes: 'TEST-*.xml')
-            report(todir: testReportDir.absolutePath)
-        }
+    @Override
+    public String toString() {
+        return String.format("[MessageBatch size: %d]", messages.size());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.messaging.remote.internal;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a sequence of messages written by a {@link MessageWriter}.
+ */
+public class MessageReader {
+    private static final int LARGE_ID = 0xFF;
+    private final InputStream inputStream;
+    private final ClassLoader classLoader;
+    private ObjectInputStream objectStream;
+
+    public MessageReader(InputStream inputStream, ClassLoader classLoader) {
+        this.inputStream = inputStream;
+        this.classLoader = classLoader;
+    }
+
+    public Object receive() throws IOException, ClassNotFoundException {
+        if (objectStream == null) {
+            objectStream = new DescriptorCachingObjectInputStream(inputStream, classLoader);
+        }
+        return objectStream.readObject();
+    }
+
+    static void writeDescriptorId(ObjectOutputStream output, int id) throws IOException {
+        if (id < LARGE_ID) {
+            output.writeByte(id);
+        } else {
+            output.writeByte(LARGE_ID);
+            output.writeInt(id);
+        }
+    }
+
+    static int readDescriptorId(ObjectInputStream input) throws IOException {
+        int id = input.readUnsignedByte();
+        return id < LARGE_ID ? id : input.readInt();
+    }
+
+    private static class DescriptorCachingObjectInputStream extends Message.ExceptionReplacingObjectInputStream {
+        private final List<ObjectStreamClass> descriptors = new ArrayList<ObjectStreamClass>();
+        private final Map<String, Class<?>> classes = new HashMap<String, Class<?>>();
+
+        public DescriptorCachingObjectInputStream(InputStream inputSteam, ClassLoader classLoader) throws IOException {
+            super(inputSteam, classLoader);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            int id = readDescriptorId(this);
+            if (id < descriptors.size()) {
+                return descriptors.get(id);
+            }
+            if (id != descriptors.size()) {
+                throw new StreamCorruptedException(String.format("Unexpected class descriptor id %d found.", id));
+            }
+            ObjectStreamClass desc = super.readClassDescriptor();
+            descriptors.add(desc);
+            return desc;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            Class<?> type = classes.get(desc.getName());
+            if (type == null) {
+                type = super.resolveClass(desc);
+                classes.put(desc.getName(), type);
+            }
+            return type;
+        }
+    }
+}
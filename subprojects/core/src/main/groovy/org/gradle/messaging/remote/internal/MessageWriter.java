@@ -0,0 +1,72 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.messaging.remote.internal;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes a sequence of messages to a stream, for reading by a {@link MessageReader}.
+ *
+ * <p>Unlike {@link Message#send(Object, OutputStream)}, a single object stream is used for all messages, so the stream
+ * header is written once only. Each class descriptor is written in full the first time it is used, and by id after
+ * that. The stream is reset after each message, so no object state is shared between messages.</p>
+ */
+public class MessageWriter {
+    private final OutputStream outputStream;
+    private ObjectOutputStream objectStream;
+
+    public MessageWriter(OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    public void send(Object message) throws IOException {
+        if (objectStream == null) {
+            objectStream = new DescriptorCachingObjectOutputStream(outputStream);
+        }
+        try {
+            objectStream.writeObject(message);
+            objectStream.reset();
+        } finally {
+            objectStream.flush();
+        }
+    }
+
+    private static class DescriptorCachingObjectOutputStream extends Message.ExceptionReplacingObjectOutputStream {
+        private final Map<Class<?>, Integer> descriptorIds = new HashMap<Class<?>, Integer>();
+
+        public DescriptorCachingObjectOutputStream(OutputStream outputSteam) throws IOException {
+            super(outputSteam);
+        }
+
+        @Override
+        protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
+            Integer id = descriptorIds.get(desc.forClass());
+            if (id != null) {
+                MessageReader.writeDescriptorId(this, id);
+                return;
+            }
+            id = descriptorIds.size();
+            descriptorIds.put(desc.forClass(), id);
+            MessageReader.writeDescriptorId(this, id);
+            super.writeClassDescriptor(desc);
+        }
+    }
+}
@@ -32,6 +32,13 @@ public interface MultiChannelConnection<T> extends Addressable, AsyncStoppable {
      */
     void addIncomingChannel(Object channelKey, Dispatch<T> dispatch);
 
+    /**
+     * Adds an action to run when the peer has stopped sending incoming messages, either because it has stopped the
+     * connection or because the connection has been lost. The action is run immediately if this has already happened.
+     * Some incoming messages may not yet have been handled when the action is run.
+     */
+    void addEndOfStreamAction(Runnable action);
+
     /**
      * Commences graceful stop of this connection. Stops accepting any more outgoing messages, and requests that the
      * peer stop sending incoming messages.
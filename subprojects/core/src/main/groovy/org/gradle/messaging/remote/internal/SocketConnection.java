@@ -33,21 +33,23 @@ public class SocketConnection<T> implements Connection<T> {
     private final SocketChannel socket;
     private final Object localAddress;
     private final Object remoteAddress;
-    private final ClassLoader classLoader;
     private final InputStream instr;
     private final OutputStream outstr;
+    private final MessageReader reader;
+    private final MessageWriter writer;
 
     public SocketConnection(SocketChannel socket, Object localAddress, Object remoteAddress, ClassLoader classLoader) {
         this.socket = socket;
         this.localAddress = localAddress;
         this.remoteAddress = remoteAddress;
-        this.classLoader = classLoader;
         try {
             // NOTE: we use non-blocking IO as there is no reliable way when using blocking IO to shutdown reads while
             // keeping writes active. For example, Socket.shutdownInput() does not work on Windows.
             socket.configureBlocking(false);
             outstr = new SocketOutputStream(socket);
             instr = new SocketInputStream(socket);
+            reader = new MessageReader(instr, classLoader);
+            writer = new MessageWriter(outstr);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -60,7 +62,7 @@ public class SocketConnection<T> implements Connection<T> {
 
     public T receive() {
         try {
-            return (T) Message.receive(instr, classLoader);
+            return (T) reader.receive();
         } catch (Exception e) {
             if (isEndOfStream(e)) {
                 return null;
@@ -81,7 +83,7 @@ public class SocketConnection<T> implements Connection<T> {
 
     public void dispatch(T message) {
         try {
-            Message.send(message, outstr);
+            writer.send(message);
             outstr.flush();
         } catch (Exception e) {
             throw new GradleException(String.format("Could not write message to '%s'.", remoteAddress), e);
@@ -116,7 +118,7 @@ public class SocketConnection<T> implements Connection<T> {
             if (nread <= 0) {
                 return nread;
             }
-            return readBuffer[0];
+            return readBuffer[0] & 0xff;
         }
 
         @Override
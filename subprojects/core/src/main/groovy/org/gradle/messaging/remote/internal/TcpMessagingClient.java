@@ -43,6 +43,13 @@ public class TcpMessagingClient implements MessagingClient {
         return client.getConnection();
     }
 
+    /**
+     * Adds an action to run when the server has stopped sending messages, or the connection has been lost.
+     */
+    public void addEndOfStreamAction(Runnable action) {
+        client.addEndOfStreamAction(action);
+    }
+
     public void stop() {
         new CompositeStoppable(client, connector, executorFactory).stop();
     }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.messaging.remote.internal;
+
+import org.gradle.messaging.dispatch.Receive;
+
+import java.util.Iterator;
+
+/**
+ * A {@link Receive} which unpacks each {@link MessageBatch} received from a connection into its messages.
+ */
+public class UnbatchingReceive implements Receive<Object> {
+    private final Receive<Object> receive;
+    private Iterator<Object> current;
+
+    public UnbatchingReceive(Receive<Object> receive) {
+        this.receive = receive;
+    }
+
+    public Object receive() {
+        while (true) {
+            if (current != null && current.hasNext()) {
+                return current.next();
+            }
+            current = null;
+            Object message = receive.receive();
+            if (!(message instanceof MessageBatch)) {
+                return message;
+            }
+            current = ((MessageBatch) message).getMessages().iterator();
+        }
+    }
+}
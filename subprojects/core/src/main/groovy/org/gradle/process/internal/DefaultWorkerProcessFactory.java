@@ -44,10 +44,18 @@ public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder
     private final ClassPathRegistry classPathRegistry;
     private final FileResolver resolver;
     private final IdGenerator<?> idGenerator;
+    private final WorkerProcessPool pool;
 
     public DefaultWorkerProcessFactory(LogLevel workerLogLevel, MessagingServer server,
                                        ClassPathRegistry classPathRegistry, FileResolver resolver,
                                        IdGenerator<?> idGenerator) {
+        this(workerLogLevel, server, classPathRegistry, resolver, idGenerator, null);
+    }
+
+    public DefaultWorkerProcessFactory(LogLevel workerLogLevel, MessagingServer server,
+                                       ClassPathRegistry classPathRegistry, FileResolver resolver,
+                                       IdGenerator<?> idGenerator, WorkerProcessPool pool) {
+        this.pool = pool;
         this.workerLogLevel = workerLogLevel;
         this.server = server;
         this.classPathRegistry = classPathRegistry;
@@ -71,6 +79,9 @@ public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder
             if (getWorker() == null) {
                 throw new IllegalStateException("No worker action specified for this worker process.");
             }
+            if (isReuseProcess() && pool != null) {
+                return buildPooled();
+            }
 
             final DefaultWorkerProcess workerProcess = new DefaultWorkerProcess();
             URI localAddress = server.accept(workerProcess.getConnectAction());
@@ -105,5 +116,26 @@ public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder
 
             return workerProcess;
         }
+
+        private WorkerProcess buildPooled() {
+            List<URL> implementationClassPath = ClasspathUtil.getClasspath(getWorker().getClass().getClassLoader());
+            Object id = idGenerator.generateId();
+            String displayName = String.format("Gradle Worker %s", id);
+
+            PooledWorkerProcess workerProcess = new PooledWorkerProcess(pool, displayName);
+            URI localAddress = server.accept(workerProcess.getConnectAction());
+
+            WorkerFactory workerFactory = new ApplicationClassesInIsolatedClassLoaderWorkerFactory(id, displayName,
+                    this, implementationClassPath, localAddress, classPathRegistry);
+            getJavaCommand().classpath(workerFactory.getSystemClasspath());
+            byte[] job = GUtil.serialize(workerFactory.create());
+
+            LOGGER.debug("Creating {} to run in a pooled process", displayName);
+            LOGGER.debug("Using application classpath {}", getApplicationClasspath());
+            LOGGER.debug("Using implementation classpath {}", implementationClassPath);
+
+            workerProcess.setJob(getJavaCommand(), getLogLevel(), job);
+            return workerProcess;
+        }
     }
 }
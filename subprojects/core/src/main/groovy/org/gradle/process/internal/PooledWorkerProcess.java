@@ -0,0 +1,184 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.process.internal;
+
+import org.gradle.api.Action;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.messaging.remote.ConnectEvent;
+import org.gradle.messaging.remote.ObjectConnection;
+import org.gradle.process.ExecResult;
+import org.gradle.util.UncheckedException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link WorkerProcess} which runs as a job in a process leased from a {@link WorkerProcessPool}. The process is
+ * returned to the pool when the job completes successfully.
+ */
+class PooledWorkerProcess implements WorkerProcess {
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final WorkerProcessPool pool;
+    private final String displayName;
+    private final long connectTimeout;
+    private JavaExecHandleBuilder javaCommand;
+    private LogLevel logLevel;
+    private byte[] serializedJob;
+    private ReusableWorkerProcess process;
+    private ObjectConnection connection;
+    private boolean completed;
+    private String failure;
+    private final List<Runnable> stopActions = new ArrayList<Runnable>();
+
+    PooledWorkerProcess(WorkerProcessPool pool, String displayName) {
+        this.pool = pool;
+        this.displayName = displayName;
+        connectTimeout = TimeUnit.SECONDS.toMillis(30);
+    }
+
+    void setJob(JavaExecHandleBuilder javaCommand, LogLevel logLevel, byte[] serializedJob) {
+        this.javaCommand = javaCommand;
+        this.logLevel = logLevel;
+        this.serializedJob = serializedJob;
+    }
+
+    public Action<ConnectEvent<ObjectConnection>> getConnectAction() {
+        return new Action<ConnectEvent<ObjectConnection>>() {
+            public void execute(ConnectEvent<ObjectConnection> event) {
+                onConnect(event.getConnection());
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+
+    public ObjectConnection getConnection() {
+        return connection;
+    }
+
+    private void onConnect(ObjectConnection connection) {
+        lock.lock();
+        try {
+            this.connection = connection;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void onJobCompleted(String failure) {
+        List<Runnable> actions;
+        lock.lock();
+        try {
+            this.failure = failure;
+            completed = true;
+            actions = new ArrayList<Runnable>(stopActions);
+            stopActions.clear();
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    public void addStopAction(Runnable action) {
+        lock.lock();
+        try {
+            if (!completed) {
+                stopActions.add(action);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        action.run();
+    }
+
+    public void start() {
+        process = pool.lease(javaCommand, logLevel);
+        process.execute(serializedJob, this);
+
+        Date connectExpiry = new Date(System.currentTimeMillis() + connectTimeout);
+        lock.lock();
+        try {
+            while (connection == null && !completed) {
+                try {
+                    if (!condition.awaitUntil(connectExpiry)) {
+                        pool.discard(process);
+                        throw new ExecException(String.format("Timeout waiting for %s to connect.", displayName));
+                    }
+                } catch (InterruptedException e) {
+                    throw UncheckedException.asUncheckedException(e);
+                }
+            }
+            if (connection == null) {
+                pool.discard(process);
+                throw new ExecException(String.format("Never received a connection from %s: %s", displayName,
+                        failure));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ExecResult waitForStop() {
+        lock.lock();
+        try {
+            while (!completed) {
+                try {
+                    condition.await();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.asUncheckedException(e);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        connection.stop();
+        if (failure != null) {
+            pool.discard(process);
+            throw new ExecException(String.format("%s failed: %s", displayName, failure));
+        }
+        pool.release(process);
+        return new JobResult();
+    }
+
+    private static class JobResult implements ExecResult {
+        public int getExitValue() {
+            return 0;
+        }
+
+        public ExecResult assertNormalExitValue() throws ExecException {
+            return this;
+        }
+
+        public ExecResult rethrowFailure() throws ExecException {
+            return this;
+        }
+    }
+}
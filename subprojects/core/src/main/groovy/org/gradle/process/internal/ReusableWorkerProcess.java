@@ -0,0 +1,217 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.process.internal;
+
+import org.gradle.api.Action;
+import org.gradle.messaging.remote.ConnectEvent;
+import org.gradle.messaging.remote.ObjectConnection;
+import org.gradle.process.ExecResult;
+import org.gradle.process.internal.child.WorkerJobExecutor;
+import org.gradle.process.internal.child.WorkerJobListener;
+import org.gradle.util.UncheckedException;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A worker process owned by a {@link WorkerProcessPool}, which executes a sequence of jobs.
+ */
+class ReusableWorkerProcess implements WorkerJobListener {
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final Object key;
+    private final long connectTimeout;
+    private ExecHandle execHandle;
+    private ObjectConnection connection;
+    private WorkerJobExecutor executor;
+    private PooledWorkerProcess currentJob;
+    private boolean running;
+    private Throwable processFailure;
+
+    ReusableWorkerProcess(Object key) {
+        this.key = key;
+        connectTimeout = TimeUnit.SECONDS.toMillis(30);
+    }
+
+    Object getKey() {
+        return key;
+    }
+
+    void setExecHandle(ExecHandle execHandle) {
+        this.execHandle = execHandle;
+        execHandle.addListener(new ExecHandleListener() {
+            public void executionStarted(ExecHandle execHandle) {
+            }
+
+            public void executionFinished(ExecHandle execHandle, ExecResult execResult) {
+                onProcessStop(execResult);
+            }
+        });
+    }
+
+    Action<ConnectEvent<ObjectConnection>> getConnectAction() {
+        return new Action<ConnectEvent<ObjectConnection>>() {
+            public void execute(ConnectEvent<ObjectConnection> event) {
+                onConnect(event.getConnection());
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return execHandle.toString();
+    }
+
+    boolean isRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onConnect(ObjectConnection connection) {
+        connection.addIncoming(WorkerJobListener.class, this);
+        WorkerJobExecutor executor = connection.addOutgoing(WorkerJobExecutor.class);
+        lock.lock();
+        try {
+            this.connection = connection;
+            this.executor = executor;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onProcessStop(ExecResult execResult) {
+        PooledWorkerProcess job;
+        lock.lock();
+        try {
+            try {
+                execResult.rethrowFailure().assertNormalExitValue();
+                processFailure = new ExecException(String.format("%s stopped unexpectedly.", execHandle));
+            } catch (ExecException e) {
+                processFailure = e;
+            }
+            running = false;
+            job = currentJob;
+            currentJob = null;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (job != null) {
+            job.onJobCompleted(processFailure.getMessage());
+        }
+    }
+
+    public void jobCompleted(String failure) {
+        PooledWorkerProcess job;
+        lock.lock();
+        try {
+            job = currentJob;
+            currentJob = null;
+        } finally {
+            lock.unlock();
+        }
+        if (job != null) {
+            job.onJobCompleted(failure);
+        }
+    }
+
+    /**
+     * Starts this process and waits for it to connect back to the pool.
+     */
+    void start() {
+        lock.lock();
+        try {
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+
+        execHandle.start();
+
+        Date connectExpiry = new Date(System.currentTimeMillis() + connectTimeout);
+        lock.lock();
+        try {
+            while (connection == null && running) {
+                try {
+                    if (!condition.awaitUntil(connectExpiry)) {
+                        throw new ExecException(String.format("Timeout waiting for %s to connect.", execHandle));
+                    }
+                } catch (InterruptedException e) {
+                    throw UncheckedException.asUncheckedException(e);
+                }
+            }
+            if (connection == null) {
+                throw UncheckedException.asUncheckedException(processFailure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends the given job to this process. The given job is notified when the job has completed, or this process
+     * has stopped.
+     */
+    void execute(byte[] serializedJob, PooledWorkerProcess job) {
+        lock.lock();
+        try {
+            if (!running) {
+                throw UncheckedException.asUncheckedException(processFailure);
+            }
+            assert currentJob == null;
+            currentJob = job;
+        } finally {
+            lock.unlock();
+        }
+        executor.execute(serializedJob);
+    }
+
+    /**
+     * Stops this process, and waits for it to exit. An idle process is asked to stop, a busy process is killed.
+     */
+    void stop() {
+        boolean running;
+        boolean idle;
+        ObjectConnection connection;
+        lock.lock();
+        try {
+            running = this.running;
+            idle = executor != null && currentJob == null;
+            connection = this.connection;
+        } finally {
+            lock.unlock();
+        }
+        if (running) {
+            if (idle) {
+                executor.stop();
+            } else {
+                execHandle.abort();
+            }
+            execHandle.waitForFinish();
+        }
+        if (connection != null) {
+            connection.stop();
+        }
+    }
+}
@@ -29,4 +29,10 @@ public interface WorkerProcess {
     void start();
 
     ExecResult waitForStop();
+
+    /**
+     * Adds an action to be executed when this worker process stops, whether or not {@link #waitForStop()} has been
+     * called. The action is executed immediately if the worker process has already stopped.
+     */
+    void addStopAction(Runnable action);
 }
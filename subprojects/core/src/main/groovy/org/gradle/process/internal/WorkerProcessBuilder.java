@@ -36,6 +36,10 @@ import java.util.Set;
  * <p>A worker process can optionally specify an application classpath. The classes of this classpath are loaded into an
  * isolated ClassLoader, which is made visible to the worker action ClassLoader. Only the packages specified in the set
  * of shared packages are visible to the worker action ClassLoader.</p>
+ *
+ * <p>A worker process can optionally be reused, in which case the worker action may be executed in a process which
+ * has already executed other worker actions. The application classes are always loaded into an isolated ClassLoader
+ * for a reused process.</p>
  */
 public abstract class WorkerProcessBuilder {
     private final JavaExecHandleBuilder javaCommand;
@@ -44,6 +48,7 @@ public abstract class WorkerProcessBuilder {
     private Action<WorkerProcessContext> action;
     private LogLevel logLevel = LogLevel.LIFECYCLE;
     private boolean loadApplicationInSystemClassLoader;
+    private boolean reuseProcess;
 
     public WorkerProcessBuilder(FileResolver fileResolver) {
         javaCommand = new JavaExecHandleBuilder(fileResolver);
@@ -101,5 +106,13 @@ public abstract class WorkerProcessBuilder {
         this.loadApplicationInSystemClassLoader = loadApplicationInSystemClassLoader;
     }
 
+    public boolean isReuseProcess() {
+        return reuseProcess;
+    }
+
+    public void setReuseProcess(boolean reuseProcess) {
+        this.reuseProcess = reuseProcess;
+    }
+
     public abstract WorkerProcess build();
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.process.internal;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.messaging.concurrent.Stoppable;
+import org.gradle.messaging.remote.MessagingServer;
+import org.gradle.process.internal.child.ReusableWorkerAction;
+import org.gradle.util.ClasspathUtil;
+import org.gradle.util.GUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * A pool of worker processes which can be reused to execute a sequence of worker actions, to avoid the cost of
+ * starting and warming up a new JVM for each action. Processes are keyed by their JVM configuration, so a process is
+ * only reused for an action which would have started an identical process.
+ */
+public class WorkerProcessPool implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkerProcessPool.class);
+    private final MessagingServer server;
+    private final Map<Object, LinkedList<ReusableWorkerProcess>> idle
+            = new HashMap<Object, LinkedList<ReusableWorkerProcess>>();
+    private final Set<ReusableWorkerProcess> processes = new HashSet<ReusableWorkerProcess>();
+    private int counter;
+    private boolean stopped;
+
+    public WorkerProcessPool(MessagingServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Leases a process which runs using the given command. Starts a new process if there is no idle process
+     * available.
+     */
+    ReusableWorkerProcess lease(JavaExecHandleBuilder javaCommand, LogLevel logLevel) {
+        Object key = Arrays.asList(javaCommand.getCommandLine(), javaCommand.getActualEnvironment(),
+                javaCommand.getWorkingDir(), logLevel);
+        String displayName;
+        synchronized (this) {
+            if (stopped) {
+                throw new IllegalStateException("This worker process pool has been stopped.");
+            }
+            LinkedList<ReusableWorkerProcess> candidates = idle.get(key);
+            while (candidates != null && !candidates.isEmpty()) {
+                ReusableWorkerProcess process = candidates.removeFirst();
+                if (process.isRunning()) {
+                    LOGGER.debug("Reusing {}.", process);
+                    return process;
+                }
+                processes.remove(process);
+            }
+            displayName = String.format("Gradle Worker Pool Process %d", ++counter);
+        }
+
+        ReusableWorkerProcess process = new ReusableWorkerProcess(key);
+        URI poolAddress = server.accept(process.getConnectAction());
+        List<URL> implementationClassPath = ClasspathUtil.getClasspath(ReusableWorkerAction.class.getClassLoader());
+        byte[] config = GUtil.serialize(ReusableWorkerAction.createMain(logLevel, implementationClassPath,
+                poolAddress));
+
+        LOGGER.debug("Creating {}", displayName);
+        javaCommand.setStandardInput(new ByteArrayInputStream(config));
+        javaCommand.setDisplayName(displayName);
+        process.setExecHandle(javaCommand.build());
+
+        synchronized (this) {
+            processes.add(process);
+        }
+        try {
+            process.start();
+        } catch (RuntimeException e) {
+            discard(process);
+            throw e;
+        }
+        return process;
+    }
+
+    /**
+     * Returns a leased process to this pool.
+     */
+    void release(ReusableWorkerProcess process) {
+        synchronized (this) {
+            if (!stopped && process.isRunning()) {
+                LinkedList<ReusableWorkerProcess> candidates = idle.get(process.getKey());
+                if (candidates == null) {
+                    candidates = new LinkedList<ReusableWorkerProcess>();
+                    idle.put(process.getKey(), candidates);
+                }
+                candidates.addFirst(process);
+                return;
+            }
+        }
+        discard(process);
+    }
+
+    /**
+     * Stops a leased process, rather than returning it to this pool.
+     */
+    void discard(ReusableWorkerProcess process) {
+        synchronized (this) {
+            processes.remove(process);
+        }
+        process.stop();
+    }
+
+    /**
+     * Stops all processes in this pool.
+     */
+    public void stop() {
+        List<ReusableWorkerProcess> toStop;
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            toStop = new ArrayList<ReusableWorkerProcess>(processes);
+            processes.clear();
+            idle.clear();
+        }
+        for (ReusableWorkerProcess process : toStop) {
+            process.stop();
+        }
+        server.stop();
+    }
+}
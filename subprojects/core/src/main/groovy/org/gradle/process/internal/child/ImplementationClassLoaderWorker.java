@@ -76,7 +76,11 @@ public class ImplementationClassLoaderWorker implements Action<WorkerContext>, S
         } catch (Exception e) {
             throw UncheckedException.asUncheckedException(e);
         }
-        action.execute(workerContext);
+        try {
+            action.execute(workerContext);
+        } finally {
+            loggingManager.stop();
+        }
     }
 
     LoggingManagerInternal createLoggingManager() {
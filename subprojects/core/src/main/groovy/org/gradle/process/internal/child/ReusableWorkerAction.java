@@ -0,0 +1,114 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.process.internal.child;
+
+import org.gradle.api.Action;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.messaging.remote.ObjectConnection;
+import org.gradle.messaging.remote.internal.TcpMessagingClient;
+import org.gradle.util.ClassLoaderObjectInputStream;
+import org.gradle.util.UncheckedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Serializable;
+import java.net.URI;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The main action of a reusable worker process. Connects back to the worker process pool, then executes each job it
+ * receives in turn, until asked to stop or until the connection to the pool is lost.
+ *
+ * <p>Each job is a serialized {@link IsolatedApplicationClassLoaderWorker}, and is loaded using the system ClassLoader.
+ * This means that each job uses its own application and implementation ClassLoaders, and nothing is shared between
+ * jobs except the classes of the system ClassLoader.</p>
+ */
+public class ReusableWorkerAction implements Action<WorkerContext>, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReusableWorkerAction.class);
+    private static final byte[] STOP = new byte[0];
+    private final URI poolAddress;
+
+    public ReusableWorkerAction(URI poolAddress) {
+        this.poolAddress = poolAddress;
+    }
+
+    /**
+     * Creates the main for a reusable worker process.
+     */
+    public static Callable<?> createMain(LogLevel logLevel, Collection<URL> implementationClassPath, URI poolAddress) {
+        ImplementationClassLoaderWorker worker = new ImplementationClassLoaderWorker(logLevel,
+                Collections.<String>emptySet(), implementationClassPath, new ReusableWorkerAction(poolAddress));
+        return new IsolatedApplicationClassLoaderWorker(Collections.<URL>emptyList(), worker);
+    }
+
+    public void execute(WorkerContext workerContext) {
+        final BlockingQueue<byte[]> jobs = new LinkedBlockingQueue<byte[]>();
+        TcpMessagingClient client = new TcpMessagingClient(getClass().getClassLoader(), poolAddress);
+        try {
+            client.addEndOfStreamAction(new Runnable() {
+                public void run() {
+                    jobs.add(STOP);
+                }
+            });
+            ObjectConnection connection = client.getConnection();
+            WorkerJobListener listener = connection.addOutgoing(WorkerJobListener.class);
+            connection.addIncoming(WorkerJobExecutor.class, new WorkerJobExecutor() {
+                public void execute(byte[] serializedJob) {
+                    jobs.add(serializedJob);
+                }
+
+                public void stop() {
+                    jobs.add(STOP);
+                }
+            });
+
+            while (true) {
+                byte[] job;
+                try {
+                    job = jobs.take();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.asUncheckedException(e);
+                }
+                if (job == STOP) {
+                    break;
+                }
+                listener.jobCompleted(run(job));
+            }
+        } finally {
+            LOGGER.debug("Stopping pool connection.");
+            client.stop();
+        }
+    }
+
+    private String run(byte[] serializedJob) {
+        try {
+            ClassLoaderObjectInputStream instr = new ClassLoaderObjectInputStream(new ByteArrayInputStream(
+                    serializedJob), ClassLoader.getSystemClassLoader());
+            Callable<?> job = (Callable<?>) instr.readObject();
+            job.call();
+            return null;
+        } catch (Throwable t) {
+            LOGGER.error("Job failed with an exception.", t);
+            return t.toString();
+        }
+    }
+}
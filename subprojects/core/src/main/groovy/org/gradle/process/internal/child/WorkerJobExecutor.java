@@ -0,0 +1,33 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.process.internal.child;
+
+/**
+ * Executes jobs in a reusable worker process. Implemented in the worker process, and called by the process which owns
+ * the worker process.
+ */
+public interface WorkerJobExecutor {
+    /**
+     * Executes the given job. The job is a serialized {@link IsolatedApplicationClassLoaderWorker}, so that each job
+     * gets fresh application and implementation ClassLoaders.
+     */
+    void execute(byte[] serializedJob);
+
+    /**
+     * Stops the worker process, once any current job has completed.
+     */
+    void stop();
+}
@@ -38,12 +38,15 @@ import java.util.*;
 public class BuildProfile {
     private Gradle gradle;
     Map<Project, ProjectProfile> projects = new HashMap<Project, ProjectProfile>();
+    private final List<OperationProfile> operations = new ArrayList<OperationProfile>();
     long profilingStarted;
     long buildStarted;
     long settingsEvaluated;
     long projectsLoaded;
     long projectsEvaluated;
     long buildFinished;
+    long fileHashCacheHits;
+    long fileHashCacheMisses;
 
     public BuildProfile(Gradle gradle) {
         this.gradle = gradle;
@@ -76,7 +79,7 @@ public class BuildProfile {
      * @param project to look up
      * @return
      */
-    public ProjectProfile getProjectProfile(Project project) {
+    public synchronized ProjectProfile getProjectProfile(Project project) {
         ProjectProfile result = projects.get(project);
         if (result == null) {
             result = new ProjectProfile(project);
@@ -89,10 +92,27 @@ public class BuildProfile {
      * Get a list of the profiling containers for all projects
      * @return list
      */
-    public List<ProjectProfile> getProjects() {
+    public synchronized List<ProjectProfile> getProjects() {
         return new ArrayList<ProjectProfile>(projects.values());
     }
 
+    /**
+     * Adds the profiling container for an operation which was not performed for a particular project.
+     * @param operation
+     */
+    public synchronized void addOperation(OperationProfile operation) {
+        operations.add(operation);
+    }
+
+    /**
+     * Gets the profiling containers for the operations which were not performed for a particular project, such as
+     * compiling the settings script, in the order they were started. Operations nested in these operations are available from {@link OperationProfile#getChildren()}.
+     * @return
+     */
+    public synchronized List<OperationProfile> getOperations() {
+        return new ArrayList<OperationProfile>(operations);
+    }
+
     /**
      * Should be set with a time as soon as possible after startup.
      * @param profilingStarted
@@ -110,6 +130,14 @@ public class BuildProfile {
         this.buildStarted = buildStarted;
     }
 
+    /**
+     * Get the timestamp of the buildStarted event.
+     * @return
+     */
+    public long getBuildStarted() {
+        return buildStarted;
+    }
+
     /**
      * Should be set with a timestamp from a {@link org.gradle.BuildListener#settingsEvaluated}
      * callback.
@@ -146,6 +174,38 @@ public class BuildProfile {
         this.buildFinished = buildFinished;
     }
 
+    /**
+     * Should be set with the number of files whose hash was found in the in-memory file hash cache.
+     * @param fileHashCacheHits
+     */
+    public void setFileHashCacheHits(long fileHashCacheHits) {
+        this.fileHashCacheHits = fileHashCacheHits;
+    }
+
+    /**
+     * Get the number of files whose hash was found in the in-memory file hash cache.
+     * @return
+     */
+    public long getFileHashCacheHits() {
+        return fileHashCacheHits;
+    }
+
+    /**
+     * Should be set with the number of files whose hash was not found in the in-memory file hash cache.
+     * @param fileHashCacheMisses
+     */
+    public void setFileHashCacheMisses(long fileHashCacheMisses) {
+        this.fileHashCacheMisses = fileHashCacheMisses;
+    }
+
+    /**
+     * Get the number of files whose hash was not found in the in-memory file hash cache.
+     * @return
+     */
+    public long getFileHashCacheMisses() {
+        return fileHashCacheMisses;
+    }
+
     /**
      * Get the elapsed time (in mSec) between the start of profiling and the buildStarted event.
      * @return
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.profile;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.tasks.TaskState;
+
+import java.io.*;
+import java.util.List;
+
+/**
+ * Writes a {@link BuildProfile} as a JSON document, for consumption by tools. All times are in milliseconds.
+ */
+public class JsonProfileReport {
+    private final BuildProfile profile;
+
+    public JsonProfileReport(BuildProfile profile) {
+        this.profile = profile;
+    }
+
+    public void writeTo(File file) {
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+            try {
+                writeTo(writer);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void writeTo(Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject();
+        json.property("tasks", profile.getTaskDescription().trim());
+        json.property("buildStarted", profile.getBuildStarted());
+        json.property("elapsedTotal", profile.getElapsedTotal());
+        json.property("elapsedStartup", profile.getElapsedStartup());
+        json.property("elapsedSettings", profile.getElapsedSettings());
+        json.property("elapsedProjectsLoading", profile.getElapsedProjectsLoading());
+        json.property("elapsedProjectsEvaluated", profile.getElapsedProjectsEvaluated());
+        json.property("elapsedTotalExecutionTime", profile.getElapsedTotalExecutionTime());
+        json.property("fileHashCacheHits", profile.getFileHashCacheHits());
+        json.property("fileHashCacheMisses", profile.getFileHashCacheMisses());
+        writeOperations(json, profile.getOperations());
+        json.name("projects");
+        json.beginArray();
+        for (ProjectProfile project : profile.getProjects()) {
+            json.beginObject();
+            json.property("path", project.getPath());
+            json.property("elapsedEvaluation", project.getElapsedEvaluation());
+            json.property("elapsedTaskExecution", project.getElapsedTaskExecution());
+            writeOperations(json, project.getOperations());
+            json.name("tasks");
+            json.beginArray();
+            for (TaskProfile task : project.getTaskProfiles()) {
+                json.beginObject();
+                json.property("path", task.getPath());
+                json.property("elapsedExecution", task.getElapsedExecution());
+                TaskState state = task.getState();
+                if (state != null) {
+                    json.property("outcome", state.getSkipped() ? state.getSkipMessage() : state.getDidWork() ? "executed" : "did no work");
+                }
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        writer.flush();
+    }
+
+    private void writeOperations(JsonWriter json, List<OperationProfile> operations) throws IOException {
+        json.name("operations");
+        json.beginArray();
+        for (OperationProfile operation : operations) {
+            json.beginObject();
+            json.property("type", operation.getOperation().getType().name());
+            json.property("description", operation.getDescription());
+            json.property("elapsedTime", operation.getElapsedTime());
+            json.property("elapsedOwnTime", operation.getElapsedOwnTime());
+            List<OperationProfile> children = operation.getChildren();
+            if (!children.isEmpty()) {
+                writeOperations(json, children);
+            }
+            json.endObject();
+        }
+        json.endArray();
+    }
+
+    /**
+     * A minimal streaming JSON writer, which takes care of separators and string escaping.
+     */
+    private static class JsonWriter {
+        private final Writer writer;
+        private boolean first = true;
+
+        private JsonWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        public void beginObject() throws IOException {
+            separator();
+            writer.write('{');
+            first = true;
+        }
+
+        public void endObject() throws IOException {
+            writer.write('}');
+            first = false;
+        }
+
+        public void beginArray() throws IOException {
+            separator();
+            writer.write('[');
+            first = true;
+        }
+
+        public void endArray() throws IOException {
+            writer.write(']');
+            first = false;
+        }
+
+        public void name(String name) throws IOException {
+            separator();
+            string(name);
+            writer.write(':');
+            first = true;
+        }
+
+        public void property(String name, String value) throws IOException {
+            name(name);
+            first = false;
+            if (value == null) {
+                writer.write("null");
+            } else {
+                string(value);
+            }
+        }
+
+        public void property(String name, long value) throws IOException {
+            name(name);
+            first = false;
+            writer.write(String.valueOf(value));
+        }
+
+        private void separator() throws IOException {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+        }
+
+        private void string(String value) throws IOException {
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                switch (ch) {
+                    case '"':
+                        writer.write("\\\"");
+                        break;
+                    case '\\':
+                        writer.write("\\\\");
+                        break;
+                    case '\n':
+                        writer.write("\\n");
+                        break;
+                    case '\r':
+                        writer.write("\\r");
+                        break;
+                    case '\t':
+                        writer.write("\\t");
+                        break;
+                    default:
+                        if (ch < 0x20) {
+                            writer.write(String.format("\\u%04x", (int) ch));
+                        } else {
+                            writer.write(ch);
+                        }
+                }
+            }
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.profile;
+
+import org.gradle.api.internal.BuildOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The profiling container for a single {@link BuildOperation}, and the operations which were performed while it was
+ * running.
+ */
+public class OperationProfile {
+    private final BuildOperation operation;
+    private final List<OperationProfile> children = new ArrayList<OperationProfile>();
+    private long start;
+    private long finish;
+
+    public OperationProfile(BuildOperation operation) {
+        this.operation = operation;
+    }
+
+    public BuildOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Gets the display name of the type of this operation.
+     * @return
+     */
+    public String getType() {
+        return operation.getType().getDisplayName();
+    }
+
+    /**
+     * Gets a description of the subject of this operation.
+     * @return
+     */
+    public String getDescription() {
+        return operation.getDescription();
+    }
+
+    /**
+     * Should be called with a time (in nSec) right before the operation begins.
+     * @param start
+     */
+    public void setStart(long start) {
+        this.start = start;
+    }
+
+    /**
+     * Should be called with a time (in nSec) right after the operation finishes.
+     * @param finish
+     */
+    public void setFinish(long finish) {
+        this.finish = finish;
+    }
+
+    /**
+     * Gets the elapsed time (in mSec) for this operation, including the operations nested in it.
+     * @return
+     */
+    public long getElapsedTime() {
+        return (finish - start) / 1000000L;
+    }
+
+    /**
+     * Gets the elapsed time (in mSec) for this operation, excluding the operations nested in it.
+     * @return
+     */
+    public long getElapsedOwnTime() {
+        long result = finish - start;
+        for (OperationProfile child : getChildren()) {
+            result -= child.finish - child.start;
+        }
+        return result / 1000000L;
+    }
+
+    public synchronized void addChild(OperationProfile child) {
+        children.add(child);
+    }
+
+    /**
+     * Gets the operations which were performed while this operation was running, in the order they were started.
+     * @return
+     */
+    public synchronized List<OperationProfile> getChildren() {
+        return new ArrayList<OperationProfile>(children);
+    }
+}
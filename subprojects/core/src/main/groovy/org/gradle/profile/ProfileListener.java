@@ -19,24 +19,47 @@ import org.gradle.BuildListener;
 import org.gradle.BuildResult;
 import org.gradle.api.*;
 import org.gradle.api.execution.TaskExecutionListener;
+import org.gradle.api.internal.BuildOperation;
+import org.gradle.api.internal.BuildOperationListener;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.changedetection.InMemoryCachingHasher;
 import org.gradle.api.initialization.Settings;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.api.tasks.TaskState;
+import org.gradle.groovy.scripts.Script;
+import org.gradle.groovy.scripts.ScriptExecutionListener;
 
 import java.io.File;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.LinkedList;
 
-public class ProfileListener implements BuildListener, ProjectEvaluationListener, TaskExecutionListener {
+public class ProfileListener implements BuildListener, ProjectEvaluationListener, TaskExecutionListener,
+        BuildOperationListener, ScriptExecutionListener {
     private BuildProfile buildProfile;
     private static final SimpleDateFormat FILE_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss");
     private long profileStarted;
+    private final ThreadLocal<LinkedList<OperationProfile>> runningOperations = new ThreadLocal<LinkedList<OperationProfile>>() {
+        @Override
+        protected LinkedList<OperationProfile> initialValue() {
+            return new LinkedList<OperationProfile>();
+        }
+    };
+    private final ThreadLocal<ProjectProfile> currentProject = new ThreadLocal<ProjectProfile>();
 
     public ProfileListener(long profileStarted) {
         this.profileStarted = profileStarted;
     }
 
+    /**
+     * Gets the profile of the current build.
+     * @return
+     */
+    public BuildProfile getBuildProfile() {
+        return buildProfile;
+    }
+
     // BuildListener
     public void buildStarted(Gradle gradle) {
         buildProfile = new BuildProfile(gradle);
@@ -58,27 +81,36 @@ public class ProfileListener implements BuildListener, ProjectEvaluationListener
 
     public void buildFinished(BuildResult result) {
         buildProfile.setBuildFinished(System.currentTimeMillis());
+        // Look up the hasher only when the report is generated, rather than creating it for builds which do not use it
+        InMemoryCachingHasher fileHasher = ((GradleInternal) result.getGradle()).getServices().get(
+                InMemoryCachingHasher.class);
+        buildProfile.setFileHashCacheHits(fileHasher.getHits());
+        buildProfile.setFileHashCacheMisses(fileHasher.getMisses());
 
-        HTMLProfileReport report = new HTMLProfileReport(buildProfile);
-        File file = new File(result.getGradle().getRootProject().getBuildDir(), "reports/profile/profile-" + FILE_DATE_FORMAT.format(new Date(profileStarted)) + ".html");
+        String baseName = "reports/profile/profile-" + FILE_DATE_FORMAT.format(new Date(profileStarted));
+        File file = new File(result.getGradle().getRootProject().getBuildDir(), baseName + ".html");
         file.getParentFile().mkdirs();
         try {
             file.createNewFile();
-            report.writeTo(file);
+            new HTMLProfileReport(buildProfile).writeTo(file);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
+        new JsonProfileReport(buildProfile).writeTo(new File(result.getGradle().getRootProject().getBuildDir(), baseName + ".json"));
     }
 
     // ProjectEvaluationListener
     public void beforeEvaluate(Project project) {
-        buildProfile.getProjectProfile(project).setBeforeEvaluate(System.currentTimeMillis());
+        ProjectProfile projectProfile = buildProfile.getProjectProfile(project);
+        projectProfile.setBeforeEvaluate(System.currentTimeMillis());
+        currentProject.set(projectProfile);
     }
 
     public void afterEvaluate(Project project, ProjectState state) {
         ProjectProfile projectProfile = buildProfile.getProjectProfile(project);
         projectProfile.setAfterEvaluate(System.currentTimeMillis());
         projectProfile.setState(state);
+        currentProject.remove();
     }
 
     // TaskExecutionListener
@@ -86,6 +118,7 @@ public class ProfileListener implements BuildListener, ProjectEvaluationListener
         Project project = task.getProject();
         ProjectProfile projectProfile = buildProfile.getProjectProfile(project);
         projectProfile.getTaskProfile(task).setStart(System.currentTimeMillis());
+        currentProject.set(projectProfile);
     }
 
     public void afterExecute(Task task, TaskState state) {
@@ -94,6 +127,38 @@ public class ProfileListener implements BuildListener, ProjectEvaluationListener
         TaskProfile taskProfile = projectProfile.getTaskProfile(task);
         taskProfile.setFinish(System.currentTimeMillis());
         taskProfile.setState(state);
+        currentProject.remove();
+    }
+
+    // ScriptExecutionListener
+    public void beforeScript(Script script) {
+        operationStarted(new BuildOperation(BuildOperation.Type.EXECUTE_SCRIPT, script.getScriptSource().getDisplayName()));
+    }
+
+    public void afterScript(Script script, Throwable result) {
+        operationFinished(null);
+    }
+
+    // BuildOperationListener
+    public void operationStarted(BuildOperation operation) {
+        OperationProfile operationProfile = new OperationProfile(operation);
+        LinkedList<OperationProfile> operations = runningOperations.get();
+        if (!operations.isEmpty()) {
+            operations.getLast().addChild(operationProfile);
+        } else if (currentProject.get() != null) {
+            currentProject.get().addOperation(operationProfile);
+        } else if (buildProfile != null) {
+            buildProfile.addOperation(operationProfile);
+        }
+        operations.addLast(operationProfile);
+        operationProfile.setStart(System.nanoTime());
+    }
+
+    public void operationFinished(BuildOperation operation) {
+        LinkedList<OperationProfile> operations = runningOperations.get();
+        if (!operations.isEmpty()) {
+            operations.removeLast().setFinish(System.nanoTime());
+        }
     }
 }
 
@@ -29,6 +29,7 @@ public class ProjectProfile {
     private long afterEvaluate;
     private ProjectState state;
     private HashMap<Task, TaskProfile> tasks = new HashMap<Task, TaskProfile>();
+    private final List<OperationProfile> operations = new ArrayList<OperationProfile>();
 
     public ProjectProfile(Project project) {
         this.project = project;
@@ -56,6 +57,23 @@ public class ProjectProfile {
         return new ArrayList<TaskProfile>(tasks.values());
     }
 
+    /**
+     * Adds the profiling container for an operation performed for this project.
+     * @param operation
+     */
+    public synchronized void addOperation(OperationProfile operation) {
+        operations.add(operation);
+    }
+
+    /**
+     * Gets the profiling containers for the operations performed for this project, in the order they were started.
+     * Operations nested in these operations are available from {@link OperationProfile#getChildren()}.
+     * @return
+     */
+    public synchronized List<OperationProfile> getOperations() {
+        return new ArrayList<OperationProfile>(operations);
+    }
+
     /**
      * Get the String project path.
      * @return
@@ -17,18 +17,39 @@ package org.gradle.util;
 
 import org.gradle.api.UncheckedIOException;
 
-import java.math.BigInteger;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.io.File;
-import java.io.InputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * @author Hans Dockter
  */
 public class HashUtil {
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+    // Digests and buffers are reused by each thread which hashes files, rather than created for each file
+    private static final ThreadLocal<MessageDigest> FILE_DIGEST = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("MD5");
+            } catch (NoSuchAlgorithmException e) {
+                throw UncheckedException.asUncheckedException(e);
+            }
+        }
+    };
+    private static final ThreadLocal<ByteBuffer> FILE_BUFFER = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(FILE_BUFFER_SIZE);
+        }
+    };
+
     public static String createHash(String scriptText) {
         MessageDigest messageDigest;
         try {
@@ -41,27 +62,27 @@ public class HashUtil {
     }
 
     public static byte[] createHash(File file) {
-        MessageDigest messageDigest;
-        try {
-            messageDigest = MessageDigest.getInstance("MD5");
-        } catch (NoSuchAlgorithmException e) {
-            throw UncheckedException.asUncheckedException(e);
-        }
+        MessageDigest messageDigest = FILE_DIGEST.get();
+        ByteBuffer buffer = FILE_BUFFER.get();
+        messageDigest.reset();
         try {
-            byte[] buffer = new byte[4096];
-            InputStream instr = new FileInputStream(file);
+            FileInputStream instr = new FileInputStream(file);
             try {
+                FileChannel channel = instr.getChannel();
                 while (true) {
-                    int nread = instr.read(buffer);
+                    buffer.clear();
+                    int nread = channel.read(buffer);
                     if (nread < 0) {
                         break;
                     }
-                    messageDigest.update(buffer, 0, nread);
+                    buffer.flip();
+                    messageDigest.update(buffer);
                 }
             } finally {
                 instr.close();
             }
         } catch (IOException e) {
+            messageDigest.reset();
             throw new UncheckedIOException(e);
         }
         return messageDigest.digest();
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal
+
+import spock.lang.Specification
+
+class BeanPropertyAccessorTest extends Specification {
+    def canGetAndSetPropertiesOfBean() {
+        def bean = new AccessorTestBean()
+        def accessor = BeanPropertyAccessor.forType(AccessorTestBean)
+        def name = accessor.getProperty('name')
+        def count = accessor.getProperty('count')
+
+        when:
+        accessor.set(bean, name.index, 'value')
+        accessor.set(bean, count.index, 12)
+
+        then:
+        bean.name == 'value'
+        bean.count == 12
+        accessor.get(bean, name.index) == 'value'
+        accessor.get(bean, count.index) == 12
+    }
+
+    def providesReadOnlyAndWriteOnlyProperties() {
+        def accessor = BeanPropertyAccessor.forType(AccessorTestBean)
+
+        expect:
+        accessor.getProperty('readOnly').readable
+        !accessor.getProperty('readOnly').writable
+        !accessor.getProperty('writeOnly').readable
+        accessor.getProperty('writeOnly').writable
+        accessor.getProperty('unknown') == null
+    }
+
+    def acceptsOnlyValuesWhichDoNotNeedCoercion() {
+        def accessor = BeanPropertyAccessor.forType(AccessorTestBean)
+
+        expect:
+        accessor.getProperty('name').canSetTo('value')
+        accessor.getProperty('name').canSetTo(null)
+        !accessor.getProperty('name').canSetTo(12)
+        accessor.getProperty('count').canSetTo(12)
+        !accessor.getProperty('count').canSetTo(12L)
+        !accessor.getProperty('count').canSetTo(null)
+    }
+
+    def doesNotProvideSetterWhenSetterIsOverloaded() {
+        def accessor = BeanPropertyAccessor.forType(AccessorTestBean)
+
+        expect:
+        !accessor.getProperty('overloaded')?.writable
+    }
+
+    def reusesAccessorForType() {
+        expect:
+        BeanPropertyAccessor.forType(AccessorTestBean).is(BeanPropertyAccessor.forType(AccessorTestBean))
+    }
+
+    def reusesAccessorForTypeAfterGarbageCollection() {
+        def loader = new GroovyClassLoader(getClass().classLoader)
+        def type = loader.parseClass("class GarbageCollectedTestBean { String name }")
+        def accessorId = System.identityHashCode(BeanPropertyAccessor.forType(type))
+
+        when:
+        5.times { System.gc() }
+        def accessor = BeanPropertyAccessor.forType(type)
+
+        then:
+        accessor != null
+        System.identityHashCode(accessor) == accessorId
+    }
+
+    def doesNotProvideAccessorForJdkOrMapTypes() {
+        expect:
+        BeanPropertyAccessor.forType(String) == null
+        BeanPropertyAccessor.forType(AccessorTestMap) == null
+    }
+
+    def dynamicObjectUsesMetaClassWhenBeanHasCustomMetaClass() {
+        def bean = new AccessorTestBean()
+        bean.metaClass.getName = { -> 'custom' }
+        def dynamicObject = new BeanDynamicObject(bean)
+
+        expect:
+        dynamicObject.getProperty('name') == 'custom'
+        dynamicObject.getProperty('count') == 0
+    }
+
+    def dynamicObjectCoercesValuesUsingMetaClass() {
+        def bean = new AccessorTestBean()
+        def dynamicObject = new BeanDynamicObject(bean)
+
+        when:
+        dynamicObject.setProperty('count', 12L)
+        dynamicObject.setProperty('overloaded', new File('file'))
+
+        then:
+        bean.count == 12
+        bean.overloaded == 'file'
+    }
+}
+
+class AccessorTestBean {
+    String name
+    int count
+    private String value
+
+    String getReadOnly() {
+        return 'value'
+    }
+
+    void setWriteOnly(String value) {
+        this.value = value
+    }
+
+    Object getOverloaded() {
+        return value
+    }
+
+    void setOverloaded(Object value) {
+        this.value = 'object'
+    }
+
+    void setOverloaded(File value) {
+        this.value = 'file'
+    }
+}
+
+class AccessorTestMap extends HashMap<String, Object> {
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal;
+
+import groovy.lang.GroovySystem;
+import groovy.lang.MetaClass;
+import org.gradle.api.internal.project.DefaultProject;
+import org.gradle.api.tasks.bundling.Zip;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.HelperUtil;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Measures the time taken to configure the tasks of a synthetic multi-project build, reading and writing task and
+ * project properties by name as a build script does. Compares property access using the dynamic object of each task,
+ * which uses {@link BeanPropertyAccessor}, with property access through the Groovy meta-class. This is not run as
+ * part of the test suite. Run it using {@code main()}, optionally passing the number of projects to use.
+ */
+public class ConfigurationBenchmark {
+    private static final int TASKS_PER_PROJECT = 20;
+
+    public static void main(String[] args) throws Exception {
+        int projectCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        File rootDir = File.createTempFile("configuration", "benchmark");
+        rootDir.delete();
+        try {
+            long start = System.nanoTime();
+            List<Zip> tasks = createBuild(rootDir, projectCount);
+            System.out.println(String.format("created %d projects with %d tasks in %.0f ms", projectCount,
+                    tasks.size(), (System.nanoTime() - start) / 1e6));
+
+            for (int i = 0; i < 5; i++) {
+                run("meta-class", tasks, new MetaClassAccess());
+                run("dynamic object", tasks, new DynamicObjectAccess());
+            }
+        } finally {
+            GFileUtils.deleteDirectory(rootDir);
+        }
+    }
+
+    private static List<Zip> createBuild(File rootDir, int projectCount) {
+        DefaultProject rootProject = HelperUtil.createRootProject(rootDir);
+        List<Zip> tasks = new ArrayList<Zip>();
+        for (int i = 0; i < projectCount; i++) {
+            final DefaultProject project = i == 0 ? rootProject : HelperUtil.createChildProject(rootProject,
+                    "project" + i);
+            for (int j = 0; j < TASKS_PER_PROJECT; j++) {
+                Zip task = project.getTasks().add("zip" + j, Zip.class);
+                task.getConventionMapping().map("destinationDir", new Callable<Object>() {
+                    public Object call() throws Exception {
+                        return new File((File) project.getAsDynamicObject().getProperty("buildDir"), "libs");
+                    }
+                });
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    private static void run(String name, List<Zip> tasks, PropertyAccess access) {
+        long start = System.nanoTime();
+        int count = 0;
+        for (Zip task : tasks) {
+            access.set(task, "baseName", task.getName());
+            access.set(task, "version", "1.0");
+            access.set(task, "classifier", "sources");
+            access.set(task, "description", "Assembles an archive.");
+            access.set(task, "enabled", true);
+            count += 5;
+            for (int i = 0; i < 4; i++) {
+                access.get(task, "archivePath");
+                access.get(task, "destinationDir");
+                access.get(task, "baseName");
+                access.get(task, "extension");
+                access.get(task, "enabled");
+                access.get(task, "project");
+                count += 6;
+            }
+        }
+        long time = System.nanoTime() - start;
+        System.out.println(String.format("%s: %d property accesses in %.0f ms, %.0f ops/s", name, count, time / 1e6,
+                count / (time / 1e9)));
+    }
+
+    private interface PropertyAccess {
+        Object get(Object bean, String name);
+
+        void set(Object bean, String name, Object value);
+    }
+
+    /**
+     * Accesses properties the way {@link BeanDynamicObject} did before it used {@link BeanPropertyAccessor}.
+     */
+    private static class MetaClassAccess implements PropertyAccess {
+        public Object get(Object bean, String name) {
+            MetaClass metaClass = GroovySystem.getMetaClassRegistry().getMetaClass(bean.getClass());
+            return metaClass.hasProperty(bean, name).getProperty(bean);
+        }
+
+        public void set(Object bean, String name, Object value) {
+            MetaClass metaClass = GroovySystem.getMetaClassRegistry().getMetaClass(bean.getClass());
+            metaClass.hasProperty(bean, name);
+            metaClass.setProperty(bean, name, value);
+        }
+    }
+
+    private static class DynamicObjectAccess implements PropertyAccess {
+        public Object get(Object bean, String name) {
+            return ((DynamicObjectAware) bean).getAsDynamicObject().getProperty(name);
+        }
+
+        public void set(Object bean, String name, Object value) {
+            ((DynamicObjectAware) bean).getAsDynamicObject().setProperty(name, value);
+        }
+    }
+}
@@ -17,12 +17,14 @@
 package org.gradle.api.internal.artifacts;
 
 import org.gradle.api.internal.AsmBackedClassGenerator;
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.api.internal.ClassGenerator;
 import org.gradle.api.internal.DomainObjectContext;
 import org.gradle.api.internal.artifacts.configurations.DefaultConfigurationContainer;
 import org.gradle.api.internal.artifacts.configurations.DependencyMetaDataProvider;
 import org.gradle.api.internal.artifacts.configurations.ResolverProvider;
 import org.gradle.api.internal.artifacts.ivyservice.*;
+import org.gradle.util.JUnit4GroovyMockery;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.sameInstance;
 import org.jmock.integration.junit4.JMock;
@@ -38,7 +40,7 @@ import java.util.HashMap;
  */
 @RunWith(JMock.class)
 public class DefaultConfigurationContainerFactoryTest {
-    private JUnit4Mockery context = new JUnit4Mockery();
+    private JUnit4Mockery context = new JUnit4GroovyMockery();
 
     @Test
     public void testCreate() {
@@ -54,11 +56,14 @@ public class DefaultConfigurationContainerFactoryTest {
         IvyDependencyResolver ivyDependencyResolver = context.mock(IvyDependencyResolver.class);
         IvyDependencyPublisher ivyDependencyPublisher = context.mock(IvyDependencyPublisher.class);
         ClassGenerator classGenerator = new AsmBackedClassGenerator();
+        BuildOperationListener operationListener = context.mock(BuildOperationListener.class);
+        ResolvedConfigurationCache resolvedConfigurationCache = context.mock(ResolvedConfigurationCache.class);
         DefaultConfigurationContainer configurationContainer = (DefaultConfigurationContainer)
                 new DefaultConfigurationContainerFactory(clientModuleRegistry, settingsConverter,
                         resolveModuleDescriptorConverter, publishModuleDescriptorConverter,
                         fileModuleDescriptorConverter, ivyFactory,
-                        ivyDependencyResolver, ivyDependencyPublisher, classGenerator).createConfigurationContainer(resolverProviderDummy,
+                        ivyDependencyResolver, ivyDependencyPublisher, classGenerator, operationListener,
+                        resolvedConfigurationCache).createConfigurationContainer(resolverProviderDummy,
                         dependencyMetaDataProviderStub, context.mock(DomainObjectContext.class));
 
         assertThat(configurationContainer.getIvyService(), instanceOf(ErrorHandlingIvyService.class));
@@ -67,8 +72,14 @@ public class DefaultConfigurationContainerFactoryTest {
         assertThat(errorHandlingService.getIvyService(), instanceOf(ShortcircuitEmptyConfigsIvyService.class));
         ShortcircuitEmptyConfigsIvyService service = (ShortcircuitEmptyConfigsIvyService) errorHandlingService.getIvyService();
 
-        assertThat(service.getIvyService(), instanceOf(DefaultIvyService.class));
-        DefaultIvyService defaultIvyService = (DefaultIvyService) service.getIvyService();
+        assertThat(service.getIvyService(), instanceOf(OperationNotifyingIvyService.class));
+        OperationNotifyingIvyService operationNotifyingService = (OperationNotifyingIvyService) service.getIvyService();
+
+        assertThat(operationNotifyingService.getIvyService(), instanceOf(CachingIvyService.class));
+        CachingIvyService cachingService = (CachingIvyService) operationNotifyingService.getIvyService();
+
+        assertThat(cachingService.getIvyService(), instanceOf(DefaultIvyService.class));
+        DefaultIvyService defaultIvyService = (DefaultIvyService) cachingService.getIvyService();
         assertThat(defaultIvyService.getMetaDataProvider(), sameInstance(dependencyMetaDataProviderStub));
         assertThat(defaultIvyService.getResolverProvider(), sameInstance(resolverProviderDummy));
         assertThat((HashMap) defaultIvyService.getClientModuleRegistry(), sameInstance(clientModuleRegistry));
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.artifacts.Module
+import org.gradle.api.artifacts.ModuleDependency
+import org.gradle.api.artifacts.ResolvedArtifact
+import org.gradle.api.artifacts.ResolvedConfiguration
+import org.gradle.api.internal.artifacts.DefaultResolvedDependency
+import org.gradle.api.internal.artifacts.IvyService
+import org.gradle.api.internal.artifacts.configurations.DependencyMetaDataProvider
+import org.gradle.api.internal.artifacts.configurations.ResolverProvider
+import org.gradle.api.internal.changedetection.DefaultTaskArtifactStateRepositoryTest
+import org.gradle.api.specs.Specs
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.CacheRepository
+import org.gradle.cache.PersistentCache
+import org.gradle.util.TemporaryFolder
+import org.gradle.util.TestFile
+import org.junit.Rule
+import spock.lang.Specification
+
+class CachingIvyServiceTest extends Specification {
+    @Rule
+    public final TemporaryFolder tmpDir = new TemporaryFolder()
+    private final IvyService delegate = Mock()
+    private final DependencyMetaDataProvider metaDataProvider = Mock()
+    private final ResolverProvider resolverProvider = Mock()
+    private final Configuration configuration = Mock()
+    private final ModuleDependency dependency = Mock()
+    private final RevisionAwareResolvedConfiguration resolvedConfiguration = Mock()
+    private CachingIvyService ivyService
+    private TestFile fileA
+    private TestFile fileB
+    private String version = '1.0'
+    private boolean dynamicRevisions
+
+    def setup() {
+        CacheRepository cacheRepository = Mock()
+        CacheBuilder cacheBuilder = Mock()
+        PersistentCache persistentCache = Mock()
+        _ * cacheRepository.cache('resolvedConfigurations') >> cacheBuilder
+        _ * cacheBuilder.open() >> persistentCache
+        _ * persistentCache.openIndexedCache(!null) >> { args -> new DefaultTaskArtifactStateRepositoryTest.TestIndexedCache(args[0]) }
+        ivyService = new CachingIvyService(delegate, new ResolvedConfigurationCache(cacheRepository), metaDataProvider, resolverProvider)
+
+        Module module = Mock()
+        _ * module.group >> 'group'
+        _ * module.name >> 'module'
+        _ * module.version >> '1.2'
+        _ * metaDataProvider.module >> module
+        _ * metaDataProvider.gradleUserHomeDir >> tmpDir.dir
+        _ * resolverProvider.resolvers >> []
+
+        _ * configuration.name >> 'compile'
+        _ * configuration.hierarchy >> ([configuration] as Set)
+        _ * configuration.extendsFrom >> ([] as Set)
+        _ * configuration.transitive >> true
+        _ * configuration.excludeRules >> ([] as Set)
+        _ * configuration.dependencies >> ([dependency] as Set)
+        _ * configuration.getAllDependencies(ModuleDependency) >> ([dependency] as Set)
+        _ * configuration.getAllDependencies(_) >> ([] as Set)
+        _ * dependency.group >> 'org'
+        _ * dependency.name >> 'a'
+        _ * dependency.version >> { version }
+        _ * dependency.configuration >> 'default'
+        _ * dependency.transitive >> true
+        _ * dependency.artifacts >> ([] as Set)
+        _ * dependency.excludeRules >> ([] as Set)
+
+        fileA = tmpDir.createFile('a.jar')
+        fileB = tmpDir.createFile('b.jar')
+        def root = new DefaultResolvedDependency('group', 'module', '1.2', 'compile', [] as Set)
+        def a = new DefaultResolvedDependency('org', 'a', '1.0', 'default', [] as Set)
+        def b = new DefaultResolvedDependency('org', 'b', '2.0', 'default', [] as Set)
+        root.addChild(a)
+        a.addChild(b)
+        def artifactA = artifact('a', fileA, a)
+        def artifactB = artifact('b', fileB, b)
+        a.moduleArtifacts.add(artifactA)
+        b.addParentSpecificArtifacts(a, [artifactB] as Set)
+        _ * resolvedConfiguration.hasError() >> false
+        _ * resolvedConfiguration.hasDynamicRevisions() >> { dynamicRevisions }
+        _ * resolvedConfiguration.resolvedArtifacts >> ([artifactA, artifactB] as Set)
+        _ * resolvedConfiguration.firstLevelModuleDependencies >> ([a] as Set)
+        _ * resolvedConfiguration.getFiles(_) >> ([fileA, fileB] as Set)
+    }
+
+    def reusesCachedResultWhenDependenciesHaveNotChanged() {
+        when:
+        ivyService.resolve(configuration)
+        def result = ivyService.resolve(configuration)
+
+        then:
+        1 * delegate.resolve(configuration) >> resolvedConfiguration
+        !result.hasError()
+        result.getFiles(Specs.satisfyAll()) == [fileA, fileB] as Set
+        result.resolvedArtifacts*.file == [fileA, fileB]
+        result.firstLevelModuleDependencies*.name == ['org:a:1.0']
+        def a = result.firstLevelModuleDependencies.iterator().next()
+        a.moduleArtifacts*.name == ['a']
+        a.children*.name == ['org:b:2.0']
+        a.children.iterator().next().getParentArtifacts(a)*.file == [fileB]
+    }
+
+    def resolvesAgainWhenDependenciesChange() {
+        when:
+        ivyService.resolve(configuration)
+        version = '1.1'
+        ivyService.resolve(configuration)
+
+        then:
+        2 * delegate.resolve(configuration) >> resolvedConfiguration
+    }
+
+    def resolvesAgainWhenCachedFileNoLongerExists() {
+        when:
+        ivyService.resolve(configuration)
+        fileB.delete()
+        ivyService.resolve(configuration)
+
+        then:
+        2 * delegate.resolve(configuration) >> resolvedConfiguration
+    }
+
+    def doesNotCacheResultForDynamicVersion() {
+        version = '1.+'
+
+        when:
+        ivyService.resolve(configuration)
+        ivyService.resolve(configuration)
+
+        then:
+        2 * delegate.resolve(configuration) >> resolvedConfiguration
+        0 * resolvedConfiguration.getFiles(_)
+    }
+
+    def doesNotCacheResultWhenTransitiveDependencyHasDynamicVersion() {
+        dynamicRevisions = true
+
+        when:
+        ivyService.resolve(configuration)
+        ivyService.resolve(configuration)
+
+        then:
+        2 * delegate.resolve(configuration) >> resolvedConfiguration
+        0 * resolvedConfiguration.getFiles(_)
+    }
+
+    def doesNotCacheResultWhichDoesNotKnowItsRevisions() {
+        ResolvedConfiguration other = Mock()
+        _ * other.hasError() >> false
+
+        when:
+        ivyService.resolve(configuration)
+        ivyService.resolve(configuration)
+
+        then:
+        2 * delegate.resolve(configuration) >> other
+    }
+
+    def doesNotCacheFailedResult() {
+        ResolvedConfiguration failed = Mock()
+        _ * failed.hasError() >> true
+
+        when:
+        ivyService.resolve(configuration)
+        ivyService.resolve(configuration)
+
+        then:
+        2 * delegate.resolve(configuration) >> failed
+    }
+
+    private ResolvedArtifact artifact(String name, File file, DefaultResolvedDependency owner) {
+        ResolvedArtifact artifact = Mock()
+        _ * artifact.name >> name
+        _ * artifact.type >> 'jar'
+        _ * artifact.extension >> 'jar'
+        _ * artifact.file >> file
+        _ * artifact.resolvedDependency >> owner
+        return artifact
+    }
+}
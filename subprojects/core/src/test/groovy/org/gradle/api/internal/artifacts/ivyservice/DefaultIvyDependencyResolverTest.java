@@ -16,16 +16,22 @@
 package org.gradle.api.internal.artifacts.ivyservice;
 
 import org.apache.ivy.Ivy;
+import org.apache.ivy.core.module.descriptor.DefaultDependencyDescriptor;
 import org.apache.ivy.core.module.descriptor.DefaultModuleDescriptor;
 import org.apache.ivy.core.module.descriptor.ModuleDescriptor;
 import org.apache.ivy.core.module.id.ModuleRevisionId;
 import org.apache.ivy.core.report.ResolveReport;
+import org.apache.ivy.core.resolve.IvyNode;
+import org.apache.ivy.core.resolve.IvyNodeCallers;
 import org.apache.ivy.core.resolve.ResolveOptions;
+import org.apache.ivy.core.settings.IvySettings;
 import org.gradle.api.GradleException;
 import org.gradle.api.artifacts.*;
 import org.gradle.api.internal.artifacts.DefaultResolvedArtifactTest;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.specs.Specs;
+import org.gradle.logging.ProgressLoggerFactory;
+import org.gradle.messaging.concurrent.DefaultExecutorFactory;
 import org.gradle.util.GUtil;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
@@ -41,8 +47,10 @@ import org.junit.runner.RunWith;
 import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -64,7 +72,8 @@ public class DefaultIvyDependencyResolverTest {
     private DefaultIvyReportConverter ivyReportConverterStub = context.mock(DefaultIvyReportConverter.class);
     private ResolveReport resolveReportMock = context.mock(ResolveReport.class);
 
-    private DefaultIvyDependencyResolver ivyDependencyResolver = new DefaultIvyDependencyResolver(ivyReportConverterStub);
+    private DefaultIvyDependencyResolver ivyDependencyResolver = new DefaultIvyDependencyResolver(ivyReportConverterStub,
+            new ParallelArtifactDownloader(new DefaultExecutorFactory(), context.mock(ProgressLoggerFactory.class), 1));
 
     @Before
     public void setUp() {
@@ -231,6 +240,46 @@ public class DefaultIvyDependencyResolverTest {
         assertEquals(false, ivyDependencyResolver.resolve(configurationStub, ivyStub, moduleDescriptor).hasError());
     }
 
+    @Test
+    public void testHasDynamicRevisionsWhenAnyModuleIsRequestedWithDynamicOrChangingRevision() throws IOException, ParseException {
+        prepareResolveReport();
+        final List<IvyNode> nodes = new ArrayList<IvyNode>();
+        context.checking(new Expectations() {{
+            allowing(ivyReportConverterStub).convertReport(resolveReportMock, configurationStub);
+            allowing(ivyStub).getSettings();
+            will(returnValue(new IvySettings()));
+            allowing(resolveReportMock).getDependencies();
+            will(returnValue(nodes));
+        }});
+        ModuleDescriptor moduleDescriptor = createAnonymousModuleDescriptor();
+        prepareTestsThatRetrieveDependencies(moduleDescriptor);
+
+        assertFalse(resolveWithTransitiveDependency(moduleDescriptor, nodes, "1.0", false));
+        assertTrue(resolveWithTransitiveDependency(moduleDescriptor, nodes, "1.+", false));
+        assertTrue(resolveWithTransitiveDependency(moduleDescriptor, nodes, "latest.integration", false));
+        assertTrue(resolveWithTransitiveDependency(moduleDescriptor, nodes, "[1.0,2.0)", false));
+        assertTrue(resolveWithTransitiveDependency(moduleDescriptor, nodes, "1.0-SNAPSHOT", false));
+        assertTrue(resolveWithTransitiveDependency(moduleDescriptor, nodes, "1.0", true));
+    }
+
+    private boolean resolveWithTransitiveDependency(ModuleDescriptor moduleDescriptor, List<IvyNode> nodes,
+                                                    String requestedRevision, boolean changing) {
+        final IvyNode node = context.mock(IvyNode.class, String.format("<node %s changing=%s>", requestedRevision, changing));
+        ModuleDescriptor parent = DefaultModuleDescriptor.newDefaultInstance(ModuleRevisionId.newInstance("org", "parent", "1.0"));
+        ModuleRevisionId requestedId = ModuleRevisionId.newInstance("org", "child", requestedRevision);
+        final IvyNodeCallers.Caller caller = new IvyNodeCallers.Caller(parent, parent.getModuleRevisionId(),
+                new DefaultDependencyDescriptor(requestedId, false, changing), false);
+        context.checking(new Expectations() {{
+            allowing(node).getAllCallers();
+            will(returnValue(new IvyNodeCallers.Caller[]{caller}));
+        }});
+        nodes.clear();
+        nodes.add(node);
+        RevisionAwareResolvedConfiguration resolvedConfiguration
+                = (RevisionAwareResolvedConfiguration) ivyDependencyResolver.resolve(configurationStub, ivyStub, moduleDescriptor);
+        return resolvedConfiguration.hasDynamicRevisions();
+    }
+
     @Test
     public void testResolveAndGetReportWithMissingDependenciesAndFailFalse() throws IOException, ParseException {
         prepareResolveReportWithError();
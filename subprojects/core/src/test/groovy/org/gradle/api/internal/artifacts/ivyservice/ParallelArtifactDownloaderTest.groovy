@@ -0,0 +1,154 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.apache.ivy.core.IvyContext
+import org.gradle.api.artifacts.ResolvedArtifact
+import org.gradle.api.artifacts.ResolvedDependency
+import org.gradle.logging.ProgressLogger
+import org.gradle.logging.ProgressLoggerFactory
+import org.gradle.messaging.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+class ParallelArtifactDownloaderTest extends Specification {
+    private final ProgressLoggerFactory progressLoggerFactory = Mock()
+    private final ProgressLogger progressLogger = Mock()
+    private final ProgressLogger artifactProgressLogger = Mock()
+    private final List<String> downloaded = Collections.synchronizedList([])
+    private final ParallelArtifactDownloader downloader = new ParallelArtifactDownloader(new DefaultExecutorFactory(), progressLoggerFactory, 4)
+
+    def setup() {
+        _ * progressLoggerFactory.start(ParallelArtifactDownloader.class.name) >> artifactProgressLogger
+    }
+
+    def downloadsArtifactsOfDifferentModulesConcurrently() {
+        def latch = new CountDownLatch(2)
+        def waitForOtherModule = {
+            latch.countDown()
+            if (!latch.await(20, TimeUnit.SECONDS)) {
+                throw new IllegalStateException('timeout waiting for other module')
+            }
+        }
+        def a = artifact('a', module('a'), waitForOtherModule)
+        def b = artifact('b', module('b'), waitForOtherModule)
+
+        when:
+        downloader.download([a, b])
+
+        then:
+        1 * progressLoggerFactory.start(ParallelArtifactDownloader.class.name, 'Downloading 2 artifacts') >> progressLogger
+        1 * progressLogger.progress('1/2 artifacts')
+        1 * progressLogger.progress('2/2 artifacts')
+        1 * progressLogger.completed()
+        downloaded as Set == ['a', 'b'] as Set
+    }
+
+    def downloadsArtifactsOfAModuleInOrder() {
+        def moduleA = module('a')
+        def artifacts = (1..5).collect { artifact("a$it", moduleA) } + [artifact('b', module('b'))]
+        _ * progressLoggerFactory.start(_, _) >> progressLogger
+
+        when:
+        downloader.download(artifacts)
+
+        then:
+        downloaded.findAll { it.startsWith('a') } == ['a1', 'a2', 'a3', 'a4', 'a5']
+        downloaded.contains('b')
+    }
+
+    def rethrowsFirstFailureInArtifactOrder() {
+        def failure1 = new RuntimeException('broken a')
+        def failure2 = new RuntimeException('broken b')
+        def latch = new CountDownLatch(2)
+        def a = artifact('a', module('a')) { latch.countDown(); latch.await(20, TimeUnit.SECONDS); throw failure1 }
+        def b = artifact('b', module('b')) { latch.countDown(); throw failure2 }
+        _ * progressLoggerFactory.start(_, _) >> progressLogger
+
+        when:
+        downloader.download([a, b])
+
+        then:
+        RuntimeException e = thrown()
+        e == failure1
+        1 * progressLogger.completed()
+    }
+
+    def downloadsUsingACopyOfTheCallersIvyContext() {
+        def contextValues = Collections.synchronizedList([])
+        def recordContext = {
+            contextValues << IvyContext.getContext().get('test-key')
+            IvyContext.getContext().set('test-key', 'changed by download')
+        }
+        _ * progressLoggerFactory.start(_, _) >> progressLogger
+        IvyContext.pushNewContext().set('test-key', 'caller value')
+
+        when:
+        downloader.download([artifact('a', module('a'), recordContext), artifact('b', module('b'), recordContext)])
+
+        then:
+        contextValues == ['caller value', 'caller value']
+        IvyContext.getContext().get('test-key') == 'caller value'
+
+        cleanup:
+        IvyContext.popContext()
+    }
+
+    def reportsProgressOfEachDownloadInsteadOfIvyTransferEvents() {
+        def parallelDownloadThread = Collections.synchronizedList([])
+        def recordThread = { parallelDownloadThread << ParallelArtifactDownloader.isParallelDownloadThread() }
+        _ * progressLoggerFactory.start(_, _) >> progressLogger
+
+        when:
+        downloader.download([artifact('a', module('a'), recordThread), artifact('b', module('b'), recordThread)])
+
+        then:
+        2 * artifactProgressLogger.progress({ it.startsWith('Downloading ') })
+        2 * artifactProgressLogger.completed()
+        parallelDownloadThread == [true, true]
+        !ParallelArtifactDownloader.isParallelDownloadThread()
+    }
+
+    def downloadsInCallerThreadWhenLimitedToOneDownload() {
+        def downloader = new ParallelArtifactDownloader(new DefaultExecutorFactory(), progressLoggerFactory, 1)
+        def thread = Thread.currentThread()
+        def assertCallerThread = { assert Thread.currentThread() == thread }
+
+        when:
+        downloader.download([artifact('a', module('a'), assertCallerThread), artifact('b', module('b'), assertCallerThread)])
+
+        then:
+        downloaded == ['a', 'b']
+        0 * progressLoggerFactory._
+    }
+
+    def rejectsLessThanOneDownload() {
+        when:
+        new ParallelArtifactDownloader(new DefaultExecutorFactory(), progressLoggerFactory, 0)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private ResolvedDependency module(String name) {
+        return [getModuleGroup: { 'group' }, getModuleName: { name }, getModuleVersion: { '1.0' }] as ResolvedDependency
+    }
+
+    private ResolvedArtifact artifact(String name, ResolvedDependency module, Closure action = {}) {
+        return [getResolvedDependency: { module }, getFile: { action(); downloaded << name; new File(name) }] as ResolvedArtifact
+    }
+}
@@ -29,6 +29,8 @@ import org.gradle.util.TestFile
 import org.gradle.api.file.FileCollection
 import org.gradle.util.ChangeListener
 import org.gradle.api.file.FileTree
+import org.gradle.messaging.concurrent.DefaultExecutorFactory
+import org.gradle.messaging.concurrent.ExecutorFactory
 
 @RunWith(JMock.class)
 public class DefaultFileSnapshotterTest {
@@ -316,6 +318,52 @@ public class DefaultFileSnapshotterTest {
         target.changesSince(snapshotter.snapshot(), listener)
     }
 
+    @Test
+    public void parallelSnapshotIsTheSameAsSerialSnapshot() {
+        List<TestFile> testFiles = (1..100).collect { tmpDir.file("file$it").write("content $it") }
+        DefaultFileSnapshotter parallelSnapshotter = new DefaultFileSnapshotter(hasher, new DefaultExecutorFactory(), 4)
+
+        FileCollectionSnapshot snapshot = snapshotter.snapshot(files(testFiles as File[]))
+        FileCollectionSnapshot parallelSnapshot = parallelSnapshotter.snapshot(files(testFiles as File[]))
+
+        assertThat(parallelSnapshot.files.files, equalTo(snapshot.files.files))
+        parallelSnapshot.changesSince(snapshot, listener)
+    }
+
+    @Test
+    public void parallelSnapshotDetectsChangedFile() {
+        List<TestFile> testFiles = (1..100).collect { tmpDir.file("file$it").write("content $it") }
+        DefaultFileSnapshotter parallelSnapshotter = new DefaultFileSnapshotter(hasher, new DefaultExecutorFactory(), 4)
+
+        FileCollectionSnapshot snapshot = parallelSnapshotter.snapshot(files(testFiles as File[]))
+
+        testFiles[57].write('new content')
+
+        context.checking {
+            one(listener).changed(testFiles[57])
+        }
+        parallelSnapshotter.snapshot(files(testFiles as File[])).changesSince(snapshot, listener)
+    }
+
+    @Test
+    public void reusesExecutorForSubsequentParallelSnapshots() {
+        List<TestFile> testFiles = (1..100).collect { tmpDir.file("file$it").write("content $it") }
+        ExecutorFactory executorFactory = context.mock(ExecutorFactory.class)
+        DefaultExecutorFactory delegate = new DefaultExecutorFactory()
+
+        context.checking {
+            one(executorFactory).create('Hash files')
+            will(returnValue(delegate.create('Hash files')))
+        }
+
+        DefaultFileSnapshotter parallelSnapshotter = new DefaultFileSnapshotter(hasher, executorFactory, 4)
+        FileCollectionSnapshot snapshot = parallelSnapshotter.snapshot(files(testFiles as File[]))
+        FileCollectionSnapshot secondSnapshot = parallelSnapshotter.snapshot(files(testFiles as File[]))
+        parallelSnapshotter.stop()
+
+        secondSnapshot.changesSince(snapshot, listener)
+    }
+
     private FileCollection files(File... files) {
         FileTree collection = context.mock(FileTree.class)
         context.checking {
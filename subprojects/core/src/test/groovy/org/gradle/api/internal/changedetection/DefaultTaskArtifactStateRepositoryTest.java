@@ -24,13 +24,17 @@ import org.gradle.cache.*;
 import org.gradle.util.*;
 import org.hamcrest.Matcher;
 import org.jmock.Expectations;
+import org.jmock.api.Invocation;
 import org.jmock.integration.junit4.JMock;
 import org.jmock.integration.junit4.JUnit4Mockery;
+import org.jmock.lib.action.CustomAction;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.util.*;
 
@@ -579,7 +583,11 @@ public class DefaultTaskArtifactStateRepositoryTest {
             will(returnValue(persistentCache));
             
             one(persistentCache).openIndexedCache(with(notNullValue(Serializer.class)));
-            will(returnValue(new TestIndexedCache()));
+            will(new CustomAction("open indexed cache") {
+                public Object invoke(Invocation invocation) throws Throwable {
+                    return new TestIndexedCache((Serializer<Object>) invocation.getParameter(0));
+                }
+            });
         }});
     }
 
@@ -668,13 +676,44 @@ public class DefaultTaskArtifactStateRepositoryTest {
 
     public static class TestIndexedCache implements PersistentIndexedCache<Object, Object> {
         Map<Object, Object> entries = new HashMap<Object, Object>();
+        private final Serializer<Object> serializer;
+
+        public TestIndexedCache() {
+            this(null);
+        }
+
+        /**
+         * Creates a cache which stores the serialized form of each value, so that values round-trip through the given
+         * serializer.
+         */
+        public TestIndexedCache(Serializer<Object> serializer) {
+            this.serializer = serializer;
+        }
 
         public Object get(Object key) {
-            return entries.get(key);
+            Object value = entries.get(key);
+            if (value == null || serializer == null) {
+                return value;
+            }
+            try {
+                return serializer.read(new ByteArrayInputStream((byte[]) value));
+            } catch (Exception e) {
+                throw UncheckedException.asUncheckedException(e);
+            }
         }
 
         public void put(Object key, Object value) {
-            entries.put(key, value);
+            if (serializer == null) {
+                entries.put(key, value);
+                return;
+            }
+            try {
+                ByteArrayOutputStream outstr = new ByteArrayOutputStream();
+                serializer.write(outstr, value);
+                entries.put(key, outstr.toByteArray());
+            } catch (Exception e) {
+                throw UncheckedException.asUncheckedException(e);
+            }
         }
 
         public void remove(Object key) {
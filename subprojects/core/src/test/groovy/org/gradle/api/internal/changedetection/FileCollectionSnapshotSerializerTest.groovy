@@ -0,0 +1,166 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.changedetection
+
+import org.gradle.api.file.FileCollection
+import org.gradle.api.file.FileTree
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.CacheRepository
+import org.gradle.cache.PersistentCache
+import org.gradle.util.ChangeListener
+import org.gradle.util.JUnit4GroovyMockery
+import org.gradle.util.RandomLongIdGenerator
+import org.gradle.util.TemporaryFolder
+import org.gradle.util.TestFile
+import org.jmock.integration.junit4.JMock
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+
+@RunWith(JMock.class)
+public class FileCollectionSnapshotSerializerTest {
+    private final JUnit4GroovyMockery context = new JUnit4GroovyMockery()
+    private final ChangeListener listener = context.mock(ChangeListener.class)
+    private final DefaultFileSnapshotter snapshotter = new DefaultFileSnapshotter(new DefaultHasher())
+    private final FileCollectionSnapshotSerializer serializer = new FileCollectionSnapshotSerializer()
+    @Rule
+    public final TemporaryFolder tmpDir = new TemporaryFolder()
+
+    @Test
+    public void canReadAndWriteFileCollectionSnapshot() {
+        TestFile file1 = tmpDir.createFile('some/dir/file1').write('content 1')
+        TestFile file2 = tmpDir.createFile('some/dir/file2').write('content 2')
+        TestFile dir = tmpDir.createDir('some/other')
+        TestFile missing = tmpDir.file('some/missing')
+
+        FileCollectionSnapshot original = snapshotter.snapshot(files(file1, file2, dir, missing))
+        FileCollectionSnapshot copy = roundTrip(original)
+
+        assertThat(copy.files.files, equalTo([file1, file2] as Set))
+        copy.changesSince(original, listener)
+        original.changesSince(copy, listener)
+    }
+
+    @Test
+    public void readSnapshotDetectsChangedFiles() {
+        TestFile file = tmpDir.createFile('file').write('content')
+
+        FileCollectionSnapshot copy = roundTrip(snapshotter.snapshot(files(file)))
+        file.write('new content')
+
+        context.checking {
+            one(listener).changed(file)
+        }
+        snapshotter.snapshot(files(file)).changesSince(copy, listener)
+    }
+
+    @Test
+    public void canReadAndWriteFileMetadataSnapshot() {
+        TestFile oldFile = tmpDir.createFile('some/dir/file1').write('content 1')
+        oldFile.setLastModified(System.currentTimeMillis() - 100000)
+        TestFile newFile = tmpDir.createFile('some/dir/file2').write('content 2')
+        FileMetadataSnapshotter metadataSnapshotter = new FileMetadataSnapshotter(new DefaultHasher(), null, 1)
+
+        FileCollectionSnapshot original = metadataSnapshotter.snapshot(files(oldFile, newFile))
+        FileCollectionSnapshot copy = roundTrip(original)
+
+        assertThat(copy.files.files, equalTo([oldFile, newFile] as Set))
+        metadataSnapshotter.snapshot(files(oldFile, newFile)).changesSince(copy, listener)
+
+        newFile.write('CONTENT 2')
+        newFile.setLastModified(original.snapshots[newFile.absolutePath].lastModified)
+
+        context.checking {
+            one(listener).changed(newFile)
+        }
+        metadataSnapshotter.snapshot(files(oldFile, newFile)).changesSince(copy, listener)
+    }
+
+    @Test
+    public void canReadAndWriteOutputFilesSnapshot() {
+        TestFile outputDir = tmpDir.createDir('output')
+        TestFile file = outputDir.file('file').createFile()
+        TestFile missing = tmpDir.file('missing')
+
+        OutputFilesSnapshotter outputFilesSnapshotter = new OutputFilesSnapshotter(snapshotter, new RandomLongIdGenerator(), cacheRepository())
+        FileCollectionSnapshot original = outputFilesSnapshotter.snapshot(files(outputDir, missing))
+        FileCollectionSnapshot copy = roundTrip(original)
+
+        assertThat(copy.files.files, equalTo([file] as Set))
+        copy.changesSince(original, listener)
+        original.changesSince(copy, listener)
+    }
+
+    @Test
+    public void canReadAndWriteEmptySnapshot() {
+        FileCollectionSnapshot copy = roundTrip(snapshotter.snapshot())
+
+        assertThat(copy.files.files, equalTo([] as Set))
+    }
+
+    @Test
+    public void sharesPathPrefixes() {
+        List<TestFile> testFiles = (1..100).collect { tmpDir.createFile("some/long/directory/path/file$it") }
+
+        FileCollectionSnapshot snapshot = snapshotter.snapshot(files(testFiles as File[]))
+
+        int pathLength = testFiles.inject(0) { sum, file -> sum + file.absolutePath.length() }
+        assertThat(serialize(snapshot).length, lessThan(pathLength))
+    }
+
+    @Test
+    public void readReturnsNullForUnknownVersion() {
+        assertThat(serializer.read(new ByteArrayInputStream([0xAC, 0xED, 0, 5] as byte[])), nullValue())
+    }
+
+    private FileCollectionSnapshot roundTrip(FileCollectionSnapshot snapshot) {
+        return serializer.read(new ByteArrayInputStream(serialize(snapshot)))
+    }
+
+    private byte[] serialize(FileCollectionSnapshot snapshot) {
+        ByteArrayOutputStream outstr = new ByteArrayOutputStream()
+        serializer.write(outstr, snapshot)
+        return outstr.toByteArray()
+    }
+
+    private CacheRepository cacheRepository() {
+        CacheRepository cacheRepository = context.mock(CacheRepository.class)
+        CacheBuilder builder = context.mock(CacheBuilder.class)
+        PersistentCache persistentCache = context.mock(PersistentCache.class)
+        context.checking {
+            allowing(cacheRepository).cache('outputFileStates')
+            will(returnValue(builder))
+            allowing(builder).open()
+            will(returnValue(persistentCache))
+            allowing(persistentCache).openIndexedCache()
+            will(returnValue(new DefaultTaskArtifactStateRepositoryTest.TestIndexedCache()))
+        }
+        return cacheRepository
+    }
+
+    private FileCollection files(File... files) {
+        FileTree collection = context.mock(FileTree.class)
+        context.checking {
+            allowing(collection).getAsFileTree()
+            will(returnValue(collection))
+            allowing(collection).iterator()
+            will(returnIterator(files as List))
+        }
+        return collection
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.changedetection
+
+import org.gradle.api.file.FileCollection
+import org.gradle.api.file.FileTree
+import org.gradle.util.ChangeListener
+import org.gradle.util.JUnit4GroovyMockery
+import org.gradle.util.TemporaryFolder
+import org.gradle.util.TestFile
+import org.gradle.util.TimeProvider
+import org.jmock.integration.junit4.JMock
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+
+@RunWith(JMock.class)
+public class FileMetadataSnapshotterTest {
+    private final JUnit4GroovyMockery context = new JUnit4GroovyMockery()
+    private final ChangeListener listener = context.mock(ChangeListener.class)
+    private final Hasher hasher = context.mock(Hasher.class)
+    private long now = System.currentTimeMillis()
+    private final TimeProvider timeProvider = { now } as TimeProvider
+    private final FileMetadataSnapshotter snapshotter = new FileMetadataSnapshotter(hasher, null, 1, timeProvider)
+    @Rule
+    public final TemporaryFolder tmpDir = new TemporaryFolder()
+
+    @Test
+    public void getFilesReturnsOnlyTheFilesWhichExisted() {
+        TestFile file = oldFile('file1', 'content')
+        TestFile dir = tmpDir.createDir('file2')
+        TestFile noExist = tmpDir.file('file3')
+
+        FileCollectionSnapshot snapshot = snapshotter.snapshot(files(file, dir, noExist))
+
+        assertThat(snapshot.files.files as List, equalTo([file]))
+    }
+
+    @Test
+    public void doesNotHashFilesWithUnambiguousTimestamp() {
+        TestFile file = oldFile('file', 'content')
+
+        FileCollectionSnapshot snapshot = snapshotter.snapshot(files(file))
+
+        snapshotter.snapshot(files(file)).changesSince(snapshot, listener)
+    }
+
+    @Test
+    public void hashesFilesWithAmbiguousTimestamp() {
+        TestFile file = oldFile('file', 'content')
+        now = file.lastModified()
+
+        context.checking {
+            one(hasher).hash(file)
+            will(returnValue([1, 2] as byte[]))
+        }
+
+        snapshotter.snapshot(files(file))
+    }
+
+    @Test
+    public void notifiesListenerWhenFileLengthChanges() {
+        TestFile file = oldFile('file', 'content')
+
+        FileCollectionSnapshot snapshot = snapshotter.snapshot(files(file))
+        long lastModified = file.lastModified()
+        file.write('new content')
+        file.setLastModified(lastModified)
+
+        context.checking {
+            one(listener).changed(file)
+        }
+        snapshotter.snapshot(files(file)).changesSince(snapshot, listener)
+    }
+
+    @Test
+    public void notifiesListenerWhenFileTimestampChanges() {
+        TestFile file = oldFile('file', 'content')
+
+        FileCollectionSnapshot snapshot = snapshotter.snapshot(files(file))
+        file.setLastModified(file.lastModified() - 10000)
+
+        context.checking {
+            one(listener).changed(file)
+        }
+        snapshotter.snapshot(files(file)).changesSince(snapshot, listener)
+    }
+
+    @Test
+    public void notifiesListenerWhenFileWithAmbiguousTimestampChangesWithoutChangingLengthOrTimestamp() {
+        FileMetadataSnapshotter hashingSnapshotter = new FileMetadataSnapshotter(new DefaultHasher(), null, 1, timeProvider)
+        TestFile file = oldFile('file', 'content')
+        long lastModified = file.lastModified()
+        now = lastModified
+
+        FileCollectionSnapshot snapshot = hashingSnapshotter.snapshot(files(file))
+        file.write('CONTENT')
+        file.setLastModified(lastModified)
+        now = lastModified + 10000
+
+        context.checking {
+            one(listener).changed(file)
+        }
+        hashingSnapshotter.snapshot(files(file)).changesSince(snapshot, listener)
+    }
+
+    @Test
+    public void fileWithAmbiguousTimestampHasNotChangedWhenContentHasNotChanged() {
+        FileMetadataSnapshotter hashingSnapshotter = new FileMetadataSnapshotter(new DefaultHasher(), null, 1, timeProvider)
+        TestFile file = oldFile('file', 'content')
+        now = file.lastModified()
+
+        FileCollectionSnapshot snapshot = hashingSnapshotter.snapshot(files(file))
+        now += 10000
+
+        hashingSnapshotter.snapshot(files(file)).changesSince(snapshot, listener)
+    }
+
+    @Test
+    public void comparesContentWithSnapshotContainingHash() {
+        FileMetadataSnapshotter hashingSnapshotter = new FileMetadataSnapshotter(new DefaultHasher(), null, 1, timeProvider)
+        TestFile file = oldFile('file', 'content')
+
+        FileCollectionSnapshot snapshot = new DefaultFileSnapshotter(new DefaultHasher()).snapshot(files(file))
+        hashingSnapshotter.snapshot(files(file)).changesSince(snapshot, listener)
+
+        file.write('new content')
+
+        context.checking {
+            one(listener).changed(file)
+        }
+        hashingSnapshotter.snapshot(files(file)).changesSince(snapshot, listener)
+    }
+
+    private TestFile oldFile(String path, String content) {
+        TestFile file = tmpDir.createFile(path).write(content)
+        file.setLastModified(now - 100000)
+        return file
+    }
+
+    private FileCollection files(File... files) {
+        FileTree collection = context.mock(FileTree.class)
+        context.checking {
+            allowing(collection).getAsFileTree()
+            will(returnValue(collection))
+            allowing(collection).iterator()
+            will(returnIterator(files as List))
+        }
+        return collection
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.changedetection;
+
+import org.gradle.util.TemporaryFolder;
+import org.gradle.util.TestFile;
+import org.jmock.Expectations;
+import org.jmock.integration.junit4.JMock;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+@RunWith(JMock.class)
+public class InMemoryCachingHasherTest {
+    @Rule
+    public TemporaryFolder tmpDir = new TemporaryFolder();
+    private final JUnit4Mockery context = new JUnit4Mockery();
+    private final Hasher delegate = context.mock(Hasher.class);
+    private final InMemoryFileHashCache cache = new InMemoryFileHashCache(2);
+    private final InMemoryCachingHasher hasher = new InMemoryCachingHasher(delegate, cache);
+    private final byte[] hash = "hash".getBytes();
+    private final TestFile file = tmpDir.createFile("testfile").write("content");
+
+    @Test
+    public void hashesFileWhenHashNotCached() {
+        context.checking(new Expectations() {{
+            one(delegate).hash(file);
+            will(returnValue(hash));
+        }});
+
+        assertThat(hasher.hash(file), sameInstance(hash));
+        assertThat(hasher.getHits(), equalTo(0L));
+        assertThat(hasher.getMisses(), equalTo(1L));
+    }
+
+    @Test
+    public void doesNotHashFileWhenTimestampAndLengthHaveNotChanged() {
+        context.checking(new Expectations() {{
+            one(delegate).hash(file);
+            will(returnValue(hash));
+        }});
+
+        hasher.hash(file);
+
+        assertThat(hasher.hash(file), sameInstance(hash));
+        assertThat(hasher.getHits(), equalTo(1L));
+        assertThat(hasher.getMisses(), equalTo(1L));
+    }
+
+    @Test
+    public void hashesFileWhenLengthHasChanged() {
+        final byte[] newHash = "new hash".getBytes();
+        context.checking(new Expectations() {{
+            one(delegate).hash(file);
+            will(returnValue(hash));
+        }});
+
+        hasher.hash(file);
+
+        long timestamp = file.lastModified();
+        file.write("new content");
+        file.setLastModified(timestamp);
+
+        context.checking(new Expectations() {{
+            one(delegate).hash(file);
+            will(returnValue(newHash));
+        }});
+
+        assertThat(hasher.hash(file), sameInstance(newHash));
+        assertThat(hasher.getMisses(), equalTo(2L));
+    }
+
+    @Test
+    public void hashesFileWhenTimestampHasChanged() {
+        final byte[] newHash = "new hash".getBytes();
+        context.checking(new Expectations() {{
+            one(delegate).hash(file);
+            will(returnValue(hash));
+        }});
+
+        hasher.hash(file);
+
+        file.setLastModified(file.lastModified() - 10000);
+
+        context.checking(new Expectations() {{
+            one(delegate).hash(file);
+            will(returnValue(newHash));
+        }});
+
+        assertThat(hasher.hash(file), sameInstance(newHash));
+        assertThat(hasher.getMisses(), equalTo(2L));
+    }
+
+    @Test
+    public void cacheIsSharedBetweenHashers() {
+        context.checking(new Expectations() {{
+            one(delegate).hash(file);
+            will(returnValue(hash));
+        }});
+
+        hasher.hash(file);
+
+        InMemoryCachingHasher other = new InMemoryCachingHasher(delegate, cache);
+        assertThat(other.hash(file), sameInstance(hash));
+        assertThat(other.getHits(), equalTo(1L));
+    }
+
+    @Test
+    public void discardsLeastRecentlyUsedEntriesWhenFull() {
+        final TestFile file2 = tmpDir.createFile("file2").write("content");
+        final TestFile file3 = tmpDir.createFile("file3").write("content");
+        context.checking(new Expectations() {{
+            exactly(2).of(delegate).hash(file);
+            will(returnValue(hash));
+            one(delegate).hash(file2);
+            will(returnValue(hash));
+            one(delegate).hash(file3);
+            will(returnValue(hash));
+        }});
+
+        hasher.hash(file);
+        hasher.hash(file2);
+        hasher.hash(file3);
+        hasher.hash(file);
+
+        assertThat(cache.getSize(), equalTo(2));
+    }
+}
@@ -55,6 +55,24 @@ public class AbstractFileTreeElementTest {
         dest.assertIsFile();
         assertThat(dest.getText(), equalTo("content"));
     }
+
+    @Test
+    public void fileBackedElementCanCopyToFile() {
+        TestFile src = tmpDir.file("src");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            content.append("line ").append(i).append('\n');
+        }
+        src.write(content);
+        src.setLastModified(src.lastModified() - 10000);
+        TestFile dest = tmpDir.file("dir/dest");
+
+        new DefaultFileTreeElement(src, new RelativePath(true, "src")).copyTo(dest);
+
+        dest.assertIsFile();
+        assertThat(dest.getText(), equalTo(content.toString()));
+        assertThat(dest.lastModified(), equalTo(src.lastModified()));
+    }
     
     private class TestFileTreeElement extends AbstractFileTreeElement {
         private final TestFile file;
@@ -16,10 +16,15 @@
 package org.gradle.api.internal.file;
 
 import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.copy.CopySpecVisitor;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.messaging.concurrent.DefaultExecutorFactory;
+import org.gradle.messaging.concurrent.ExecutorFactory;
+import org.gradle.util.TemporaryFolder;
+import org.gradle.util.TestFile;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
@@ -32,6 +37,7 @@ import org.jmock.integration.junit4.JMock;
 import org.jmock.integration.junit4.JUnit4Mockery;
 import org.jmock.lib.legacy.ClassImposteriser;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -40,6 +46,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
 @RunWith(JMock.class)
 public class DefaultDirectoryWalkerTest {
     private JUnit4Mockery context = new JUnit4Mockery() {{
@@ -47,6 +56,8 @@ public class DefaultDirectoryWalkerTest {
     }};
     private CopySpecVisitor visitor;
     private DirectoryWalker walker;
+    @Rule
+    public final TemporaryFolder tmpDir = new TemporaryFolder();
 
     @Before
     public void setUp() {
@@ -179,6 +190,94 @@ public class DefaultDirectoryWalkerTest {
         walker.start(root.getMock());
     }
 
+    @Test public void listsDirectoriesConcurrentlyAndVisitsInSameOrderAsSequentialWalk() {
+        createTree(tmpDir.getDir(), 3);
+        int dirs = 4 + 4 * 4 + 4 * 4 * 4;
+        assertThat(dirs, greaterThan(DefaultDirectoryWalker.MIN_DIRS_TO_LIST_IN_PARALLEL));
+
+        List<String> expected = walk(1, false, -1);
+        assertThat(expected.size(), equalTo(dirs + 3 * (dirs + 1)));
+        assertThat(walk(4, false, -1), equalTo(expected));
+        assertThat(walk(4, true, -1), equalTo(walk(1, true, -1)));
+    }
+
+    @Test public void usesExecutorFactoryOnlyWhenWalkHasEnoughDirectories() {
+        final ExecutorFactory executorFactory = context.mock(ExecutorFactory.class);
+        final DefaultExecutorFactory realExecutorFactory = new DefaultExecutorFactory();
+        FileVisitor visitor = new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+            }
+        };
+        createTree(tmpDir.getDir().file("small"), 1);
+        createTree(tmpDir.getDir().file("large"), 3);
+
+        try {
+            new DefaultDirectoryWalker(visitor, executorFactory, 4).start(tmpDir.getDir().file("small"));
+
+            context.checking(new Expectations() {{
+                one(executorFactory).create("List directories");
+                will(returnValue(realExecutorFactory.create("List directories")));
+            }});
+
+            new DefaultDirectoryWalker(visitor, executorFactory, 4).start(tmpDir.getDir().file("large"));
+        } finally {
+            realExecutorFactory.stop();
+        }
+    }
+
+    @Test public void canStopVisitWhenListingDirectoriesConcurrently() {
+        createTree(tmpDir.getDir(), 3);
+
+        List<String> expected = walk(1, false, 50);
+        assertThat(expected.size(), equalTo(50));
+        assertThat(walk(4, false, 50), equalTo(expected));
+    }
+
+    private void createTree(TestFile dir, int depth) {
+        for (int i = 0; i < 3; i++) {
+            dir.file("file" + i).createFile();
+        }
+        if (depth == 0) {
+            return;
+        }
+        for (int i = 0; i < 4; i++) {
+            createTree(dir.file("dir" + i), depth - 1);
+        }
+    }
+
+    private List<String> walk(int maxThreads, boolean depthFirst, final int stopAfter) {
+        final List<String> visited = new ArrayList<String>();
+        DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+        DefaultDirectoryWalker walker = new DefaultDirectoryWalker(new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+                visit(dirDetails);
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+                visit(fileDetails);
+            }
+
+            private void visit(FileVisitDetails details) {
+                visited.add(details.getRelativePath().getPathString());
+                if (visited.size() == stopAfter) {
+                    details.stopVisiting();
+                }
+            }
+        }, executorFactory, maxThreads);
+        if (depthFirst) {
+            walker.depthFirst();
+        }
+        try {
+            walker.start(tmpDir.getDir());
+        } finally {
+            executorFactory.stop();
+        }
+        return visited;
+    }
+
     private Action stopVisiting() {
         return new Action() {
             public void describeTo(Description description) {
@@ -24,6 +24,7 @@ import org.gradle.api.tasks.StopExecutionException
 import org.gradle.api.tasks.util.AbstractTestForPatternSet
 import org.gradle.api.tasks.util.PatternFilterable
 import org.gradle.api.tasks.util.PatternSet
+import org.gradle.messaging.concurrent.DefaultExecutorFactory
 import org.gradle.util.JUnit4GroovyMockery
 import org.gradle.util.TemporaryFolder
 import org.gradle.util.WrapUtil
@@ -106,6 +107,28 @@ class FileSetTest extends AbstractTestForPatternSet {
         assertVisits(fileSet, ['subDir/included1', 'subDir2/included2'], ['subDir', 'subDir2'])
     }
 
+    @Test public void testCanVisitFilesUsingMultipleThreadsToListDirectories() {
+        DefaultExecutorFactory executorFactory = new DefaultExecutorFactory()
+        fileSet = new DefaultConfigurableFileTree([dir: testDir], fileResolverStub, taskResolverStub, new DirectoryWalkerFactory(executorFactory, 4))
+        List<String> expectedFiles = []
+        List<String> expectedDirs = []
+        (1..DefaultDirectoryWalker.MIN_DIRS_TO_LIST_IN_PARALLEL * 2).each {int i ->
+            File file = new File(testDir, "subDir$i/nested/included$i")
+            file.parentFile.mkdirs()
+            file.text = 'some text'
+            expectedFiles << "subDir$i/nested/included$i".toString()
+            expectedDirs << "subDir$i".toString()
+            expectedDirs << "subDir$i/nested".toString()
+        }
+
+        try {
+            assertVisits(fileSet, expectedFiles, expectedDirs)
+            assertThat(fileSet.matching {include '**/included1'}.files, equalTo([new File(testDir, 'subDir1/nested/included1')] as Set))
+        } finally {
+            executorFactory.stop()
+        }
+    }
+
     @Test public void testCanStopVisitingFiles() {
         File included1 = new File(testDir, 'subDir/included1')
         File included2 = new File(testDir, 'subDir/otherDir/included2')
@@ -121,6 +121,32 @@ public class RelativePathTest {
         assertThat(new RelativePath(false).getParent(), nullValue());
     }
 
+    @Test
+    public void childrenShareTheParentDirectoryPath() {
+        RelativePath dir = new RelativePath(false, "a", "b");
+        assertThat(dir.append(true, "c").getParent(), sameInstance(dir));
+        assertThat(dir.append(false, "c", "d").getParent().getParent(), sameInstance(dir));
+
+        RelativePath parent = new RelativePath(true, "a").append(true, "b").getParent();
+        assertPathContains(parent, false, "a");
+    }
+
+    @Test
+    public void pathsBuiltInDifferentWaysAreEqual() {
+        RelativePath path = new RelativePath(true, "a", "b", "c");
+        assertThat(new RelativePath(false, "a").append(true, "b", "c"), strictlyEqual(path));
+        assertThat(RelativePath.parse(true, "a/b/c"), strictlyEqual(path));
+        assertThat(new RelativePath(true, "c").prepend("a", "b"), strictlyEqual(path));
+        assertThat(new RelativePath(true, "a", "x", "c"), not(equalTo(path)));
+    }
+
+    @Test
+    public void canGetPathString() {
+        assertThat(new RelativePath(true, "a", "b", "c").getPathString(), equalTo("a/b/c"));
+        assertThat(new RelativePath(false, "a").append(true, "b").getPathString(), equalTo("a/b"));
+        assertThat(new RelativePath(false).getPathString(), equalTo(""));
+    }
+
     @Test
     public void canReplaceLastName() {
         assertPathContains(new RelativePath(true, "old").replaceLastName("new"), true, "new");
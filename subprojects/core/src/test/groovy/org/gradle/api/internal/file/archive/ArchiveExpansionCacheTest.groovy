@@ -0,0 +1,127 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive
+
+import org.gradle.api.file.FileTree
+import org.gradle.api.internal.changedetection.DefaultHasher
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.CacheRepository
+import org.gradle.cache.PersistentCache
+import org.gradle.util.TemporaryFolder
+import org.gradle.util.TestFile
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.hamcrest.Matchers.equalTo
+
+class ArchiveExpansionCacheTest extends Specification {
+    @Rule
+    public final TemporaryFolder tmpDir = new TemporaryFolder()
+    private final CacheRepository cacheRepository = Mock()
+    private final CacheBuilder cacheBuilder = Mock()
+    private final PersistentCache persistentCache = Mock()
+    private final TestFile cacheDir = tmpDir.createDir('cache')
+    private final TestFile rootDir = tmpDir.createDir('root')
+    private ArchiveExpansionCache cache
+
+    def setup() {
+        _ * cacheRepository.cache('expandedArchives') >> cacheBuilder
+        _ * cacheBuilder.open() >> persistentCache
+        _ * persistentCache.baseDir >> cacheDir
+        _ * persistentCache.valid >> true
+        cache = new ArchiveExpansionCache(cacheRepository, new DefaultHasher())
+    }
+
+    def expandsArchiveIntoCache() {
+        rootDir.file('subdir/file1.txt').write('content')
+        TestFile zipFile = tmpDir.file('test.zip')
+        rootDir.zipTo(zipFile)
+
+        when:
+        def expandedDir = new TestFile(cache.expand('zip', zipFile, new ZipFileTree(zipFile, tmpDir.file('tmp'))))
+
+        then:
+        expandedDir.parentFile == cacheDir
+        expandedDir.file('subdir/file1.txt').assertContents(equalTo('content'))
+        cacheDir.list() as List == [expandedDir.name]
+    }
+
+    def reusesExpandedArchiveWithSameContent() {
+        FileTree contents = Mock()
+        rootDir.file('subdir/file1.txt').write('content')
+        TestFile zipFile = tmpDir.file('test.zip')
+        rootDir.zipTo(zipFile)
+        TestFile copy = tmpDir.file('other/copy.zip')
+        zipFile.copyTo(copy)
+        def expandedDir = cache.expand('zip', zipFile, new ZipFileTree(zipFile, tmpDir.file('tmp')))
+
+        when:
+        def result = cache.expand('zip', copy, contents)
+
+        then:
+        result == expandedDir
+        0 * contents._
+    }
+
+    def expandsArchiveAgainWhenContentChanges() {
+        rootDir.file('subdir/file1.txt').write('content')
+        TestFile zipFile = tmpDir.file('test.zip')
+        rootDir.zipTo(zipFile)
+        def expandedDir = cache.expand('zip', zipFile, new ZipFileTree(zipFile, tmpDir.file('tmp')))
+
+        when:
+        rootDir.file('subdir/file1.txt').write('new content')
+        zipFile.delete()
+        rootDir.zipTo(zipFile)
+        def result = new TestFile(cache.expand('zip', zipFile, new ZipFileTree(zipFile, tmpDir.file('tmp'))))
+
+        then:
+        result != expandedDir
+        result.file('subdir/file1.txt').assertContents(equalTo('new content'))
+    }
+
+    def zipTreeUsesCacheToLookUpEntries() {
+        rootDir.file('subdir/file1.txt').write('content')
+        TestFile zipFile = tmpDir.file('test.zip')
+        rootDir.zipTo(zipFile)
+        def tree = new ZipFileTree(zipFile, tmpDir.file('tmp'), cache)
+
+        when:
+        def file = tree.getEntryFile('subdir/file1.txt')
+
+        then:
+        file.parentFile.parentFile.parentFile == cacheDir
+        tree.getEntryFile('subdir/missing.txt') == null
+        tree.files == [file] as Set
+        !tmpDir.file('tmp').exists()
+    }
+
+    def tarTreeVisitsExpandedArchive() {
+        rootDir.file('subdir/file1.txt').write('content')
+        rootDir.file('subdir2/file2.txt').write('content')
+        TestFile tarFile = tmpDir.file('test.tar')
+        rootDir.tarTo(tarFile)
+        def tree = new TarFileTree(tarFile, tmpDir.file('tmp'), cache)
+
+        when:
+        def paths = []
+        tree.visit { paths << it.relativePath.pathString }
+
+        then:
+        paths as Set == ['subdir', 'subdir/file1.txt', 'subdir2', 'subdir2/file2.txt'] as Set
+        tree.getEntryFile('subdir2/file2.txt').parentFile.parentFile.parentFile == cacheDir
+    }
+}
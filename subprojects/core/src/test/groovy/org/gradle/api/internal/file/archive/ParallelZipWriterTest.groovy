@@ -0,0 +1,146 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive
+
+import java.util.zip.Deflater
+import java.util.zip.DeflaterOutputStream
+import java.util.zip.CRC32
+import org.apache.tools.zip.UnixStat
+import org.gradle.messaging.concurrent.DefaultExecutorFactory
+import org.gradle.util.TemporaryFolder
+import org.junit.Rule
+import spock.lang.Specification
+
+class ParallelZipWriterTest extends Specification {
+    @Rule
+    public final TemporaryFolder tmpDir = new TemporaryFolder()
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory()
+    private final File zipFile = tmpDir.file('test.zip')
+
+    def writesEntriesInTheOrderTheyAreAdded() {
+        def writer = new ParallelZipWriter(zipFile, executorFactory, 4)
+
+        when:
+        writer.putDirectory('dir/', 1000L, UnixStat.DIR_FLAG | 0755)
+        (1..50).each { i ->
+            def outstr = writer.putEntry("dir/file$i", 1000L, UnixStat.FILE_FLAG | 0644)
+            outstr.write("contents of file $i".bytes)
+            outstr.close()
+        }
+        writer.close()
+
+        then:
+        def zip = new java.util.zip.ZipFile(zipFile)
+        zip.entries().collect { it.name } == ['dir/'] + (1..50).collect { "dir/file$it" }
+        (1..50).each { assert zip.getInputStream(zip.getEntry("dir/file$it")).text == "contents of file $it" }
+
+        cleanup:
+        zip?.close()
+    }
+
+    def writesUnixModeOfEntries() {
+        def writer = new ParallelZipWriter(zipFile, executorFactory, 2)
+
+        when:
+        writer.putDirectory('dir/', 1000L, UnixStat.DIR_FLAG | 0700)
+        def outstr = writer.putEntry('dir/file', 1000L, UnixStat.FILE_FLAG | 0640)
+        outstr.close()
+        writer.close()
+
+        then:
+        def zip = new org.apache.tools.zip.ZipFile(zipFile)
+        zip.getEntry('dir/').unixMode == (UnixStat.DIR_FLAG | 0700)
+        zip.getEntry('dir/').directory
+        zip.getEntry('dir/file').unixMode == (UnixStat.FILE_FLAG | 0640)
+
+        cleanup:
+        zip?.close()
+    }
+
+    def writesEntriesLargerThanBufferedEntrySize() {
+        def writer = new ParallelZipWriter(zipFile, executorFactory, 4)
+        byte[] content = new byte[ParallelZipWriter.BUFFERED_ENTRY_SIZE * 2 + 5]
+        new Random(1).nextBytes(content)
+
+        when:
+        addEntry(writer, 'small1', 'small 1'.bytes)
+        addEntry(writer, 'large', content)
+        addEntry(writer, 'small2', 'small 2'.bytes)
+        writer.close()
+
+        then:
+        def zip = new java.util.zip.ZipFile(zipFile)
+        zip.entries().collect { it.name } == ['small1', 'large', 'small2']
+        zip.getInputStream(zip.getEntry('large')).bytes == content
+        zip.getEntry('large').size == content.length
+        zip.getInputStream(zip.getEntry('small2')).text == 'small 2'
+
+        cleanup:
+        zip?.close()
+    }
+
+    def copiesDeflatedContentWithoutRecompressingIt() {
+        def writer = new ParallelZipWriter(zipFile, executorFactory, 4)
+        byte[] content = ('some content ' * 100).bytes
+        byte[] deflated = deflate(content)
+        def crc = new CRC32()
+        crc.update(content)
+
+        when:
+        def outstr = writer.putDeflatedEntry('file', 1000L, UnixStat.FILE_FLAG | 0644, crc.value, content.length, deflated.length)
+        outstr.write(deflated)
+        outstr.close()
+        writer.close()
+
+        then:
+        def zip = new java.util.zip.ZipFile(zipFile)
+        zip.getEntry('file').compressedSize == deflated.length
+        zip.getInputStream(zip.getEntry('file')).bytes == content
+
+        cleanup:
+        zip?.close()
+    }
+
+    def failsWhenDeflatedContentHasUnexpectedSize() {
+        def writer = new ParallelZipWriter(zipFile, executorFactory, 4)
+
+        when:
+        def outstr = writer.putDeflatedEntry('file', 1000L, UnixStat.FILE_FLAG | 0644, 0, 10, 5)
+        outstr.write([1, 2, 3] as byte[])
+        outstr.close()
+
+        then:
+        IOException e = thrown()
+        e.message == 'Expected 5 bytes of deflated content but found 3 bytes.'
+
+        cleanup:
+        writer.abort()
+    }
+
+    private void addEntry(ParallelZipWriter writer, String name, byte[] content) {
+        def outstr = writer.putEntry(name, 1000L, UnixStat.FILE_FLAG | 0644)
+        outstr.write(content)
+        outstr.close()
+    }
+
+    private byte[] deflate(byte[] content) {
+        def bytes = new ByteArrayOutputStream()
+        def outstr = new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_SPEED, true))
+        outstr.write(content)
+        outstr.close()
+        return bytes.toByteArray()
+    }
+}
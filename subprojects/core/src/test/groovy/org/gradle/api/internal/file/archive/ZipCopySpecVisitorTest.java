@@ -18,9 +18,11 @@ package org.gradle.api.internal.file.archive;
 import org.apache.commons.io.IOUtils;
 import org.gradle.api.GradleException;
 import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.copy.ArchiveCopyAction;
 import org.gradle.api.internal.file.copy.ReadableCopySpec;
+import org.gradle.messaging.concurrent.DefaultExecutorFactory;
 import org.gradle.util.TestFile;
 import org.gradle.util.TemporaryFolder;
 import org.hamcrest.Description;
@@ -31,12 +33,18 @@ import org.jmock.api.Invocation;
 import org.jmock.integration.junit4.JMock;
 import org.jmock.integration.junit4.JUnit4Mockery;
 import static org.junit.Assert.*;
+import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 
+import java.io.FileOutputStream;
 import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 @RunWith(JMock.class)
 public class ZipCopySpecVisitorTest {
@@ -45,7 +53,8 @@ public class ZipCopySpecVisitorTest {
     private final JUnit4Mockery context = new JUnit4Mockery();
     private final ArchiveCopyAction copyAction = context.mock(ArchiveCopyAction.class);
     private final ReadableCopySpec copySpec = context.mock(ReadableCopySpec.class);
-    private final ZipCopySpecVisitor visitor = new ZipCopySpecVisitor();
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+    private final ZipCopySpecVisitor visitor = new ZipCopySpecVisitor(executorFactory, 4);
 
     @Before
     public void setUp() {
@@ -57,6 +66,11 @@ public class ZipCopySpecVisitorTest {
         }});
     }
 
+    @After
+    public void tearDown() {
+        executorFactory.stop();
+    }
+
     @Test
     public void createsZipFile() {
         final TestFile zipFile = tmpDir.getDir().file("test.zip");
@@ -81,6 +95,47 @@ public class ZipCopySpecVisitorTest {
         expandDir.file("file2").assertContents(equalTo("contents of file2"));
     }
 
+    @Test
+    public void copiesEntriesOfZipFileWithoutRecompressingThem() throws Exception {
+        final TestFile sourceZip = tmpDir.getDir().file("source.zip");
+        final TestFile zipFile = tmpDir.getDir().file("test.zip");
+        ZipOutputStream sourceOutStr = new ZipOutputStream(new FileOutputStream(sourceZip));
+        sourceOutStr.setLevel(Deflater.NO_COMPRESSION);
+        sourceOutStr.putNextEntry(new ZipEntry("dir/"));
+        sourceOutStr.putNextEntry(new ZipEntry("dir/file1"));
+        IOUtils.write("contents of dir/file1 contents of dir/file1 contents of dir/file1", sourceOutStr);
+        sourceOutStr.close();
+
+        context.checking(new Expectations(){{
+            allowing(copyAction).getArchivePath();
+            will(returnValue(zipFile));
+        }});
+
+        visitor.startVisit(copyAction);
+        visitor.visitSpec(copySpec);
+        new ZipFileTree(sourceZip, tmpDir.getDir().file("tmp")).visit(new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+                visitor.visitDir(dirDetails);
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+                visitor.visitFile(fileDetails);
+            }
+        });
+        visitor.endVisit();
+
+        ZipFile source = new ZipFile(sourceZip);
+        ZipFile copy = new ZipFile(zipFile);
+        try {
+            assertThat(copy.getEntry("dir/file1").getCompressedSize(), equalTo(source.getEntry("dir/file1").getCompressedSize()));
+            assertThat(IOUtils.toString(copy.getInputStream(copy.getEntry("dir/file1"))), equalTo("contents of dir/file1 contents of dir/file1 contents of dir/file1"));
+            assertTrue(copy.getEntry("dir/").isDirectory());
+        } finally {
+            source.close();
+            copy.close();
+        }
+    }
+
     @Test
     public void wrapsFailureToOpenOutputFile() {
         final TestFile zipFile = tmpDir.createDir("test.zip");
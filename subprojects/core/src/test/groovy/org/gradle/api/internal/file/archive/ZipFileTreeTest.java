@@ -68,6 +68,17 @@ public class ZipFileTreeTest {
         assertSetContainsForAllTypes(tree, EMPTY_LIST);
     }
 
+    @Test
+    public void canLookUpSingleEntry() {
+        rootDir.file("subdir/file1.txt").write("content");
+        rootDir.file("subdir2/file2.txt").write("other content");
+        rootDir.zipTo(zipFile);
+
+        TestFile file = new TestFile(tree.getEntryFile("subdir2/file2.txt"));
+        file.assertContents(equalTo("other content"));
+        assertThat(tree.getEntryFile("subdir/missing.txt"), nullValue());
+    }
+
     @Test
     public void failsWhenZipFileIsADirectory() {
         zipFile.createDir();
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.archive;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.tools.zip.UnixStat;
+import org.apache.tools.zip.ZipEntry;
+import org.apache.tools.zip.ZipOutputStream;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.messaging.concurrent.DefaultExecutorFactory;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Compares the time taken to write a ZIP file using the Ant {@link ZipOutputStream} previously used by the Zip, Jar
+ * and War tasks, and using {@link ParallelZipWriter}. Also compares the time taken to copy the entries of an existing
+ * ZIP file into a new one. This is not run as part of the test suite. Run it using {@code main()}, optionally passing
+ * the number of files and the number of threads to use.
+ */
+public class ZipWriterBenchmark {
+    public static void main(String[] args) throws Exception {
+        int files = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        File baseDir = File.createTempFile("zip-writer", "benchmark");
+        baseDir.delete();
+        try {
+            File sourceDir = new File(baseDir, "source");
+            createFiles(sourceDir, files);
+            for (int i = 0; i < 3; i++) {
+                File antZip = new File(baseDir, "ant-" + i + ".zip");
+                long start = System.nanoTime();
+                writeWithAnt(sourceDir, antZip);
+                report("ant", "write", files, start);
+
+                start = System.nanoTime();
+                writeInParallel(sourceDir, new File(baseDir, "parallel-" + i + ".zip"), threads);
+                report(String.format("parallel (%d threads)", threads), "write", files, start);
+
+                start = System.nanoTime();
+                repackWithAnt(antZip, new File(baseDir, "ant-repack-" + i + ".zip"), new File(baseDir, "tmp"));
+                report("ant", "repack", files, start);
+
+                start = System.nanoTime();
+                repackInParallel(antZip, new File(baseDir, "parallel-repack-" + i + ".zip"), new File(baseDir, "tmp"), threads);
+                report(String.format("parallel (%d threads)", threads), "repack", files, start);
+            }
+        } finally {
+            GFileUtils.deleteDirectory(baseDir);
+        }
+    }
+
+    private static void report(String name, String operation, int files, long start) {
+        long time = System.nanoTime() - start;
+        System.out.println(String.format("%s: %s %d files in %.0f ms", name, operation, files, time / 1e6));
+    }
+
+    private static void createFiles(File sourceDir, int files) {
+        Random random = new Random(1);
+        for (int i = 0; i < files; i++) {
+            StringBuilder content = new StringBuilder();
+            int lines = 10 + random.nextInt(1000);
+            for (int j = 0; j < lines; j++) {
+                content.append("    public void method").append(random.nextInt(100)).append("() { return ")
+                        .append(random.nextLong()).append("; }\n");
+            }
+            GFileUtils.writeStringToFile(new File(sourceDir, String.format("dir%d/File%d.java", i % 20, i)),
+                    content.toString());
+        }
+    }
+
+    private static void copy(File file, OutputStream outstr) throws IOException {
+        FileInputStream instr = new FileInputStream(file);
+        try {
+            IOUtils.copy(instr, outstr);
+        } finally {
+            instr.close();
+        }
+    }
+
+    private static void writeWithAnt(File sourceDir, File zipFile) throws IOException {
+        ZipOutputStream zipOutStr = new ZipOutputStream(zipFile);
+        try {
+            for (File dir : sourceDir.listFiles()) {
+                for (File file : dir.listFiles()) {
+                    ZipEntry archiveEntry = new ZipEntry(dir.getName() + '/' + file.getName());
+                    archiveEntry.setMethod(ZipEntry.DEFLATED);
+                    archiveEntry.setTime(file.lastModified());
+                    archiveEntry.setUnixMode(UnixStat.FILE_FLAG | 0644);
+                    zipOutStr.putNextEntry(archiveEntry);
+                    copy(file, zipOutStr);
+                    zipOutStr.closeEntry();
+                }
+            }
+        } finally {
+            zipOutStr.close();
+        }
+    }
+
+    private static void writeInParallel(File sourceDir, File zipFile, int threads) throws IOException {
+        ParallelZipWriter writer = new ParallelZipWriter(zipFile, new DefaultExecutorFactory(), threads);
+        for (File dir : sourceDir.listFiles()) {
+            for (File file : dir.listFiles()) {
+                OutputStream outstr = writer.putEntry(dir.getName() + '/' + file.getName(), file.lastModified(),
+                        UnixStat.FILE_FLAG | 0644);
+                copy(file, outstr);
+                outstr.close();
+            }
+        }
+        writer.close();
+    }
+
+    private static void repackWithAnt(File source, File zipFile, File tmpDir) throws IOException {
+        final ZipOutputStream zipOutStr = new ZipOutputStream(zipFile);
+        try {
+            new ZipFileTree(source, tmpDir).visit(new FileVisitor() {
+                public void visitDir(FileVisitDetails dirDetails) {
+                }
+
+                public void visitFile(FileVisitDetails fileDetails) {
+                    try {
+                        ZipEntry archiveEntry = new ZipEntry(fileDetails.getRelativePath().getPathString());
+                        archiveEntry.setMethod(ZipEntry.DEFLATED);
+                        archiveEntry.setTime(fileDetails.getLastModified());
+                        archiveEntry.setUnixMode(UnixStat.FILE_FLAG | 0644);
+                        zipOutStr.putNextEntry(archiveEntry);
+                        fileDetails.copyTo(zipOutStr);
+                        zipOutStr.closeEntry();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+        } finally {
+            zipOutStr.close();
+        }
+    }
+
+    private static void repackInParallel(File source, File zipFile, File tmpDir, int threads) throws IOException {
+        final ParallelZipWriter writer = new ParallelZipWriter(zipFile, new DefaultExecutorFactory(), threads);
+        new ZipFileTree(source, tmpDir).visit(new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+                try {
+                    DeflatedZipEntry entry = (DeflatedZipEntry) fileDetails;
+                    OutputStream outstr = writer.putDeflatedEntry(fileDetails.getRelativePath().getPathString(),
+                            fileDetails.getLastModified(), UnixStat.FILE_FLAG | 0644, entry.getCrc(),
+                            entry.getSize(), entry.getCompressedSize());
+                    entry.copyDeflatedContentTo(outstr);
+                    outstr.close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        writer.close();
+    }
+}
@@ -64,6 +64,44 @@ public class FileCopySpecVisitorTest {
         visitor.visitFile(file(new RelativePath(true, "subdir", "anotherfile.txt"), new File(destDir, "subdir/anotherfile.txt")));
     }
 
+    @Test
+    public void incrementalCopySkipsFileWithSameSizeAndModificationTime() {
+        final TestFile target = tmpDir.getDir().file("dest/file.txt").write("content");
+        final FileVisitDetails details = file(new RelativePath(true, "file.txt"));
+        context.checking(new Expectations(){{
+            allowing(details).getSize();
+            will(returnValue(target.length()));
+            allowing(details).getLastModified();
+            will(returnValue(target.lastModified()));
+        }});
+
+        visitor.startVisit(action(destDir, true));
+        visitor.visitFile(details);
+
+        assertFalse(visitor.getDidWork());
+    }
+
+    @Test
+    public void incrementalCopyCopiesFileWithDifferentModificationTime() {
+        final TestFile target = tmpDir.getDir().file("dest/file.txt").write("content");
+        final FileVisitDetails details = file(new RelativePath(true, "file.txt"), target);
+        context.checking(new Expectations(){{
+            allowing(details).getSize();
+            will(returnValue(target.length()));
+            allowing(details).getLastModified();
+            will(returnValue(target.lastModified() - 2000));
+        }});
+
+        visitor.startVisit(action(destDir, true));
+        visitor.visitFile(details);
+    }
+
+    @Test
+    public void incrementalCopyCopiesFileWhichDoesNotExist() {
+        visitor.startVisit(action(destDir, true));
+        visitor.visitFile(file(new RelativePath(true, "file.txt"), new File(destDir, "file.txt")));
+    }
+
     @Test
     public void testThrowsExceptionWhenNoDestinationSet() {
         try {
@@ -75,10 +113,16 @@ public class FileCopySpecVisitorTest {
     }
 
     private FileCopyAction action(final File destDir) {
+        return action(destDir, false);
+    }
+
+    private FileCopyAction action(final File destDir, final boolean incremental) {
         final FileCopyAction action = context.mock(FileCopyAction.class);
         context.checking(new Expectations(){{
             allowing(action).getDestinationDir();
             will(returnValue(destDir));
+            allowing(action).isIncremental();
+            will(returnValue(incremental));
         }});
         return action;
     }
@@ -17,6 +17,8 @@ package org.gradle.api.internal.file.copy;
 
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.TaskExecutionHistory;
+import org.gradle.api.internal.file.SimpleFileCollection;
 import org.gradle.util.TestFile;
 import org.gradle.util.TemporaryFolder;
 import org.jmock.Expectations;
@@ -92,6 +94,39 @@ public class SyncCopySpecVisitorTest {
         destDir.assertHasDescendants();
     }
 
+    @Test
+    public void incrementalSyncDeletesPreviousOutputFilesWhichWereNotCopied() {
+        TestFile destDir = tmpDir.createDir("dest");
+        TestFile included = destDir.file("subdir/included.txt").createFile();
+        TestFile previous = destDir.file("subdir/previous.txt").createFile();
+        TestFile previousInDir = destDir.file("previous/previous.txt").createFile();
+        destDir.file("other.txt").createFile();
+        SyncCopySpecVisitor visitor = new SyncCopySpecVisitor(delegate, history(included, previous, previousInDir));
+
+        visitor.startVisit(action(destDir, true));
+        visitor.visitDir(dir("subdir"));
+        visitor.visitFile(file("subdir/included.txt"));
+        visitor.endVisit();
+
+        destDir.assertHasDescendants("subdir/included.txt", "other.txt");
+        destDir.file("previous").assertDoesNotExist();
+        assertTrue(visitor.getDidWork());
+    }
+
+    @Test
+    public void incrementalSyncDeletesExtraFilesWhenThereAreNoPreviousOutputFiles() {
+        TestFile destDir = tmpDir.createDir("dest");
+        destDir.file("included.txt").createFile();
+        destDir.file("extra.txt").createFile();
+        SyncCopySpecVisitor visitor = new SyncCopySpecVisitor(delegate, history());
+
+        visitor.startVisit(action(destDir, true));
+        visitor.visitFile(file("included.txt"));
+        visitor.endVisit();
+
+        destDir.assertHasDescendants("included.txt");
+    }
+
     @Test
     public void didWorkWhenDelegateDidWork() {
         context.checking(new Expectations() {{
@@ -114,16 +149,33 @@ public class SyncCopySpecVisitorTest {
     }
 
     private FileCopyAction action(final File destDir) {
+        return action(destDir, false);
+    }
+
+    private FileCopyAction action(final File destDir, final boolean incremental) {
         final FileCopyAction action = context.mock(FileCopyAction.class);
 
         context.checking(new Expectations() {{
             allowing(action).getDestinationDir();
             will(returnValue(destDir));
+            allowing(action).isIncremental();
+            will(returnValue(incremental));
         }});
 
         return action;
     }
 
+    private TaskExecutionHistory history(final File... previousFiles) {
+        final TaskExecutionHistory history = context.mock(TaskExecutionHistory.class);
+
+        context.checking(new Expectations() {{
+            allowing(history).getOutputFiles();
+            will(returnValue(new SimpleFileCollection(previousFiles)));
+        }});
+
+        return history;
+    }
+
     private FileVisitDetails file(final String path) {
         return file(RelativePath.parse(true, path));
     }
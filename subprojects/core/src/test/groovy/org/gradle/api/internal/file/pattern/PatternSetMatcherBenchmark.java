@@ -0,0 +1,117 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.pattern;
+
+import org.apache.tools.ant.DirectoryScanner;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.specs.AndSpec;
+import org.gradle.api.specs.NotSpec;
+import org.gradle.api.specs.OrSpec;
+import org.gradle.api.specs.Spec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compares matching the paths of a synthetic source tree against a pattern set using a matcher per pattern, and using
+ * a {@link PatternSetMatcher}. The tree is walked the way {@link org.gradle.api.internal.file.DefaultDirectoryWalker}
+ * walks a directory, so directories which are not matched are skipped. This is not run as part of the test suite. Run
+ * it using {@code main()}, optionally passing the number of files to use.
+ */
+public class PatternSetMatcherBenchmark {
+    private static final List<String> INCLUDES = Arrays.asList("**/*.java", "**/*.groovy", "org/gradle/**/resources/");
+    private static final List<String> EXCLUDES = Arrays.asList("**/internal/**/Test*", "**/generated/**");
+
+    public static void main(String[] args) {
+        int files = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        List<String> excludes = new ArrayList<String>(EXCLUDES);
+        excludes.addAll(Arrays.asList(DirectoryScanner.getDefaultExcludes()));
+        for (int i = 0; i < 10; i++) {
+            run("matcher per pattern", perPatternSpec(INCLUDES, excludes), files);
+            run("compiled pattern set", new PatternSetMatcher(true, INCLUDES, excludes), files);
+        }
+    }
+
+    private static void run(String name, Spec<RelativePath> spec, int files) {
+        Walk walk = new Walk(spec, files);
+        long start = System.nanoTime();
+        walk.walkDir(new RelativePath(false), 0);
+        long time = System.nanoTime() - start;
+        System.out.println(String.format("%s: %d paths visited, %d matched, %.1f ms, %.0f paths/s", name, walk.visited,
+                walk.matched, time / 1e6, walk.visited / (time / 1e9)));
+    }
+
+    private static Spec<RelativePath> perPatternSpec(Collection<String> includes, Collection<String> excludes) {
+        List<Spec<RelativePath>> includeSpecs = new ArrayList<Spec<RelativePath>>();
+        for (String include : includes) {
+            includeSpecs.add(PatternMatcherFactory.getPatternMatcher(true, true, include));
+        }
+        List<Spec<RelativePath>> excludeSpecs = new ArrayList<Spec<RelativePath>>();
+        for (String exclude : excludes) {
+            excludeSpecs.add(PatternMatcherFactory.getPatternMatcher(false, true, exclude));
+        }
+        Spec<RelativePath> includeSpec = new OrSpec<RelativePath>(includeSpecs.toArray(new Spec[includeSpecs.size()]));
+        Spec<RelativePath> excludeSpec = new OrSpec<RelativePath>(excludeSpecs.toArray(new Spec[excludeSpecs.size()]));
+        return new AndSpec<RelativePath>(includeSpec, new NotSpec<RelativePath>(excludeSpec));
+    }
+
+    /**
+     * Walks a synthetic tree of 10 directories per level, 4 levels deep, with the files spread evenly between the leaf
+     * directories. Some directories have names which are excluded by the default excludes.
+     */
+    private static class Walk {
+        private static final String[] DIR_NAMES = {"org", "gradle", "api", "internal", "util", "generated", "tasks",
+                "resources", ".svn", "file"};
+        private static final String[] EXTENSIONS = {".java", ".groovy", ".class", ".txt"};
+        private static final int DEPTH = 4;
+        private final Spec<RelativePath> spec;
+        private final int filesPerDir;
+        int visited;
+        int matched;
+
+        private Walk(Spec<RelativePath> spec, int files) {
+            this.spec = spec;
+            this.filesPerDir = Math.max(1, files / (int) Math.pow(DIR_NAMES.length, DEPTH));
+        }
+
+        void walkDir(RelativePath dir, int depth) {
+            if (depth == DEPTH) {
+                for (int i = 0; i < filesPerDir; i++) {
+                    String prefix = i % 7 == 0 ? "Test" : "Source";
+                    visit(dir.append(true, prefix + i + EXTENSIONS[i % EXTENSIONS.length]));
+                }
+                return;
+            }
+            for (String name : DIR_NAMES) {
+                RelativePath child = dir.append(false, name);
+                if (visit(child)) {
+                    walkDir(child, depth + 1);
+                }
+            }
+        }
+
+        private boolean visit(RelativePath path) {
+            visited++;
+            if (spec.isSatisfiedBy(path)) {
+                matched++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
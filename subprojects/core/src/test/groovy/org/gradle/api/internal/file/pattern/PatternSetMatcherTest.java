@@ -0,0 +1,132 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.pattern;
+
+import org.gradle.api.file.RelativePath;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PatternSetMatcherTest {
+    private static final List<String> NONE = Collections.emptyList();
+
+    @Test public void matchesEverythingWhenNoPatterns() {
+        PatternSetMatcher matcher = new PatternSetMatcher(true, NONE, NONE);
+        assertTrue(matcher.isSatisfiedBy(file("a")));
+        assertTrue(matcher.isSatisfiedBy(dir("a", "b")));
+        assertTrue(matcher.isSatisfiedBy(file("a", "b", "c")));
+    }
+
+    @Test public void matchesIncludePatterns() {
+        PatternSetMatcher matcher = new PatternSetMatcher(true, Arrays.asList("**/*.java", "a/b/*.txt"), NONE);
+        assertTrue(matcher.isSatisfiedBy(file("A.java")));
+        assertTrue(matcher.isSatisfiedBy(file("a", "b", "c", "A.java")));
+        assertTrue(matcher.isSatisfiedBy(file("a", "b", "c.txt")));
+        assertFalse(matcher.isSatisfiedBy(file("a", "b", "c", "d.txt")));
+        assertFalse(matcher.isSatisfiedBy(file("a", "c.txt")));
+        assertFalse(matcher.isSatisfiedBy(file("A.groovy")));
+    }
+
+    @Test public void includePatternsPartiallyMatchDirectories() {
+        PatternSetMatcher matcher = new PatternSetMatcher(true, Arrays.asList("a/b/*.txt"), NONE);
+        assertTrue(matcher.isSatisfiedBy(dir("a")));
+        assertTrue(matcher.isSatisfiedBy(dir("a", "b")));
+        assertTrue(matcher.isSatisfiedBy(dir("a", "b", "c.txt")));
+        assertFalse(matcher.isSatisfiedBy(dir("b")));
+        assertFalse(matcher.isSatisfiedBy(dir("a", "c")));
+        assertFalse(matcher.isSatisfiedBy(dir("a", "b", "c")));
+
+        matcher = new PatternSetMatcher(true, Arrays.asList("a/**/b/*.txt"), NONE);
+        assertTrue(matcher.isSatisfiedBy(dir("a", "c", "d")));
+        assertFalse(matcher.isSatisfiedBy(dir("c", "d")));
+    }
+
+    @Test public void matchesExcludePatterns() {
+        PatternSetMatcher matcher = new PatternSetMatcher(true, NONE, Arrays.asList("**/*.class", "**/build/**"));
+        assertTrue(matcher.isSatisfiedBy(file("a", "A.java")));
+        assertFalse(matcher.isSatisfiedBy(file("a", "A.class")));
+        assertFalse(matcher.isSatisfiedBy(dir("a", "build")));
+        assertFalse(matcher.isSatisfiedBy(file("a", "build", "A.java")));
+        assertTrue(matcher.isSatisfiedBy(dir("a", "builds")));
+    }
+
+    @Test public void nameOnlyExcludePatternsDoNotMatchDirectories() {
+        PatternSetMatcher matcher = new PatternSetMatcher(true, NONE, Arrays.asList("**/CVS"));
+        assertFalse(matcher.isSatisfiedBy(file("a", "CVS")));
+        assertTrue(matcher.isSatisfiedBy(dir("a", "CVS")));
+    }
+
+    @Test public void excludePatternsTakePrecedenceOverIncludePatterns() {
+        PatternSetMatcher matcher = new PatternSetMatcher(true, Arrays.asList("**/*.java"), Arrays.asList(
+                "**/internal/**"));
+        assertTrue(matcher.isSatisfiedBy(file("a", "A.java")));
+        assertFalse(matcher.isSatisfiedBy(file("a", "internal", "A.java")));
+        assertFalse(matcher.isSatisfiedBy(dir("a", "internal")));
+    }
+
+    @Test public void matchesPatternsWithSeveralStepsAfterGreedyStep() {
+        PatternSetMatcher matcher = new PatternSetMatcher(true, Arrays.asList("**/*/*"), NONE);
+        assertTrue(matcher.isSatisfiedBy(file("a", "b")));
+        assertTrue(matcher.isSatisfiedBy(file("a", "b", "c", "d")));
+        assertFalse(matcher.isSatisfiedBy(file("a")));
+
+        matcher = new PatternSetMatcher(true, Arrays.asList("**/a*/a"), NONE);
+        assertTrue(matcher.isSatisfiedBy(file("a", "a", "aa", "a")));
+        assertTrue(matcher.isSatisfiedBy(dir("a", "a", "aa")));
+    }
+
+    @Test public void canProvideSeparateIncludeAndExcludeSpecs() {
+        PatternSetMatcher matcher = new PatternSetMatcher(true, Arrays.asList("*a*"), Arrays.asList("*b*"));
+        assertTrue(matcher.getIncludeSpec().isSatisfiedBy(file("ab")));
+        assertFalse(matcher.getIncludeSpec().isSatisfiedBy(file("b")));
+        assertTrue(matcher.getExcludeSpec().isSatisfiedBy(file("ab")));
+        assertFalse(matcher.getExcludeSpec().isSatisfiedBy(file("a")));
+        assertFalse(matcher.isSatisfiedBy(file("ab")));
+        assertTrue(matcher.isSatisfiedBy(file("a")));
+    }
+
+    @Test public void canMatchCaseInsensitively() {
+        PatternSetMatcher matcher = new PatternSetMatcher(false, Arrays.asList("src/**/*.java"), NONE);
+        assertTrue(matcher.isSatisfiedBy(file("SRC", "a", "A.JAVA")));
+        assertFalse(matcher.isSatisfiedBy(file("SRC", "a", "A.groovy")));
+
+        matcher = new PatternSetMatcher(true, Arrays.asList("src/**/*.java"), NONE);
+        assertFalse(matcher.isSatisfiedBy(file("SRC", "a", "A.java")));
+    }
+
+    @Test public void matchesChildrenOfSameDirectory() {
+        PatternSetMatcher matcher = new PatternSetMatcher(true, Arrays.asList("a/*.java"), NONE);
+        RelativePath a = dir("a");
+        RelativePath b = dir("b");
+        assertTrue(matcher.isSatisfiedBy(a.append(true, "A.java")));
+        assertFalse(matcher.isSatisfiedBy(b.append(true, "A.java")));
+        assertTrue(matcher.isSatisfiedBy(a.append(true, "B.java")));
+        assertFalse(matcher.isSatisfiedBy(a.append(true, "B.txt")));
+        assertFalse(matcher.isSatisfiedBy(b.append(true, "B.java")));
+    }
+
+    private RelativePath file(String... segments) {
+        return new RelativePath(true, segments);
+    }
+
+    private RelativePath dir(String... segments) {
+        return new RelativePath(false, segments);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.file.pattern;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WildcardPatternStepTest {
+    @Test public void matchesLiteral() {
+        WildcardPatternStep step = new WildcardPatternStep("literal");
+        assertTrue(step.matches("literal", true));
+        assertFalse(step.matches("Literal", true));
+        assertFalse(step.matches("literally", true));
+        assertFalse(step.matches("aliteral", true));
+    }
+
+    @Test public void matchesWildcards() {
+        WildcardPatternStep step = new WildcardPatternStep("a*c");
+        assertTrue(step.matches("ac", true));
+        assertTrue(step.matches("abrac", true));
+        assertFalse(step.matches("abcd", true));
+        assertFalse(step.matches("c", true));
+
+        step = new WildcardPatternStep("*.java");
+        assertTrue(step.matches("A.java", true));
+        assertTrue(step.matches(".java", true));
+        assertFalse(step.matches("A.jav", true));
+
+        step = new WildcardPatternStep("a*b*a");
+        assertTrue(step.matches("aba", true));
+        assertTrue(step.matches("axxbxxa", true));
+        assertFalse(step.matches("aba.", true));
+        assertFalse(step.matches("ab", true));
+        assertFalse(step.matches("aa", true));
+
+        step = new WildcardPatternStep("*");
+        assertTrue(step.matches("", true));
+        assertTrue(step.matches("anything", true));
+    }
+
+    @Test public void treatsRegularExpressionCharactersLiterally() {
+        WildcardPatternStep step = new WildcardPatternStep("a.b$*");
+        assertTrue(step.matches("a.b$c", true));
+        assertFalse(step.matches("axb$c", true));
+    }
+}
@@ -16,6 +16,7 @@
 package org.gradle.api.internal.plugins;
 
 import org.gradle.api.Plugin;
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.api.internal.project.DefaultProject;
 import org.gradle.api.internal.project.TestPlugin1;
 import org.gradle.api.internal.project.TestPlugin2;
@@ -38,7 +39,9 @@ public class DefaultProjectsPluginContainerTest {
     private final DefaultProject project = HelperUtil.createRootProject();
 
     private PluginRegistry pluginRegistryStub = context.mock(PluginRegistry.class);
-    private DefaultProjectsPluginContainer projectsPluginHandler = new DefaultProjectsPluginContainer(pluginRegistryStub, project);
+    private BuildOperationListener operationListener = context.mock(BuildOperationListener.class);
+    private DefaultProjectsPluginContainer projectsPluginHandler = new DefaultProjectsPluginContainer(pluginRegistryStub, project,
+            operationListener);
 
     private TestPlugin1 pluginWithIdMock = new TestPlugin1();
     private TestPlugin2 pluginWithoutIdMock = new TestPlugin2();
@@ -49,6 +52,7 @@ public class DefaultProjectsPluginContainerTest {
             allowing(pluginRegistryStub).getTypeForId(pluginId); will(returnValue(TestPlugin1.class));
             allowing(pluginRegistryStub).loadPlugin(TestPlugin1.class); will(returnValue(pluginWithIdMock));
             allowing(pluginRegistryStub).loadPlugin(TestPlugin2.class); will(returnValue(pluginWithoutIdMock));
+            ignoring(operationListener);
         }});
     }
 
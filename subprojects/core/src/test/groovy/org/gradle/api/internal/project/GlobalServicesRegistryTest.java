@@ -20,6 +20,7 @@ import org.gradle.api.internal.ClassPathRegistry;
 import org.gradle.api.internal.DefaultClassPathProvider;
 import org.gradle.api.internal.DefaultClassPathRegistry;
 import org.gradle.api.internal.GradleDistributionLocator;
+import org.gradle.api.internal.changedetection.InMemoryFileHashCache;
 import org.gradle.cache.AutoCloseCacheFactory;
 import org.gradle.cache.CacheFactory;
 import org.gradle.initialization.ClassLoaderFactory;
@@ -31,6 +32,7 @@ import org.gradle.listener.ListenerManager;
 import org.gradle.logging.*;
 import org.gradle.logging.internal.DefaultLoggingManagerFactory;
 import org.gradle.logging.internal.DefaultProgressLoggerFactory;
+import org.gradle.process.internal.WorkerProcessPool;
 import org.junit.Test;
 
 import static org.hamcrest.Matchers.*;
@@ -84,4 +86,16 @@ public class GlobalServicesRegistryTest {
     public void providesAnIsolatedAntBuilder() {
         assertThat(registry.get(IsolatedAntBuilder.class), instanceOf(DefaultIsolatedAntBuilder.class));
     }
+
+    @Test
+    public void providesAnInMemoryFileHashCache() {
+        assertThat(registry.get(InMemoryFileHashCache.class), instanceOf(InMemoryFileHashCache.class));
+        assertThat(registry.get(InMemoryFileHashCache.class), sameInstance(registry.get(InMemoryFileHashCache.class)));
+    }
+
+    @Test
+    public void providesAWorkerProcessPool() {
+        assertThat(registry.get(WorkerProcessPool.class), instanceOf(WorkerProcessPool.class));
+        assertThat(registry.get(WorkerProcessPool.class), sameInstance(registry.get(WorkerProcessPool.class)));
+    }
 }
@@ -18,6 +18,7 @@ package org.gradle.api.internal.project;
 import org.gradle.StartParameter;
 import org.gradle.api.execution.TaskExecutionGraphListener;
 import org.gradle.api.execution.TaskExecutionListener;
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.PublishModuleDescriptorConverter;
 import org.gradle.api.internal.artifacts.repositories.DefaultInternalRepository;
@@ -28,6 +29,7 @@ import org.gradle.execution.DefaultTaskGraphExecuter;
 import org.gradle.execution.TaskGraphExecuter;
 import org.gradle.listener.ListenerBroadcast;
 import org.gradle.listener.ListenerManager;
+import org.gradle.messaging.concurrent.ExecutorFactory;
 import org.gradle.util.JUnit4GroovyMockery;
 import org.gradle.util.MultiParentClassLoader;
 import org.jmock.Expectations;
@@ -51,6 +53,7 @@ public class GradleInternalServiceRegistryTest {
     private final PublishModuleDescriptorConverter publishModuleDescriptorConverter =
             context.mock(PublishModuleDescriptorConverter.class);
     private final ListenerManager listenerManager = context.mock(ListenerManager.class);
+    private final ExecutorFactory executorFactory = context.mock(ExecutorFactory.class);
 
     @Before
     public void setUp() {
@@ -59,6 +62,8 @@ public class GradleInternalServiceRegistryTest {
             will(returnValue(publishModuleDescriptorConverter));
             allowing(parent).get(ListenerManager.class);
             will(returnValue(listenerManager));
+            allowing(parent).get(ExecutorFactory.class);
+            will(returnValue(executorFactory));
             allowing(gradle).getStartParameter();
             will(returnValue(startParameter));
             allowing(gradle).getScriptClassLoader();
@@ -92,6 +97,8 @@ public class GradleInternalServiceRegistryTest {
             will(returnValue(new ListenerBroadcast<TaskExecutionGraphListener>(TaskExecutionGraphListener.class)));
             one(listenerManager).createAnonymousBroadcaster(TaskExecutionListener.class);
             will(returnValue(new ListenerBroadcast<TaskExecutionListener>(TaskExecutionListener.class)));
+            one(listenerManager).getBroadcaster(BuildOperationListener.class);
+            will(returnValue(new ListenerBroadcast<BuildOperationListener>(BuildOperationListener.class).getSource()));
         }});
         assertThat(registry.get(TaskGraphExecuter.class), instanceOf(DefaultTaskGraphExecuter.class));
         assertThat(registry.get(TaskGraphExecuter.class), sameInstance(registry.get(TaskGraphExecuter.class)));
@@ -31,6 +31,7 @@ import org.gradle.api.internal.artifacts.dsl.SharedConventionRepositoryHandlerFa
 import org.gradle.api.internal.artifacts.dsl.dependencies.DefaultDependencyHandler;
 import org.gradle.api.internal.artifacts.dsl.dependencies.DependencyFactory;
 import org.gradle.api.internal.file.*;
+import org.gradle.api.internal.file.archive.ArchiveExpansionCache;
 import org.gradle.api.internal.initialization.DefaultScriptHandler;
 import org.gradle.api.internal.initialization.ScriptClassLoaderProvider;
 import org.gradle.api.internal.plugins.DefaultConvention;
@@ -71,6 +72,7 @@ public class ProjectInternalServiceRegistryTest {
     private final ServiceRegistry parent = context.mock(ServiceRegistry.class);
     private final ProjectInternalServiceRegistry registry = new ProjectInternalServiceRegistry(parent, project);
     private final PluginRegistry pluginRegistry = context.mock(PluginRegistry.class);
+    private final BuildOperationListener operationListener = context.mock(BuildOperationListener.class);
 
     @Before
     public void setUp() {
@@ -92,6 +94,8 @@ public class ProjectInternalServiceRegistryTest {
             will(returnValue(dependencyFactory));
             allowing(parent).get(PluginRegistry.class);
             will(returnValue(pluginRegistry));
+            allowing(parent).get(BuildOperationListener.class);
+            will(returnValue(operationListener));
             allowing(parent).get(ClassGenerator.class);
             will(returnValue(new AsmBackedClassGenerator()));
         }});
@@ -172,6 +176,8 @@ public class ProjectInternalServiceRegistryTest {
     public void providesAFileOperationsInstance() {
         context.checking(new Expectations(){{
             one(project).getTasks();
+            allowing(parent).get(ArchiveExpansionCache.class);
+            allowing(parent).get(DirectoryWalkerFactory.class);
         }});
 
         assertThat(registry.get(FileOperations.class), instanceOf(DefaultFileOperations.class));
@@ -18,6 +18,7 @@ package org.gradle.api.internal.project;
 
 import org.gradle.StartParameter;
 import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.api.internal.ClassPathRegistry;
 import org.gradle.api.internal.ExceptionAnalyser;
 import org.gradle.api.internal.Factory;
@@ -25,14 +26,20 @@ import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.artifacts.dsl.DefaultPublishArtifactFactory;
 import org.gradle.api.internal.artifacts.dsl.DefaultRepositoryHandlerFactory;
 import org.gradle.api.internal.artifacts.dsl.PublishArtifactFactory;
+import org.gradle.api.internal.changedetection.InMemoryFileHashCache;
+import org.gradle.api.internal.file.DirectoryWalkerFactory;
+import org.gradle.api.internal.file.archive.ArchiveExpansionCache;
 import org.gradle.api.internal.tasks.ExecuteAtMostOnceTaskExecuter;
 import org.gradle.api.internal.tasks.TaskExecuter;
 import org.gradle.cache.CacheFactory;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.DefaultCacheRepository;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.Serializer;
 import org.gradle.configuration.BuildConfigurer;
 import org.gradle.configuration.DefaultBuildConfigurer;
 import org.gradle.configuration.DefaultScriptPluginFactory;
+import org.gradle.configuration.ParallelBuildConfigurer;
 import org.gradle.configuration.ScriptPluginFactory;
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory;
 import org.gradle.groovy.scripts.ScriptCompilerFactory;
@@ -43,8 +50,10 @@ import org.gradle.logging.LoggingManagerInternal;
 import org.gradle.logging.ProgressLoggerFactory;
 import org.gradle.messaging.concurrent.DefaultExecutorFactory;
 import org.gradle.messaging.concurrent.ExecutorFactory;
+import org.gradle.messaging.remote.MessagingServer;
 import org.gradle.process.internal.DefaultWorkerProcessFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.process.internal.WorkerProcessPool;
 import org.gradle.util.JUnit4GroovyMockery;
 import org.gradle.util.MultiParentClassLoader;
 import org.gradle.util.TemporaryFolder;
@@ -148,6 +157,13 @@ public class TopLevelBuildServiceRegistryTest {
         assertThat(factory.getFactory(RepositoryHandler.class), instanceOf(DefaultRepositoryHandlerFactory.class));
     }
 
+    @Test
+    public void providesABuildOperationListener() {
+        expectListenerManagerCreated();
+        assertThat(factory.get(BuildOperationListener.class), notNullValue());
+        assertThat(factory.get(BuildOperationListener.class), sameInstance(factory.get(BuildOperationListener.class)));
+    }
+
     @Test
     public void providesAScriptCompilerFactory() {
         expectListenerManagerCreated();
@@ -161,6 +177,21 @@ public class TopLevelBuildServiceRegistryTest {
         assertThat(factory.get(CacheRepository.class), sameInstance(factory.get(CacheRepository.class)));
     }
 
+    @Test
+    public void providesAnArchiveExpansionCache() {
+        final PersistentCache cache = context.mock(PersistentCache.class);
+        context.checking(new Expectations(){{
+            allowing(cacheFactory).open(with(notNullValue(File.class)), with(equalTo(startParameter.getCacheUsage())), with(equalTo(Collections.EMPTY_MAP)));
+            will(returnValue(cache));
+            allowing(cache).isValid();
+            will(returnValue(true));
+            allowing(cache).openIndexedCache(with(notNullValue(Serializer.class)));
+            allowing(parent).get(InMemoryFileHashCache.class);
+        }});
+        assertThat(factory.get(ArchiveExpansionCache.class), instanceOf(ArchiveExpansionCache.class));
+        assertThat(factory.get(ArchiveExpansionCache.class), sameInstance(factory.get(ArchiveExpansionCache.class)));
+    }
+
     @Test
     public void providesAnInitScriptHandler() {
         expectScriptClassLoaderCreated();
@@ -194,7 +225,10 @@ public class TopLevelBuildServiceRegistryTest {
 
     @Test
     public void providesAWorkerProcessFactory() {
+        final WorkerProcessPool pool = new WorkerProcessPool(context.mock(MessagingServer.class));
         context.checking(new Expectations() {{
+            allowing(parent).get(WorkerProcessPool.class);
+            will(returnValue(pool));
             one(classLoaderFactory).getRootClassLoader();
             will(returnValue(new ClassLoader() {
             }));
@@ -215,12 +249,25 @@ public class TopLevelBuildServiceRegistryTest {
         assertThat(factory.get(ExecutorFactory.class), sameInstance(factory.get(ExecutorFactory.class)));
     }
 
+    @Test
+    public void providesADirectoryWalkerFactory() {
+        assertThat(factory.get(DirectoryWalkerFactory.class), instanceOf(DirectoryWalkerFactory.class));
+        assertThat(factory.get(DirectoryWalkerFactory.class), sameInstance(factory.get(DirectoryWalkerFactory.class)));
+        assertThat(factory.get(DirectoryWalkerFactory.class).getMaxThreads(), equalTo(1));
+    }
+
     @Test
     public void providesABuildConfigurer() {
         assertThat(factory.get(BuildConfigurer.class), instanceOf(DefaultBuildConfigurer.class));
         assertThat(factory.get(BuildConfigurer.class), sameInstance(factory.get(BuildConfigurer.class)));
     }
 
+    @Test
+    public void providesAParallelBuildConfigurerWhenParallelConfigurationIsEnabled() {
+        startParameter.setParallelProjectConfiguration(true);
+        assertThat(factory.get(BuildConfigurer.class), instanceOf(ParallelBuildConfigurer.class));
+    }
+
     private ListenerManager expectListenerManagerCreated() {
         final ListenerManager listenerManager = new DefaultListenerManager();
         context.checking(new Expectations(){{
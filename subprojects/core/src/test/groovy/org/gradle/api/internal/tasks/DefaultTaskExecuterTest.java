@@ -20,6 +20,8 @@ import org.gradle.api.Task;
 import org.gradle.api.execution.TaskActionListener;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.LoggingManager;
 import org.gradle.logging.StandardOutputCapture;
 import org.gradle.api.tasks.StopActionException;
 import org.gradle.api.tasks.StopExecutionException;
@@ -34,6 +36,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.gradle.util.Matchers.*;
 import static org.gradle.util.WrapUtil.*;
 import static org.hamcrest.Matchers.*;
@@ -48,6 +53,7 @@ public class DefaultTaskExecuterTest {
     private final TaskStateInternal state = context.mock(TaskStateInternal.class);
     private final ScriptSource scriptSource = context.mock(ScriptSource.class);
     private final StandardOutputCapture standardOutputCapture = context.mock(StandardOutputCapture.class);
+    private final LoggingManager logging = context.mock(LoggingManager.class);
     private final Sequence sequence = context.sequence("seq");
     private final TaskActionListener listener = context.mock(TaskActionListener.class);
     private final DefaultTaskExecuter executer = new DefaultTaskExecuter(listener);
@@ -66,6 +72,15 @@ public class DefaultTaskExecuterTest {
             allowing(task).getStandardOutputCapture();
             will(returnValue(standardOutputCapture));
 
+            allowing(task).getLogging();
+            will(returnValue(logging));
+
+            allowing(logging).getStandardOutputCaptureLevel();
+            will(returnValue(LogLevel.QUIET));
+
+            allowing(logging).getStandardErrorCaptureLevel();
+            will(returnValue(LogLevel.ERROR));
+
             ignoring(scriptSource);
         }});
     }
@@ -278,4 +293,75 @@ public class DefaultTaskExecuterTest {
 
         executer.execute(task, state);
     }
+
+    @Test
+    public void doesNotExecuteActionsOfOtherTasksWhileTaskWithItsOwnOutputCaptureIsExecuting() throws Exception {
+        final TaskInternal otherTask = context.mock(TaskInternal.class, "<other-task>");
+        final TaskStateInternal otherState = context.mock(TaskStateInternal.class, "otherState");
+        final LoggingManager otherLogging = context.mock(LoggingManager.class, "otherLogging");
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch otherTaskExecuted = new CountDownLatch(1);
+
+        context.checking(new Expectations() {{
+            allowing(task).getActions();
+            will(returnValue(toList(new Action<Task>() {
+                public void execute(Task task) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            })));
+
+            allowing(otherTask).getActions();
+            will(returnValue(toList(new Action<Task>() {
+                public void execute(Task task) {
+                    otherTaskExecuted.countDown();
+                }
+            })));
+
+            allowing(otherTask).getStandardOutputCapture();
+            will(returnValue(standardOutputCapture));
+
+            allowing(otherTask).getLogging();
+            will(returnValue(otherLogging));
+
+            allowing(otherLogging).getStandardOutputCaptureLevel();
+            will(returnValue(LogLevel.INFO));
+
+            allowing(otherLogging).getStandardErrorCaptureLevel();
+            will(returnValue(LogLevel.ERROR));
+
+            ignoring(standardOutputCapture);
+            ignoring(listener);
+            ignoring(state);
+            ignoring(otherState);
+        }});
+
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                executer.execute(task, state);
+            }
+        };
+        thread.start();
+        assertTrue(started.await(20, TimeUnit.SECONDS));
+
+        Thread otherThread = new Thread() {
+            @Override
+            public void run() {
+                executer.execute(otherTask, otherState);
+            }
+        };
+        otherThread.start();
+        assertFalse(otherTaskExecuted.await(200, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertTrue(otherTaskExecuted.await(20, TimeUnit.SECONDS));
+        thread.join();
+        otherThread.join();
+    }
 }
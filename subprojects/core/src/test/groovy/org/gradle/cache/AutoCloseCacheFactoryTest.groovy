@@ -98,5 +98,45 @@ public class AutoCloseCacheFactoryTest extends Specification {
         1 * backingFactory.close(cache1)
         1 * backingFactory.close(cache2)
     }
+
+    public void canOpenAndCloseCachesFromMultipleThreads() {
+        def openDirs = [] as Set
+        def failures = Collections.synchronizedList([])
+        def factory = new AutoCloseCacheFactory([
+                open: { File dir, CacheUsage usage, Map properties ->
+                    synchronized (openDirs) {
+                        if (!openDirs.add(dir)) {
+                            failures << new IllegalStateException("$dir is already open")
+                        }
+                    }
+                    Thread.sleep(1)
+                    return [getBaseDir: { dir }] as PersistentCache
+                },
+                close: { PersistentCache cache ->
+                    synchronized (openDirs) {
+                        openDirs.remove(cache.baseDir)
+                    }
+                }
+        ] as CacheFactory)
+
+        when:
+        def threads = (1..8).collect {
+            Thread.start {
+                try {
+                    20.times {
+                        def caches = (1..5).collect { factory.open(new File("dir$it"), CacheUsage.ON, [:]) }
+                        caches.each { factory.close(it) }
+                    }
+                } catch (Throwable t) {
+                    failures << t
+                }
+            }
+        }
+        threads*.join()
+
+        then:
+        failures.empty
+        openDirs.empty
+    }
 }
 
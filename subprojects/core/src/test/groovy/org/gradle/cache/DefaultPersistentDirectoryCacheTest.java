@@ -26,6 +26,7 @@ import static org.junit.Assert.*;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -123,6 +124,19 @@ public class DefaultPersistentDirectoryCacheTest {
         assertThat(cache.openIndexedCache(), sameInstance(cache.openIndexedCache()));
     }
 
+    @Test
+    public void reusedIndexedCacheUsesTheMostRecentSerializer() {
+        TestFile dir = tmpDir.getDir().file("dir");
+        DefaultPersistentDirectoryCache cache = new DefaultPersistentDirectoryCache(dir, CacheUsage.ON, properties);
+
+        BTreePersistentIndexedCache<String, String> indexedCache = cache.openIndexedCache(new PrefixingSerializer("first:"));
+        indexedCache.put("key", "value");
+        assertThat(indexedCache.get("key"), equalTo("first:value"));
+
+        assertThat(cache.<String, String>openIndexedCache(new PrefixingSerializer("second:")), sameInstance(indexedCache));
+        assertThat(indexedCache.get("key"), equalTo("second:value"));
+    }
+
     @Test
     public void closesIndexedCacheOnClose() {
         TestFile dir = tmpDir.getDir().file("dir");
@@ -158,6 +172,19 @@ public class DefaultPersistentDirectoryCacheTest {
         return result;
     }
 
+    private static class PrefixingSerializer extends DefaultSerializer<String> {
+        private final String prefix;
+
+        private PrefixingSerializer(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public String read(InputStream instr) throws Exception {
+            return prefix + super.read(instr);
+        }
+    }
+
     private TestFile createCacheDir(String... extraProps) {
         TestFile dir = tmpDir.getDir();
         Properties properties = new Properties();
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.cache
+
+import org.gradle.CacheUsage
+import org.gradle.util.TemporaryFolder
+import org.junit.Rule
+import spock.lang.Specification
+
+class RetainingCacheFactoryTest extends Specification {
+    @Rule public final TemporaryFolder tmpDir = new TemporaryFolder()
+    private final CacheFactory backingFactory = Mock()
+    private final RetainingCacheFactory factory = new RetainingCacheFactory(backingFactory)
+
+    def cachesCacheInstanceForAGivenDirectory() {
+        PersistentCache cache = Mock()
+
+        when:
+        def cache1 = factory.open(new File('dir1'), CacheUsage.ON, [:])
+        def cache2 = factory.open(new File('dir1').canonicalFile, CacheUsage.ON, [:])
+
+        then:
+        1 * backingFactory.open(new File('dir1'), CacheUsage.ON, [:]) >> cache
+        cache1 == cache
+        cache2 == cache
+    }
+
+    def keepsCacheOpenWhenLastReferenceClosed() {
+        PersistentCache cache = Mock()
+        _ * cache.baseDir >> tmpDir.dir
+
+        when:
+        factory.open(tmpDir.dir, CacheUsage.ON, [a: 'value'])
+        factory.close(cache)
+        def retval = factory.open(tmpDir.dir, CacheUsage.ON, [a: 'value'])
+
+        then:
+        1 * backingFactory.open(tmpDir.dir, CacheUsage.ON, [a: 'value']) >> cache
+        0 * backingFactory._
+        retval == cache
+    }
+
+    def reopensRetainedCacheWhenPropertiesChange() {
+        PersistentCache cache1 = Mock()
+        PersistentCache cache2 = Mock()
+        _ * cache1.baseDir >> tmpDir.dir
+
+        when:
+        factory.open(tmpDir.dir, CacheUsage.ON, [a: 'value'])
+        factory.close(cache1)
+        def retval = factory.open(tmpDir.dir, CacheUsage.ON, [a: 'other'])
+
+        then:
+        1 * backingFactory.open(tmpDir.dir, CacheUsage.ON, [a: 'value']) >> cache1
+        1 * backingFactory.close(cache1)
+        1 * backingFactory.open(tmpDir.dir, CacheUsage.ON, [a: 'other']) >> cache2
+        retval == cache2
+    }
+
+    def reopensRetainedCacheWhenUsageIsNotOn() {
+        PersistentCache cache1 = Mock()
+        PersistentCache cache2 = Mock()
+        _ * cache1.baseDir >> tmpDir.dir
+
+        when:
+        factory.open(tmpDir.dir, CacheUsage.ON, [:])
+        factory.close(cache1)
+        def retval = factory.open(tmpDir.dir, CacheUsage.REBUILD, [:])
+
+        then:
+        1 * backingFactory.open(tmpDir.dir, CacheUsage.ON, [:]) >> cache1
+        1 * backingFactory.close(cache1)
+        1 * backingFactory.open(tmpDir.dir, CacheUsage.REBUILD, [:]) >> cache2
+        retval == cache2
+    }
+
+    def reopensRetainedCacheWhenFilesChangedSinceLastClosed() {
+        PersistentCache cache1 = Mock()
+        PersistentCache cache2 = Mock()
+        _ * cache1.baseDir >> tmpDir.dir
+        tmpDir.file('cache.bin').write('content')
+
+        when:
+        factory.open(tmpDir.dir, CacheUsage.ON, [:])
+        factory.close(cache1)
+        tmpDir.file('cache.bin').write('changed content')
+        def retval = factory.open(tmpDir.dir, CacheUsage.ON, [:])
+
+        then:
+        1 * backingFactory.open(tmpDir.dir, CacheUsage.ON, [:]) >> cache1
+        1 * backingFactory.close(cache1)
+        1 * backingFactory.open(tmpDir.dir, CacheUsage.ON, [:]) >> cache2
+        retval == cache2
+    }
+
+    def cannotOpenCacheWhichIsInUseWithDifferentProperties() {
+        PersistentCache cache = Mock()
+
+        when:
+        factory.open(new File('dir1'), CacheUsage.ON, [a: 'value'])
+        factory.open(new File('dir1'), CacheUsage.ON, [a: 'other'])
+
+        then:
+        1 * backingFactory.open(new File('dir1'), CacheUsage.ON, [a: 'value']) >> cache
+        thrown(UnsupportedOperationException)
+    }
+
+    def closesEachCacheOnClose() {
+        PersistentCache cache1 = Mock()
+        PersistentCache cache2 = Mock()
+        _ * cache1.baseDir >> tmpDir.dir
+
+        when:
+        factory.open(tmpDir.dir, CacheUsage.ON, [:])
+        factory.open(new File('dir2'), CacheUsage.ON, [:])
+        factory.close(cache1)
+        factory.close()
+
+        then:
+        1 * backingFactory.open(tmpDir.dir, CacheUsage.ON, [:]) >> cache1
+        1 * backingFactory.open(new File('dir2'), CacheUsage.ON, [:]) >> cache2
+        1 * backingFactory.close(cache1)
+        1 * backingFactory.close(cache2)
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.cache.btree;
+
+import org.gradle.CacheUsage;
+import org.gradle.cache.DefaultPersistentDirectoryCache;
+import org.gradle.cache.DefaultSerializer;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.util.Collections;
+
+/**
+ * Compares the get and put throughput of {@link BTreePersistentIndexedCache} when backed by {@link
+ * FileBackedBlockStore} and by {@link MappedFileBlockStore}. This is not run as part of the test suite. Run it using
+ * {@code main()}, optionally passing the number of entries to use.
+ */
+public class BlockStoreBenchmark {
+    public static void main(String[] args) throws Exception {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        File baseDir = File.createTempFile("block-store", "benchmark");
+        baseDir.delete();
+        try {
+            for (int i = 0; i < 3; i++) {
+                run("file backed", new File(baseDir, "file-" + i), entries, false);
+                run("mapped", new File(baseDir, "mapped-" + i), entries, true);
+            }
+        } finally {
+            GFileUtils.deleteDirectory(baseDir);
+        }
+    }
+
+    private static void run(String name, File dir, int entries, boolean memoryMapped) {
+        dir.mkdirs();
+        DefaultPersistentDirectoryCache backingCache = new DefaultPersistentDirectoryCache(dir, CacheUsage.ON,
+                Collections.<String, Object>emptyMap());
+        BTreePersistentIndexedCache<String, String> cache = new BTreePersistentIndexedCache<String, String>(
+                backingCache, new DefaultSerializer<String>(), (short) 512, 512, memoryMapped);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < entries; i++) {
+                cache.put(key(i), "value " + i);
+            }
+            long putTime = System.nanoTime() - start;
+
+            cache.reset();
+
+            start = System.nanoTime();
+            for (int pass = 0; pass < 3; pass++) {
+                for (int i = 0; i < entries; i++) {
+                    if (cache.get(key(i)) == null) {
+                        throw new IllegalStateException(String.format("Missing entry for key %s.", key(i)));
+                    }
+                }
+            }
+            long getTime = System.nanoTime() - start;
+
+            System.out.println(String.format("%s: %d entries, put %.0f ops/s, get %.0f ops/s", name, entries,
+                    entries / (putTime / 1e9), 3 * entries / (getTime / 1e9)));
+        } finally {
+            cache.close();
+        }
+    }
+
+    private static String key(int i) {
+        return "/some/project/build/classes/main/org/gradle/Class" + i + ".class";
+    }
+}
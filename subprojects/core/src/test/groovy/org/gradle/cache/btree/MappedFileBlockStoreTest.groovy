@@ -0,0 +1,195 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.cache.btree
+
+import org.gradle.cache.DefaultSerializer
+import org.gradle.cache.PersistentCache
+import org.gradle.util.TemporaryFolder
+import org.junit.Rule
+import spock.lang.Specification
+
+class MappedFileBlockStoreTest extends Specification {
+    @Rule
+    public final TemporaryFolder tmpDir = new TemporaryFolder()
+    private final PersistentCache backingCache = Mock()
+
+    def setup() {
+        _ * backingCache.getBaseDir() >> tmpDir.dir
+    }
+
+    def persistsAddedAndReplacedEntries() {
+        def cache = createCache(true)
+
+        when:
+        (1..50).each { cache.put("key_$it", it) }
+        cache.put("key_4", 12)
+        cache.reset()
+
+        then:
+        (1..50).each { assert cache.get("key_$it") == (it == 4 ? 12 : it) }
+        cache.verify()
+
+        cleanup:
+        cache.close()
+    }
+
+    def canReadEntriesWrittenByFileBackedStore() {
+        def cache = createCache(false)
+        (1..50).each { cache.put("key_$it", it) }
+        cache.close()
+
+        when:
+        cache = createCache(true)
+
+        then:
+        (1..50).each { assert cache.get("key_$it") == it }
+
+        cleanup:
+        cache.close()
+    }
+
+    def fileBackedStoreCanReadEntriesWrittenByMappedStore() {
+        def cache = createCache(true)
+        (1..50).each { cache.put("key_$it", it) }
+        cache.close()
+
+        when:
+        cache = createCache(false)
+
+        then:
+        (1..50).each { assert cache.get("key_$it") == it }
+
+        cleanup:
+        cache.close()
+    }
+
+    def canReadBlocksFromMultipleThreads() {
+        def store = new MappedFileBlockStore(tmpDir.file("blocks.bin"))
+        store.open({} as Runnable, { type -> new TestPayload() } as BlockStore.Factory)
+        def positions = []
+
+        when:
+        (1..20).each {
+            def block = new TestPayload(value: "value $it")
+            store.attach(block)
+            store.write(block)
+            positions << block.pos
+        }
+        def failures = Collections.synchronizedList([])
+        def threads = (1..4).collect {
+            Thread.start {
+                try {
+                    100.times {
+                        positions.eachWithIndex { pos, i ->
+                            assert store.read(pos, TestPayload).value == "value ${i + 1}"
+                        }
+                    }
+                } catch (Throwable t) {
+                    failures << t
+                }
+            }
+        }
+        threads*.join()
+
+        then:
+        failures.empty
+
+        cleanup:
+        store.close()
+    }
+
+    def canWriteAndReadBlocksAfterClear() {
+        def store = new MappedFileBlockStore(tmpDir.file("blocks.bin"))
+        store.open({} as Runnable, { type -> new TestPayload() } as BlockStore.Factory)
+        def oldBlock = new TestPayload(value: "a longer value which is written before the store is cleared")
+        store.attach(oldBlock)
+        store.write(oldBlock)
+        assert store.read(oldBlock.pos, TestPayload).value == oldBlock.value
+        def blockLength = tmpDir.file("blocks.bin").length()
+
+        when:
+        store.clear()
+        def block = new TestPayload(value: "new")
+        store.attach(block)
+        store.write(block)
+
+        then:
+        block.pos.pos == 0
+        store.read(block.pos, TestPayload).value == "new"
+        tmpDir.file("blocks.bin").length() == blockLength
+
+        cleanup:
+        store.close()
+    }
+
+    def canTruncateAndReopenFileAfterStoreIsClearedAndClosed() {
+        def cacheFile = tmpDir.file("blocks.bin")
+        def store = new MappedFileBlockStore(cacheFile)
+        store.open({} as Runnable, { type -> new TestPayload() } as BlockStore.Factory)
+        (1..20).each {
+            // Read each block after it is written, so that the file is mapped again as it grows
+            def block = new TestPayload(value: "value $it")
+            store.attach(block)
+            store.write(block)
+            assert store.read(block.pos, TestPayload).value == "value $it"
+        }
+        store.clear()
+        store.close()
+        def initialised = false
+
+        when:
+        def file = new RandomAccessFile(cacheFile, "rw")
+        file.setLength(0)
+        file.close()
+        store = new MappedFileBlockStore(cacheFile)
+        store.open({ initialised = true } as Runnable, { type -> new TestPayload() } as BlockStore.Factory)
+        def block = new TestPayload(value: "new")
+        store.attach(block)
+        store.write(block)
+
+        then:
+        initialised
+        block.pos.pos == 0
+        store.read(block.pos, TestPayload).value == "new"
+
+        cleanup:
+        store.close()
+    }
+
+    private BTreePersistentIndexedCache<String, Integer> createCache(boolean memoryMapped) {
+        return new BTreePersistentIndexedCache<String, Integer>(backingCache, new DefaultSerializer<Integer>(), (short) 4, 100, memoryMapped)
+    }
+
+    private static class TestPayload extends BlockPayload {
+        String value
+
+        protected int getSize() {
+            return 100
+        }
+
+        protected int getType() {
+            return 0x77
+        }
+
+        protected void read(DataInputStream inputStream) {
+            value = inputStream.readUTF()
+        }
+
+        protected void write(DataOutputStream outputStream) {
+            outputStream.writeUTF(value)
+        }
+    }
+}
@@ -15,9 +15,13 @@
  */
 package org.gradle.configuration;
 
+import org.gradle.api.CircularReferenceException;
 import org.gradle.api.ProjectEvaluationListener;
+import org.gradle.api.internal.BuildOperation;
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectStateInternal;
+import org.gradle.listener.ListenerBroadcast;
 import org.gradle.util.JUnit4GroovyMockery;
 import org.hamcrest.Matchers;
 import org.jmock.Expectations;
@@ -28,6 +32,14 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
 @RunWith(JMock.class)
@@ -37,7 +49,8 @@ public class DefaultProjectEvaluatorTest {
     private final ProjectEvaluationListener listener = context.mock(ProjectEvaluationListener.class);
     private final ProjectEvaluator delegate = context.mock(ProjectEvaluator.class, "delegate");
     private final ProjectStateInternal state = context.mock(ProjectStateInternal.class);
-    private final DefaultProjectEvaluator evaluator = new DefaultProjectEvaluator(delegate);
+    private final BuildOperationListener operationListener = context.mock(BuildOperationListener.class);
+    private final DefaultProjectEvaluator evaluator = new DefaultProjectEvaluator(delegate, operationListener);
 
     @Before
     public void setUp() {
@@ -80,8 +93,14 @@ public class DefaultProjectEvaluatorTest {
             one(state).executed();
             inSequence(sequence);
 
+            one(operationListener).operationStarted(with(any(BuildOperation.class)));
+            inSequence(sequence);
+
             one(listener).afterEvaluate(project, state);
             inSequence(sequence);
+
+            one(operationListener).operationFinished(with(any(BuildOperation.class)));
+            inSequence(sequence);
         }});
 
         evaluator.evaluate(project, state);
@@ -113,8 +132,14 @@ public class DefaultProjectEvaluatorTest {
             one(state).executed();
             inSequence(sequence);
             
+            one(operationListener).operationStarted(with(any(BuildOperation.class)));
+            inSequence(sequence);
+
             one(listener).afterEvaluate(project, state);
             inSequence(sequence);
+
+            one(operationListener).operationFinished(with(any(BuildOperation.class)));
+            inSequence(sequence);
         }});
 
         try {
@@ -124,4 +149,113 @@ public class DefaultProjectEvaluatorTest {
             assertThat(e, Matchers.sameInstance(failure));
         }
     }
+
+    @Test
+    public void waitsForProjectWhichIsBeingEvaluatedByAnotherThread() throws Exception {
+        final ProjectInternal project = stubProject();
+        final ProjectStateInternal state = new ProjectStateInternal();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(1);
+        final List<Thread> evaluatedBy = Collections.synchronizedList(new ArrayList<Thread>());
+        final DefaultProjectEvaluator evaluator = new DefaultProjectEvaluator(new ProjectEvaluator() {
+            public void evaluate(ProjectInternal project, ProjectStateInternal state) {
+                evaluatedBy.add(Thread.currentThread());
+                started.countDown();
+                await(finish);
+            }
+        }, stubOperationListener());
+
+        Thread first = evaluateInThread(evaluator, project, state, new ArrayList<Throwable>());
+        await(started);
+        Thread second = evaluateInThread(evaluator, project, state, new ArrayList<Throwable>());
+        finish.countDown();
+        first.join();
+        second.join();
+
+        assertThat(evaluatedBy, equalTo(Arrays.asList(first)));
+        assertTrue(state.getExecuted());
+    }
+
+    @Test
+    public void failsWhenProjectsEvaluatedByDifferentThreadsDependOnEachOther() throws Exception {
+        final ProjectInternal a = stubProject();
+        final ProjectInternal b = stubProject();
+        final ProjectStateInternal stateA = new ProjectStateInternal();
+        final ProjectStateInternal stateB = new ProjectStateInternal();
+        final CountDownLatch started = new CountDownLatch(2);
+        final DefaultProjectEvaluator[] evaluator = new DefaultProjectEvaluator[1];
+        evaluator[0] = new DefaultProjectEvaluator(new ProjectEvaluator() {
+            public void evaluate(ProjectInternal project, ProjectStateInternal state) {
+                started.countDown();
+                await(started);
+                if (project == a) {
+                    evaluator[0].evaluate(b, stateB);
+                } else {
+                    evaluator[0].evaluate(a, stateA);
+                }
+            }
+        }, stubOperationListener());
+
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread first = evaluateInThread(evaluator[0], a, stateA, failures);
+        Thread second = evaluateInThread(evaluator[0], b, stateB, failures);
+        first.join();
+        second.join();
+
+        assertThat(failures.size(), equalTo(1));
+        assertThat(failures.get(0), instanceOf(CircularReferenceException.class));
+        assertTrue(stateA.getExecuted());
+        assertTrue(stateB.getExecuted());
+    }
+
+    private Thread evaluateInThread(final DefaultProjectEvaluator evaluator, final ProjectInternal project,
+                                    final ProjectStateInternal state, final List<Throwable> failures) {
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    evaluator.evaluate(project, state);
+                } catch (Throwable throwable) {
+                    failures.add(throwable);
+                }
+            }
+        };
+        thread.start();
+        return thread;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(20, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private BuildOperationListener stubOperationListener() {
+        return new ListenerBroadcast<BuildOperationListener>(BuildOperationListener.class).getSource();
+    }
+
+    private ProjectInternal stubProject() {
+        final ProjectEvaluationListener listener = new ListenerBroadcast<ProjectEvaluationListener>(
+                ProjectEvaluationListener.class).getSource();
+        return (ProjectInternal) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ProjectInternal.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getProjectEvaluationBroadcaster")) {
+                            return listener;
+                        }
+                        if (method.getName().equals("hashCode")) {
+                            return System.identityHashCode(proxy);
+                        }
+                        if (method.getName().equals("equals")) {
+                            return proxy == args[0];
+                        }
+                        if (method.getName().equals("toString")) {
+                            return "project";
+                        }
+                        throw new UnsupportedOperationException();
+                    }
+                });
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.configuration
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.gradle.api.GradleException
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.messaging.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+class ParallelBuildConfigurerTest extends Specification {
+    private final GradleInternal gradle = Mock()
+    private final BuildConfigurer delegate = Mock()
+    private final ParallelBuildConfigurer configurer = new ParallelBuildConfigurer(delegate, new DefaultExecutorFactory(), 4)
+    private final List<String> evaluated = Collections.synchronizedList([])
+    private final Set<ProjectInternal> allprojects = new LinkedHashSet<ProjectInternal>()
+
+    def evaluatesEachProjectAfterItsParentThenConfiguresBuild() {
+        def root = project('root', null)
+        def a = project('a', root)
+        project('b', root)
+        project('c', a)
+        _ * gradle.rootProject >> root
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        1 * delegate.configure(gradle) >> {
+            assert evaluated.size() == 4
+        }
+        evaluated[0] == 'root'
+        evaluated.indexOf('a') < evaluated.indexOf('c')
+    }
+
+    def evaluatesSiblingProjectsConcurrently() {
+        def root = project('root', null)
+        def latch = new CountDownLatch(2)
+        def waitForSibling = {
+            latch.countDown()
+            if (!latch.await(20, TimeUnit.SECONDS)) {
+                throw new IllegalStateException('timeout waiting for sibling project')
+            }
+        }
+        project('a', root, waitForSibling)
+        project('b', root, waitForSibling)
+        _ * gradle.rootProject >> root
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        1 * delegate.configure(gradle)
+        evaluated as Set == ['root', 'a', 'b'] as Set
+    }
+
+    def rethrowsFailureOfFirstFailedProjectInEvaluationOrder() {
+        def root = project('root', null)
+        def failureA = new GradleException('a failed')
+        def failureB = new GradleException('b failed')
+        def latch = new CountDownLatch(1)
+        project('a', root, { latch.await(20, TimeUnit.SECONDS); throw failureA })
+        project('b', root, { latch.countDown(); throw failureB })
+        _ * gradle.rootProject >> root
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        GradleException e = thrown()
+        e == failureA
+        0 * delegate._
+    }
+
+    def doesNotEvaluateChildrenOfFailedProject() {
+        def failure = new GradleException('broken')
+        def root = project('root', null, { throw failure })
+        project('a', root)
+        _ * gradle.rootProject >> root
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        GradleException e = thrown()
+        e == failure
+        evaluated == ['root']
+        0 * delegate._
+    }
+
+    private ProjectInternal project(String name, ProjectInternal parent, Closure action = {}) {
+        ProjectInternal project = [
+                getParent: { parent },
+                getAllprojects: { allprojects },
+                evaluate: { evaluated << name; action.call(); null }
+        ] as ProjectInternal
+        allprojects << project
+        return project
+    }
+}
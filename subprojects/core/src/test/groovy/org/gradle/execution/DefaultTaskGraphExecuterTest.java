@@ -23,6 +23,7 @@ import org.gradle.api.Task;
 import org.gradle.api.execution.TaskExecutionGraphListener;
 import org.gradle.api.execution.TaskExecutionListener;
 import org.gradle.api.internal.AbstractTask;
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.specs.Spec;
@@ -30,6 +31,7 @@ import org.gradle.api.tasks.TaskExecutionException;
 import org.gradle.api.tasks.TaskState;
 import org.gradle.listener.ListenerBroadcast;
 import org.gradle.listener.ListenerManager;
+import org.gradle.messaging.concurrent.DefaultExecutorFactory;
 import org.gradle.util.TestClosure;
 import org.jmock.Expectations;
 import org.jmock.integration.junit4.JMock;
@@ -39,8 +41,11 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.gradle.util.HelperUtil.*;
 import static org.gradle.util.WrapUtil.*;
@@ -57,18 +62,29 @@ public class DefaultTaskGraphExecuterTest {
     private final ListenerManager listenerManager = context.mock(ListenerManager.class);
     TaskGraphExecuter taskExecuter;
     ProjectInternal root;
-    List<Task> executedTasks = new ArrayList<Task>();
+    List<Task> executedTasks = Collections.synchronizedList(new ArrayList<Task>());
 
     @Before
     public void setUp() {
         root = createRootProject();
+        expectBroadcastersCreated();
+        taskExecuter = new DefaultTaskGraphExecuter(listenerManager);
+    }
+
+    private void expectBroadcastersCreated() {
         context.checking(new Expectations(){{
             one(listenerManager).createAnonymousBroadcaster(TaskExecutionGraphListener.class);
             will(returnValue(new ListenerBroadcast<TaskExecutionGraphListener>(TaskExecutionGraphListener.class)));
             one(listenerManager).createAnonymousBroadcaster(TaskExecutionListener.class);
             will(returnValue(new ListenerBroadcast<TaskExecutionListener>(TaskExecutionListener.class)));
+            one(listenerManager).getBroadcaster(BuildOperationListener.class);
+            will(returnValue(new ListenerBroadcast<BuildOperationListener>(BuildOperationListener.class).getSource()));
         }});
-        taskExecuter = new DefaultTaskGraphExecuter(listenerManager);
+    }
+
+    private void useParallelExecuter() {
+        expectBroadcastersCreated();
+        taskExecuter = new DefaultTaskGraphExecuter(listenerManager, new DefaultExecutorFactory(), 4);
     }
 
     @Test
@@ -385,6 +401,104 @@ public class DefaultTaskGraphExecuterTest {
         assertThat(taskExecuter.getAllTasks(), equalTo(toList(b, c)));
     }
 
+    @Test
+    public void parallelExecuterExecutesTasksInDependencyOrder() {
+        useParallelExecuter();
+        Task a = createTask("a");
+        Task b = createTask("b", a);
+        Task c = createTask("c", b, a);
+        Task d = createTask("d", c);
+
+        taskExecuter.execute(toList(d));
+
+        assertThat(executedTasks, equalTo(toList(a, b, c, d)));
+    }
+
+    @Test
+    public void parallelExecuterExecutesIndependentTasksConcurrently() {
+        useParallelExecuter();
+        final CountDownLatch started = new CountDownLatch(2);
+        Action<Task> waitForOtherTask = new Action<Task>() {
+            public void execute(Task task) {
+                started.countDown();
+                try {
+                    if (!started.await(20, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("Tasks were not executed concurrently.");
+                    }
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        Task a = createTask("a");
+        a.doLast(waitForOtherTask);
+        Task b = createTask("b");
+        b.doLast(waitForOtherTask);
+        Task c = createTask("c", a, b);
+
+        taskExecuter.execute(toList(c));
+
+        assertThat(executedTasks.size(), equalTo(3));
+        assertThat(executedTasks.get(2), equalTo(c));
+    }
+
+    @Test
+    public void parallelExecuterExecutesBatchesInOrderAdded() {
+        useParallelExecuter();
+        Task a = createTask("a");
+        Task b = createTask("b");
+        Task c = createTask("c");
+
+        taskExecuter.addTasks(toList(b));
+        taskExecuter.addTasks(toList(a));
+        taskExecuter.addTasks(toList(c));
+        taskExecuter.execute();
+
+        assertThat(executedTasks, equalTo(toList(b, a, c)));
+    }
+
+    @Test
+    public void parallelExecuterStopsExecutingTasksWhenTaskFails() {
+        useParallelExecuter();
+        final RuntimeException failure = new RuntimeException();
+        Task a = createTask("a");
+        a.doLast(new Action<Task>() {
+            public void execute(Task task) {
+                throw failure;
+            }
+        });
+        Task b = createTask("b", a);
+
+        try {
+            taskExecuter.execute(toList(b));
+            fail();
+        } catch (TaskExecutionException e) {
+            assertThat(e.getCause(), sameInstance((Throwable) failure));
+        }
+
+        assertThat(executedTasks, equalTo(toList(a)));
+    }
+
+    @Test
+    public void parallelExecuterNotifiesTaskListenerAsTasksAreExecuted() {
+        useParallelExecuter();
+        final TaskExecutionListener listener = context.mock(TaskExecutionListener.class);
+        final Task a = createTask("a");
+        final Task b = createTask("b", a);
+
+        taskExecuter.addTaskExecutionListener(listener);
+        taskExecuter.addTasks(toList(b));
+
+        context.checking(new Expectations() {{
+            one(listener).beforeExecute(a);
+            one(listener).afterExecute(with(equalTo(a)), with(notNullValue(TaskState.class)));
+            one(listener).beforeExecute(b);
+            one(listener).afterExecute(with(equalTo(b)), with(notNullValue(TaskState.class)));
+        }});
+
+        taskExecuter.execute();
+    }
+
     private Task createTask(String name, final Task... dependsOn) {
         final TaskInternal task = AbstractTask.injectIntoNewInstance(root, name, new Callable<TaskInternal>() {
             public TaskInternal call() throws Exception {
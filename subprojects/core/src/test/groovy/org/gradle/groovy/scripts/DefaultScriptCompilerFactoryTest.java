@@ -16,6 +16,7 @@
 
 package org.gradle.groovy.scripts;
 
+import org.gradle.api.internal.BuildOperationListener;
 import org.gradle.api.internal.project.ServiceRegistry;
 import org.gradle.api.internal.resource.Resource;
 import org.gradle.logging.StandardOutputCapture;
@@ -66,6 +67,7 @@ public class DefaultScriptCompilerFactoryTest {
     ScriptRunnerFactory scriptRunnerFactoryMock;
     CacheRepository cacheRepositoryMock;
     PersistentCache cacheMock;
+    BuildOperationListener operationListenerMock;
 
     Mockery context = new JUnit4Mockery();
 
@@ -87,12 +89,14 @@ public class DefaultScriptCompilerFactoryTest {
         scriptRunnerFactoryMock = context.mock(ScriptRunnerFactory.class);
         cacheRepositoryMock = context.mock(CacheRepository.class);
         cacheMock = context.mock(PersistentCache.class);
+        operationListenerMock = context.mock(BuildOperationListener.class);
         testClassLoader = new URLClassLoader(new URL[0]);
         testScriptFile = new File(tmpDir.getDir(), "script/mybuild.craidle");
         cacheDir = new File(tmpDir.getDir(), "cache");
         expectedScriptCacheDir = new TestFile(cacheDir, "Script").createDir();
         expectedScriptRunner = context.mock(ScriptRunner.class);
-        scriptProcessor = new DefaultScriptCompilerFactory(scriptCompilationHandlerMock, scriptRunnerFactoryMock, cacheRepositoryMock);
+        scriptProcessor = new DefaultScriptCompilerFactory(scriptCompilationHandlerMock, scriptRunnerFactoryMock, cacheRepositoryMock,
+                operationListenerMock);
         source = context.mock(ScriptSource.class);
         cacheBuilder = context.mock(CacheBuilder.class);
 
@@ -112,6 +116,8 @@ public class DefaultScriptCompilerFactoryTest {
 
             allowing(cacheMock).getBaseDir();
             will(returnValue(cacheDir));
+
+            ignoring(operationListenerMock);
         }});
 
         expectedSource = new CachingScriptSource(source);
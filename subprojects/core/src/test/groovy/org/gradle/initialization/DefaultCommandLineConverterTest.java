@@ -65,6 +65,9 @@ public class DefaultCommandLineConverterTest {
     private boolean expectedColorOutput = true;
     private StartParameter actualStartParameter;
     private boolean expectedProfile;
+    private int expectedParallelThreadCount = 1;
+    private boolean expectedParallelProjectConfiguration;
+    private int expectedParallelDownloadCount = 1;
 
     private final DefaultCommandLineConverter commandLineConverter = new DefaultCommandLineConverter();
 
@@ -96,6 +99,9 @@ public class DefaultCommandLineConverterTest {
         assertEquals(expectedExcludedTasks, startParameter.getExcludedTaskNames());
         assertEquals(expectedInitScripts, startParameter.getInitScripts());
         assertEquals(expectedProfile, startParameter.isProfile());
+        assertEquals(expectedParallelThreadCount, startParameter.getParallelThreadCount());
+        assertEquals(expectedParallelProjectConfiguration, startParameter.isParallelProjectConfiguration());
+        assertEquals(expectedParallelDownloadCount, startParameter.getParallelDownloadCount());
     }
 
     private void checkConversion(final boolean embedded, String... args) {
@@ -346,6 +352,39 @@ public class DefaultCommandLineConverterTest {
         checkConversion("--profile");
     }
 
+    @Test
+    public void withParallelThreads() {
+        expectedParallelThreadCount = 4;
+        checkConversion("--parallel-threads", "4");
+    }
+
+    @Test(expected = CommandLineArgumentException.class)
+    public void withNonNumericParallelThreads() {
+        checkConversion("--parallel-threads", "many");
+    }
+
+    @Test(expected = CommandLineArgumentException.class)
+    public void withZeroParallelThreads() {
+        checkConversion("--parallel-threads", "0");
+    }
+
+    @Test
+    public void withParallelConfiguration() {
+        expectedParallelProjectConfiguration = true;
+        checkConversion("--parallel-configuration");
+    }
+
+    @Test
+    public void withParallelDownloads() {
+        expectedParallelDownloadCount = 8;
+        checkConversion("--parallel-downloads", "8");
+    }
+
+    @Test(expected = CommandLineArgumentException.class)
+    public void withZeroParallelDownloads() {
+        checkConversion("--parallel-downloads", "0");
+    }
+
     @Test(expected = CommandLineArgumentException.class)
     public void withUnknownOption() {
         checkConversion("--unknown");
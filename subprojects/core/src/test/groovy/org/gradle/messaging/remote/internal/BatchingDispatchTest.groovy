@@ -0,0 +1,193 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.messaging.remote.internal
+
+import java.util.concurrent.TimeUnit
+import org.gradle.api.GradleException
+import org.gradle.messaging.dispatch.Dispatch
+import org.gradle.util.JUnit4GroovyMockery
+import org.gradle.util.MultithreadedTestCase
+import org.jmock.integration.junit4.JMock
+import org.junit.Test
+import org.junit.runner.RunWith
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+
+@RunWith(JMock.class)
+public class BatchingDispatchTest extends MultithreadedTestCase {
+    private final JUnit4GroovyMockery context = new JUnit4GroovyMockery()
+    private final Dispatch<Object> target = context.mock(Dispatch.class)
+
+    @Test
+    public void deliversMessageToAnIdleTargetWithoutBatching() {
+        BatchingDispatch dispatch = new BatchingDispatch(executor, target)
+        context.checking {
+            one(target).dispatch('message1')
+        }
+
+        dispatch.dispatch('message1')
+        dispatch.stop()
+    }
+
+    @Test
+    public void batchesMessagesQueuedWhileTargetIsBusy() {
+        BatchingDispatch dispatch = new BatchingDispatch(executor, target)
+        context.checking {
+            one(target).dispatch('message1')
+            will {
+                syncAt(1)
+                syncAt(2)
+            }
+            one(target).dispatch(withParam(instanceOf(MessageBatch)))
+            will { batch ->
+                assertThat(batch.messages, equalTo(['message2', 'message3']))
+            }
+        }
+
+        run {
+            dispatch.dispatch('message1')
+            syncAt(1)
+            dispatch.dispatch('message2')
+            dispatch.dispatch('message3')
+            syncAt(2)
+        }
+
+        dispatch.stop()
+    }
+
+    @Test
+    public void limitsTheSizeOfEachBatch() {
+        BatchingDispatch dispatch = new BatchingDispatch(executor, target, 10, 2, 5, TimeUnit.MILLISECONDS)
+        def delivered = []
+        context.checking {
+            one(target).dispatch('message1')
+            will {
+                syncAt(1)
+                syncAt(2)
+            }
+            exactly(2).of(target).dispatch(withParam(instanceOf(MessageBatch)))
+            will { batch ->
+                assertThat(batch.messages.size(), equalTo(2))
+                delivered.addAll(batch.messages)
+            }
+        }
+
+        run {
+            dispatch.dispatch('message1')
+            syncAt(1)
+            (2..5).each { dispatch.dispatch("message$it".toString()) }
+            syncAt(2)
+        }
+
+        dispatch.stop()
+        assertThat(delivered, equalTo(['message2', 'message3', 'message4', 'message5']))
+    }
+
+    @Test
+    public void dispatchBlocksWhileQueueIsFull() {
+        BatchingDispatch dispatch = new BatchingDispatch(executor, target, 1, 1, 5, TimeUnit.MILLISECONDS)
+        context.checking {
+            one(target).dispatch('message1')
+            will {
+                syncAt(1)
+                syncAt(2)
+            }
+            one(target).dispatch('message2')
+            one(target).dispatch('message3')
+        }
+
+        run {
+            dispatch.dispatch('message1')
+            syncAt(1)
+            dispatch.dispatch('message2')
+            expectBlocksUntil(2) {
+                dispatch.dispatch('message3')
+            }
+        }
+
+        dispatch.stop()
+    }
+
+    @Test
+    public void stopBlocksUntilAllMessagesDelivered() {
+        BatchingDispatch dispatch = new BatchingDispatch(executor, target)
+        context.checking {
+            one(target).dispatch('message1')
+            will {
+                syncAt(1)
+                syncAt(2)
+            }
+            one(target).dispatch('message2')
+        }
+
+        run {
+            dispatch.dispatch('message1')
+            syncAt(1)
+            dispatch.dispatch('message2')
+            expectBlocksUntil(2) {
+                dispatch.stop()
+            }
+        }
+    }
+
+    @Test
+    public void blockedDispatchAndStopFailWhenDeliveryFails() {
+        BatchingDispatch dispatch = new BatchingDispatch(executor, target, 1, 1, 5, TimeUnit.MILLISECONDS)
+        RuntimeException failure = new RuntimeException('broken')
+        context.checking {
+            one(target).dispatch('message1')
+            will {
+                syncAt(1)
+                syncAt(2)
+                throw failure
+            }
+        }
+
+        run {
+            dispatch.dispatch('message1')
+            syncAt(1)
+            dispatch.dispatch('message2')
+            expectBlocksUntil(2) {
+                try {
+                    dispatch.dispatch('message3')
+                    fail()
+                } catch (GradleException e) {
+                    assertThat(e.cause, sameInstance(failure))
+                }
+            }
+        }
+
+        try {
+            dispatch.stop()
+            fail()
+        } catch (GradleException e) {
+            assertThat(e.cause, sameInstance(failure))
+        }
+    }
+
+    @Test
+    public void cannotDispatchAfterStop() {
+        BatchingDispatch dispatch = new BatchingDispatch(executor, target)
+        dispatch.stop()
+
+        try {
+            dispatch.dispatch('message1')
+            fail()
+        } catch (IllegalStateException e) {
+            assertThat(e.message, equalTo('This message dispatch has been stopped.'))
+        }
+    }
+}
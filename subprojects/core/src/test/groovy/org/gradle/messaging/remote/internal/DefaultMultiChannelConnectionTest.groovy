@@ -37,15 +37,17 @@ public class DefaultMultiChannelConnectionTest extends MultithreadedTestCase {
     @Test
     public void dispatchesOutgoingMessageToTargetConnection() {
         clockTick(1).hasParticipants(2)
+        def dispatched = []
         context.checking {
             one(target).receive()
             will {
                 syncAt(1)
                 return null
             }
-            one(target).dispatch(new ChannelMetaInfo('channel1', 0))
-            one(target).dispatch(new ChannelMessage(0, message))
-            one(target).dispatch(new EndOfStreamEvent())
+            allowing(target).dispatch(withParam(anything()))
+            will { msg ->
+                dispatched.addAll(msg instanceof MessageBatch ? msg.messages : [msg])
+            }
             one(target).stop()
         }
 
@@ -56,6 +58,38 @@ public class DefaultMultiChannelConnectionTest extends MultithreadedTestCase {
         }
 
         connection.stop()
+
+        assert dispatched == [new ChannelMetaInfo('channel1', 0), new ChannelMessage(0, message), new EndOfStreamEvent()]
+    }
+
+    @Test
+    public void unpacksIncomingMessageBatches() {
+        clockTick(1).hasParticipants(2)
+        Dispatch<Message> handler = context.mock(Dispatch.class)
+        TestMessage message2 = new TestMessage()
+        context.checking {
+            one(target).receive()
+            will(returnValue(new MessageBatch([new ChannelMetaInfo('channel1', 0), new ChannelMessage(0, message), new ChannelMessage(0, message2)])))
+            one(handler).dispatch(message)
+            one(handler).dispatch(message2)
+            one(target).receive()
+            will {
+                syncAt(1)
+                return null
+            }
+            one(target).dispatch(new EndOfStreamEvent())
+            one(target).stop()
+        }
+
+        connection = new DefaultMultiChannelConnection(executorFactory, 'connection', target, new URI('test:local'), new URI('test:remote'))
+
+        run {
+            connection.addIncomingChannel('channel1', handler)
+
+            syncAt(1)
+        }
+
+        connection.stop()
     }
 
     @Test
@@ -88,6 +122,27 @@ public class DefaultMultiChannelConnectionTest extends MultithreadedTestCase {
         connection.stop()
     }
 
+    @Test
+    public void runsEndOfStreamActionsWhenIncomingStreamEnds() {
+        Runnable action = context.mock(Runnable.class, 'action')
+        Runnable lateAction = context.mock(Runnable.class, 'lateAction')
+        context.checking {
+            one(target).receive()
+            will(returnValue(null))
+            one(target).dispatch(new EndOfStreamEvent())
+            one(action).run()
+            one(lateAction).run()
+            one(target).stop()
+        }
+
+        connection = new DefaultMultiChannelConnection(executorFactory, 'connection', target, new URI('test:local'), new URI('test:remote'))
+        connection.addEndOfStreamAction(action)
+
+        connection.stop()
+
+        connection.addEndOfStreamAction(lateAction)
+    }
+
     @Test
     public void stuckHandlerDoesNotBlockOtherHandlers() {
         Dispatch<Message> handler1 = context.mock(Dispatch.class, 'handler1')
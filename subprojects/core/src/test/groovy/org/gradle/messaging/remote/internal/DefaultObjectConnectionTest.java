@@ -174,6 +174,10 @@ public class DefaultObjectConnectionTest {
                     throw new UnsupportedOperationException();
                 }
 
+                public void addEndOfStreamAction(Runnable action) {
+                    throw new UnsupportedOperationException();
+                }
+
                 public void requestStop() {
                     throw new UnsupportedOperationException();
                 }
@@ -202,6 +206,10 @@ public class DefaultObjectConnectionTest {
                     channels.put(channelKey, dispatch);
                 }
 
+                public void addEndOfStreamAction(Runnable action) {
+                    throw new UnsupportedOperationException();
+                }
+
                 public void requestStop() {
                     throw new UnsupportedOperationException();
                 }
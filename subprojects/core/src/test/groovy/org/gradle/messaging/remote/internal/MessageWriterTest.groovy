@@ -0,0 +1,84 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.messaging.remote.internal
+
+import spock.lang.Specification
+
+class MessageWriterTest extends Specification {
+    private final GroovyClassLoader dest = new GroovyClassLoader(getClass().getClassLoader())
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream()
+    private final MessageWriter writer = new MessageWriter(outputStream)
+
+    def canWriteAndReadASequenceOfMessages() {
+        when:
+        (1..10).each { writer.send(new PayloadMessage(payload: "message $it".toString())) }
+        def received = receiveAll(10)
+
+        then:
+        received*.payload == (1..10).collect { "message $it".toString() }
+    }
+
+    def doesNotShareObjectStateBetweenMessages() {
+        def message = new PayloadMessage(payload: [1, 2])
+
+        when:
+        writer.send(message)
+        message.payload << 3
+        writer.send(message)
+        def received = receiveAll(2)
+
+        then:
+        received[0].payload == [1, 2]
+        received[1].payload == [1, 2, 3]
+        !received[0].is(received[1])
+    }
+
+    def replacesExceptionsWithPlaceholders() {
+        def failure = new RuntimeException("broken", new IOException("cause"))
+
+        when:
+        writer.send(new PayloadMessage(payload: failure))
+        writer.send(new PayloadMessage(payload: failure))
+        def received = receiveAll(2)
+
+        then:
+        received.each { message ->
+            assert message.payload.class == RuntimeException
+            assert message.payload.message == "broken"
+            assert message.payload.cause.class == IOException
+        }
+    }
+
+    def writesClassDescriptorsOnce() {
+        writer.send(new PayloadMessage(payload: "first"))
+        def firstSize = outputStream.size()
+
+        when:
+        writer.send(new PayloadMessage(payload: "first"))
+
+        then:
+        outputStream.size() - firstSize < firstSize / 4
+    }
+
+    private List receiveAll(int count) {
+        MessageReader reader = new MessageReader(new ByteArrayInputStream(outputStream.toByteArray()), dest)
+        return (1..count).collect { reader.receive() }
+    }
+}
+
+private class PayloadMessage extends Message {
+    def payload
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.messaging.remote.internal;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Compares the throughput of sending messages over a loopback socket using a new object stream per message, as {@link
+ * Message#send(Object, OutputStream)} does, and using a {@link MessageWriter} for the whole connection, as {@link
+ * SocketConnection} does. This is not run as part of the test suite. Run it using {@code main()}, optionally passing the
+ * number of messages to send.
+ */
+public class MessagingBenchmark {
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        for (int i = 0; i < 3; i++) {
+            run("per message streams", messages, false);
+            run("per connection stream", messages, true);
+        }
+    }
+
+    private static void run(String name, final int messages, final boolean reuseStream) throws Exception {
+        ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getByName(null));
+        final Socket sender = new Socket(serverSocket.getInetAddress(), serverSocket.getLocalPort());
+        Socket receiver = serverSocket.accept();
+        serverSocket.close();
+        final CountingOutputStream outputStream = new CountingOutputStream(new BufferedOutputStream(
+                sender.getOutputStream()));
+
+        long start = System.nanoTime();
+        Thread senderThread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    MessageWriter writer = new MessageWriter(outputStream);
+                    for (int i = 0; i < messages; i++) {
+                        Object message = new ChannelMessage("channel", new RemoteMethodInvocation(i % 8, new Object[]{
+                                new TestEvent(i, "output line " + i)}));
+                        if (reuseStream) {
+                            writer.send(message);
+                        } else {
+                            Message.send(message, outputStream);
+                        }
+                    }
+                    outputStream.flush();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        senderThread.start();
+
+        InputStream inputStream = new BufferedInputStream(receiver.getInputStream());
+        MessageReader reader = new MessageReader(inputStream, MessagingBenchmark.class.getClassLoader());
+        for (int i = 0; i < messages; i++) {
+            if (reuseStream) {
+                reader.receive();
+            } else {
+                Message.receive(inputStream, MessagingBenchmark.class.getClassLoader());
+            }
+        }
+        long time = System.nanoTime() - start;
+        senderThread.join();
+        sender.close();
+        receiver.close();
+
+        System.out.println(String.format("%s: %d messages, %.0f messages/s, %d bytes/message", name, messages,
+                messages / (time / 1e9), outputStream.count / messages));
+    }
+
+    private static class TestEvent implements Serializable {
+        private final long id;
+        private final String message;
+
+        private TestEvent(long id, String message) {
+            this.id = id;
+            this.message = message;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+    }
+}
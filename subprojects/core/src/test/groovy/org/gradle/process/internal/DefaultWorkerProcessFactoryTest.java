@@ -87,6 +87,36 @@ public class DefaultWorkerProcessFactoryTest {
         assertThat(instr.readObject(), instanceOf(IsolatedApplicationClassLoaderWorker.class));
     }
 
+    @Test
+    public void createsAPooledWorkerProcessWhenReuseRequested() throws Exception {
+        final Set<File> processClassPath = Collections.singleton(new File("something.jar"));
+        DefaultWorkerProcessFactory factory = new DefaultWorkerProcessFactory(LogLevel.LIFECYCLE, messagingServer,
+                classPathRegistry, fileResolver, idGenerator, new WorkerProcessPool(context.mock(MessagingServer.class,
+                        "poolServer")));
+
+        context.checking(new Expectations() {{
+            one(classPathRegistry).getClassPathFiles("WORKER_PROCESS");
+            will(returnValue(processClassPath));
+            ignoring(fileResolver);
+        }});
+
+        WorkerProcessBuilder builder = factory.create();
+        builder.worker(new TestAction());
+        builder.setReuseProcess(true);
+
+        context.checking(new Expectations(){{
+            one(messagingServer).accept(with(notNullValue(Action.class)));
+            will(returnValue(new URI("test:something")));
+            one(idGenerator).generateId();
+            will(returnValue("<id>"));
+        }});
+
+        WorkerProcess process = builder.build();
+
+        assertThat(process, instanceOf(PooledWorkerProcess.class));
+        assertThat(process.toString(), equalTo("Gradle Worker <id>"));
+    }
+
     private static class TestAction implements Action<WorkerProcessContext>, Serializable {
         public void execute(WorkerProcessContext workerProcessContext) {
             throw new UnsupportedOperationException();
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.profile;
+
+import org.gradle.StartParameter;
+import org.gradle.api.Project;
+import org.gradle.api.internal.BuildOperation;
+import org.gradle.api.internal.GradleInternal;
+import org.jmock.Expectations;
+import org.jmock.integration.junit4.JMock;
+import org.jmock.integration.junit4.JUnit4Mockery;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+@RunWith(JMock.class)
+public class ProfileListenerTest {
+    private final JUnit4Mockery context = new JUnit4Mockery();
+    private final GradleInternal gradle = context.mock(GradleInternal.class);
+    private final Project project = context.mock(Project.class);
+    private final ProfileListener listener = new ProfileListener(0);
+    private BuildProfile profile;
+
+    @Before
+    public void setUp() {
+        context.checking(new Expectations() {{
+            never(gradle).getServices();
+            allowing(gradle).getStartParameter();
+            will(returnValue(new StartParameter()));
+            allowing(project).getPath();
+            will(returnValue(":project"));
+        }});
+
+        listener.buildStarted(gradle);
+        profile = listener.getBuildProfile();
+    }
+
+    @Test
+    public void attributesOperationsToTheProjectBeingEvaluated() {
+        BuildOperation settings = operation(BuildOperation.Type.COMPILE_SCRIPT, "settings file");
+        BuildOperation script = operation(BuildOperation.Type.COMPILE_SCRIPT, "build file");
+        BuildOperation plugin = operation(BuildOperation.Type.APPLY_PLUGIN, "SomePlugin");
+        BuildOperation afterEvaluate = operation(BuildOperation.Type.NOTIFY_AFTER_EVALUATE, "project");
+
+        listener.operationStarted(settings);
+        listener.operationFinished(settings);
+        listener.beforeEvaluate(project);
+        listener.operationStarted(script);
+        listener.operationFinished(script);
+        listener.operationStarted(afterEvaluate);
+        listener.afterEvaluate(project, null);
+        listener.operationStarted(plugin);
+        listener.operationFinished(plugin);
+        listener.operationFinished(afterEvaluate);
+
+        assertThat(operations(profile.getOperations()), equalTo(new Object[]{settings}));
+
+        List<OperationProfile> projectOperations = profile.getProjectProfile(project).getOperations();
+        assertThat(operations(projectOperations), equalTo(new Object[]{script, afterEvaluate}));
+        assertThat(operations(projectOperations.get(1).getChildren()), equalTo(new Object[]{plugin}));
+    }
+
+    @Test
+    public void nestsOperationsStartedByTheSameThread() throws Exception {
+        BuildOperation outer = operation(BuildOperation.Type.APPLY_PLUGIN, "OuterPlugin");
+        BuildOperation inner = operation(BuildOperation.Type.RESOLVE_CONFIGURATION, "configuration ':compile'");
+        final BuildOperation otherThread = operation(BuildOperation.Type.RESOLVE_CONFIGURATION, "configuration ':other'");
+
+        listener.operationStarted(outer);
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                listener.operationStarted(otherThread);
+                listener.operationFinished(otherThread);
+            }
+        };
+        thread.start();
+        thread.join();
+        listener.operationStarted(inner);
+        listener.operationFinished(inner);
+        listener.operationFinished(outer);
+
+        List<OperationProfile> operations = profile.getOperations();
+        assertThat(operations(operations), equalTo(new Object[]{outer, otherThread}));
+        assertThat(operations(operations.get(0).getChildren()), equalTo(new Object[]{inner}));
+        assertThat(operations.get(0).getElapsedTime(), greaterThanOrEqualTo(operations.get(0).getElapsedOwnTime()));
+    }
+
+    @Test
+    public void writesOperationsToJsonReport() throws Exception {
+        BuildOperation plugin = operation(BuildOperation.Type.APPLY_PLUGIN, "SomePlugin");
+        BuildOperation resolve = operation(BuildOperation.Type.RESOLVE_CONFIGURATION, "configuration \"compile\"");
+
+        listener.beforeEvaluate(project);
+        listener.operationStarted(plugin);
+        listener.operationStarted(resolve);
+        listener.operationFinished(resolve);
+        listener.operationFinished(plugin);
+        listener.afterEvaluate(project, null);
+
+        StringWriter writer = new StringWriter();
+        new JsonProfileReport(profile).writeTo(writer);
+        String json = writer.toString();
+
+        assertThat(json, startsWith("{\"tasks\":\"\",\"buildStarted\":"));
+        assertThat(json, containsString("\"operations\":[],\"projects\":[{\"path\":\":project\","));
+        assertThat(json, containsString("\"operations\":[{\"type\":\"APPLY_PLUGIN\",\"description\":\"SomePlugin\","));
+        assertThat(json, containsString("\"operations\":[{\"type\":\"RESOLVE_CONFIGURATION\",\"description\":\"configuration \\\"compile\\\"\","));
+        assertThat(json, endsWith("\"tasks\":[]}]}"));
+    }
+
+    private BuildOperation operation(BuildOperation.Type type, String description) {
+        return new BuildOperation(type, description);
+    }
+
+    private Object[] operations(List<OperationProfile> profiles) {
+        Object[] result = new Object[profiles.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = profiles.get(i).getOperation();
+        }
+        return result;
+    }
+}
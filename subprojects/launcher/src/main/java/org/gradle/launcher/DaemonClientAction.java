@@ -20,7 +20,9 @@ import org.gradle.launcher.protocol.Command;
 import org.gradle.launcher.protocol.CommandComplete;
 import org.gradle.logging.internal.OutputEvent;
 import org.gradle.logging.internal.OutputEventListener;
+import org.gradle.messaging.dispatch.Receive;
 import org.gradle.messaging.remote.internal.Connection;
+import org.gradle.messaging.remote.internal.UnbatchingReceive;
 
 /**
  * The client piece of the build daemon.
@@ -32,7 +34,8 @@ import org.gradle.messaging.remote.internal.Connection;
  * <li>Client sends a {@link org.gradle.launcher.protocol.Command} message.</li>
  *
  * <li>Server sends zero or more {@link org.gradle.logging.internal.OutputEvent} messages. Note that the server may
- * send output messages before it receives the command message.
+ * send output messages before it receives the command message. Output messages may be grouped into a {@link
+ * org.gradle.messaging.remote.internal.MessageBatch}.
  * </li>
  *
  * <li>Server sends a {@link org.gradle.launcher.protocol.CommandComplete} message.</li>
@@ -52,8 +55,9 @@ public abstract class DaemonClientAction implements Action<ExecutionListener> {
         try {
             connection.dispatch(command);
 
+            Receive<Object> receive = new UnbatchingReceive(connection);
             while (true) {
-                Object object = connection.receive();
+                Object object = receive.receive();
                 if (object instanceof CommandComplete) {
                     CommandComplete commandComplete = (CommandComplete) object;
                     if (commandComplete.getFailure() != null) {
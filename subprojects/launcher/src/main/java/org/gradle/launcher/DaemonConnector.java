@@ -24,6 +24,7 @@ import org.gradle.initialization.DefaultCommandLineConverter;
 import org.gradle.messaging.concurrent.CompositeStoppable;
 import org.gradle.messaging.concurrent.DefaultExecutorFactory;
 import org.gradle.messaging.concurrent.Stoppable;
+import org.gradle.messaging.concurrent.StoppableExecutor;
 import org.gradle.messaging.remote.ConnectEvent;
 import org.gradle.messaging.remote.internal.ConnectException;
 import org.gradle.messaging.remote.internal.Connection;
@@ -147,25 +148,42 @@ public class DaemonConnector {
     }
 
     /**
-     * Starts accepting connections.
+     * Starts accepting connections. Each connection is handled in its own thread, so that multiple connections can be
+     * handled concurrently.
      *
      * @param handler The handler for connections.
      */
     void accept(final IncomingConnectionHandler handler) {
         DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
         TcpIncomingConnector incomingConnector = new TcpIncomingConnector(executorFactory, getClass().getClassLoader());
+        final StoppableExecutor handlerExecutor = executorFactory.create("Daemon connection handler");
         final CompletionHandler finished = new CompletionHandler();
 
         LOGGER.lifecycle("Awaiting requests.");
 
         URI uri = incomingConnector.accept(new Action<ConnectEvent<Connection<Object>>>() {
             public void execute(ConnectEvent<Connection<Object>> connectionConnectEvent) {
+                final Connection<Object> connection = connectionConnectEvent.getConnection();
+                if (!finished.onStartActivity()) {
+                    // Stopping, so don't accept any more work
+                    connection.stop();
+                    return;
+                }
                 try {
-                    finished.onStartActivity();
-                    handler.handle(connectionConnectEvent.getConnection(), finished);
-                } finally {
+                    handlerExecutor.execute(new Runnable() {
+                        public void run() {
+                            try {
+                                handler.handle(connection, finished);
+                            } finally {
+                                finished.onActivityComplete();
+                                connection.stop();
+                            }
+                        }
+                    });
+                } catch (RuntimeException e) {
                     finished.onActivityComplete();
-                    connectionConnectEvent.getConnection().stop();
+                    connection.stop();
+                    throw e;
                 }
             }
         });
@@ -176,7 +194,7 @@ public class DaemonConnector {
         if (!stopped) {
             LOGGER.lifecycle("Time-out waiting for requests. Stopping.");
         }
-        new CompositeStoppable(incomingConnector, executorFactory).stop();
+        new CompositeStoppable(incomingConnector, handlerExecutor, executorFactory).stop();
 
         getRegistryFile().delete();
     }
@@ -209,7 +227,7 @@ public class DaemonConnector {
         private static final int THREE_HOURS = 3 * 60 * 60 * 1000;
         private final Lock lock = new ReentrantLock();
         private final Condition condition = lock.newCondition();
-        private boolean running;
+        private int activeCount;
         private boolean stopped;
         private long expiry;
 
@@ -225,9 +243,9 @@ public class DaemonConnector {
         public boolean awaitStop() {
             lock.lock();
             try {
-                while (running || (!stopped && System.currentTimeMillis() < expiry)) {
+                while (activeCount > 0 || (!stopped && System.currentTimeMillis() < expiry)) {
                     try {
-                        if (running) {
+                        if (activeCount > 0) {
                             condition.await();
                         } else {
                             condition.awaitUntil(new Date(expiry));
@@ -236,7 +254,7 @@ public class DaemonConnector {
                         throw UncheckedException.asUncheckedException(e);
                     }
                 }
-                assert !running;
+                assert activeCount == 0;
                 return stopped;
             } finally {
                 lock.unlock();
@@ -253,12 +271,20 @@ public class DaemonConnector {
             }
         }
 
-        public void onStartActivity() {
+        /**
+         * Called when an activity is about to start.
+         *
+         * @return true if the activity should be started, false if stopping.
+         */
+        public boolean onStartActivity() {
             lock.lock();
             try {
-                assert !running;
-                running = true;
+                if (stopped) {
+                    return false;
+                }
+                activeCount++;
                 condition.signalAll();
+                return true;
             } finally {
                 lock.unlock();
             }
@@ -267,8 +293,8 @@ public class DaemonConnector {
         public void onActivityComplete() {
             lock.lock();
             try {
-                assert running;
-                running = false;
+                assert activeCount > 0;
+                activeCount--;
                 resetTimer();
                 condition.signalAll();
             } finally {
@@ -35,7 +35,13 @@ import org.gradle.logging.StyledTextOutputFactory;
 import org.gradle.logging.internal.LoggingOutputInternal;
 import org.gradle.logging.internal.OutputEvent;
 import org.gradle.logging.internal.OutputEventListener;
+import org.gradle.messaging.concurrent.CompositeStoppable;
+import org.gradle.messaging.concurrent.DefaultExecutorFactory;
+import org.gradle.messaging.concurrent.ExecutorFactory;
 import org.gradle.messaging.concurrent.Stoppable;
+import org.gradle.messaging.concurrent.StoppableExecutor;
+import org.gradle.messaging.dispatch.Dispatch;
+import org.gradle.messaging.remote.internal.BatchingDispatch;
 import org.gradle.messaging.remote.internal.Connection;
 import org.gradle.util.GradleVersion;
 import org.gradle.util.UncheckedException;
@@ -43,21 +49,32 @@ import org.gradle.util.UncheckedException;
 import java.io.*;
 import java.util.Arrays;
 import java.util.Properties;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The server portion of the build daemon. See {@link DaemonClientAction} for a description of the
  * protocol.
+ *
+ * <p>Each client connection is handled in its own thread, so that a client can connect, and can stop the daemon, while
+ * a build is running. The builds themselves run one at a time, as they change process-wide state such as the system
+ * properties and the logging level. A client whose build has to wait is told so. The builds share the global services,
+ * and so share the generated classes and the open caches, which are kept between builds.</p>
  */
 public class DaemonMain implements Runnable {
     private static final Logger LOGGER = Logging.getLogger(Main.class);
     private final ServiceRegistry loggingServices;
     private final DaemonConnector connector;
+    private final DaemonServicesRegistry sharedServices;
     private final GradleLauncherFactory launcherFactory;
+    private final ExecutorFactory executorFactory = new DefaultExecutorFactory();
+    private final Lock buildLock = new ReentrantLock();
 
     public DaemonMain(ServiceRegistry loggingServices, DaemonConnector connector) {
         this.loggingServices = loggingServices;
         this.connector = connector;
-        launcherFactory = new DefaultGradleLauncherFactory(loggingServices);
+        sharedServices = new DaemonServicesRegistry(loggingServices);
+        launcherFactory = new DefaultGradleLauncherFactory(sharedServices);
     }
 
     public static void main(String[] args) throws IOException {
@@ -85,20 +102,26 @@ public class DaemonMain implements Runnable {
     }
 
     public void run() {
-        connector.accept(new IncomingConnectionHandler() {
-            public void handle(Connection<Object> connection, Stoppable serverControl) {
-                doRun(connection, serverControl);
-            }
-        });
+        try {
+            connector.accept(new IncomingConnectionHandler() {
+                public void handle(Connection<Object> connection, Stoppable serverControl) {
+                    doRun(connection, serverControl);
+                }
+            });
+        } finally {
+            sharedServices.close();
+        }
     }
 
     private void doRun(final Connection<Object> connection, Stoppable serverControl) {
         ExecutionListenerImpl executionListener = new ExecutionListenerImpl();
+        StoppableExecutor executor = executorFactory.create("Daemon output");
+        final BatchingDispatch outputDispatch = new BatchingDispatch(executor, new OutputDispatch(connection));
         try {
             LoggingOutputInternal loggingOutput = loggingServices.get(LoggingOutputInternal.class);
             OutputEventListener listener = new OutputEventListener() {
                 public void onOutput(OutputEvent event) {
-                    connection.dispatch(event);
+                    outputDispatch.dispatch(event);
                 }
             };
 
@@ -113,6 +136,7 @@ public class DaemonMain implements Runnable {
             LOGGER.error("Could not execute build.", throwable);
             executionListener.onFailure(throwable);
         }
+        new CompositeStoppable(outputDispatch, executor).stop();
         connection.dispatch(new CommandComplete(executionListener.failure));
     }
 
@@ -140,6 +164,18 @@ public class DaemonMain implements Runnable {
     }
 
     private void build(Build build, ExecutionListener executionListener) {
+        if (!buildLock.tryLock()) {
+            LOGGER.lifecycle("Waiting for another build in this daemon to finish.");
+            buildLock.lock();
+        }
+        try {
+            buildExclusively(build, executionListener);
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private void buildExclusively(Build build, ExecutionListener executionListener) {
         DefaultCommandLineConverter converter = new DefaultCommandLineConverter();
         StartParameter startParameter = new StartParameter();
         startParameter.setCurrentDir(build.getCurrentDir());
@@ -148,9 +184,8 @@ public class DaemonMain implements Runnable {
         loggingManager.setLevel(startParameter.getLogLevel());
         loggingManager.start();
 
-        Properties sysProperties = new Properties();
-        sysProperties.putAll(System.getProperties());
-
+        Properties originalSystemProperties = new Properties();
+        originalSystemProperties.putAll(System.getProperties());
         try {
             RunBuildAction action = new RunBuildAction(startParameter, loggingServices, new DefaultBuildRequestMetaData(build.getClientMetaData(), build.getStartTime())) {
                 @Override
@@ -167,7 +202,31 @@ public class DaemonMain implements Runnable {
 
         loggingManager.stop();
 
-        System.setProperties(sysProperties);
+        System.setProperties(originalSystemProperties);
+    }
+
+    /**
+     * Forwards output to the client. Discards the remaining output once the client has gone away, as reporting the
+     * failure would generate further output.
+     */
+    private static class OutputDispatch implements Dispatch<Object> {
+        private final Connection<Object> connection;
+        private boolean failed;
+
+        public OutputDispatch(Connection<Object> connection) {
+            this.connection = connection;
+        }
+
+        public void dispatch(Object message) {
+            if (failed) {
+                return;
+            }
+            try {
+                connection.dispatch(message);
+            } catch (RuntimeException e) {
+                failed = true;
+            }
+        }
     }
 
     private static class ExecutionListenerImpl implements ExecutionListener {
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.launcher;
+
+import org.gradle.api.internal.project.GlobalServicesRegistry;
+import org.gradle.api.internal.project.ServiceRegistry;
+import org.gradle.cache.CacheFactory;
+import org.gradle.cache.DefaultCacheFactory;
+import org.gradle.cache.RetainingCacheFactory;
+
+/**
+ * Contains the services shared by all builds run by the daemon. Caches are kept open between builds.
+ */
+public class DaemonServicesRegistry extends GlobalServicesRegistry {
+    public DaemonServicesRegistry(ServiceRegistry loggingServices) {
+        super(loggingServices);
+    }
+
+    protected CacheFactory createCacheFactory() {
+        return new RetainingCacheFactory(new DefaultCacheFactory());
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing;
+
+/**
+ * May be implemented by the {@link TestResultProcessor} given to {@link TestClassProcessor#startProcessing}, to be
+ * notified when the processor fails after a test class has been handed to it, for example because its worker process
+ * has exited unexpectedly. No further results are received for the test classes which have not completed.
+ */
+public interface TestClassProcessorFailureListener {
+    void processorFailed(Throwable failure);
+}
@@ -49,4 +49,11 @@ public interface TestFramework {
      * executed before starting each worker process.
      */
     Action<WorkerProcessBuilder> getWorkerConfigurationAction();
+
+    /**
+     * Returns true when the test processor created by this framework executes each test class as soon as it is
+     * received, notifying its result processor when the test class starts and completes. When false, test classes may
+     * not be executed until the processor is stopped.
+     */
+    boolean isExecutesClassesOnReceipt();
 }
@@ -24,25 +24,36 @@ import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Base class for test framework detectors. Super classes which are not in a test class directory are looked up in the
+ * {@link JarClassIndex} of each jar file on the test class path which contains the package of the super class, rather
+ * than by extracting the class file from the jar. A detector can be used to process test class files from multiple
+ * threads concurrently.
+ *
  * @author Tom Eyckmans
  */
 public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractTestFrameworkDetector.class);
     protected static final String TEST_CASE = "junit/framework/TestCase";
     protected static final String GROOVY_TEST_CASE = "groovy/util/GroovyTestCase";
 
     private final File testClassesDirectory;
     private final FileCollection testClasspath;
     private List<File> testClassDirectories;
-    private ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private Map<String, List<LibraryJar>> packageLibraryJars;
+    private JarClassIndexCache jarClassIndexCache;
+    private final Map<String, Boolean> superClasses;
+    private final Object publishLock = new Object();
 
     protected TestClassProcessor testClassProcessor;
 
@@ -51,44 +62,61 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     protected AbstractTestFrameworkDetector(File testClassesDirectory, FileCollection testClasspath) {
         this.testClassesDirectory = testClassesDirectory;
         this.testClasspath = testClasspath;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.superClasses = new ConcurrentHashMap<String, Boolean>();
         this.knownTestCaseClassNames = new ArrayList<String>();
         addKnownTestCaseClassNames(TEST_CASE, GROOVY_TEST_CASE);
     }
 
     protected abstract T createClassVisitor();
 
-    protected File getSuperTestClassFile(String superClassName) {
+    public void setJarClassIndexCache(JarClassIndexCache jarClassIndexCache) {
+        this.jarClassIndexCache = jarClassIndexCache;
+    }
+
+    /**
+     * Returns a visitor which has visited the given super class, or null if the class cannot be found in the test class
+     * directories or the library jars of the test class path.
+     */
+    protected TestClassVisitor superClassVisitor(String superClassName) {
         prepareClasspath();
         if (StringUtils.isEmpty(superClassName)) {
             throw new IllegalArgumentException("superClassName is empty!");
         }
 
-        final Iterator<File> testClassDirectoriesIt = testClassDirectories.iterator();
-
-        File superTestClassFile = null;
-        while (superTestClassFile == null && testClassDirectoriesIt.hasNext()) {
-            final File testClassDirectory = testClassDirectoriesIt.next();
-            final File superTestClassFileCandidate = new File(testClassDirectory, superClassName + ".class");
-            if (superTestClassFileCandidate.exists()) {
-                superTestClassFile = superTestClassFileCandidate;
+        for (File testClassDirectory : testClassDirectories) {
+            File superTestClassFile = new File(testClassDirectory, superClassName + ".class");
+            if (superTestClassFile.exists()) {
+                return classVisitor(superTestClassFile);
             }
         }
 
-        if (superTestClassFile != null) {
-            return superTestClassFile;
-        } else { // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
+        // super test class file not in test class directories, look in the library jars which contain its package
+        List<LibraryJar> libraryJars = packageLibraryJars.get(classNamePackage(superClassName));
+        if (libraryJars == null) {
+            return null;
+        }
+        for (LibraryJar libraryJar : libraryJars) {
+            IndexedClass indexedClass = libraryJar.getIndex().get(superClassName);
+            if (indexedClass != null) {
+                TestClassVisitor classVisitor = createClassVisitor();
+                indexedClass.accept(classVisitor);
+                return classVisitor;
+            }
         }
+        return null;
     }
 
-    private void prepareClasspath() {
-        if (classFileExtractionManager != null) {
+    private String classNamePackage(String className) {
+        return className.substring(0, className.lastIndexOf('/') + 1);
+    }
+
+    private synchronized void prepareClasspath() {
+        if (testClassDirectories != null) {
             return;
         }
 
-        classFileExtractionManager = new ClassFileExtractionManager();
-        testClassDirectories = new ArrayList<File>();
+        List<File> testClassDirectories = new ArrayList<File>();
+        final Map<String, List<LibraryJar>> packageLibraryJars = new HashMap<String, List<LibraryJar>>();
 
         testClassDirectories.add(testClassesDirectory);
         if (testClasspath != null) {
@@ -96,10 +124,24 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
                 if (file.isDirectory()) {
                     testClassDirectories.add(file);
                 } else if (file.isFile() && file.getName().endsWith(".jar")) {
-                    classFileExtractionManager.addLibraryJar(file);
+                    final LibraryJar libraryJar = new LibraryJar(file);
+                    new JarFilePackageLister().listJarPackages(file, new JarFilePackageListener() {
+                        public void receivePackage(String packageName) {
+                            List<LibraryJar> jars = packageLibraryJars.get(packageName);
+                            if (jars == null) {
+                                jars = new ArrayList<LibraryJar>();
+                                packageLibraryJars.put(packageName, jars);
+                            }
+                            if (!jars.contains(libraryJar)) {
+                                jars.add(libraryJar);
+                            }
+                        }
+                    });
                 }
             }
         }
+        this.packageLibraryJars = packageLibraryJars;
+        this.testClassDirectories = testClassDirectories;
     }
 
     protected TestClassVisitor classVisitor(final File testClassFile) {
@@ -119,25 +161,50 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         return classVisitor;
     }
 
-    public boolean processTestClass(File testClassFile) {
-        return processTestClass(testClassFile, false);
-    }
+    /**
+     * A library jar on the test class path. Its class index is built when it is first used, while holding the lock of
+     * this jar only, so that the indexes of different jars can be built concurrently.
+     */
+    private class LibraryJar {
+        private final File jarFile;
+        private JarClassIndex index;
 
-    protected abstract boolean processTestClass(File testClassFile, boolean superClass);
+        private LibraryJar(File jarFile) {
+            this.jarFile = jarFile;
+        }
 
-    protected boolean processSuperClass(File testClassFile) {
-        boolean isTest = false;
+        synchronized JarClassIndex getIndex() {
+            if (index == null) {
+                index = jarClassIndexCache != null ? jarClassIndexCache.getIndex(jarFile) : JarClassIndex.build(jarFile);
+            }
+            return index;
+        }
+    }
 
-        Boolean isSuperTest = superClasses.get(testClassFile);
+    public boolean processTestClass(File testClassFile) {
+        return processTestClass(classVisitor(testClassFile), false);
+    }
 
-        if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true);
+    protected abstract boolean processTestClass(TestClassVisitor classVisitor, boolean superClass);
 
-            superClasses.put(testClassFile, isTest);
-        } else {
-            isTest = isSuperTest;
+    protected boolean processSuperClass(String superClassName) {
+        if (StringUtils.isEmpty(superClassName)) {
+            return false;
+        }
+        Boolean isSuperTest = superClasses.get(superClassName);
+        if (isSuperTest != null) {
+            return isSuperTest;
         }
 
+        boolean isTest = false;
+        TestClassVisitor classVisitor = superClassVisitor(superClassName);
+        if (classVisitor != null) {
+            isTest = processTestClass(classVisitor, true);
+        } else {
+            LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
+                    superClassName);
+        }
+        superClasses.put(superClassName, isTest);
         return isTest;
     }
 
@@ -149,10 +216,11 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     protected void publishTestClass(boolean isTest, TestClassVisitor classVisitor, boolean superClass) {
         if (isTest && !classVisitor.isAbstract() && !superClass) {
             String className = Type.getObjectType(classVisitor.getClassName()).getClassName();
-            testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
+            synchronized (publishLock) {
+                testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
+            }
         }
     }
-
     public void startDetection(TestClassProcessor testClassProcessor) {
         this.testClassProcessor = testClassProcessor;
     }
@@ -22,25 +22,39 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.messaging.concurrent.DefaultExecutorFactory;
+import org.gradle.messaging.concurrent.StoppableExecutor;
+import org.gradle.util.UncheckedException;
 
 import java.io.File;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * The default test class scanner depending on the availability of a test framework detecter a detection or filename
- * scan is performed to find test classes.
+ * scan is performed to find test classes. When more than one thread is used, the candidate class files are passed to
+ * the detector from multiple threads as they are visited.
  *
  * @author Tom Eyckmans
  */
 public class DefaultTestClassScanner implements Runnable {
+    private static final File END_OF_FILES = new File("");
     private final FileTree candidateClassFiles;
     private final TestFrameworkDetector testFrameworkDetector;
     private final TestClassProcessor testClassProcessor;
+    private final int maxThreads;
 
     public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
                                    TestClassProcessor testClassProcessor) {
+        this(candidateClassFiles, testFrameworkDetector, testClassProcessor, 1);
+    }
+
+    public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
+                                   TestClassProcessor testClassProcessor, int maxThreads) {
         this.candidateClassFiles = candidateClassFiles;
         this.testFrameworkDetector = testFrameworkDetector;
         this.testClassProcessor = testClassProcessor;
+        this.maxThreads = maxThreads;
     }
 
     public void run() {
@@ -53,11 +67,48 @@ public class DefaultTestClassScanner implements Runnable {
 
     private void detectionScan() {
         testFrameworkDetector.startDetection(testClassProcessor);
-        candidateClassFiles.visit(new ClassFileVisitor() {
-            public void visitClassFile(FileVisitDetails fileDetails) {
-                testFrameworkDetector.processTestClass(fileDetails.getFile());
+        if (maxThreads <= 1) {
+            candidateClassFiles.visit(new ClassFileVisitor() {
+                public void visitClassFile(FileVisitDetails fileDetails) {
+                    testFrameworkDetector.processTestClass(fileDetails.getFile());
+                }
+            });
+            return;
+        }
+
+        final BlockingQueue<File> queue = new LinkedBlockingQueue<File>();
+        DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+        try {
+            StoppableExecutor executor = executorFactory.create("Test class scanner");
+            try {
+                for (int i = 0; i < maxThreads; i++) {
+                    executor.execute(new Runnable() {
+                        public void run() {
+                            try {
+                                File file;
+                                while ((file = queue.take()) != END_OF_FILES) {
+                                    testFrameworkDetector.processTestClass(file);
+                                }
+                            } catch (InterruptedException e) {
+                                throw UncheckedException.asUncheckedException(e);
+                            }
+                        }
+                    });
+                }
+                candidateClassFiles.visit(new ClassFileVisitor() {
+                    public void visitClassFile(FileVisitDetails fileDetails) {
+                        queue.add(fileDetails.getFile());
+                    }
+                });
+            } finally {
+                for (int i = 0; i < maxThreads; i++) {
+                    queue.add(END_OF_FILES);
+                }
+                executor.stop();
             }
-        });
+        } finally {
+            executorFactory.stop();
+        }
     }
 
     private void filenameScan() {
@@ -24,6 +24,7 @@ import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.TestHistoryOrder;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
 import org.gradle.api.tasks.testing.Test;
@@ -37,21 +38,35 @@ import org.gradle.util.TrueTimeProvider;
  * @author Tom Eyckmans
  */
 public class DefaultTestExecuter implements TestExecuter {
+    /**
+     * The system property which enables pull-based assignment of test classes to test processes, for test frameworks
+     * which support it.
+     */
+    public static final String PULL_SCHEDULING_PROPERTY = "org.gradle.test.pullScheduling";
+    /**
+     * The system property which enables reuse of test processes across test tasks and builds. Reused processes load
+     * the test classes in an isolated ClassLoader, rather than the system ClassLoader.
+     */
+    public static final String REUSE_WORKERS_PROPERTY = "org.gradle.test.reuseWorkers";
     private final Factory<? extends WorkerProcessBuilder> workerFactory;
     private final ActorFactory actorFactor;
+    private final JarClassIndexCache jarClassIndexCache;
 
-    public DefaultTestExecuter(Factory<? extends WorkerProcessBuilder> workerFactory, ActorFactory actorFactor) {
+    public DefaultTestExecuter(Factory<? extends WorkerProcessBuilder> workerFactory, ActorFactory actorFactor,
+                               JarClassIndexCache jarClassIndexCache) {
         this.workerFactory = workerFactory;
         this.actorFactor = actorFactor;
+        this.jarClassIndexCache = jarClassIndexCache;
     }
 
     public void execute(final Test testTask, TestResultProcessor testResultProcessor) {
         final TestFramework testFramework = testTask.getTestFramework();
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
+        final boolean reuseWorkers = Boolean.getBoolean(REUSE_WORKERS_PROPERTY) && testTask.getForkEvery() == 0;
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
                 return new ForkingTestClassProcessor(workerFactory, testInstanceFactory, testTask,
-                        testTask.getClasspath(), testFramework.getWorkerConfigurationAction());
+                        testTask.getClasspath(), testFramework.getWorkerConfigurationAction(), reuseWorkers);
             }
         };
         Factory<TestClassProcessor> reforkingProcessorFactory = new Factory<TestClassProcessor>() {
@@ -60,15 +75,18 @@ public class DefaultTestExecuter implements TestExecuter {
             }
         };
 
+        boolean pullBased = Boolean.getBoolean(PULL_SCHEDULING_PROPERTY) && testFramework.isExecutesClassesOnReceipt();
         TestClassProcessor processor = new MaxNParallelTestClassProcessor(testTask.getMaxParallelForks(),
-                reforkingProcessorFactory, actorFactor);
+                reforkingProcessorFactory, actorFactor, pullBased, new TestHistoryOrder(testTask.getTestHistory()));
 
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
 
         Runnable detector;
         if (testTask.isScanForTestClasses()) {
             TestFrameworkDetector testFrameworkDetector = testTask.getTestFramework().getDetector();
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            testFrameworkDetector.setJarClassIndexCache(jarClassIndexCache);
+            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor,
+                    Runtime.getRuntime().availableProcessors());
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
         }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.commons.EmptyVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parts of a class file which are used to detect test classes: the class header, the inner class entry for the
+ * class itself, the annotations of the class, and the annotations of those methods which have any. Can be replayed to a
+ * {@link ClassVisitor} in place of reading the class file.
+ */
+public class IndexedClass {
+    private final int access;
+    private final String name;
+    private final String superName;
+    private final int innerClassAccess;
+    private final List<Annotation> annotations;
+    private final List<Method> methods;
+
+    IndexedClass(int access, String name, String superName, int innerClassAccess, List<Annotation> annotations,
+                 List<Method> methods) {
+        this.access = access;
+        this.name = name;
+        this.superName = superName;
+        this.innerClassAccess = innerClassAccess;
+        this.annotations = annotations;
+        this.methods = methods;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSuperName() {
+        return superName;
+    }
+
+    int getAccess() {
+        return access;
+    }
+
+    /**
+     * Returns the access flags from the inner class entry for this class, or -1 if this class is not an inner class.
+     */
+    int getInnerClassAccess() {
+        return innerClassAccess;
+    }
+
+    List<Annotation> getAnnotations() {
+        return annotations;
+    }
+
+    List<Method> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Makes the given visitor visit this class, in the same order a {@link org.objectweb.asm.ClassReader} would.
+     */
+    public void accept(ClassVisitor visitor) {
+        visitor.visit(0, access, name, null, superName, null);
+        for (Annotation annotation : annotations) {
+            AnnotationVisitor annotationVisitor = visitor.visitAnnotation(annotation.desc, annotation.visible);
+            if (annotationVisitor != null) {
+                annotationVisitor.visitEnd();
+            }
+        }
+        if (innerClassAccess >= 0) {
+            visitor.visitInnerClass(name, null, null, innerClassAccess);
+        }
+        for (Method method : methods) {
+            MethodVisitor methodVisitor = visitor.visitMethod(method.access, method.name, method.desc, null, null);
+            if (methodVisitor == null) {
+                continue;
+            }
+            for (Annotation annotation : method.annotations) {
+                AnnotationVisitor annotationVisitor = methodVisitor.visitAnnotation(annotation.desc,
+                        annotation.visible);
+                if (annotationVisitor != null) {
+                    annotationVisitor.visitEnd();
+                }
+            }
+            methodVisitor.visitEnd();
+        }
+        visitor.visitEnd();
+    }
+
+    static class Annotation {
+        final String desc;
+        final boolean visible;
+
+        Annotation(String desc, boolean visible) {
+            this.desc = desc;
+            this.visible = visible;
+        }
+    }
+
+    static class Method {
+        final int access;
+        final String name;
+        final String desc;
+        final List<Annotation> annotations;
+
+        Method(int access, String name, String desc, List<Annotation> annotations) {
+            this.access = access;
+            this.name = name;
+            this.desc = desc;
+            this.annotations = annotations;
+        }
+    }
+
+    /**
+     * A {@link ClassVisitor} which builds an {@link IndexedClass} from the class it visits.
+     */
+    static class Builder extends EmptyVisitor {
+        private int access;
+        private String name;
+        private String superName;
+        private int innerClassAccess = -1;
+        private final List<Annotation> annotations = new ArrayList<Annotation>();
+        private final List<Method> methods = new ArrayList<Method>();
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName,
+                          String[] interfaces) {
+            this.access = access;
+            this.name = name;
+            this.superName = superName;
+        }
+
+        @Override
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+            if (name.equals(this.name)) {
+                innerClassAccess = access;
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            annotations.add(new Annotation(desc, visible));
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(final int access, final String name, final String desc, String signature,
+                                         String[] exceptions) {
+            return new EmptyVisitor() {
+                private final List<Annotation> methodAnnotations = new ArrayList<Annotation>();
+
+                @Override
+                public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                    methodAnnotations.add(new Annotation(desc, visible));
+                    return null;
+                }
+
+                @Override
+                public void visitEnd() {
+                    if (!methodAnnotations.isEmpty()) {
+                        methods.add(new Method(access, name, desc, methodAnnotations));
+                    }
+                }
+            };
+        }
+
+        public IndexedClass build() {
+            return new IndexedClass(access, name, superName, innerClassAccess, annotations, methods);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.api.GradleException;
+import org.objectweb.asm.ClassReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * An index of the classes in a jar file, which answers lookups of the {@link IndexedClass} for a class without
+ * extracting the class file from the jar.
+ */
+public class JarClassIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JarClassIndex.class);
+    private final Map<String, IndexedClass> classes;
+
+    JarClassIndex(Map<String, IndexedClass> classes) {
+        this.classes = classes;
+    }
+
+    /**
+     * Builds the index for the given jar file, by reading every class file in the jar.
+     */
+    public static JarClassIndex build(File jarFile) {
+        Map<String, IndexedClass> classes = new HashMap<String, IndexedClass>();
+        try {
+            ZipFile zipFile = new ZipFile(jarFile);
+            try {
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    if (entry.isDirectory() || !entry.getName().endsWith(".class")
+                            || entry.getName().startsWith("META-INF/")) {
+                        continue;
+                    }
+                    InputStream inputStream = zipFile.getInputStream(entry);
+                    try {
+                        IndexedClass.Builder builder = new IndexedClass.Builder();
+                        new ClassReader(inputStream).accept(builder, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE
+                                | ClassReader.SKIP_FRAMES);
+                        IndexedClass indexedClass = builder.build();
+                        if (indexedClass.getName() != null) {
+                            classes.put(indexedClass.getName(), indexedClass);
+                        }
+                    } catch (RuntimeException e) {
+                        // A class file which cannot be read cannot be a super class of a detected test class
+                        LOGGER.debug(String.format("Could not index class file '%s' in jar file '%s'.",
+                                entry.getName(), jarFile), e);
+                    } finally {
+                        inputStream.close();
+                    }
+                }
+            } finally {
+                zipFile.close();
+            }
+        } catch (IOException e) {
+            throw new GradleException(String.format("Could not index the classes in jar file '%s'.", jarFile), e);
+        }
+        return new JarClassIndex(classes);
+    }
+
+    /**
+     * Returns the class with the given internal name, or null if the class is not in this jar.
+     */
+    public IndexedClass get(String className) {
+        return classes.get(className);
+    }
+
+    Collection<IndexedClass> getClasses() {
+        return classes.values();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.api.internal.changedetection.Hasher;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentIndexedCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Provides the {@link JarClassIndex} for a jar file. Each index is built once and stored in a persistent cache, keyed
+ * by the hash of the contents of the jar file, so that it can be reused by later builds, and by other projects which
+ * use the same jar. This cache can be used by multiple threads concurrently.
+ */
+public class JarClassIndexCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JarClassIndexCache.class);
+    private final Hasher hasher;
+    private final CacheRepository cacheRepository;
+    private final Map<File, JarClassIndex> indexes = new HashMap<File, JarClassIndex>();
+    private PersistentIndexedCache<String, JarClassIndex> cache;
+
+    public JarClassIndexCache(Hasher hasher, CacheRepository cacheRepository) {
+        this.hasher = hasher;
+        this.cacheRepository = cacheRepository;
+    }
+
+    public JarClassIndex getIndex(File jarFile) {
+        synchronized (indexes) {
+            JarClassIndex index = indexes.get(jarFile);
+            if (index != null) {
+                return index;
+            }
+        }
+
+        String key = new BigInteger(1, hasher.hash(jarFile)).toString(16);
+        JarClassIndex index;
+        synchronized (this) {
+            if (cache == null) {
+                cache = cacheRepository.cache("jarClassIndexes").open().openIndexedCache(new JarClassIndexSerializer());
+            }
+            index = cache.get(key);
+        }
+        if (index == null) {
+            LOGGER.debug("Indexing classes in {}.", jarFile);
+            index = JarClassIndex.build(jarFile);
+            synchronized (this) {
+                cache.put(key, index);
+            }
+        }
+
+        synchronized (indexes) {
+            indexes.put(jarFile, index);
+        }
+        return index;
+    }
+}
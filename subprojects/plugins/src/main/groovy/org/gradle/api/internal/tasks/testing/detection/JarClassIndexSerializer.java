@@ -0,0 +1,122 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.gradle.cache.Serializer;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A compact binary {@link Serializer} for {@link JarClassIndex}. Annotation descriptors are usually shared by many
+ * classes, so each distinct descriptor is written once, and referred to by number after that.
+ */
+public class JarClassIndexSerializer implements Serializer<JarClassIndex> {
+    private static final int VERSION = 1;
+
+    public JarClassIndex read(InputStream instr) throws Exception {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(instr));
+        if (input.read() != VERSION) {
+            return null;
+        }
+        List<String> descriptors = new ArrayList<String>();
+        int count = input.readInt();
+        Map<String, IndexedClass> classes = new HashMap<String, IndexedClass>(Math.max(16, count * 4 / 3 + 1));
+        for (int i = 0; i < count; i++) {
+            int access = input.readInt();
+            String name = input.readUTF();
+            String superName = input.readBoolean() ? input.readUTF() : null;
+            int innerClassAccess = input.readInt();
+            List<IndexedClass.Annotation> annotations = readAnnotations(input, descriptors);
+            int methodCount = input.readInt();
+            List<IndexedClass.Method> methods = new ArrayList<IndexedClass.Method>(methodCount);
+            for (int j = 0; j < methodCount; j++) {
+                int methodAccess = input.readInt();
+                String methodName = input.readUTF();
+                String methodDesc = input.readUTF();
+                methods.add(new IndexedClass.Method(methodAccess, methodName, methodDesc, readAnnotations(input,
+                        descriptors)));
+            }
+            classes.put(name, new IndexedClass(access, name, superName, innerClassAccess, annotations, methods));
+        }
+        return new JarClassIndex(classes);
+    }
+
+    public void write(OutputStream outstr, JarClassIndex value) throws Exception {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outstr));
+        output.writeByte(VERSION);
+        Map<String, Integer> descriptors = new HashMap<String, Integer>();
+        Collection<IndexedClass> classes = value.getClasses();
+        output.writeInt(classes.size());
+        for (IndexedClass indexedClass : classes) {
+            output.writeInt(indexedClass.getAccess());
+            output.writeUTF(indexedClass.getName());
+            output.writeBoolean(indexedClass.getSuperName() != null);
+            if (indexedClass.getSuperName() != null) {
+                output.writeUTF(indexedClass.getSuperName());
+            }
+            output.writeInt(indexedClass.getInnerClassAccess());
+            writeAnnotations(output, indexedClass.getAnnotations(), descriptors);
+            output.writeInt(indexedClass.getMethods().size());
+            for (IndexedClass.Method method : indexedClass.getMethods()) {
+                output.writeInt(method.access);
+                output.writeUTF(method.name);
+                output.writeUTF(method.desc);
+                writeAnnotations(output, method.annotations, descriptors);
+            }
+        }
+        output.flush();
+    }
+
+    private List<IndexedClass.Annotation> readAnnotations(DataInputStream input, List<String> descriptors)
+            throws IOException {
+        int count = input.readInt();
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        List<IndexedClass.Annotation> annotations = new ArrayList<IndexedClass.Annotation>(count);
+        for (int i = 0; i < count; i++) {
+            int index = input.readInt();
+            String desc;
+            if (index == descriptors.size()) {
+                desc = input.readUTF();
+                descriptors.add(desc);
+            } else if (index < descriptors.size()) {
+                desc = descriptors.get(index);
+            } else {
+                throw new IOException(String.format("Unexpected annotation descriptor %d found.", index));
+            }
+            annotations.add(new IndexedClass.Annotation(desc, input.readBoolean()));
+        }
+        return annotations;
+    }
+
+    private void writeAnnotations(DataOutputStream output, List<IndexedClass.Annotation> annotations,
+                                  Map<String, Integer> descriptors) throws IOException {
+        output.writeInt(annotations.size());
+        for (IndexedClass.Annotation annotation : annotations) {
+            Integer index = descriptors.get(annotation.desc);
+            if (index == null) {
+                output.writeInt(descriptors.size());
+                output.writeUTF(annotation.desc);
+                descriptors.put(annotation.desc, descriptors.size());
+            } else {
+                output.writeInt(index);
+            }
+            output.writeBoolean(annotation.visible);
+        }
+    }
+}
@@ -25,6 +25,9 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 /**
+ * Lists the packages of a jar file. A package is reported for each directory entry of the jar, and for the directory
+ * of each class file entry, as not all jar files contain directory entries. A package may be reported more than once.
+ *
  * @author Tom Eyckmans
  */
 public class JarFilePackageLister {
@@ -52,13 +55,15 @@ public class JarFilePackageLister {
 
                 while (zipFileEntries.hasMoreElements()) {
                     final ZipEntry zipFileEntry = zipFileEntries.nextElement();
+                    final String zipFileEntryName = zipFileEntry.getName();
 
+                    if (zipFileEntryName.startsWith("META-INF")) {
+                        continue;
+                    }
                     if (zipFileEntry.isDirectory()) {
-                        final String zipFileEntryName = zipFileEntry.getName();
-
-                        if (!zipFileEntryName.startsWith("META-INF")) {
-                            listener.receivePackage(zipFileEntryName);
-                        }
+                        listener.receivePackage(zipFileEntryName);
+                    } else if (zipFileEntryName.endsWith(".class")) {
+                        listener.receivePackage(zipFileEntryName.substring(0, zipFileEntryName.lastIndexOf('/') + 1));
                     }
                 }
             } finally {
@@ -25,5 +25,14 @@ import java.io.File;
 public interface TestFrameworkDetector {
     void startDetection(TestClassProcessor testClassProcessor);
 
+    /**
+     * Processes the given class file. This method may be called by multiple threads concurrently, once detection has
+     * started.
+     */
     boolean processTestClass(File testClassFile);
+
+    /**
+     * Sets the cache to use to look up classes in library jars.
+     */
+    void setJarClassIndexCache(JarClassIndexCache jarClassIndexCache);
 }
@@ -21,6 +21,7 @@ import org.gradle.api.internal.project.ServiceRegistry;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.junit.report.HtmlTestReport;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.api.tasks.testing.junit.JUnitOptions;
 import org.gradle.process.internal.WorkerProcessBuilder;
@@ -33,14 +34,14 @@ import java.io.Serializable;
  * @author Tom Eyckmans
  */
 public class JUnitTestFramework implements TestFramework {
-    private AntJUnitReport antJUnitReport;
+    private HtmlTestReport testReport;
     private JUnitOptions options;
     private JUnitDetector detector;
     private final Test testTask;
 
     public JUnitTestFramework(Test testTask) {
         this.testTask = testTask;
-        antJUnitReport = new AntJUnitReport();
+        testReport = new HtmlTestReport();
         options = new JUnitOptions();
         detector = new JUnitDetector(testTask.getTestClassesDir(), testTask.getClasspath());
     }
@@ -60,11 +61,15 @@ public class JUnitTestFramework implements TestFramework {
         };
     }
 
+    public boolean isExecutesClassesOnReceipt() {
+        return true;
+    }
+
     public void report() {
         if (!testTask.isTestReport()) {
             return;
         }
-        antJUnitReport.execute(testTask.getTestResultsDir(), testTask.getTestReportDir(), testTask.getProject().getAnt());
+        testReport.generateReport(testTask.getTestResultsDir(), testTask.getTestReportDir());
     }
 
     public JUnitOptions getOptions() {
@@ -75,12 +80,12 @@ public class JUnitTestFramework implements TestFramework {
         this.options = options;
     }
 
-    AntJUnitReport getAntJUnitReport() {
-        return antJUnitReport;
+    HtmlTestReport getTestReport() {
+        return testReport;
     }
 
-    void setAntJUnitReport(AntJUnitReport antJUnitReport) {
-        this.antJUnitReport = antJUnitReport;
+    void setTestReport(HtmlTestReport testReport) {
+        this.testReport = testReport;
     }
 
     public JUnitDetector getDetector() {
@@ -20,6 +20,7 @@ import org.apache.tools.ant.taskdefs.optional.junit.XMLConstants;
 import org.apache.tools.ant.util.DOMElementWriter;
 import org.apache.tools.ant.util.DateUtils;
 import org.gradle.api.GradleException;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
 import org.gradle.api.internal.tasks.testing.TestOutputEvent;
 import org.gradle.api.internal.tasks.testing.results.StateTrackingTestResultProcessor;
@@ -27,7 +28,6 @@ import org.gradle.util.UncheckedException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
-import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.*;
 import java.net.InetAddress;
@@ -35,20 +35,31 @@ import java.net.UnknownHostException;
 import java.util.EnumMap;
 import java.util.Map;
 
+/**
+ * Writes a JUnit XML report file for each test class. The report is written incrementally as the results arrive:
+ * completed test cases and captured output are held in {@link SpoolingWriter}s, which move large content to a
+ * temporary file, and the report file is assembled from them once the test class completes.
+ *
+ * <p>The elements are written using {@link DOMElementWriter}, so the report files are the same as those produced by
+ * writing a DOM for the whole test class.</p>
+ */
 public class JUnitXmlReportGenerator extends StateTrackingTestResultProcessor {
+    private static final String INDENT = "  ";
+    private static final int MAX_BUFFERED_CHARS = 64 * 1024;
     private final File testResultsDir;
-    private final DocumentBuilder documentBuilder;
+    private final Document document;
+    private final DOMElementWriter elementWriter = new DOMElementWriter(true);
+    private final String lineSeparator = System.getProperty("line.separator");
     private final String hostName;
-    private Document testSuiteReport;
     private TestState testSuite;
-    private Element rootElement;
-    private Map<TestOutputEvent.Destination, StringBuilder> outputs
-            = new EnumMap<TestOutputEvent.Destination, StringBuilder>(TestOutputEvent.Destination.class);
+    private SpoolingWriter testCases;
+    private final Map<TestOutputEvent.Destination, SpoolingWriter> outputs
+            = new EnumMap<TestOutputEvent.Destination, SpoolingWriter>(TestOutputEvent.Destination.class);
 
     public JUnitXmlReportGenerator(File testResultsDir) {
         this.testResultsDir = testResultsDir;
         try {
-            documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
         } catch (Exception e) {
             throw UncheckedException.asUncheckedException(e);
         }
@@ -57,75 +68,156 @@ public class JUnitXmlReportGenerator extends StateTrackingTestResultProcessor {
 
     @Override
     public void output(Object testId, TestOutputEvent event) {
-        outputs.get(event.getDestination()).append(event.getMessage());
+        SpoolingWriter output = outputs.get(event.getDestination());
+        String message = event.getMessage();
+        try {
+            // Drop the characters which the report cannot contain here, so that only legal characters are spooled
+            for (int i = 0; i < message.length(); i++) {
+                char c = message.charAt(i);
+                if (elementWriter.isLegalCharacter(c)) {
+                    output.write(c);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Override
     protected void started(TestState state) {
         TestDescriptorInternal test = state.test;
         if (test.getName().equals(test.getClassName())) {
-            testSuiteReport = documentBuilder.newDocument();
-            rootElement = testSuiteReport.createElement(XMLConstants.TESTSUITE);
-            testSuiteReport.appendChild(rootElement);
-            // Add an empty properties element for compatibility
-            rootElement.appendChild(testSuiteReport.createElement(XMLConstants.PROPERTIES));
-            outputs.put(TestOutputEvent.Destination.StdOut, new StringBuilder());
-            outputs.put(TestOutputEvent.Destination.StdErr, new StringBuilder());
+            discardSuite();
+            testCases = new SpoolingWriter(MAX_BUFFERED_CHARS);
+            outputs.put(TestOutputEvent.Destination.StdOut, new SpoolingWriter(MAX_BUFFERED_CHARS));
+            outputs.put(TestOutputEvent.Destination.StdErr, new SpoolingWriter(MAX_BUFFERED_CHARS));
             testSuite = state;
         }
     }
 
     @Override
     protected void completed(TestState state) {
-        String testClassName = state.test.getClassName();
-        Element element;
         if (!state.equals(testSuite)) {
-            element = testSuiteReport.createElement(XMLConstants.TESTCASE);
-            element.setAttribute(XMLConstants.ATTR_NAME, state.test.getName());
-            element.setAttribute(XMLConstants.ATTR_CLASSNAME, testClassName);
-            rootElement.appendChild(element);
-        } else {
-            element = rootElement;
-            rootElement.setAttribute(XMLConstants.ATTR_NAME, testClassName);
-            rootElement.setAttribute(XMLConstants.ATTR_TESTS, String.valueOf(state.testCount));
-            rootElement.setAttribute(XMLConstants.ATTR_FAILURES, String.valueOf(state.failedCount));
-            rootElement.setAttribute(XMLConstants.ATTR_ERRORS, "0");
-            rootElement.setAttribute(XMLConstants.TIMESTAMP, DateUtils.format(state.getStartTime(),
-                    DateUtils.ISO8601_DATETIME_PATTERN));
-            rootElement.setAttribute(XMLConstants.HOSTNAME, hostName);
-            Element stdoutElement = testSuiteReport.createElement(XMLConstants.SYSTEM_OUT);
-            stdoutElement.appendChild(testSuiteReport.createCDATASection(outputs.get(TestOutputEvent.Destination.StdOut)
-                    .toString()));
-            rootElement.appendChild(stdoutElement);
-            Element stderrElement = testSuiteReport.createElement(XMLConstants.SYSTEM_ERR);
-            stderrElement.appendChild(testSuiteReport.createCDATASection(outputs.get(TestOutputEvent.Destination.StdErr)
-                    .toString()));
-            rootElement.appendChild(stderrElement);
+            try {
+                Element element = document.createElement(XMLConstants.TESTCASE);
+                element.setAttribute(XMLConstants.ATTR_NAME, state.test.getName());
+                element.setAttribute(XMLConstants.ATTR_CLASSNAME, state.test.getClassName());
+                element.setAttribute(XMLConstants.ATTR_TIME, String.valueOf(state.getExecutionTime() / 1000.0));
+                writeElement(testCases, element, 1, state);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
         }
 
-        element.setAttribute(XMLConstants.ATTR_TIME, String.valueOf(state.getExecutionTime() / 1000.0));
+        String testClassName = state.test.getClassName();
+        File reportFile = new File(testResultsDir, "TEST-" + testClassName + ".xml");
+        try {
+            OutputStream outstr = new BufferedOutputStream(new FileOutputStream(reportFile));
+            try {
+                Writer writer = new OutputStreamWriter(outstr, "UTF8");
+                writeSuite(writer, state);
+                writer.flush();
+            } finally {
+                outstr.close();
+            }
+        } catch (IOException e) {
+            throw new GradleException(String.format("Could not write test report file '%s'.", reportFile), e);
+        } finally {
+            discardSuite();
+        }
+    }
+
+    private void writeSuite(Writer writer, TestState state) throws IOException {
+        Element rootElement = document.createElement(XMLConstants.TESTSUITE);
+        rootElement.setAttribute(XMLConstants.ATTR_NAME, state.test.getClassName());
+        rootElement.setAttribute(XMLConstants.ATTR_TESTS, String.valueOf(state.testCount));
+        rootElement.setAttribute(XMLConstants.ATTR_FAILURES, String.valueOf(state.failedCount));
+        rootElement.setAttribute(XMLConstants.ATTR_ERRORS, "0");
+        rootElement.setAttribute(XMLConstants.TIMESTAMP, DateUtils.format(state.getStartTime(),
+                DateUtils.ISO8601_DATETIME_PATTERN));
+        rootElement.setAttribute(XMLConstants.HOSTNAME, hostName);
+        rootElement.setAttribute(XMLConstants.ATTR_TIME, String.valueOf(state.getExecutionTime() / 1000.0));
+
+        elementWriter.writeXMLDeclaration(writer);
+        elementWriter.openElement(rootElement, writer, 0, INDENT, true);
+        writer.write(lineSeparator);
+
+        // Add an empty properties element for compatibility
+        elementWriter.openElement(document.createElement(XMLConstants.PROPERTIES), writer, 1, INDENT, false);
+
+        testCases.writeTo(writer);
+        writeOutput(writer, XMLConstants.SYSTEM_OUT, outputs.get(TestOutputEvent.Destination.StdOut));
+        writeOutput(writer, XMLConstants.SYSTEM_ERR, outputs.get(TestOutputEvent.Destination.StdErr));
+        writeFailures(writer, 1, state);
+
+        elementWriter.closeElement(rootElement, writer, 0, INDENT, true);
+    }
+
+    private void writeElement(Writer writer, Element element, int indent, TestState state) throws IOException {
+        boolean hasChildren = !state.failures.isEmpty();
+        elementWriter.openElement(element, writer, indent, INDENT, hasChildren);
+        if (hasChildren) {
+            writer.write(lineSeparator);
+            writeFailures(writer, indent + 1, state);
+            elementWriter.closeElement(element, writer, indent, INDENT, true);
+        }
+    }
+
+    private void writeFailures(Writer writer, int indent, TestState state) throws IOException {
         for (Throwable failure : state.failures) {
-            Element failureElement = testSuiteReport.createElement(XMLConstants.FAILURE);
-            element.appendChild(failureElement);
+            Element failureElement = document.createElement(XMLConstants.FAILURE);
             failureElement.setAttribute(XMLConstants.ATTR_MESSAGE, failureMessage(failure));
             failureElement.setAttribute(XMLConstants.ATTR_TYPE, failure.getClass().getName());
-            failureElement.appendChild(testSuiteReport.createTextNode(stackTrace(failure)));
+            elementWriter.openElement(failureElement, writer, indent, INDENT, true);
+            writer.write(elementWriter.encode(stackTrace(failure)));
+            elementWriter.closeElement(failureElement, writer, indent, INDENT, false);
         }
+    }
 
-        if (state.equals(testSuite)) {
-            File reportFile = new File(testResultsDir, "TEST-" + testClassName + ".xml");
-            try {
-                OutputStream outstr = new BufferedOutputStream(new FileOutputStream(reportFile));
-                try {
-                    new DOMElementWriter(true).write(rootElement, outstr);
-                } finally {
-                    outstr.close();
+    /**
+     * Writes the given output as a CDATA section, reading it in chunks. The output contains only legal characters. A
+     * chunk may end part way through a ']]>' sequence, so trailing ']' characters are held back until the next chunk.
+     */
+    private void writeOutput(Writer writer, String elementName, SpoolingWriter output) throws IOException {
+        Element element = document.createElement(elementName);
+        elementWriter.openElement(element, writer, 1, INDENT, true);
+        writer.write("<![CDATA[");
+        Reader reader = output.openReader();
+        try {
+            char[] chars = new char[8192];
+            String pending = "";
+            int count;
+            while ((count = reader.read(chars)) >= 0) {
+                String chunk = pending.concat(new String(chars, 0, count));
+                int end = chunk.length();
+                while (end > 0 && chunk.length() - end < 2 && chunk.charAt(end - 1) == ']') {
+                    end--;
                 }
-            } catch (IOException e) {
-                throw new GradleException(String.format("Could not write test report file '%s'.", reportFile), e);
+                writer.write(elementWriter.encodedata(chunk.substring(0, end)));
+                pending = chunk.substring(end);
             }
+            writer.write(elementWriter.encodedata(pending));
+        } finally {
+            reader.close();
+        }
+        writer.write("]]>");
+        elementWriter.closeElement(element, writer, 1, INDENT, false);
+    }
 
-            testSuite = null;
+    private void discardSuite() {
+        testSuite = null;
+        try {
+            if (testCases != null) {
+                testCases.close();
+            }
+            for (SpoolingWriter output : outputs.values()) {
+                output.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            testCases = null;
             outputs.clear();
         }
     }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.junit;
+
+import java.io.*;
+
+/**
+ * A {@link Writer} which holds the characters written to it in memory until they exceed a given limit, and then moves
+ * them to a temporary file. Call {@link #close()} to discard the content and remove the temporary file.
+ */
+class SpoolingWriter extends Writer {
+    private final int maxBufferedChars;
+    private final CharArrayWriter buffer = new CharArrayWriter();
+    private File spoolFile;
+    private Writer spool;
+
+    public SpoolingWriter(int maxBufferedChars) {
+        this.maxBufferedChars = maxBufferedChars;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        if (spool == null && buffer.size() + length > maxBufferedChars) {
+            spoolFile = File.createTempFile("gradle", ".spool");
+            spool = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(spoolFile), "UTF-8"));
+            buffer.writeTo(spool);
+            buffer.reset();
+        }
+        if (spool != null) {
+            spool.write(chars, offset, length);
+        } else {
+            buffer.write(chars, offset, length);
+        }
+    }
+
+    /**
+     * Returns true if the content has been moved to a temporary file.
+     */
+    public boolean isSpooled() {
+        return spool != null;
+    }
+
+    /**
+     * Copies the content written so far to the given writer.
+     */
+    public void writeTo(Writer writer) throws IOException {
+        Reader reader = openReader();
+        try {
+            char[] chars = new char[8192];
+            int count;
+            while ((count = reader.read(chars)) >= 0) {
+                writer.write(chars, 0, count);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Returns a reader for the content written so far.
+     */
+    public Reader openReader() throws IOException {
+        if (spool == null) {
+            return new CharArrayReader(buffer.toCharArray());
+        }
+        spool.flush();
+        return new InputStreamReader(new BufferedInputStream(new FileInputStream(spoolFile)), "UTF-8");
+    }
+
+    @Override
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.reset();
+        if (spool != null) {
+            try {
+                spool.close();
+            } finally {
+                spool = null;
+                spoolFile.delete();
+                spoolFile = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.junit.report;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a JUnit XML results file and writes the page for its test class as the file is parsed, so the page is written
+ * without holding the results, or the captured output, of the test class in memory. Only the failure details of the
+ * test class are held until they are written, after the table of tests.
+ */
+class ClassPageWriter extends DefaultHandler {
+    private final File classesDir;
+    private HtmlWriter page;
+    private ClassResult result;
+    private final List<Failure> failures = new ArrayList<Failure>();
+    private String currentTest;
+    private boolean currentTestFailed;
+    private Failure currentFailure;
+    private boolean inOutput;
+    private boolean inTable;
+
+    ClassPageWriter(File classesDir) {
+        this.classesDir = classesDir;
+    }
+
+    /**
+     * Returns the summary of the test class, once the results file has been parsed.
+     */
+    public ClassResult getResult() {
+        return result;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        try {
+            if (qName.equals("testsuite")) {
+                startClass(attributes);
+            } else if (qName.equals("testcase")) {
+                currentTest = attributes.getValue("name");
+                currentTestFailed = false;
+                startTest(attributes);
+            } else if (qName.equals("failure") || qName.equals("error")) {
+                currentFailure = new Failure(currentTest, attributes.getValue("message"));
+            } else if (qName.equals("system-out")) {
+                startOutput("Standard output");
+            } else if (qName.equals("system-err")) {
+                startOutput("Standard error");
+            }
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        try {
+            if (qName.equals("testsuite")) {
+                endClass();
+            } else if (qName.equals("testcase")) {
+                page.raw("<td class=\"result\">").raw(currentTestFailed ? "failed" : "passed").raw("</td></tr>\n");
+                result.addTest(currentTest, currentTestFailed);
+                currentTest = null;
+            } else if (currentFailure != null && (qName.equals("failure") || qName.equals("error"))) {
+                if (currentTest == null) {
+                    result.classFailed();
+                } else {
+                    currentTestFailed = true;
+                }
+                failures.add(currentFailure);
+                currentFailure = null;
+            } else if (inOutput && (qName.equals("system-out") || qName.equals("system-err"))) {
+                page.raw("</pre>\n");
+                inOutput = false;
+            }
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    @Override
+    public void characters(char[] chars, int start, int length) throws SAXException {
+        try {
+            if (inOutput) {
+                page.text(chars, start, length);
+            } else if (currentFailure != null) {
+                currentFailure.stackTrace.append(chars, start, length);
+            }
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    private void startClass(Attributes attributes) throws IOException {
+        String className = attributes.getValue("name");
+        result = new ClassResult(className);
+        page = new HtmlWriter(new File(classesDir, className + ".html"));
+        page.startPage(String.format("Class %s", className), "../style.css");
+        page.raw("<div class=\"breadcrumbs\"><a href=\"../index.html\">all</a> &gt; <a href=\"../packages/")
+                .text(result.getPackageName()).raw(".html\">").text(result.getPackageName()).raw("</a> &gt; ")
+                .text(result.getSimpleName()).raw("</div>\n");
+        page.summary(parseInt(attributes.getValue("tests")), parseInt(attributes.getValue("failures"))
+                + parseInt(attributes.getValue("errors")), parseDouble(attributes.getValue("time")));
+        result.setDuration(parseDouble(attributes.getValue("time")));
+    }
+
+    private void startTest(Attributes attributes) throws IOException {
+        if (!inTable) {
+            page.raw("<h2>Tests</h2>\n<table class=\"tests\">\n<tr><th>Test</th><th>Duration</th><th>Result</th></tr>\n");
+            inTable = true;
+        }
+        page.raw("<tr><td><a name=\"").text(currentTest).raw("\"></a>").text(currentTest).raw("</td>");
+        page.raw("<td>").raw(HtmlWriter.formatDuration(parseDouble(attributes.getValue("time")))).raw("</td>");
+    }
+
+    private void startOutput(String title) throws IOException {
+        endTests();
+        page.raw("<h2>").text(title).raw("</h2>\n<pre class=\"output\">");
+        inOutput = true;
+    }
+
+    /**
+     * Finishes the table of tests, and writes the failure details.
+     */
+    private void endTests() throws IOException {
+        if (inTable) {
+            page.raw("</table>\n");
+            inTable = false;
+        }
+        if (failures.isEmpty()) {
+            return;
+        }
+        page.raw("<h2>Failures</h2>\n");
+        for (Failure failure : failures) {
+            page.raw("<div class=\"failure\">\n<h3>").text(failure.test == null ? result.getSimpleName() : failure.test);
+            page.raw("</h3>\n<pre>").text(failure.stackTrace.length() > 0 ? failure.stackTrace.toString()
+                    : String.valueOf(failure.message)).raw("</pre>\n</div>\n");
+        }
+        failures.clear();
+    }
+
+    private void endClass() throws IOException {
+        endTests();
+        page.endPage();
+        page.close();
+        page = null;
+    }
+
+    /**
+     * Closes the page, if it is still open because the results file could not be parsed.
+     */
+    public void close() throws IOException {
+        if (page != null) {
+            page.close();
+            page = null;
+        }
+    }
+
+    private static int parseInt(String value) {
+        return value == null ? 0 : Integer.parseInt(value);
+    }
+
+    private static double parseDouble(String value) {
+        return value == null ? 0 : Double.parseDouble(value);
+    }
+
+    private static class Failure {
+        final String test;
+        final String message;
+        final StringBuilder stackTrace = new StringBuilder();
+
+        private Failure(String test, String message) {
+            this.test = test;
+            this.message = message;
+        }
+    }
+}
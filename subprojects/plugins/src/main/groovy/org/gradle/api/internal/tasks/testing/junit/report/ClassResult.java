@@ -0,0 +1,91 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.junit.report;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A summary of the results of a test class, as shown on the overview pages of the report. Each failure of the class
+ * itself, such as a failure to instantiate the class or a failing class-level setup method, is counted as a failed
+ * test, so that it is included in the failure count and success rate.
+ */
+class ClassResult implements Comparable<ClassResult> {
+    private final String className;
+    private final List<String> failedTests = new ArrayList<String>();
+    private int testCount;
+    private int classFailureCount;
+    private double duration;
+
+    ClassResult(String className) {
+        this.className = className;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getPackageName() {
+        int pos = className.lastIndexOf('.');
+        return pos < 0 ? "default-package" : className.substring(0, pos);
+    }
+
+    public String getSimpleName() {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    public int getTestCount() {
+        return testCount + classFailureCount;
+    }
+
+    public int getFailureCount() {
+        return failedTests.size() + classFailureCount;
+    }
+
+    /**
+     * Returns true if any test failed, or the class itself failed.
+     */
+    public boolean isFailed() {
+        return classFailureCount > 0 || !failedTests.isEmpty();
+    }
+
+    public List<String> getFailedTests() {
+        return failedTests;
+    }
+
+    public double getDuration() {
+        return duration;
+    }
+
+    void setDuration(double duration) {
+        this.duration = duration;
+    }
+
+    void addTest(String name, boolean failed) {
+        testCount++;
+        if (failed) {
+            failedTests.add(name);
+        }
+    }
+
+    void classFailed() {
+        classFailureCount++;
+    }
+
+    public int compareTo(ClassResult other) {
+        return className.compareTo(other.className);
+    }
+}
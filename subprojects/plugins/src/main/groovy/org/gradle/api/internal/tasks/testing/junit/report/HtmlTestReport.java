@@ -0,0 +1,259 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.junit.report;
+
+import org.gradle.api.GradleException;
+import org.gradle.messaging.concurrent.DefaultExecutorFactory;
+import org.gradle.messaging.concurrent.StoppableExecutor;
+import org.gradle.util.GFileUtils;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Generates an HTML report from the JUnit XML results files in a directory.
+ *
+ * <p>The results files are parsed concurrently using a streaming parser, and the page for each test class is written
+ * while its results file is parsed. Only a summary of each test class is kept in memory, and is used to write the
+ * index page and a page for each package once all results files have been parsed.</p>
+ */
+public class HtmlTestReport {
+    private static final String STYLESHEET = "body { font-family: sans-serif; font-size: 12px; margin: 10px; }\n"
+            + "h1 { font-size: 20px; }\n"
+            + "h2 { font-size: 16px; margin-top: 20px; }\n"
+            + "h3 { font-size: 13px; }\n"
+            + "table { border-collapse: collapse; }\n"
+            + "th, td { border: 1px solid #bbbbbb; padding: 3px 8px; text-align: left; }\n"
+            + "th { background-color: #eeeeee; }\n"
+            + ".failures, .failed { color: #b60808; }\n"
+            + ".success { color: #008000; }\n"
+            + ".breadcrumbs { margin-bottom: 10px; }\n"
+            + "pre { font-size: 11px; background-color: #f7f7f7; border: 1px solid #dddddd; padding: 5px; }\n";
+    private final int maxThreads;
+
+    public HtmlTestReport() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public HtmlTestReport(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public void generateReport(File testResultsDir, File testReportDir) {
+        File[] resultFiles = testResultsDir.listFiles(new FilenameFilter() {
+            public boolean accept(File dir, String name) {
+                return name.startsWith("TEST-") && name.endsWith(".xml");
+            }
+        });
+        if (resultFiles == null) {
+            resultFiles = new File[0];
+        }
+
+        File classesDir = new File(testReportDir, "classes");
+        File packagesDir = new File(testReportDir, "packages");
+        GFileUtils.createDirectoriesWhenNotExistent(classesDir, packagesDir);
+
+        List<ClassResult> results = writeClassPages(resultFiles, classesDir);
+        Collections.sort(results);
+        try {
+            GFileUtils.writeStringToFile(new File(testReportDir, "style.css"), STYLESHEET);
+            writeIndexPage(new File(testReportDir, "index.html"), results);
+            writePackagePages(packagesDir, results);
+        } catch (IOException e) {
+            throw new GradleException(String.format("Could not generate test report to '%s'.", testReportDir), e);
+        }
+    }
+
+    private List<ClassResult> writeClassPages(File[] resultFiles, final File classesDir) {
+        final BlockingQueue<File> queue = new LinkedBlockingQueue<File>(Arrays.asList(resultFiles));
+        final List<ClassResult> results = Collections.synchronizedList(new ArrayList<ClassResult>());
+        int threads = Math.max(1, Math.min(maxThreads, resultFiles.length));
+        DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+        try {
+            StoppableExecutor executor = executorFactory.create("Test report");
+            for (int i = 0; i < threads; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        SAXParser parser = createParser();
+                        File resultFile;
+                        while ((resultFile = queue.poll()) != null) {
+                            results.add(writeClassPage(parser, resultFile, classesDir));
+                        }
+                    }
+                });
+            }
+            executor.stop();
+        } finally {
+            executorFactory.stop();
+        }
+        return new ArrayList<ClassResult>(results);
+    }
+
+    private SAXParser createParser() {
+        try {
+            return SAXParserFactory.newInstance().newSAXParser();
+        } catch (Exception e) {
+            throw new GradleException("Could not create an XML parser.", e);
+        }
+    }
+
+    private ClassResult writeClassPage(SAXParser parser, File resultFile, File classesDir) {
+        ClassPageWriter pageWriter = new ClassPageWriter(classesDir);
+        try {
+            try {
+                parser.reset();
+                parser.parse(resultFile, pageWriter);
+            } finally {
+                pageWriter.close();
+            }
+        } catch (Exception e) {
+            throw new GradleException(String.format("Could not generate test report for '%s'.", resultFile), e);
+        }
+        return pageWriter.getResult();
+    }
+
+    private void writeIndexPage(File file, List<ClassResult> results) throws IOException {
+        HtmlWriter page = new HtmlWriter(file);
+        try {
+            page.startPage("Test Summary", "style.css");
+            writeSummary(page, results);
+
+            List<ClassResult> failed = new ArrayList<ClassResult>();
+            for (ClassResult result : results) {
+                if (result.isFailed()) {
+                    failed.add(result);
+                }
+            }
+            if (!failed.isEmpty()) {
+                page.raw("<h2>Failed tests</h2>\n<ul class=\"failed\">\n");
+                for (ClassResult result : failed) {
+                    if (result.getFailedTests().isEmpty()) {
+                        page.raw("<li>").raw(classLink("classes/", result)).raw("</li>\n");
+                    }
+                    for (String test : result.getFailedTests()) {
+                        page.raw("<li><a href=\"classes/").text(result.getClassName()).raw(".html#").text(test)
+                                .raw("\">").text(result.getSimpleName()).raw(".").text(test).raw("</a></li>\n");
+                    }
+                }
+                page.raw("</ul>\n");
+            }
+
+            Map<String, List<ClassResult>> packages = groupByPackage(results);
+            page.raw("<h2>Packages</h2>\n");
+            startTable(page, "Package");
+            for (Map.Entry<String, List<ClassResult>> entry : packages.entrySet()) {
+                String link = String.format("<a href=\"packages/%s.html\">%s</a>", escape(entry.getKey()),
+                        escape(entry.getKey()));
+                writeRow(page, link, entry.getValue());
+            }
+            page.raw("</table>\n");
+
+            page.raw("<h2>Classes</h2>\n");
+            writeClassTable(page, "classes/", results);
+            page.endPage();
+        } finally {
+            page.close();
+        }
+    }
+
+    private void writePackagePages(File packagesDir, List<ClassResult> results) throws IOException {
+        for (Map.Entry<String, List<ClassResult>> entry : groupByPackage(results).entrySet()) {
+            HtmlWriter page = new HtmlWriter(new File(packagesDir, entry.getKey() + ".html"));
+            try {
+                page.startPage(String.format("Package %s", entry.getKey()), "../style.css");
+                page.raw("<div class=\"breadcrumbs\"><a href=\"../index.html\">all</a> &gt; ").text(entry.getKey())
+                        .raw("</div>\n");
+                writeSummary(page, entry.getValue());
+                page.raw("<h2>Classes</h2>\n");
+                writeClassTable(page, "../classes/", entry.getValue());
+                page.endPage();
+            } finally {
+                page.close();
+            }
+        }
+    }
+
+    private void writeSummary(HtmlWriter page, List<ClassResult> results) throws IOException {
+        int tests = 0;
+        int failures = 0;
+        double duration = 0;
+        for (ClassResult result : results) {
+            tests += result.getTestCount();
+            failures += result.getFailureCount();
+            duration += result.getDuration();
+        }
+        page.summary(tests, failures, duration);
+    }
+
+    private void writeClassTable(HtmlWriter page, String classesPath, List<ClassResult> results) throws IOException {
+        startTable(page, "Class");
+        for (ClassResult result : results) {
+            writeRow(page, classLink(classesPath, result), Collections.singletonList(result));
+        }
+        page.raw("</table>\n");
+    }
+
+    private void startTable(HtmlWriter page, String title) throws IOException {
+        page.raw("<table>\n<tr><th>").text(title).raw("</th><th>Tests</th><th>Failures</th><th>Duration</th>"
+                + "<th>Success rate</th></tr>\n");
+    }
+
+    private void writeRow(HtmlWriter page, String link, List<ClassResult> results) throws IOException {
+        int tests = 0;
+        int failures = 0;
+        double duration = 0;
+        boolean failed = false;
+        for (ClassResult result : results) {
+            tests += result.getTestCount();
+            failures += result.getFailureCount();
+            duration += result.getDuration();
+            failed |= result.isFailed();
+        }
+        page.raw("<tr class=\"").raw(failed ? "failures" : "success").raw("\"><td>").raw(link).raw("</td>");
+        page.raw("<td>").raw(String.valueOf(tests)).raw("</td>");
+        page.raw("<td>").raw(String.valueOf(failures)).raw("</td>");
+        page.raw("<td>").raw(HtmlWriter.formatDuration(duration)).raw("</td>");
+        page.raw("<td>").raw(HtmlWriter.formatSuccessRate(tests, failures)).raw("</td></tr>\n");
+    }
+
+    private String classLink(String classesPath, ClassResult result) {
+        return String.format("<a href=\"%s%s.html\">%s</a>", classesPath, escape(result.getClassName()),
+                escape(result.getClassName()));
+    }
+
+    private Map<String, List<ClassResult>> groupByPackage(List<ClassResult> results) {
+        Map<String, List<ClassResult>> packages = new TreeMap<String, List<ClassResult>>();
+        for (ClassResult result : results) {
+            List<ClassResult> classes = packages.get(result.getPackageName());
+            if (classes == null) {
+                classes = new ArrayList<ClassResult>();
+                packages.put(result.getPackageName(), classes);
+            }
+            classes.add(result);
+        }
+        return packages;
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
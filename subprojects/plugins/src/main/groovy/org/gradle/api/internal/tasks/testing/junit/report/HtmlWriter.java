@@ -0,0 +1,109 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.junit.report;
+
+import java.io.*;
+import java.util.Locale;
+
+/**
+ * Writes an HTML page of the test report.
+ */
+class HtmlWriter {
+    private final Writer writer;
+
+    public HtmlWriter(File file) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    }
+
+    public HtmlWriter startPage(String title, String stylesheet) throws IOException {
+        raw("<!DOCTYPE html PUBLIC \"-//W3C//DTD HTML 4.01//EN\" \"http://www.w3.org/TR/html4/strict.dtd\">\n");
+        raw("<html>\n<head>\n");
+        raw("<meta http-equiv=\"Content-Type\" content=\"text/html; charset=utf-8\">\n");
+        raw("<title>").text(title).raw("</title>\n");
+        raw("<link href=\"").text(stylesheet).raw("\" rel=\"stylesheet\" type=\"text/css\">\n");
+        raw("</head>\n<body>\n");
+        raw("<h1>").text(title).raw("</h1>\n");
+        return this;
+    }
+
+    public HtmlWriter summary(int tests, int failures, double duration) throws IOException {
+        raw("<table class=\"summary\">\n<tr><th>Tests</th><th>Failures</th><th>Duration</th><th>Success rate</th></tr>\n");
+        raw("<tr class=\"").raw(failures > 0 ? "failures" : "success").raw("\">");
+        raw("<td>").raw(String.valueOf(tests)).raw("</td>");
+        raw("<td>").raw(String.valueOf(failures)).raw("</td>");
+        raw("<td>").raw(formatDuration(duration)).raw("</td>");
+        raw("<td>").raw(formatSuccessRate(tests, failures)).raw("</td></tr>\n</table>\n");
+        return this;
+    }
+
+    public HtmlWriter endPage() throws IOException {
+        raw("</body>\n</html>\n");
+        return this;
+    }
+
+    public HtmlWriter raw(String html) throws IOException {
+        writer.write(html);
+        return this;
+    }
+
+    public HtmlWriter text(String text) throws IOException {
+        return text(text.toCharArray(), 0, text.length());
+    }
+
+    public HtmlWriter text(char[] chars, int offset, int length) throws IOException {
+        int end = offset + length;
+        int start = offset;
+        for (int i = offset; i < end; i++) {
+            String replacement;
+            switch (chars[i]) {
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                default:
+                    continue;
+            }
+            writer.write(chars, start, i - start);
+            writer.write(replacement);
+            start = i + 1;
+        }
+        writer.write(chars, start, end - start);
+        return this;
+    }
+
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    public static String formatDuration(double seconds) {
+        return String.format(Locale.US, "%.3fs", seconds);
+    }
+
+    public static String formatSuccessRate(int tests, int failures) {
+        if (tests == 0) {
+            return "-";
+        }
+        return String.format(Locale.US, "%d%%", (tests - failures) * 100 / tests);
+    }
+}
@@ -17,26 +17,38 @@
 package org.gradle.api.internal.tasks.testing.processors;
 
 import org.gradle.api.internal.Factory;
-import org.gradle.api.internal.tasks.testing.TestClassProcessor;
-import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
-import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.*;
 import org.gradle.messaging.actor.Actor;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.messaging.concurrent.CompositeStoppable;
 import org.gradle.messaging.dispatch.DispatchException;
 import org.gradle.util.UncheckedException;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors. By default, uses a simple round-robin algorithm to assign test classes
+ * to processors.
+ *
+ * <p>When pull-based, test classes are instead queued, and each processor is given its next test class only when it
+ * has completed its current one. A processor has completed a test class when it notifies its result processor that the
+ * test class has completed. Queued test classes are handed out in the given order, if any. A processor which fails,
+ * either by throwing an exception or by notifying its result processor through {@link
+ * TestClassProcessorFailureListener}, is given no further test classes.</p>
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<? extends TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final boolean pullBased;
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+    private final Queue<TestClassRunInfo> pending;
+    private final List<Worker> idleWorkers = new ArrayList<Worker>();
+    private int liveWorkers;
     private TestResultProcessor resultProcessor;
     private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
@@ -44,9 +56,21 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private Actor resultProcessorActor;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<? extends TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, false, null);
+    }
+
+    /**
+     * @param pullBased true to hand test classes to processors as they complete their previous test class.
+     * @param order the order in which queued test classes are handed to processors when pull-based. Uses the order
+     * in which the test classes are received when null.
+     */
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<? extends TestClassProcessor> factory, ActorFactory actorFactory,
+                                          boolean pullBased, Comparator<? super TestClassRunInfo> order) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.pullBased = pullBased;
+        pending = order == null ? new LinkedList<TestClassRunInfo>() : new PriorityQueue<TestClassRunInfo>(11, order);
     }
 
     public void startProcessing(TestResultProcessor resultProcessor) {
@@ -55,6 +79,11 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     }
 
     public void processTestClass(TestClassRunInfo testClass) {
+        if (pullBased) {
+            schedule(testClass);
+            return;
+        }
+
         TestClassProcessor processor;
         if (processors.size() < maxProcessors) {
             processor = factory.create();
@@ -71,10 +100,189 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     }
 
     public void stop() {
+        if (pullBased) {
+            waitForPendingTestClasses();
+        }
         try {
             new CompositeStoppable(processors).add(actors).add(resultProcessorActor).stop();
         } catch (DispatchException e) {
             throw UncheckedException.asUncheckedException(e.getCause());
         }
     }
+
+    private void schedule(TestClassRunInfo testClass) {
+        lock.lock();
+        try {
+            if (!idleWorkers.isEmpty()) {
+                idleWorkers.remove(idleWorkers.size() - 1).execute(testClass);
+            } else if (processors.size() < maxProcessors) {
+                startWorker().execute(testClass);
+            } else {
+                pending.add(testClass);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Worker startWorker() {
+        Worker worker = new Worker();
+        Actor actor = actorFactory.createActor(new FailureDetectingProcessor(factory.create(), worker));
+        worker.processor = actor.getProxy(TestClassProcessor.class);
+        actors.add(actor);
+        processors.add(worker.processor);
+        liveWorkers++;
+        worker.processor.startProcessing(worker);
+        return worker;
+    }
+
+    private void waitForPendingTestClasses() {
+        lock.lock();
+        try {
+            while (!pending.isEmpty() && liveWorkers > 0) {
+                condition.await();
+            }
+            // Any test classes still pending cannot be executed, as all the processors have failed. The failures
+            // are rethrown when the processors are stopped
+            pending.clear();
+        } catch (InterruptedException e) {
+            throw UncheckedException.asUncheckedException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void testClassCompleted(Worker worker) {
+        lock.lock();
+        try {
+            if (worker.failed) {
+                return;
+            }
+            TestClassRunInfo next = pending.poll();
+            if (next != null) {
+                worker.execute(next);
+            } else {
+                idleWorkers.add(worker);
+            }
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void workerFailed(Worker worker) {
+        lock.lock();
+        try {
+            if (worker.failed) {
+                return;
+            }
+            worker.failed = true;
+            worker.current = null;
+            idleWorkers.remove(worker);
+            liveWorkers--;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A processor used when pull-based. Receives the results of the processor, and watches for the completion of its
+     * current test class.
+     */
+    private class Worker implements TestResultProcessor, TestClassProcessorFailureListener {
+        private TestClassProcessor processor;
+        private TestClassRunInfo current;
+        private Object currentId;
+        private boolean failed;
+
+        public void execute(TestClassRunInfo testClass) {
+            current = testClass;
+            currentId = null;
+            processor.processTestClass(testClass);
+        }
+
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            lock.lock();
+            try {
+                if (current != null && currentId == null && test.isComposite()
+                        && current.getTestClassName().equals(test.getClassName())) {
+                    currentId = test.getId();
+                }
+            } finally {
+                lock.unlock();
+            }
+            resultProcessor.started(test, event);
+        }
+
+        public void completed(Object testId, TestCompleteEvent event) {
+            resultProcessor.completed(testId, event);
+            boolean testClassCompleted;
+            lock.lock();
+            try {
+                testClassCompleted = currentId != null && currentId.equals(testId);
+                if (testClassCompleted) {
+                    current = null;
+                    currentId = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (testClassCompleted) {
+                testClassCompleted(this);
+            }
+        }
+
+        public void output(Object testId, TestOutputEvent event) {
+            resultProcessor.output(testId, event);
+        }
+
+        public void failure(Object testId, Throwable result) {
+            resultProcessor.failure(testId, result);
+        }
+
+        public void processorFailed(Throwable failure) {
+            workerFailed(this);
+        }
+    }
+
+    /**
+     * Notifies when a processor fails, so that no more test classes are handed to it.
+     */
+    private class FailureDetectingProcessor implements TestClassProcessor {
+        private final TestClassProcessor processor;
+        private final Worker worker;
+
+        private FailureDetectingProcessor(TestClassProcessor processor, Worker worker) {
+            this.processor = processor;
+            this.worker = worker;
+        }
+
+        public void startProcessing(TestResultProcessor resultProcessor) {
+            try {
+                processor.startProcessing(resultProcessor);
+            } catch (RuntimeException e) {
+                workerFailed(worker);
+                throw e;
+            }
+        }
+
+        public void processTestClass(TestClassRunInfo testClass) {
+            try {
+                processor.processTestClass(testClass);
+            } catch (RuntimeException e) {
+                workerFailed(worker);
+                throw e;
+            }
+        }
+
+        public void stop() {
+            try {
+                processor.stop();
+            } catch (RuntimeException e) {
+                workerFailed(worker);
+                throw e;
+            }
+        }
+    }
 }
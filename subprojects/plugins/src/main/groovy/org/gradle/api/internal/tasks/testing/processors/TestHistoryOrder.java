@@ -0,0 +1,57 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.processors;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.tasks.testing.TestClassHistory;
+import org.gradle.api.tasks.testing.TestHistory;
+import org.gradle.api.tasks.testing.TestResult;
+
+import java.util.Comparator;
+
+/**
+ * Orders test classes using their history, so that failures are reported early and long running test classes do not
+ * hold up the end of the test run: test classes which failed the last time they were executed come first, then test
+ * classes which have not been executed before, then the remaining test classes, longest first.
+ */
+public class TestHistoryOrder implements Comparator<TestClassRunInfo> {
+    private final TestHistory history;
+
+    public TestHistoryOrder(TestHistory history) {
+        this.history = history;
+    }
+
+    public int compare(TestClassRunInfo testClass1, TestClassRunInfo testClass2) {
+        TestClassHistory history1 = history.getClassHistory(testClass1.getTestClassName());
+        TestClassHistory history2 = history.getClassHistory(testClass2.getTestClassName());
+        int rank1 = rank(history1);
+        int rank2 = rank(history2);
+        if (rank1 != rank2) {
+            return rank1 - rank2;
+        }
+        if (history1 != null && history2 != null && history1.getDuration() != history2.getDuration()) {
+            return history1.getDuration() > history2.getDuration() ? -1 : 1;
+        }
+        return testClass1.getTestClassName().compareTo(testClass2.getTestClassName());
+    }
+
+    private int rank(TestClassHistory history) {
+        if (history == null) {
+            return 1;
+        }
+        return history.getResultType() == TestResult.ResultType.FAILURE ? 0 : 2;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.results;
+
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.tasks.testing.*;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.Serializer;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link TestHistory} which is kept in a persistent cache for the build, keyed by task path and test class name.
+ * Records the result of each test class it is notified about as a {@link TestListener}, and writes these results to the
+ * cache when {@link #persist()} is called, so that lookups made during an execution of the task see the results of the
+ * previous executions only. Lookups can be made by multiple threads concurrently.
+ */
+public class PersistentTestHistory implements TestHistory, TestListener {
+    private static final TestClassHistory NO_HISTORY = new DefaultTestClassHistory(0, null);
+    private final String taskPath;
+    private final Gradle gradle;
+    private final CacheRepository cacheRepository;
+    private final Map<String, TestClassHistory> previous = new ConcurrentHashMap<String, TestClassHistory>();
+    private final Map<String, TestClassHistory> current = new HashMap<String, TestClassHistory>();
+    private PersistentIndexedCache<String, TestClassHistory> cache;
+
+    public PersistentTestHistory(String taskPath, Gradle gradle, CacheRepository cacheRepository) {
+        this.taskPath = taskPath;
+        this.gradle = gradle;
+        this.cacheRepository = cacheRepository;
+    }
+
+    public TestClassHistory getClassHistory(String className) {
+        TestClassHistory history = previous.get(className);
+        if (history == null) {
+            synchronized (this) {
+                history = getCache().get(key(className));
+            }
+            if (history == null) {
+                history = NO_HISTORY;
+            }
+            previous.put(className, history);
+        }
+        return history == NO_HISTORY ? null : history;
+    }
+
+    /**
+     * Writes the results recorded since the last call to this method to the cache.
+     */
+    public void persist() {
+        synchronized (this) {
+            for (Map.Entry<String, TestClassHistory> entry : current.entrySet()) {
+                getCache().put(key(entry.getKey()), entry.getValue());
+                previous.put(entry.getKey(), entry.getValue());
+            }
+            current.clear();
+        }
+    }
+
+    public void afterSuite(TestDescriptor suite, TestResult result) {
+        if (suite.getClassName() == null) {
+            return;
+        }
+        TestClassHistory history = new DefaultTestClassHistory(result.getEndTime() - result.getStartTime(),
+                result.getResultType());
+        synchronized (this) {
+            current.put(suite.getClassName(), history);
+        }
+    }
+
+    public void beforeSuite(TestDescriptor suite) {
+    }
+
+    public void beforeTest(TestDescriptor testDescriptor) {
+    }
+
+    public void afterTest(TestDescriptor testDescriptor, TestResult result) {
+    }
+
+    private String key(String className) {
+        return taskPath + ":" + className;
+    }
+
+    private PersistentIndexedCache<String, TestClassHistory> getCache() {
+        if (cache == null) {
+            cache = cacheRepository.cache("testHistory").forObject(gradle).open().openIndexedCache(
+                    new TestClassHistorySerializer());
+        }
+        return cache;
+    }
+
+    private static class DefaultTestClassHistory implements TestClassHistory {
+        private final long duration;
+        private final TestResult.ResultType resultType;
+
+        private DefaultTestClassHistory(long duration, TestResult.ResultType resultType) {
+            this.duration = duration;
+            this.resultType = resultType;
+        }
+
+        public long getDuration() {
+            return duration;
+        }
+
+        public TestResult.ResultType getResultType() {
+            return resultType;
+        }
+    }
+
+    private static class TestClassHistorySerializer implements Serializer<TestClassHistory> {
+        public TestClassHistory read(InputStream instr) throws Exception {
+            DataInputStream input = new DataInputStream(instr);
+            long duration = input.readLong();
+            TestResult.ResultType resultType = TestResult.ResultType.valueOf(input.readUTF());
+            return new DefaultTestClassHistory(duration, resultType);
+        }
+
+        public void write(OutputStream outstr, TestClassHistory value) throws Exception {
+            DataOutputStream output = new DataOutputStream(outstr);
+            output.writeLong(value.getDuration());
+            output.writeUTF(value.getResultType().name());
+            output.flush();
+        }
+    }
+}
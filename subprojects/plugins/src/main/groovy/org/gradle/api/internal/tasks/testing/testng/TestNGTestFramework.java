@@ -62,6 +62,11 @@ public class TestNGTestFramework implements TestFramework {
         };
     }
 
+    public boolean isExecutesClassesOnReceipt() {
+        // All test classes are executed as a single TestNG suite when the processor is stopped
+        return false;
+    }
+
     public void report() {
         // TODO currently reports are always generated because the antTestNGExecute task uses the
         // default listeners and these generate reports by default.
@@ -19,10 +19,12 @@ package org.gradle.api.internal.tasks.testing.worker;
 import org.gradle.api.Action;
 import org.gradle.api.internal.Factory;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassProcessorFailureListener;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.ExecException;
 import org.gradle.process.internal.WorkerProcess;
 import org.gradle.process.internal.WorkerProcessBuilder;
 
@@ -34,11 +36,19 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final JavaForkOptions options;
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
+    private final boolean reuseWorkerProcess;
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
     private TestResultProcessor resultProcessor;
+    private volatile boolean stopping;
+    private volatile boolean stoppedUnexpectedly;
 
     public ForkingTestClassProcessor(Factory<? extends WorkerProcessBuilder> workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction) {
+        this(workerFactory, processorFactory, options, classPath, buildConfigAction, false);
+    }
+
+    public ForkingTestClassProcessor(Factory<? extends WorkerProcessBuilder> workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, boolean reuseWorkerProcess) {
+        this.reuseWorkerProcess = reuseWorkerProcess;
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
         this.options = options;
@@ -54,13 +64,22 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         if (remoteProcessor == null) {
             WorkerProcessBuilder builder = workerFactory.create();
             builder.applicationClasspath(classPath);
-            builder.setLoadApplicationInSystemClassLoader(true);
+            if (reuseWorkerProcess) {
+                builder.setReuseProcess(true);
+            } else {
+                builder.setLoadApplicationInSystemClassLoader(true);
+            }
             builder.worker(new TestWorker(processorFactory));
             options.copyTo(builder.getJavaCommand());
             buildConfigAction.execute(builder);
             
             workerProcess = builder.build();
             workerProcess.start();
+            workerProcess.addStopAction(new Runnable() {
+                public void run() {
+                    workerProcessStopped();
+                }
+            });
 
             workerProcess.getConnection().addIncoming(TestResultProcessor.class, resultProcessor);
             remoteProcessor = workerProcess.getConnection().addOutgoing(RemoteTestClassProcessor.class);
@@ -73,8 +92,25 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
     public void stop() {
         if (remoteProcessor != null) {
+            stopping = true;
             remoteProcessor.stop();
             workerProcess.waitForStop();
+            if (stoppedUnexpectedly) {
+                throw new ExecException(String.format("%s stopped before all test classes were executed.",
+                        workerProcess));
+            }
+        }
+    }
+
+    private void workerProcessStopped() {
+        if (stopping) {
+            return;
+        }
+        // The worker process exited, or the connection to it was lost, while test classes were still in progress
+        stoppedUnexpectedly = true;
+        if (resultProcessor instanceof TestClassProcessorFailureListener) {
+            ((TestClassProcessorFailureListener) resultProcessor).processorFailed(new ExecException(String.format(
+                    "%s stopped unexpectedly.", workerProcess)));
         }
     }
 }
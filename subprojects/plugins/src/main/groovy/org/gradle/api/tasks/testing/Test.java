@@ -22,12 +22,15 @@ import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.ConventionTask;
+import org.gradle.api.internal.changedetection.InMemoryCachingHasher;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
+import org.gradle.api.internal.tasks.testing.detection.JarClassIndexCache;
 import org.gradle.api.internal.tasks.testing.detection.TestExecuter;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
+import org.gradle.api.internal.tasks.testing.results.PersistentTestHistory;
 import org.gradle.api.internal.tasks.testing.results.TestListenerAdapter;
 import org.gradle.api.internal.tasks.testing.results.TestLogger;
 import org.gradle.api.internal.tasks.testing.results.TestSummaryListener;
@@ -36,6 +39,7 @@ import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.*;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.cache.CacheRepository;
 import org.gradle.listener.ListenerBroadcast;
 import org.gradle.listener.ListenerManager;
 import org.gradle.logging.ProgressLoggerFactory;
@@ -74,12 +78,14 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private long forkEvery;
     private int maxParallelForks = 1;
     private ListenerBroadcast<TestListener> testListenerBroadcaster;
+    private PersistentTestHistory testHistory;
 
     public Test() {
         testListenerBroadcaster = getServices().get(ListenerManager.class).createAnonymousBroadcaster(
                 TestListener.class);
         this.testExecuter = new DefaultTestExecuter(getServices().getFactory(WorkerProcessBuilder.class), getServices().get(
-                ActorFactory.class));
+                ActorFactory.class), new JarClassIndexCache(getServices().get(InMemoryCachingHasher.class),
+                getServices().get(CacheRepository.class)));
         options = new DefaultJavaForkOptions(getServices().get(FileResolver.class));
         options.setEnableAssertions(true);
     }
@@ -329,8 +335,15 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         addTestListener(listener);
         addTestListener(new TestLogger(getServices().get(ProgressLoggerFactory.class)));
 
-        TestResultProcessor resultProcessor = new TestListenerAdapter(getTestListenerBroadcaster().getSource());
-        testExecuter.execute(this, resultProcessor);
+        PersistentTestHistory history = getPersistentTestHistory();
+        addTestListener(history);
+        try {
+            TestResultProcessor resultProcessor = new TestListenerAdapter(getTestListenerBroadcaster().getSource());
+            testExecuter.execute(this, resultProcessor);
+        } finally {
+            removeTestListener(history);
+            history.persist();
+        }
 
         testFramework.report();
 
@@ -339,6 +352,25 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
     }
 
+    /**
+     * Returns the history of the test classes executed by this task. The history is used to decide the order in which
+     * test classes are executed, and can be used by test listeners to report on changes in the results of test
+     * classes.
+     *
+     * @return The test history.
+     */
+    public TestHistory getTestHistory() {
+        return getPersistentTestHistory();
+    }
+
+    private PersistentTestHistory getPersistentTestHistory() {
+        if (testHistory == null) {
+            testHistory = new PersistentTestHistory(getPath(), getProject().getGradle(), getServices().get(
+                    CacheRepository.class));
+        }
+        return testHistory;
+    }
+
     /**
      * Returns the {@link org.gradle.api.tasks.testing.TestListener} broadcaster.  This broadcaster will send messages
      * to all listeners that have been registered with the ListenerManager.
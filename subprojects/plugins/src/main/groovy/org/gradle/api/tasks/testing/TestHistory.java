@@ -0,0 +1,30 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.tasks.testing;
+
+/**
+ * The results of test classes from previous executions of a {@link Test} task.
+ */
+public interface TestHistory {
+    /**
+     * Returns the history of the given test class, as recorded by the previous executions of the task. Results of the
+     * current execution of the task are not visible until it has completed.
+     *
+     * @param className The fully qualified name of the test class.
+     * @return The history, or null if the class has not been executed by this task before.
+     */
+    TestClassHistory getClassHistory(String className);
+}
@@ -26,6 +26,7 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.jmock.Sequence
 import org.gradle.api.file.FileTree
 import static org.hamcrest.Matchers.*
+import static org.junit.Assert.assertThat
 import org.gradle.api.file.FileVisitDetails
 
 @RunWith(JMock.class)
@@ -55,4 +56,26 @@ public class DefaultTestClassScannerTest {
         
         scanner.run()
     }
+
+    @Test
+    public void passesEachClassFileToTestClassDetectorFromMultipleThreads() {
+        List<File> processed = Collections.synchronizedList([])
+        TestFrameworkDetector detector = [startDetection: {}, processTestClass: { File file -> processed << file; true }] as TestFrameworkDetector
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, 4)
+
+        context.checking {
+            one(files).visit(withParam(notNullValue()))
+            will { visitor ->
+                (1..100).each { i ->
+                    visitor.visitFile({new File("class${i}.class")} as FileVisitDetails)
+                }
+                visitor.visitFile({new File('resource.txt')} as FileVisitDetails)
+            }
+        }
+
+        scanner.run()
+
+        assertThat(processed as Set, equalTo((1..100).collect { new File("class${it}.class") } as Set))
+        assertThat(processed.size(), equalTo(100))
+    }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection
+
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+import org.gradle.util.TemporaryFolder
+import org.gradle.util.TestFile
+import org.junit.Rule
+import org.objectweb.asm.AnnotationVisitor
+import org.objectweb.asm.ClassReader
+import org.objectweb.asm.MethodVisitor
+import org.objectweb.asm.commons.EmptyVisitor
+import spock.lang.Specification
+
+class JarClassIndexTest extends Specification {
+    @Rule
+    public final TemporaryFolder tmpDir = new TemporaryFolder()
+
+    def indexesClassesInJar() {
+        def jar = jar(JarClassIndexTest, RecordingVisitor)
+
+        when:
+        def index = JarClassIndex.build(jar)
+
+        then:
+        index.get(internalName(JarClassIndexTest)).superName == 'spock/lang/Specification'
+        index.get(internalName(RecordingVisitor)).superName == 'org/objectweb/asm/commons/EmptyVisitor'
+        index.get('java/lang/String') == null
+    }
+
+    def replaysClassAsClassReaderVisitsIt() {
+        def index = JarClassIndex.build(jar(JarClassIndexTest, RecordingVisitor))
+
+        expect:
+        replay(index, JarClassIndexTest) == read(JarClassIndexTest)
+        replay(index, RecordingVisitor) == read(RecordingVisitor)
+    }
+
+    def ignoresClassFilesWhichCannotBeRead() {
+        def jar = tmpDir.file('broken.jar')
+        jar.withOutputStream { outstr ->
+            def zipStream = new ZipOutputStream(outstr)
+            zipStream.putNextEntry(new ZipEntry('org/gradle/Broken.class'))
+            zipStream.write([0xCA, 0xFE, 0xBA, 0xBE, 0, 0] as byte[])
+            zipStream.putNextEntry(new ZipEntry(classFileName(RecordingVisitor)))
+            zipStream.write(getClass().classLoader.getResourceAsStream(classFileName(RecordingVisitor)).bytes)
+            zipStream.close()
+        }
+
+        when:
+        def index = JarClassIndex.build(jar)
+
+        then:
+        index.get('org/gradle/Broken') == null
+        index.get(internalName(RecordingVisitor)) != null
+    }
+
+    def canSerializeIndex() {
+        def index = JarClassIndex.build(jar(JarClassIndexTest, RecordingVisitor))
+        def serializer = new JarClassIndexSerializer()
+
+        when:
+        def outstr = new ByteArrayOutputStream()
+        serializer.write(outstr, index)
+        def copy = serializer.read(new ByteArrayInputStream(outstr.toByteArray()))
+
+        then:
+        replay(copy, JarClassIndexTest) == read(JarClassIndexTest)
+        replay(copy, RecordingVisitor) == read(RecordingVisitor)
+    }
+
+    private TestFile jar(Class<?>... classes) {
+        TestFile jar = tmpDir.file('test.jar')
+        jar.withOutputStream { outstr ->
+            def zipStream = new ZipOutputStream(outstr)
+            classes.each { type ->
+                zipStream.putNextEntry(new ZipEntry(classFileName(type)))
+                zipStream.write(getClass().classLoader.getResourceAsStream(classFileName(type)).bytes)
+            }
+            zipStream.close()
+        }
+        return jar
+    }
+
+    private String read(Class<?> type) {
+        def visitor = new RecordingVisitor()
+        def instr = getClass().classLoader.getResourceAsStream(classFileName(type))
+        try {
+            new ClassReader(instr).accept(visitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES)
+        } finally {
+            instr.close()
+        }
+        return visitor.toString()
+    }
+
+    private String replay(JarClassIndex index, Class<?> type) {
+        def visitor = new RecordingVisitor()
+        index.get(internalName(type)).accept(visitor)
+        return visitor.toString()
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.name.replace('.', '/')
+    }
+
+    private static String classFileName(Class<?> type) {
+        return internalName(type) + '.class'
+    }
+
+    /**
+     * Records the parts of a class which are indexed.
+     */
+    static class RecordingVisitor extends EmptyVisitor {
+        private final List<String> events = []
+        private final List<String> methods = []
+        private String className
+
+        void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            className = name
+            events << "class $access $name $superName".toString()
+        }
+
+        AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            events << "annotation $desc $visible".toString()
+            return new EmptyVisitor()
+        }
+
+        void visitInnerClass(String name, String outerName, String innerName, int access) {
+            if (name == className) {
+                events << "inner class $access".toString()
+            }
+        }
+
+        MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+            def annotations = []
+            return new EmptyVisitor() {
+                AnnotationVisitor visitAnnotation(String annotationDesc, boolean visible) {
+                    annotations << "$annotationDesc $visible".toString()
+                    return new EmptyVisitor()
+                }
+
+                void visitEnd() {
+                    if (!annotations.empty) {
+                        methods << "method $access $name $desc $annotations".toString()
+                    }
+                }
+            }
+        }
+
+        String toString() {
+            return (events + methods).join('\n')
+        }
+    }
+}
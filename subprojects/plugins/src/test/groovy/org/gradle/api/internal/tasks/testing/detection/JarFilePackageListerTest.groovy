@@ -0,0 +1,50 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.detection
+
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+import org.gradle.util.TemporaryFolder
+import org.junit.Rule
+import spock.lang.Specification
+
+class JarFilePackageListerTest extends Specification {
+    @Rule
+    public final TemporaryFolder tmpDir = new TemporaryFolder()
+    final JarFilePackageLister lister = new JarFilePackageLister()
+
+    def listsPackagesOfDirectoryAndClassFileEntries() {
+        def jar = jar('META-INF/', 'META-INF/MANIFEST.MF', 'org/', 'org/gradle/', 'org/gradle/Test.class',
+                'org/gradle/other/Test.class', 'org/gradle/resources/test.properties', 'Root.class')
+        def packages = [] as Set
+
+        when:
+        lister.listJarPackages(jar, { packages << it } as JarFilePackageListener)
+
+        then:
+        packages == ['org/', 'org/gradle/', 'org/gradle/other/', ''] as Set
+    }
+
+    def jar(String... entries) {
+        def jar = tmpDir.file('test.jar')
+        jar.withOutputStream { outstr ->
+            def zipStream = new ZipOutputStream(outstr)
+            entries.each { zipStream.putNextEntry(new ZipEntry(it)) }
+            zipStream.close()
+        }
+        return jar
+    }
+}
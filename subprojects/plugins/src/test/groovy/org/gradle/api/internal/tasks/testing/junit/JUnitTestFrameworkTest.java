@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks.testing.junit;
 import org.gradle.api.internal.project.ServiceRegistry;
 import org.gradle.api.internal.tasks.testing.AbstractTestFrameworkTest;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.junit.report.HtmlTestReport;
 import org.gradle.api.tasks.testing.junit.JUnitOptions;
 import org.gradle.util.IdGenerator;
 import org.jmock.Expectations;
@@ -33,7 +34,7 @@ import static org.junit.Assert.*;
  */
 public class JUnitTestFrameworkTest extends AbstractTestFrameworkTest {
     private JUnitTestFramework jUnitTestFramework;
-    private AntJUnitReport antJUnitReportMock;
+    private HtmlTestReport testReportMock;
     private JUnitOptions jUnitOptionsMock;
     private IdGenerator<?> idGenerator;
     private ServiceRegistry serviceRegistry;
@@ -42,7 +43,7 @@ public class JUnitTestFrameworkTest extends AbstractTestFrameworkTest {
     public void setUp() throws Exception {
         super.setUp();
 
-        antJUnitReportMock = context.mock(AntJUnitReport.class);
+        testReportMock = context.mock(HtmlTestReport.class);
         jUnitOptionsMock = context.mock(JUnitOptions.class);
         idGenerator = context.mock(IdGenerator.class);
         serviceRegistry = context.mock(ServiceRegistry.class);
@@ -59,7 +60,7 @@ public class JUnitTestFrameworkTest extends AbstractTestFrameworkTest {
         setMocks();
 
         assertNotNull(jUnitTestFramework.getOptions());
-        assertNotNull(jUnitTestFramework.getAntJUnitReport());
+        assertNotNull(jUnitTestFramework.getTestReport());
     }
 
     @org.junit.Test
@@ -84,12 +85,8 @@ public class JUnitTestFrameworkTest extends AbstractTestFrameworkTest {
         context.checking(new Expectations() {{
             one(testMock).getTestResultsDir(); will(returnValue(testResultsDir));
             one(testMock).getTestReportDir(); will(returnValue(testReportDir));
-            one(projectMock).getAnt(); will(returnValue(antBuilderMock));
             one(testMock).isTestReport(); will(returnValue(true));
-            one(antJUnitReportMock).execute(
-                    testResultsDir, testReportDir,
-                    antBuilderMock
-            );
+            one(testReportMock).generateReport(testResultsDir, testReportDir);
         }});
 
         jUnitTestFramework.report();
@@ -108,7 +105,7 @@ public class JUnitTestFrameworkTest extends AbstractTestFrameworkTest {
     }
 
     private void setMocks() {
-        jUnitTestFramework.setAntJUnitReport(antJUnitReportMock);
+        jUnitTestFramework.setTestReport(testReportMock);
         jUnitTestFramework.setOptions(jUnitOptionsMock);
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.junit
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestMethodDescriptor
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestOutputEvent
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.util.TemporaryFolder
+import org.junit.Rule
+import spock.lang.Specification
+
+class JUnitXmlReportGeneratorTest extends Specification {
+    @Rule public final TemporaryFolder tmpDir = new TemporaryFolder()
+    private final JUnitXmlReportGenerator generator = new JUnitXmlReportGenerator(tmpDir.dir)
+
+    def writesReportForTestClass() {
+        when:
+        generator.started(new DefaultTestClassDescriptor('class', 'org.SomeTest'), new TestStartEvent(100))
+        generator.started(new DefaultTestMethodDescriptor('ok', 'org.SomeTest', 'ok'), new TestStartEvent(100, 'class'))
+        generator.output('ok', new TestOutputEvent(TestOutputEvent.Destination.StdOut, 'some output'))
+        generator.completed('ok', new TestCompleteEvent(300))
+        generator.started(new DefaultTestMethodDescriptor('broken', 'org.SomeTest', 'broken'), new TestStartEvent(300, 'class'))
+        generator.output('broken', new TestOutputEvent(TestOutputEvent.Destination.StdErr, 'some error'))
+        generator.failure('broken', new RuntimeException('<broken>'))
+        generator.completed('broken', new TestCompleteEvent(400))
+        generator.completed('class', new TestCompleteEvent(1100))
+
+        then:
+        def testSuite = new XmlSlurper().parse(tmpDir.file('TEST-org.SomeTest.xml'))
+        testSuite.@name == 'org.SomeTest'
+        testSuite.@tests == '2'
+        testSuite.@failures == '1'
+        testSuite.@time == '1.0'
+        testSuite.testcase.size() == 2
+        testSuite.testcase[0].@name == 'ok'
+        testSuite.testcase[0].@time == '0.2'
+        testSuite.testcase[0].failure.size() == 0
+        testSuite.testcase[1].@name == 'broken'
+        testSuite.testcase[1].failure.@message == 'java.lang.RuntimeException: <broken>'
+        testSuite.testcase[1].failure.text().startsWith('java.lang.RuntimeException: <broken>')
+        testSuite.'system-out'.text() == 'some output'
+        testSuite.'system-err'.text() == 'some error'
+    }
+
+    def writesLargeOutputSplitAcrossEvents() {
+        def expected = new StringBuilder()
+
+        when:
+        generator.started(new DefaultTestClassDescriptor('class', 'org.SomeTest'), new TestStartEvent(100))
+        10000.times {
+            ['line ', "$it ]", ']', '>\u0000\n'].each { message ->
+                generator.output('class', new TestOutputEvent(TestOutputEvent.Destination.StdOut, message))
+            }
+            expected << "line $it ]]>\n"
+        }
+        generator.completed('class', new TestCompleteEvent(200))
+
+        then:
+        def testSuite = new XmlSlurper().parse(tmpDir.file('TEST-org.SomeTest.xml'))
+        testSuite.'system-out'.text() == expected.toString()
+    }
+}
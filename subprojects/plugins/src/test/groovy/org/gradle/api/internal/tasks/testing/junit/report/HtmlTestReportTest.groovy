@@ -0,0 +1,139 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.junit.report
+
+import org.gradle.api.GradleException
+import org.gradle.util.TemporaryFolder
+import org.gradle.util.TestFile
+import org.junit.Rule
+import spock.lang.Specification
+
+class HtmlTestReportTest extends Specification {
+    @Rule
+    public final TemporaryFolder tmpDir = new TemporaryFolder()
+    private final HtmlTestReport report = new HtmlTestReport(2)
+    private TestFile resultsDir
+    private TestFile reportDir
+
+    def setup() {
+        resultsDir = tmpDir.createDir('results')
+        reportDir = tmpDir.file('report')
+    }
+
+    def generatesReportWhenThereAreNoResults() {
+        when:
+        report.generateReport(resultsDir, reportDir)
+
+        then:
+        reportDir.file('index.html').assertIsFile()
+        reportDir.file('style.css').assertIsFile()
+        reportDir.file('index.html').text.contains('<td>0</td>')
+    }
+
+    def generatesPageForEachClassAndPackage() {
+        resultsDir.file('TEST-org.gradle.SomeTest.xml').text = '''<?xml version="1.0" encoding="UTF-8"?>
+<testsuite errors="0" failures="1" hostname="localhost" name="org.gradle.SomeTest" tests="2" time="1.5" timestamp="2011-01-01T00:00:00">
+  <properties />
+  <testcase classname="org.gradle.SomeTest" name="passes" time="0.5" />
+  <testcase classname="org.gradle.SomeTest" name="fails" time="1.0">
+    <failure message="broken" type="java.lang.AssertionError">java.lang.AssertionError: broken &lt;here&gt;
+    at org.gradle.SomeTest.fails(SomeTest.java:12)</failure>
+  </testcase>
+  <system-out><![CDATA[some <output>]]></system-out>
+  <system-err><![CDATA[]]></system-err>
+</testsuite>
+'''
+        resultsDir.file('TEST-org.gradle.sub.OtherTest.xml').text = '''<?xml version="1.0" encoding="UTF-8"?>
+<testsuite errors="0" failures="0" hostname="localhost" name="org.gradle.sub.OtherTest" tests="1" time="0.25" timestamp="2011-01-01T00:00:00">
+  <properties />
+  <testcase classname="org.gradle.sub.OtherTest" name="ok" time="0.25" />
+  <system-out><![CDATA[]]></system-out>
+  <system-err><![CDATA[]]></system-err>
+</testsuite>
+'''
+
+        when:
+        report.generateReport(resultsDir, reportDir)
+
+        then:
+        def index = reportDir.file('index.html').text
+        index.contains('<td>3</td><td>1</td><td>1.750s</td><td>66%</td>')
+        index.contains('<a href="classes/org.gradle.SomeTest.html#fails">SomeTest.fails</a>')
+        index.contains('<a href="packages/org.gradle.html">org.gradle</a>')
+        index.contains('<a href="packages/org.gradle.sub.html">org.gradle.sub</a>')
+        index.contains('<a href="classes/org.gradle.sub.OtherTest.html">org.gradle.sub.OtherTest</a>')
+
+        def packagePage = reportDir.file('packages/org.gradle.html').text
+        packagePage.contains('<a href="../classes/org.gradle.SomeTest.html">org.gradle.SomeTest</a>')
+        !packagePage.contains('OtherTest')
+
+        def classPage = reportDir.file('classes/org.gradle.SomeTest.html').text
+        classPage.contains('<a name="passes"></a>passes</td><td>0.500s</td><td class="result">passed</td>')
+        classPage.contains('<a name="fails"></a>fails</td><td>1.000s</td><td class="result">failed</td>')
+        classPage.contains('java.lang.AssertionError: broken &lt;here&gt;')
+        classPage.contains('<pre class="output">some &lt;output&gt;</pre>')
+
+        reportDir.file('classes/org.gradle.sub.OtherTest.html').assertIsFile()
+    }
+
+    def reportsClassFailureWithoutTestCases() {
+        resultsDir.file('TEST-org.gradle.BrokenTest.xml').text = '''<?xml version="1.0" encoding="UTF-8"?>
+<testsuite errors="1" failures="0" name="org.gradle.BrokenTest" tests="0" time="0">
+  <error message="could not start" type="java.lang.RuntimeException">java.lang.RuntimeException: could not start</error>
+</testsuite>
+'''
+
+        when:
+        report.generateReport(resultsDir, reportDir)
+
+        then:
+        def index = reportDir.file('index.html').text
+        index.contains('<li><a href="classes/org.gradle.BrokenTest.html">org.gradle.BrokenTest</a></li>')
+        index.contains('<td>1</td><td>1</td><td>0.000s</td><td>0%</td>')
+        reportDir.file('classes/org.gradle.BrokenTest.html').text.contains('java.lang.RuntimeException: could not start')
+    }
+
+    def includesClassFailuresInFailureCountsAndSuccessRate() {
+        resultsDir.file('TEST-org.gradle.SomeTest.xml').text = '''<?xml version="1.0" encoding="UTF-8"?>
+<testsuite errors="0" failures="1" name="org.gradle.SomeTest" tests="2" time="1.0">
+  <testcase classname="org.gradle.SomeTest" name="passes" time="0.5" />
+  <testcase classname="org.gradle.SomeTest" name="alsoPasses" time="0.5" />
+  <failure message="teardown failed" type="java.lang.RuntimeException">java.lang.RuntimeException: teardown failed</failure>
+</testsuite>
+'''
+
+        when:
+        report.generateReport(resultsDir, reportDir)
+
+        then:
+        def index = reportDir.file('index.html').text
+        index.contains('<li><a href="classes/org.gradle.SomeTest.html">org.gradle.SomeTest</a></li>')
+        index.contains('<tr class="failures"><td><a href="packages/org.gradle.html">org.gradle</a></td><td>3</td><td>1</td><td>1.000s</td><td>66%</td></tr>')
+        reportDir.file('packages/org.gradle.html').text.contains('<td>3</td><td>1</td><td>1.000s</td><td>66%</td>')
+    }
+
+    def failsWhenResultsFileCannotBeParsed() {
+        def resultsFile = resultsDir.file('TEST-org.gradle.SomeTest.xml')
+        resultsFile.text = '<testsuite name="org.gradle.SomeTest">'
+
+        when:
+        report.generateReport(resultsDir, reportDir)
+
+        then:
+        GradleException e = thrown()
+        e.message == "Could not generate test report for '$resultsFile'."
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.junit.report;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.taskdefs.optional.junit.AggregateTransformer;
+import org.apache.tools.ant.taskdefs.optional.junit.XMLResultAggregator;
+import org.apache.tools.ant.types.FileSet;
+import org.gradle.util.GFileUtils;
+
+import java.io.*;
+
+/**
+ * Compares the time taken to generate the HTML test report using {@link HtmlTestReport} and using Ant's {@link
+ * XMLResultAggregator}. This is not run as part of the test suite. Run it using {@code main()}, optionally passing the
+ * number of test classes and the number of tests per class to use.
+ */
+public class TestReportBenchmark {
+    public static void main(String[] args) throws Exception {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int tests = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        File baseDir = File.createTempFile("test-report", "benchmark");
+        baseDir.delete();
+        try {
+            File resultsDir = new File(baseDir, "results");
+            writeResults(resultsDir, classes, tests);
+            for (int i = 0; i < 3; i++) {
+                runAnt(resultsDir, new File(baseDir, "ant-" + i));
+                runNative(resultsDir, new File(baseDir, "native-" + i));
+            }
+        } finally {
+            GFileUtils.deleteDirectory(baseDir);
+        }
+    }
+
+    private static void runAnt(File resultsDir, File reportDir) {
+        reportDir.mkdirs();
+        long start = System.nanoTime();
+        Project project = new Project();
+        project.init();
+        XMLResultAggregator aggregator = new XMLResultAggregator();
+        aggregator.setProject(project);
+        aggregator.setTodir(reportDir);
+        FileSet fileSet = new FileSet();
+        fileSet.setDir(resultsDir);
+        fileSet.setIncludes("TEST-*.xml");
+        aggregator.addFileSet(fileSet);
+        AggregateTransformer transformer = aggregator.createReport();
+        transformer.setTodir(reportDir);
+        aggregator.execute();
+        report("ant", start);
+    }
+
+    private static void runNative(File resultsDir, File reportDir) {
+        long start = System.nanoTime();
+        new HtmlTestReport().generateReport(resultsDir, reportDir);
+        report("native", start);
+    }
+
+    private static void report(String name, long start) {
+        long time = System.nanoTime() - start;
+        Runtime runtime = Runtime.getRuntime();
+        System.out.println(String.format("%s: %.0fms, heap used %dMB", name, time / 1e6,
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024)));
+    }
+
+    private static void writeResults(File resultsDir, int classes, int tests) throws IOException {
+        resultsDir.mkdirs();
+        for (int i = 0; i < classes; i++) {
+            String className = String.format("org.gradle.package%d.SomeTest%d", i % 20, i);
+            PrintWriter writer = new PrintWriter(new FileWriter(new File(resultsDir, "TEST-" + className + ".xml")));
+            try {
+                writer.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+                writer.println(String.format("<testsuite errors=\"0\" failures=\"%d\" hostname=\"localhost\" "
+                        + "name=\"%s\" tests=\"%d\" time=\"1.0\" timestamp=\"2011-01-01T00:00:00\">",
+                        i % 10 == 0 ? 1 : 0, className, tests));
+                writer.println("  <properties />");
+                for (int j = 0; j < tests; j++) {
+                    writer.println(String.format("  <testcase classname=\"%s\" name=\"test%d\" time=\"0.01\">",
+                            className, j));
+                    if (i % 10 == 0 && j == 0) {
+                        writer.println("    <failure message=\"broken\" type=\"java.lang.AssertionError\">"
+                                + "java.lang.AssertionError: broken</failure>");
+                    }
+                    writer.println("  </testcase>");
+                }
+                writer.print("  <system-out><![CDATA[");
+                for (int j = 0; j < 200; j++) {
+                    writer.println(String.format("some output from test %d line %d", i, j));
+                }
+                writer.println("]]></system-out>");
+                writer.println("  <system-err><![CDATA[]]></system-err>");
+                writer.println("</testsuite>");
+            } finally {
+                writer.close();
+            }
+        }
+    }
+}
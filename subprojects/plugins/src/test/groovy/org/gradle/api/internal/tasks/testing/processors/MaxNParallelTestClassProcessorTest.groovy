@@ -16,9 +16,15 @@
 
 package org.gradle.api.internal.tasks.testing.processors
 
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
 import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassProcessorFailureListener
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.messaging.dispatch.MethodInvocation
 import org.gradle.messaging.actor.Actor
 import org.gradle.messaging.actor.ActorFactory
 import spock.lang.Specification
@@ -167,4 +173,217 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         then:
         1 * asyncProcessor2.processTestClass(test)
     }
+
+    def pullBasedHandsNextTestClassToProcessorWhenItCompletesItsCurrentTestClass() {
+        TestClassRunInfo test1 = new DefaultTestClassRunInfo('Test1')
+        TestClassRunInfo test2 = new DefaultTestClassRunInfo('Test2')
+        TestClassRunInfo test3 = new DefaultTestClassRunInfo('Test3')
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestResultProcessor workerResultProcessor
+
+        def processor = startPullBasedProcessor()
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+        processor.processTestClass(test3)
+
+        then:
+        2 * factory.create() >>> [processor1, processor2]
+        1 * processor1.startProcessing(!null) >> { workerResultProcessor = it[0] }
+        1 * processor1.processTestClass(test1)
+        1 * processor2.startProcessing(!null)
+        1 * processor2.processTestClass(test2)
+        0 * processor1.processTestClass(test3)
+        0 * processor2.processTestClass(test3)
+
+        when:
+        workerResultProcessor.started(new DefaultTestClassDescriptor(1, 'Test1'), new TestStartEvent(100))
+        workerResultProcessor.completed(1, new TestCompleteEvent(200))
+
+        then:
+        1 * asyncResultProcessor.started({ it.id == 1 }, _)
+        1 * asyncResultProcessor.completed(1, _)
+        1 * processor1.processTestClass(test3)
+
+        when:
+        processor.stop()
+
+        then:
+        1 * processor1.stop()
+        1 * processor2.stop()
+        1 * resultProcessorActor.stop()
+    }
+
+    def pullBasedHandsQueuedTestClassesToProcessorsInGivenOrder() {
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestResultProcessor workerResultProcessor
+        List<String> executed = []
+
+        def processor = startPullBasedProcessor({ a, b -> a.testClassName <=> b.testClassName } as Comparator)
+        2 * factory.create() >>> [processor1, processor2]
+        1 * processor1.startProcessing(!null) >> { workerResultProcessor = it[0] }
+        _ * processor1.processTestClass(_) >> { executed << it[0].testClassName }
+
+        when:
+        ['Test1', 'Test2', 'C', 'A', 'B'].each { processor.processTestClass(new DefaultTestClassRunInfo(it)) }
+        ['Test1', 'A', 'B'].eachWithIndex { name, i ->
+            workerResultProcessor.started(new DefaultTestClassDescriptor(i, name), new TestStartEvent(100))
+            workerResultProcessor.completed(i, new TestCompleteEvent(200))
+        }
+
+        then:
+        executed == ['Test1', 'A', 'B', 'C']
+    }
+
+    def pullBasedStopsHandingTestClassesToFailedProcessor() {
+        TestClassRunInfo test1 = new DefaultTestClassRunInfo('Test1')
+        TestClassRunInfo test2 = new DefaultTestClassRunInfo('Test2')
+        TestClassRunInfo test3 = new DefaultTestClassRunInfo('Test3')
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestResultProcessor workerResultProcessor
+
+        def processor = startPullBasedProcessor()
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+        processor.processTestClass(test3)
+        workerResultProcessor.started(new DefaultTestClassDescriptor(1, 'Test2'), new TestStartEvent(100))
+        workerResultProcessor.completed(1, new TestCompleteEvent(200))
+        processor.stop()
+
+        then:
+        2 * factory.create() >>> [processor1, processor2]
+        1 * processor1.processTestClass(test1) >> { throw new RuntimeException('broken') }
+        1 * processor2.startProcessing(!null) >> { workerResultProcessor = it[0] }
+        1 * processor2.processTestClass(test2)
+        1 * processor2.processTestClass(test3)
+        0 * processor1.processTestClass(test3)
+        1 * processor1.stop()
+        1 * processor2.stop()
+    }
+
+    def pullBasedStopDoesNotWaitForQueuedTestClassesWhenAllProcessorsHaveFailed() {
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+
+        def processor = startPullBasedProcessor()
+
+        when:
+        (1..4).each { processor.processTestClass(new DefaultTestClassRunInfo("Test$it")) }
+        processor.stop()
+
+        then:
+        2 * factory.create() >>> [processor1, processor2]
+        1 * processor1.processTestClass(_) >> { throw new RuntimeException('broken') }
+        1 * processor2.processTestClass(_) >> { throw new RuntimeException('broken') }
+        1 * processor1.stop()
+        1 * processor2.stop()
+    }
+
+    def pullBasedStopsHandingTestClassesToProcessorWhichFailsAfterAcceptingATestClass() {
+        TestClassRunInfo test1 = new DefaultTestClassRunInfo('Test1')
+        TestClassRunInfo test2 = new DefaultTestClassRunInfo('Test2')
+        TestClassRunInfo test3 = new DefaultTestClassRunInfo('Test3')
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestResultProcessor workerResultProcessor1
+        TestResultProcessor workerResultProcessor2
+
+        def processor = startPullBasedProcessor()
+
+        when:
+        processor.processTestClass(test1)
+        processor.processTestClass(test2)
+        processor.processTestClass(test3)
+        ((TestClassProcessorFailureListener) workerResultProcessor1).processorFailed(new RuntimeException('broken'))
+        workerResultProcessor2.started(new DefaultTestClassDescriptor(1, 'Test2'), new TestStartEvent(100))
+        workerResultProcessor2.completed(1, new TestCompleteEvent(200))
+        processor.stop()
+
+        then:
+        2 * factory.create() >>> [processor1, processor2]
+        1 * processor1.startProcessing(!null) >> { workerResultProcessor1 = it[0] }
+        1 * processor2.startProcessing(!null) >> { workerResultProcessor2 = it[0] }
+        1 * processor1.processTestClass(test1)
+        1 * processor2.processTestClass(test2)
+        1 * processor2.processTestClass(test3)
+        0 * processor1.processTestClass(test3)
+        1 * processor1.stop()
+        1 * processor2.stop()
+    }
+
+    def pullBasedStopDoesNotWaitForQueuedTestClassesWhenAllProcessorsDieAfterAcceptingATestClass() {
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        List<TestResultProcessor> workerResultProcessors = []
+
+        def processor = startPullBasedProcessor()
+
+        when:
+        (1..4).each { processor.processTestClass(new DefaultTestClassRunInfo("Test$it")) }
+        def thread = Thread.start {
+            Thread.sleep(200)
+            workerResultProcessors.each { it.processorFailed(new RuntimeException('worker exited')) }
+        }
+        processor.stop()
+        thread.join()
+
+        then:
+        2 * factory.create() >>> [processor1, processor2]
+        1 * processor1.startProcessing(!null) >> { workerResultProcessors << it[0] }
+        1 * processor2.startProcessing(!null) >> { workerResultProcessors << it[0] }
+        1 * processor1.processTestClass(_)
+        1 * processor2.processTestClass(_)
+        1 * processor1.stop()
+        1 * processor2.stop()
+    }
+
+    def startPullBasedProcessor(Comparator<TestClassRunInfo> order = null) {
+        def processor = new MaxNParallelTestClassProcessor(2, factory, actorFactory, true, order)
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        _ * actorFactory.createActor({ it instanceof TestClassProcessor }) >> { new SynchronousActor(it[0]) }
+        processor.startProcessing(resultProcessor)
+        return processor
+    }
+
+    /**
+     * An actor which dispatches to its target in the calling thread, and which discards failures, as the failures of
+     * a real actor are not rethrown until it is stopped.
+     */
+    private static class SynchronousActor implements Actor {
+        private final TestClassProcessor target
+
+        SynchronousActor(TestClassProcessor target) {
+            this.target = target
+        }
+
+        public <T> T getProxy(Class<T> type) {
+            return [
+                    startProcessing: { resultProcessor -> discardFailure { target.startProcessing(resultProcessor) } },
+                    processTestClass: { testClass -> discardFailure { target.processTestClass(testClass) } },
+                    stop: { target.stop() }
+            ].asType(type)
+        }
+
+        private void discardFailure(Closure action) {
+            try {
+                action.call()
+            } catch (RuntimeException e) {
+                // Ignore
+            }
+        }
+
+        void dispatch(MethodInvocation message) {
+            throw new UnsupportedOperationException()
+        }
+
+        void stop() {
+        }
+    }
 }
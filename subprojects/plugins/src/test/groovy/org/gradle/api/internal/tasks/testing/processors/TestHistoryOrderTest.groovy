@@ -0,0 +1,49 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.tasks.testing.TestClassHistory
+import org.gradle.api.tasks.testing.TestHistory
+import org.gradle.api.tasks.testing.TestResult
+import spock.lang.Specification
+
+class TestHistoryOrderTest extends Specification {
+    private final Map<String, TestClassHistory> classes = [:]
+    private final TestHistory history = { className -> classes[className] } as TestHistory
+    private final TestHistoryOrder order = new TestHistoryOrder(history)
+
+    def ordersFailedClassesFirstThenNewClassesThenLongestFirst() {
+        given:
+        classes.slow = classHistory(500, TestResult.ResultType.SUCCESS)
+        classes.fast = classHistory(10, TestResult.ResultType.SUCCESS)
+        classes.medium = classHistory(100, TestResult.ResultType.SKIPPED)
+        classes.failedFast = classHistory(5, TestResult.ResultType.FAILURE)
+        classes.failedSlow = classHistory(1000, TestResult.ResultType.FAILURE)
+
+        when:
+        def sorted = ['fast', 'new2', 'slow', 'failedFast', 'medium', 'new1', 'failedSlow'].collect {
+            new DefaultTestClassRunInfo(it)
+        }.sort(order)
+
+        then:
+        sorted*.testClassName == ['failedSlow', 'failedFast', 'new1', 'new2', 'slow', 'medium', 'fast']
+    }
+
+    private TestClassHistory classHistory(long duration, TestResult.ResultType resultType) {
+        return [getDuration: { duration }, getResultType: { resultType }] as TestClassHistory
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.testing.results
+
+import org.gradle.api.invocation.Gradle
+import org.gradle.api.tasks.testing.TestDescriptor
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.CacheRepository
+import org.gradle.cache.PersistentCache
+import org.gradle.cache.PersistentIndexedCache
+import spock.lang.Specification
+
+class PersistentTestHistoryTest extends Specification {
+    private final Gradle gradle = Mock()
+    private final CacheRepository cacheRepository = Mock()
+    private final CacheBuilder cacheBuilder = Mock()
+    private final PersistentCache persistentCache = Mock()
+    private final Map<String, Object> entries = [:]
+    private final PersistentIndexedCache<String, Object> indexedCache = [
+            get: { key -> entries[key] },
+            put: { key, value -> entries[key] = value }
+    ] as PersistentIndexedCache
+
+    def setup() {
+        _ * cacheRepository.cache('testHistory') >> cacheBuilder
+        _ * cacheBuilder.forObject(gradle) >> cacheBuilder
+        _ * cacheBuilder.open() >> persistentCache
+        _ * persistentCache.openIndexedCache(!null) >> indexedCache
+    }
+
+    def hasNoHistoryForUnknownClass() {
+        def history = new PersistentTestHistory(':test', gradle, cacheRepository)
+
+        expect:
+        history.getClassHistory('org.gradle.SomeTest') == null
+    }
+
+    def recordsDurationAndResultOfEachTestClass() {
+        def history = new PersistentTestHistory(':test', gradle, cacheRepository)
+
+        when:
+        history.afterSuite(suite('org.gradle.SomeTest'), result(TestResult.ResultType.FAILURE, 100, 350))
+        history.afterSuite(suite('org.gradle.OtherTest'), result(TestResult.ResultType.SUCCESS, 100, 120))
+        history.afterSuite(suite(null), result(TestResult.ResultType.FAILURE, 0, 1000))
+        history.persist()
+
+        then:
+        entries.keySet() == [':test:org.gradle.SomeTest', ':test:org.gradle.OtherTest'] as Set
+
+        def copy = new PersistentTestHistory(':test', gradle, cacheRepository)
+        copy.getClassHistory('org.gradle.SomeTest').duration == 250
+        copy.getClassHistory('org.gradle.SomeTest').resultType == TestResult.ResultType.FAILURE
+        copy.getClassHistory('org.gradle.OtherTest').duration == 20
+        copy.getClassHistory('org.gradle.OtherTest').resultType == TestResult.ResultType.SUCCESS
+    }
+
+    def resultsAreNotVisibleUntilPersisted() {
+        def history = new PersistentTestHistory(':test', gradle, cacheRepository)
+        history.afterSuite(suite('org.gradle.SomeTest'), result(TestResult.ResultType.SUCCESS, 100, 200))
+        history.persist()
+
+        when:
+        history.afterSuite(suite('org.gradle.SomeTest'), result(TestResult.ResultType.FAILURE, 100, 400))
+
+        then:
+        history.getClassHistory('org.gradle.SomeTest').resultType == TestResult.ResultType.SUCCESS
+
+        when:
+        history.persist()
+
+        then:
+        history.getClassHistory('org.gradle.SomeTest').resultType == TestResult.ResultType.FAILURE
+        history.getClassHistory('org.gradle.SomeTest').duration == 300
+    }
+
+    def historyIsKeptForEachTask() {
+        def history = new PersistentTestHistory(':test', gradle, cacheRepository)
+        history.afterSuite(suite('org.gradle.SomeTest'), result(TestResult.ResultType.SUCCESS, 100, 200))
+        history.persist()
+
+        expect:
+        new PersistentTestHistory(':other:test', gradle, cacheRepository).getClassHistory('org.gradle.SomeTest') == null
+    }
+
+    private TestDescriptor suite(String className) {
+        return [getClassName: { className }] as TestDescriptor
+    }
+
+    private TestResult result(TestResult.ResultType resultType, long startTime, long endTime) {
+        return [getResultType: { resultType }, getStartTime: { startTime }, getEndTime: { endTime }] as TestResult
+    }
+}
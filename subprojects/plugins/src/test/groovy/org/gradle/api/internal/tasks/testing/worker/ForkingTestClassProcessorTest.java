@@ -18,17 +18,21 @@ package org.gradle.api.internal.tasks.testing.worker;
 
 import org.gradle.api.Action;
 import org.gradle.api.internal.Factory;
+import org.gradle.api.internal.tasks.testing.TestClassProcessorFailureListener;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.messaging.remote.ObjectConnection;
 import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.ExecException;
 import org.gradle.process.internal.JavaExecHandleBuilder;
 import org.gradle.process.internal.WorkerProcess;
 import org.gradle.process.internal.WorkerProcessBuilder;
 import org.jmock.Expectations;
+import org.jmock.api.Invocation;
 import org.jmock.integration.junit4.JMock;
 import org.jmock.integration.junit4.JUnit4Mockery;
+import org.jmock.lib.action.CustomAction;
 import org.jmock.lib.legacy.ClassImposteriser;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -37,7 +41,8 @@ import java.io.File;
 import java.util.List;
 
 import static java.util.Arrays.asList;
-import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
 
 @RunWith(JMock.class)
 public class ForkingTestClassProcessorTest {
@@ -51,6 +56,7 @@ public class ForkingTestClassProcessorTest {
     private final TestClassRunInfo test1 = context.mock(TestClassRunInfo.class, "test1");
     private final TestClassRunInfo test2 = context.mock(TestClassRunInfo.class, "test2");
     private final TestResultProcessor resultProcessor = context.mock(TestResultProcessor.class);
+    private Runnable stopAction;
     private final List<File> appClassPath = asList(new File("classpath.jar"));
     private final JavaForkOptions options = context.mock(JavaForkOptions.class);
     private final Action<WorkerProcessBuilder> action = context.mock(Action.class);
@@ -94,6 +100,69 @@ public class ForkingTestClassProcessorTest {
         processor.stop();
     }
 
+    @Test
+    public void requestsReusableWorkerProcessWhenEnabled() {
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(workerFactory, processorFactory, options, appClassPath, action, true);
+        expectWorkerProcessStarted(true);
+        context.checking(new Expectations() {{
+            one(worker).processTestClass(test1);
+        }});
+
+        processor.startProcessing(resultProcessor);
+        processor.processTestClass(test1);
+    }
+
+    @Test
+    public void notifiesResultProcessorWhenWorkerProcessStopsUnexpectedly() {
+        final FailureListeningResultProcessor resultProcessor = context.mock(FailureListeningResultProcessor.class);
+        expectWorkerProcessStarted(false, resultProcessor);
+        context.checking(new Expectations() {{
+            one(worker).processTestClass(test1);
+        }});
+
+        processor.startProcessing(resultProcessor);
+        processor.processTestClass(test1);
+
+        context.checking(new Expectations() {{
+            one(resultProcessor).processorFailed(with(notNullValue(ExecException.class)));
+        }});
+
+        stopAction.run();
+
+        context.checking(new Expectations() {{
+            one(worker).stop();
+            one(workerProcess).waitForStop();
+        }});
+
+        try {
+            processor.stop();
+            fail();
+        } catch (ExecException e) {
+            assertThat(e.getMessage(), containsString("stopped before all test classes were executed"));
+        }
+    }
+
+    @Test
+    public void doesNotNotifyResultProcessorWhenWorkerProcessStopsAfterEndOfProcessing() {
+        final FailureListeningResultProcessor resultProcessor = context.mock(FailureListeningResultProcessor.class);
+        expectWorkerProcessStarted(false, resultProcessor);
+        context.checking(new Expectations() {{
+            one(worker).processTestClass(test1);
+            one(worker).stop();
+            one(workerProcess).waitForStop();
+            will(new CustomAction("stop worker process") {
+                public Object invoke(Invocation invocation) throws Throwable {
+                    stopAction.run();
+                    return null;
+                }
+            });
+        }});
+
+        processor.startProcessing(resultProcessor);
+        processor.processTestClass(test1);
+        processor.stop();
+    }
+
     @Test
     public void onEndProcessingDoesNothingIfNoTestsProcessed() {
         processor.startProcessing(resultProcessor);
@@ -101,6 +170,14 @@ public class ForkingTestClassProcessorTest {
     }
 
     private void expectWorkerProcessStarted() {
+        expectWorkerProcessStarted(false);
+    }
+
+    private void expectWorkerProcessStarted(final boolean reuse) {
+        expectWorkerProcessStarted(reuse, resultProcessor);
+    }
+
+    private void expectWorkerProcessStarted(final boolean reuse, final TestResultProcessor resultProcessor) {
         context.checking(new Expectations() {{
             WorkerProcessBuilder builder = context.mock(WorkerProcessBuilder.class);
             ObjectConnection connection = context.mock(ObjectConnection.class);
@@ -113,7 +190,11 @@ public class ForkingTestClassProcessorTest {
 
             one(builder).applicationClasspath(appClassPath);
 
-            one(builder).setLoadApplicationInSystemClassLoader(true);
+            if (reuse) {
+                one(builder).setReuseProcess(true);
+            } else {
+                one(builder).setLoadApplicationInSystemClassLoader(true);
+            }
 
             one(action).execute(builder);
             
@@ -135,7 +216,18 @@ public class ForkingTestClassProcessorTest {
 
             one(workerProcess).start();
 
+            one(workerProcess).addStopAction(with(notNullValue(Runnable.class)));
+            will(new CustomAction("capture stop action") {
+                public Object invoke(Invocation invocation) throws Throwable {
+                    stopAction = (Runnable) invocation.getParameter(0);
+                    return null;
+                }
+            });
+
             one(worker).startProcessing();
         }});
     }
+
+    public interface FailureListeningResultProcessor extends TestResultProcessor, TestClassProcessorFailureListener {
+    }
 }